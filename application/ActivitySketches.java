@@ -0,0 +1,282 @@
+package databasePart1;
+
+import java.io.ByteArrayOutputStream;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Approximate activity analytics for one weekly window: a {@link HyperLogLog} of the
+ * distinct users who posted and a {@link CountMinSketch} of posts per user with its
+ * heavy-hitter heap. Fed from the question, answer and review insert paths in
+ * {@link DatabaseHelper} and persisted in the ActivitySketches table.
+ *
+ * <p>Windows start on Monday. All methods are synchronized so the insert paths and the
+ * analytics page can share one instance.</p>
+ *
+ * <p>Several processes may record into the same window of a shared database, so a
+ * save merges into the stored copy instead of replacing it. The posts recorded since
+ * the last save are kept apart as well: distinct-user registers merge by maximum and
+ * need no such record, but post counts only add up correctly if each post is added
+ * to the stored counters once. See {@link #takeUnsaved()}.</p>
+ */
+public class ActivitySketches {
+
+    /**
+     * Records taken from a window by {@link #takeUnsaved()} for merging into the stored
+     * sketches.
+     */
+    public static final class Unsaved {
+        private final HyperLogLog distinctUsers;
+        private final CountMinSketch posts;
+        private final int updates;
+
+        private Unsaved(HyperLogLog distinctUsers, CountMinSketch posts, int updates) {
+            this.distinctUsers = distinctUsers;
+            this.posts = posts;
+            this.updates = updates;
+        }
+    }
+
+    private final LocalDate windowStart;
+    private HyperLogLog distinctUsers;
+    private CountMinSketch posts;
+    /** Posts recorded since the last save. */
+    private CountMinSketch unsavedPosts;
+    private int pendingUpdates;
+
+    /**
+     * Creates empty sketches for the window starting on the given Monday.
+     *
+     * @param windowStart the first day of the window
+     */
+    public ActivitySketches(LocalDate windowStart) {
+        this(windowStart, new HyperLogLog(), new CountMinSketch());
+    }
+
+    /**
+     * Wraps existing sketches for a window.
+     *
+     * @param windowStart the first day of the window
+     * @param distinctUsers the distinct-user sketch
+     * @param posts the posts-per-user sketch
+     */
+    public ActivitySketches(LocalDate windowStart, HyperLogLog distinctUsers, CountMinSketch posts) {
+        this.windowStart = windowStart;
+        this.distinctUsers = distinctUsers;
+        this.posts = posts;
+        this.unsavedPosts = posts.emptyCopy();
+    }
+
+    /**
+     * Returns the start of the weekly window containing a day.
+     *
+     * @param day any day
+     * @return the Monday on or before that day
+     */
+    public static LocalDate windowStart(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * @return the first day of this window
+     */
+    public LocalDate getWindowStart() { return windowStart; }
+
+    /**
+     * Records one post by a user.
+     *
+     * @param userName the author of the post
+     */
+    public synchronized void record(String userName) {
+        distinctUsers.add(userName);
+        posts.add(userName);
+        unsavedPosts.add(userName);
+        pendingUpdates++;
+    }
+
+    /**
+     * @return the estimated number of distinct users active in this window
+     */
+    public synchronized long estimateDistinctUsers() {
+        return distinctUsers.estimate();
+    }
+
+    /**
+     * @return the relative standard error of {@link #estimateDistinctUsers()}
+     */
+    public synchronized double distinctUsersStandardError() {
+        return distinctUsers.standardError();
+    }
+
+    /**
+     * Returns the users with the most posts in this window, highest first.
+     * Counts never underestimate and overestimate by at most {@link #postCountErrorBound()}
+     * with high probability.
+     *
+     * @return the tracked top posters
+     */
+    public synchronized List<CountMinSketch.HeavyHitter> topPosters() {
+        return posts.topHitters();
+    }
+
+    /**
+     * @return the additive error bound on any single post count, in posts
+     */
+    public synchronized double postCountErrorBound() {
+        return posts.errorBound();
+    }
+
+    /**
+     * Returns how many records were added since the sketches were last saved.
+     * Used to decide when to persist them.
+     *
+     * @return the number of unsaved records
+     */
+    public synchronized int getPendingUpdates() {
+        return pendingUpdates;
+    }
+
+    /**
+     * Takes the records made since the last save, resetting the unsaved record count.
+     * The caller merges them into the stored sketches with {@link #absorb(Unsaved)},
+     * then either installs the result with {@link #adoptSaved(ActivitySketches)} or, if
+     * the save failed, hands them back with {@link #restoreUnsaved(Unsaved)}.
+     *
+     * @return the unsaved records
+     */
+    public synchronized Unsaved takeUnsaved() {
+        Unsaved unsaved = new Unsaved(HyperLogLog.fromBytes(distinctUsers.toBytes()), unsavedPosts, pendingUpdates);
+        unsavedPosts = posts.emptyCopy();
+        pendingUpdates = 0;
+        return unsaved;
+    }
+
+    /**
+     * Returns records taken by a save that failed, so the next save includes them.
+     *
+     * @param unsaved the records returned by {@link #takeUnsaved()}
+     */
+    public synchronized void restoreUnsaved(Unsaved unsaved) {
+        unsavedPosts.merge(unsaved.posts);
+        pendingUpdates += unsaved.updates;
+    }
+
+    /**
+     * Merges another window's unsaved records into these sketches, e.g. into a stored
+     * copy before it is written back.
+     *
+     * @param unsaved the records returned by {@link #takeUnsaved()}
+     */
+    public synchronized void absorb(Unsaved unsaved) {
+        distinctUsers.merge(unsaved.distinctUsers);
+        posts.merge(unsaved.posts);
+    }
+
+    /**
+     * Replaces these sketches with a saved copy, which also holds what other processes
+     * saved, keeping the records made since the copy was taken.
+     *
+     * @param saved the saved sketches; not used by the caller afterwards
+     */
+    public synchronized void adoptSaved(ActivitySketches saved) {
+        HyperLogLog users = saved.distinctUsers;
+        users.merge(distinctUsers);
+        CountMinSketch counts = saved.posts;
+        counts.merge(unsavedPosts);
+        distinctUsers = users;
+        posts = counts;
+    }
+
+    /**
+     * Merges this window's distinct-user sketch into a union across windows.
+     *
+     * @param union the union sketch
+     */
+    public synchronized void mergeDistinctUsersInto(HyperLogLog union) {
+        union.merge(distinctUsers);
+    }
+
+    /**
+     * @return the compressed distinct-user sketch
+     */
+    public synchronized byte[] distinctUsersBytes() {
+        return compress(distinctUsers.toBytes());
+    }
+
+    /**
+     * @return the compressed posts-per-user sketch
+     */
+    public synchronized byte[] postsBytes() {
+        return compress(posts.toBytes());
+    }
+
+    /**
+     * Restores sketches persisted with {@link #distinctUsersBytes()} and {@link #postsBytes()}.
+     *
+     * @param windowStart the first day of the window
+     * @param distinctUsersData the compressed distinct-user sketch
+     * @param postsData the compressed posts-per-user sketch
+     * @return the restored sketches
+     */
+    public static ActivitySketches fromBytes(LocalDate windowStart, byte[] distinctUsersData, byte[] postsData) {
+        return new ActivitySketches(windowStart,
+            HyperLogLog.fromBytes(decompress(distinctUsersData)),
+            CountMinSketch.fromBytes(decompress(postsData)));
+    }
+
+    /**
+     * Restores only the distinct-user sketch persisted with {@link #distinctUsersBytes()},
+     * for merging windows into a union estimate.
+     *
+     * @param distinctUsersData the compressed distinct-user sketch
+     * @return the restored HyperLogLog
+     */
+    public static HyperLogLog distinctUsersFromBytes(byte[] distinctUsersData) {
+        return HyperLogLog.fromBytes(decompress(distinctUsersData));
+    }
+
+    /**
+     * Deflates a serialized sketch; mostly-empty registers and counters compress well.
+     */
+    private static byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 16);
+        byte[] chunk = new byte[4096];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    /**
+     * Inflates a sketch produced by {@link #compress(byte[])}.
+     */
+    private static byte[] decompress(byte[] data) {
+        Inflater inflater = new Inflater();
+        inflater.setInput(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+        byte[] chunk = new byte[4096];
+        try {
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && inflater.needsInput()) {
+                    throw new IllegalArgumentException("truncated sketch data");
+                }
+                out.write(chunk, 0, n);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("corrupt sketch data", e);
+        } finally {
+            inflater.end();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,190 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a process's in-memory caches in step with writes made by other processes
+ * sharing the database.
+ *
+ * <p>Each cached data set ({@link Domain}) has a change counter in the CacheVersions
+ * table, incremented with {@link #changed} after every committed write to it. The
+ * process remembers the counter values its caches reflect. {@link #check} reads all
+ * counters in one query, at most once per {@link #CHECK_INTERVAL_NANOS}, and hands
+ * each domain whose counter moved to the invalidation callback, which drops that
+ * cache so it is reloaded on its next use. A write's own increment is recognized
+ * when no other process incremented the counter in between, so the writer keeps the
+ * caches it already updated in place.</p>
+ *
+ * <p>Embedded and in-memory databases are only written through this process, so
+ * there both calls do nothing.</p>
+ */
+public class CacheVersions {
+
+    /** Data sets cached in memory, one counter each. */
+    public enum Domain {
+        /** Questions, answers and reviews, see {@link QuestionGraphCache}. */
+        QUESTIONS,
+        /** Questions waiting for help, see {@link UnansweredQueue}. */
+        HELP_QUEUE,
+        /** Main question signatures, see {@link QuestionDuplicateIndex}. */
+        DUPLICATES,
+        /** Question and resolving answer text, see {@link SimilarQuestionIndex}. */
+        SIMILAR_QUESTIONS,
+        /** The active term. */
+        TERMS,
+        /** User names, emails and roles, see {@link UserSession}. */
+        USERS,
+        /** Reviewer scorecards, see {@link ReviewerLeaderboard}. */
+        SCORECARDS,
+        /** Moderation terms, see {@link ModerationFilter}. */
+        MODERATION_TERMS,
+        /** Weekly activity sketches, see {@link ActivitySketches}. */
+        ACTIVITY_SKETCHES
+    }
+
+    /**
+     * How long a shared database's caches are trusted before the counters are read
+     * again, so a write on another desktop shows up within this time.
+     */
+    public static final long CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final boolean shared;
+    private final Consumer<Domain> invalidate;
+
+    /** Counter value each domain's cache reflects; guarded by this. */
+    private final Map<Domain, Long> seen = new EnumMap<>(Domain.class);
+
+    /** When the counters were last read, in System.nanoTime() units. */
+    private volatile long checkedAt = 0;
+
+    /** True while a caller is reading the counters. */
+    private final AtomicBoolean checking = new AtomicBoolean(false);
+
+    /**
+     * Constructs the counters of one process.
+     *
+     * @param shared true if other processes may write the database
+     * @param invalidate drops a domain's cache; called without locks held here
+     */
+    public CacheVersions(boolean shared, Consumer<Domain> invalidate) {
+        this.shared = shared;
+        this.invalidate = invalidate;
+    }
+
+    /**
+     * Records the counter values the caches start from. Call before any cache is
+     * loaded, so no write can fall between a load and the value it is compared with.
+     *
+     * @param c the connection to read on
+     * @throws SQLException if the counters cannot be read
+     */
+    public void start(Connection c) throws SQLException {
+        if (!shared) {
+            return;
+        }
+        Map<Domain, Long> current = read(c);
+        synchronized (this) {
+            seen.putAll(current);
+        }
+        checkedAt = System.nanoTime();
+    }
+
+    /**
+     * Invalidates the caches of the domains other processes wrote since the last
+     * check, if that check is older than {@link #CHECK_INTERVAL_NANOS}. Call before
+     * reading a cache. One caller reads the counters while the others go on with
+     * the caches as they are. A failed read is logged and tried again after the interval.
+     *
+     * @param c the connection to read on
+     */
+    public void check(Connection c) {
+        if (!shared || System.nanoTime() - checkedAt < CHECK_INTERVAL_NANOS || !checking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Domain> moved = new ArrayList<>();
+            Map<Domain, Long> current = read(c);
+            synchronized (this) {
+                for (Map.Entry<Domain, Long> e : current.entrySet()) {
+                    if (!e.getValue().equals(seen.put(e.getKey(), e.getValue()))) {
+                        moved.add(e.getKey());
+                    }
+                }
+            }
+            // Outside the lock: the callbacks take the caches' locks, whose holders may call changed()
+            for (Domain domain : moved) {
+                invalidate.accept(domain);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            checkedAt = System.nanoTime();
+            checking.set(false);
+        }
+    }
+
+    /**
+     * Increments the counters of domains this process just wrote, so other processes
+     * drop their copies at their next check. Call after the write has committed. The
+     * data is already written when this runs, so a failure is logged rather than thrown.
+     *
+     * @param c the connection to write on, in auto-commit mode
+     * @param domains the domains written
+     */
+    public void changed(Connection c, Domain... domains) {
+        if (!shared || domains.length == 0) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("SELECT cache_name, version FROM FINAL TABLE "
+            + "(UPDATE CacheVersions SET version = version + 1 WHERE cache_name IN (");
+        for (int i = 0; i < domains.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append("))");
+        Map<Domain, Long> current = new EnumMap<>(Domain.class);
+        try (PreparedStatement pstmt = c.prepareStatement(sql.toString())) {
+            for (int i = 0; i < domains.length; i++) {
+                pstmt.setString(i + 1, domains[i].name());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    current.put(Domain.valueOf(rs.getString("cache_name")), rs.getLong("version"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return;
+        }
+        synchronized (this) {
+            for (Map.Entry<Domain, Long> e : current.entrySet()) {
+                Long before = seen.get(e.getKey());
+                // Only this write moved the counter; otherwise the next check invalidates
+                if (before != null && e.getValue() == before + 1) {
+                    seen.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+    }
+
+    private static Map<Domain, Long> read(Connection c) throws SQLException {
+        Map<Domain, Long> current = new EnumMap<>(Domain.class);
+        try (Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery("SELECT cache_name, version FROM CacheVersions")) {
+            while (rs.next()) {
+                current.put(Domain.valueOf(rs.getString("cache_name")), rs.getLong("version"));
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,580 @@
+package databasePart1;
+
+import application.Answer;
+import application.Answers;
+import application.Question;
+import application.Questions;
+import application.Review;
+import application.Reviews;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact, read-only snapshot of all questions, answers and reviews for in-memory navigation.
+ *
+ * <p>Instead of one object per question, answer and review, every column is a primitive
+ * array indexed by row. Ids map to rows through open-addressing int tables, and
+ * parent/child links (question to answers, clarifications and reviews, answer to
+ * reviews) are stored as offset arrays over flat child id arrays. Usernames are
+ * interned once per distinct user; titles and bodies are UTF-8 slices of one shared
+ * byte array and only become Strings when read. A semester of Q&amp;A therefore costs
+ * a handful of arrays rather than a graph of boxed objects.</p>
+ *
+ * <p>The store does not follow later writes; build a new one with
+ * {@link DatabaseHelper#loadCompactQAStore()} when a fresh view is needed.
+ * {@link #toQuestion(int)} and {@link #toAllQuestions()} materialize the usual
+ * model objects for pages that need them.</p>
+ */
+public class CompactQAStore {
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final String[] userNames;
+    private final TextArena text;
+
+    private final int[] questionIds;
+    private final int[] questionAuthors;
+    private final int[] questionTitles;
+    private final int[] questionTexts;
+    private final int[] questionParents;
+    private final BitSet questionResolved;
+    private final IntIndex questionRows;
+
+    private final int[] answerIds;
+    private final int[] answerQuestions;
+    private final int[] answerAuthors;
+    private final int[] answerTexts;
+    private final BitSet answerResolves;
+    private final IntIndex answerRows;
+
+    private final int[] reviewIds;
+    private final int[] reviewReviewers;
+    private final int[] reviewTexts;
+    private final IntIndex reviewRows;
+
+    private final Links answersByQuestion;
+    private final Links clarificationsByQuestion;
+    private final Links reviewsByQuestion;
+    private final Links reviewsByAnswer;
+
+    private CompactQAStore(Builder b) {
+        userNames = new String[b.userNames.size()];
+        for (Map.Entry<String, Integer> e : b.userNames.entrySet()) {
+            userNames[e.getValue()] = e.getKey();
+        }
+        text = b.text.trim();
+
+        questionIds = b.questionIds.toArray();
+        questionAuthors = b.questionAuthors.toArray();
+        questionTitles = b.questionTitles.toArray();
+        questionTexts = b.questionTexts.toArray();
+        questionParents = b.questionParents.toArray();
+        questionResolved = b.questionResolved;
+        questionRows = new IntIndex(questionIds);
+
+        answerIds = b.answerIds.toArray();
+        answerQuestions = b.answerQuestions.toArray();
+        answerAuthors = b.answerAuthors.toArray();
+        answerTexts = b.answerTexts.toArray();
+        answerResolves = b.answerResolves;
+        answerRows = new IntIndex(answerIds);
+
+        reviewIds = b.reviewIds.toArray();
+        reviewReviewers = b.reviewReviewers.toArray();
+        reviewTexts = b.reviewTexts.toArray();
+        reviewRows = new IntIndex(reviewIds);
+
+        answersByQuestion = new Links(questionRows, answerQuestions, answerIds);
+        clarificationsByQuestion = new Links(questionRows, questionParents, questionIds);
+        reviewsByQuestion = new Links(questionRows, b.reviewQuestions.toArray(), reviewIds);
+        reviewsByAnswer = new Links(answerRows, b.reviewAnswers.toArray(), reviewIds);
+    }
+
+    // ==================== QUESTIONS ====================
+
+    /**
+     * @return the number of questions, clarifications included
+     */
+    public int getQuestionCount() { return questionIds.length; }
+
+    /**
+     * Returns the ids of all main questions (clarifications excluded) in load order.
+     *
+     * @return the main question ids
+     */
+    public int[] getMainQuestionIds() {
+        int[] ids = new int[questionIds.length];
+        int n = 0;
+        for (int row = 0; row < questionIds.length; row++) {
+            if (questionParents[row] == 0) {
+                ids[n++] = questionIds[row];
+            }
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    /**
+     * @param questionId the question ID
+     * @return true if the question is in the store
+     */
+    public boolean hasQuestion(int questionId) { return questionRows.get(questionId) >= 0; }
+
+    /**
+     * @param questionId the question ID
+     * @return the author's username
+     */
+    public String getQuestionAuthor(int questionId) { return userNames[questionAuthors[questionRow(questionId)]]; }
+
+    /**
+     * @param questionId the question ID
+     * @return the question title
+     */
+    public String getQuestionTitle(int questionId) { return text.get(questionTitles[questionRow(questionId)]); }
+
+    /**
+     * @param questionId the question ID
+     * @return the question content
+     */
+    public String getQuestionText(int questionId) { return text.get(questionTexts[questionRow(questionId)]); }
+
+    /**
+     * @param questionId the question ID
+     * @return true if the question is resolved
+     */
+    public boolean isQuestionResolved(int questionId) { return questionResolved.get(questionRow(questionId)); }
+
+    /**
+     * @param questionId the question ID
+     * @return the parent question ID for a clarification, or 0 for a main question
+     */
+    public int getParentQuestionId(int questionId) { return questionParents[questionRow(questionId)]; }
+
+    /**
+     * @param questionId the question ID
+     * @return the ids of the question's answers
+     */
+    public int[] getAnswerIds(int questionId) { return answersByQuestion.of(questionRow(questionId)); }
+
+    /**
+     * @param questionId the question ID
+     * @return the ids of the question's clarifications
+     */
+    public int[] getClarificationIds(int questionId) { return clarificationsByQuestion.of(questionRow(questionId)); }
+
+    /**
+     * @param questionId the question ID
+     * @return the ids of the reviews written on the question itself
+     */
+    public int[] getQuestionReviewIds(int questionId) { return reviewsByQuestion.of(questionRow(questionId)); }
+
+    // ==================== ANSWERS ====================
+
+    /**
+     * @return the number of answers
+     */
+    public int getAnswerCount() { return answerIds.length; }
+
+    /**
+     * @param answerId the answer ID
+     * @return the ID of the question the answer belongs to
+     */
+    public int getAnswerQuestionId(int answerId) { return answerQuestions[answerRow(answerId)]; }
+
+    /**
+     * @param answerId the answer ID
+     * @return the author's username
+     */
+    public String getAnswerAuthor(int answerId) { return userNames[answerAuthors[answerRow(answerId)]]; }
+
+    /**
+     * @param answerId the answer ID
+     * @return the answer content
+     */
+    public String getAnswerText(int answerId) { return text.get(answerTexts[answerRow(answerId)]); }
+
+    /**
+     * @param answerId the answer ID
+     * @return true if the answer resolves its question
+     */
+    public boolean answerResolves(int answerId) { return answerResolves.get(answerRow(answerId)); }
+
+    /**
+     * @param answerId the answer ID
+     * @return the ids of the answer's reviews
+     */
+    public int[] getAnswerReviewIds(int answerId) { return reviewsByAnswer.of(answerRow(answerId)); }
+
+    // ==================== REVIEWS ====================
+
+    /**
+     * @return the number of reviews
+     */
+    public int getReviewCount() { return reviewIds.length; }
+
+    /**
+     * @param reviewId the review ID
+     * @return the reviewer's username
+     */
+    public String getReviewer(int reviewId) { return userNames[reviewReviewers[reviewRow(reviewId)]]; }
+
+    /**
+     * @param reviewId the review ID
+     * @return the review content
+     */
+    public String getReviewText(int reviewId) { return text.get(reviewTexts[reviewRow(reviewId)]); }
+
+    // ==================== MATERIALIZATION ====================
+
+    /**
+     * Builds the same Question graph as {@link DatabaseHelper#getQuestion(int)}:
+     * answers with their reviews, the question's reviews and the first clarification.
+     *
+     * @param questionId the question ID
+     * @return the Question, or null if it is not in the store
+     */
+    public Question toQuestion(int questionId) {
+        if (!hasQuestion(questionId)) {
+            return null;
+        }
+        Question question = new Question(getQuestionAuthor(questionId), getQuestionTitle(questionId),
+                                         getQuestionText(questionId), questionId);
+        question.setResolved(isQuestionResolved(questionId));
+        question.setAnswers(toAnswers(questionId));
+        question.setReviews(toReviews(getQuestionReviewIds(questionId), 0));
+        int[] clarifications = getClarificationIds(questionId);
+        if (clarifications.length > 0) {
+            question.setClarification(toQuestion(clarifications[0]));
+        }
+        return question;
+    }
+
+    /**
+     * Builds every main question as {@link DatabaseHelper#getAllQuestions()} does.
+     *
+     * @return all main questions
+     */
+    public Questions toAllQuestions() {
+        Questions questions = new Questions();
+        for (int id : getMainQuestionIds()) {
+            questions.addQuestion(toQuestion(id));
+        }
+        return questions;
+    }
+
+    private Answers toAnswers(int questionId) {
+        Answers answers = new Answers();
+        for (int answerId : getAnswerIds(questionId)) {
+            Answer a = new Answer(getAnswerAuthor(answerId), getAnswerText(answerId), questionId, answerId);
+            if (answerResolves(answerId)) {
+                a.setResolves();
+            }
+            a.setReviews(toReviews(getAnswerReviewIds(answerId), answerId));
+            answers.setAnswer(a);
+        }
+        return answers;
+    }
+
+    private Reviews toReviews(int[] ids, int answerId) {
+        Reviews reviews = new Reviews();
+        for (int reviewId : ids) {
+            Review review = new Review(getReviewText(reviewId), getReviewer(reviewId), reviewId);
+            if (answerId != 0) {
+                review.setAnswerId(answerId);
+            }
+            reviews.addReview(review);
+        }
+        return reviews;
+    }
+
+    /**
+     * Approximates the heap used by the store's arrays, excluding object headers.
+     *
+     * @return the approximate size in bytes
+     */
+    public long estimatedBytes() {
+        long ints = 6L * questionIds.length + 5L * answerIds.length + 4L * reviewIds.length
+                  + answersByQuestion.size() + clarificationsByQuestion.size()
+                  + reviewsByQuestion.size() + reviewsByAnswer.size()
+                  + questionRows.size() + answerRows.size() + reviewRows.size();
+        long names = 0;
+        for (String name : userNames) {
+            names += 40 + name.length();
+        }
+        return ints * 4 + text.size() + names + (questionIds.length + answerIds.length) / 8;
+    }
+
+    private int questionRow(int id) { return row(questionRows, id, "question"); }
+
+    private int answerRow(int id) { return row(answerRows, id, "answer"); }
+
+    private int reviewRow(int id) { return row(reviewRows, id, "review"); }
+
+    private static int row(IntIndex index, int id, String kind) {
+        int row = index.get(id);
+        if (row < 0) {
+            throw new IllegalArgumentException("Unknown " + kind + " id: " + id);
+        }
+        return row;
+    }
+
+    // ==================== BUILDER ====================
+
+    /**
+     * Collects rows for a {@link CompactQAStore}. Rows may arrive in any order; children
+     * whose parent is never added are kept but unreachable from it.
+     */
+    public static class Builder {
+        private final Map<String, Integer> userNames = new HashMap<>();
+        private final TextArena text = new TextArena();
+
+        private final IntList questionIds = new IntList();
+        private final IntList questionAuthors = new IntList();
+        private final IntList questionTitles = new IntList();
+        private final IntList questionTexts = new IntList();
+        private final IntList questionParents = new IntList();
+        private final BitSet questionResolved = new BitSet();
+
+        private final IntList answerIds = new IntList();
+        private final IntList answerQuestions = new IntList();
+        private final IntList answerAuthors = new IntList();
+        private final IntList answerTexts = new IntList();
+        private final BitSet answerResolves = new BitSet();
+
+        private final IntList reviewIds = new IntList();
+        private final IntList reviewReviewers = new IntList();
+        private final IntList reviewTexts = new IntList();
+        private final IntList reviewQuestions = new IntList();
+        private final IntList reviewAnswers = new IntList();
+
+        /**
+         * Adds a question or clarification.
+         *
+         * @param id the question ID
+         * @param userName the author's username
+         * @param title the question title
+         * @param body the question content
+         * @param parentId the parent question ID, or 0 for a main question
+         * @param resolved true if the question is resolved
+         * @return this builder
+         */
+        public Builder addQuestion(int id, String userName, String title, String body, int parentId,
+                                   boolean resolved) {
+            questionResolved.set(questionIds.size(), resolved);
+            questionIds.add(id);
+            questionAuthors.add(intern(userName));
+            questionTitles.add(text.add(title));
+            questionTexts.add(text.add(body));
+            questionParents.add(parentId);
+            return this;
+        }
+
+        /**
+         * Adds an answer.
+         *
+         * @param id the answer ID
+         * @param questionId the ID of the answered question
+         * @param userName the author's username
+         * @param body the answer content
+         * @param resolves true if the answer resolves its question
+         * @return this builder
+         */
+        public Builder addAnswer(int id, int questionId, String userName, String body, boolean resolves) {
+            answerResolves.set(answerIds.size(), resolves);
+            answerIds.add(id);
+            answerQuestions.add(questionId);
+            answerAuthors.add(intern(userName));
+            answerTexts.add(text.add(body));
+            return this;
+        }
+
+        /**
+         * Adds a review of a question or an answer.
+         *
+         * @param id the review ID
+         * @param reviewer the reviewer's username
+         * @param body the review content
+         * @param questionId the reviewed question ID, or 0
+         * @param answerId the reviewed answer ID, or 0
+         * @return this builder
+         */
+        public Builder addReview(int id, String reviewer, String body, int questionId, int answerId) {
+            reviewIds.add(id);
+            reviewReviewers.add(intern(reviewer));
+            reviewTexts.add(text.add(body));
+            reviewQuestions.add(questionId);
+            reviewAnswers.add(answerId);
+            return this;
+        }
+
+        /**
+         * @return the finished store
+         */
+        public CompactQAStore build() {
+            return new CompactQAStore(this);
+        }
+
+        private int intern(String userName) {
+            String key = userName == null ? "" : userName;
+            Integer slot = userNames.get(key);
+            if (slot == null) {
+                slot = userNames.size();
+                userNames.put(key, slot);
+            }
+            return slot;
+        }
+    }
+
+    // ==================== PRIMITIVE STORAGE ====================
+
+    /**
+     * Growable int array used while building.
+     */
+    private static class IntList {
+        private int[] values = new int[64];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() { return size; }
+
+        int[] toArray() { return Arrays.copyOf(values, size); }
+    }
+
+    /**
+     * UTF-8 text stored back to back in one byte array; slot i spans
+     * {@code starts[i]} to {@code starts[i + 1]}. Slot -1 stands for null.
+     */
+    private static class TextArena {
+        private byte[] data = new byte[4096];
+        private int length = 0;
+        private int[] starts = new int[] { 0 };
+        private int slots = 0;
+
+        int add(String s) {
+            if (s == null) {
+                return -1;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            if (length + bytes.length > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + bytes.length));
+            }
+            System.arraycopy(bytes, 0, data, length, bytes.length);
+            length += bytes.length;
+            if (slots + 1 == starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+            }
+            starts[++slots] = length;
+            return slots - 1;
+        }
+
+        String get(int slot) {
+            if (slot < 0) {
+                return null;
+            }
+            return new String(data, starts[slot], starts[slot + 1] - starts[slot], StandardCharsets.UTF_8);
+        }
+
+        TextArena trim() {
+            data = Arrays.copyOf(data, length);
+            starts = Arrays.copyOf(starts, slots + 1);
+            return this;
+        }
+
+        long size() { return data.length + 4L * starts.length; }
+    }
+
+    /**
+     * Open-addressing map from id to row, built once over an id column.
+     */
+    private static class IntIndex {
+        private static final int EMPTY = Integer.MIN_VALUE;
+        private final int[] keys;
+        private final int[] rows;
+        private final int mask;
+
+        IntIndex(int[] ids) {
+            int capacity = Integer.highestOneBit(Math.max(4, ids.length * 2 - 1)) << 1;
+            keys = new int[capacity];
+            rows = new int[capacity];
+            mask = capacity - 1;
+            Arrays.fill(keys, EMPTY);
+            for (int row = 0; row < ids.length; row++) {
+                int slot = slot(ids[row]);
+                while (keys[slot] != EMPTY && keys[slot] != ids[row]) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = ids[row];
+                rows[slot] = row;
+            }
+        }
+
+        int get(int id) {
+            int slot = slot(id);
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == id) {
+                    return rows[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        int size() { return keys.length * 2; }
+
+        private int slot(int id) {
+            int h = id * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+
+    /**
+     * Children grouped by parent row: the children of parent row p are
+     * {@code children[offsets[p]]} up to {@code children[offsets[p + 1]]}, in load order.
+     */
+    private static class Links {
+        private final int[] offsets;
+        private final int[] children;
+
+        Links(IntIndex parentRows, int[] parentIds, int[] childIds) {
+            int[] parentRowOfChild = new int[childIds.length];
+            int maxRow = -1;
+            for (int i = 0; i < childIds.length; i++) {
+                parentRowOfChild[i] = parentIds[i] == 0 ? -1 : parentRows.get(parentIds[i]);
+                maxRow = Math.max(maxRow, parentRowOfChild[i]);
+            }
+            offsets = new int[maxRow + 2];
+            for (int row : parentRowOfChild) {
+                if (row >= 0) {
+                    offsets[row + 1]++;
+                }
+            }
+            for (int p = 1; p < offsets.length; p++) {
+                offsets[p] += offsets[p - 1];
+            }
+            children = new int[offsets[offsets.length - 1]];
+            int[] next = Arrays.copyOf(offsets, offsets.length);
+            for (int i = 0; i < childIds.length; i++) {
+                if (parentRowOfChild[i] >= 0) {
+                    children[next[parentRowOfChild[i]]++] = childIds[i];
+                }
+            }
+        }
+
+        int[] of(int parentRow) {
+            if (parentRow + 1 >= offsets.length) {
+                return NO_IDS;
+            }
+            return Arrays.copyOfRange(children, offsets[parentRow], offsets[parentRow + 1]);
+        }
+
+        int size() { return offsets.length + children.length; }
+    }
+}
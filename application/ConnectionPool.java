@@ -0,0 +1,124 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed-size pool of extra connections to the database of a {@link DatabaseHelper}.
+ *
+ * <p>Connections are opened on demand up to the pool size and reused afterwards.
+ * A caller that finds every connection in use waits up to the borrow timeout, so a
+ * burst of requests queues in front of the database instead of opening a connection
+ * per request. Connections are returned in auto-commit mode; one that was closed or
+ * broken while borrowed is dropped and replaced on a later borrow.</p>
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private final DatabaseHelper databaseHelper;
+    private final BlockingQueue<Connection> idle;
+    private final Semaphore permits;
+    private final long borrowTimeoutMillis;
+    private volatile boolean closed = false;
+
+    /**
+     * Constructs a ConnectionPool. No connection is opened until the first borrow.
+     *
+     * @param databaseHelper the helper whose database the connections reach
+     * @param size the maximum number of connections
+     * @param borrowTimeoutMillis how long {@link #borrow()} waits for a free connection
+     */
+    public ConnectionPool(DatabaseHelper databaseHelper, int size, long borrowTimeoutMillis) {
+        this.databaseHelper = databaseHelper;
+        this.idle = new ArrayBlockingQueue<>(size);
+        this.permits = new Semaphore(size, true);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+    }
+
+    /**
+     * Takes a connection from the pool, opening one if none is idle. The caller must
+     * hand it back with {@link #release(Connection)}.
+     *
+     * @return a connection in auto-commit mode
+     * @throws SQLException if the pool is closed, no connection frees up in time, or opening fails
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("No database connection free after " + borrowTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        try {
+            Connection c = idle.poll();
+            return c != null ? c : databaseHelper.openConnection();
+        } catch (SQLException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool.
+     *
+     * @param c the connection; may be null, in which case nothing happens
+     */
+    public void release(Connection c) {
+        if (c == null) {
+            return;
+        }
+        try {
+            if (closed || c.isClosed()) {
+                c.close();
+            } else {
+                if (!c.getAutoCommit()) {
+                    c.rollback();
+                    c.setAutoCommit(true);
+                }
+                if (!idle.offer(c)) {
+                    c.close();
+                }
+            }
+        } catch (SQLException e) {
+            // A connection that cannot be reset is not reused
+            try {
+                c.close();
+            } catch (SQLException ignored) {
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return the number of connections that can be borrowed without waiting
+     */
+    public int available() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Closes the idle connections and refuses further borrows. Borrowed connections
+     * are closed as they are released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Connection c;
+        while ((c = idle.poll()) != null) {
+            try {
+                c.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
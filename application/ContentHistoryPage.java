@@ -0,0 +1,161 @@
+package databasePart1;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a student's questions and answers, newest first, as returned by
+ * {@link DatabaseHelper#getStudentContentHistoryPage}.
+ *
+ * <p>Pages are cut by keyset rather than offset: each page ends with a {@link Cursor}
+ * holding the sort key of its last item, and the next page starts strictly after it.
+ * Items are ordered by creation time, then id, then content type, so the order is
+ * total even when a question and an answer share a timestamp and an id. Reading
+ * page N costs the same as reading page 1, and content posted while paging never
+ * shifts later pages.</p>
+ */
+public class ContentHistoryPage {
+
+    /** Page size used when callers do not ask for a specific one. */
+    public static final int DEFAULT_PAGE_SIZE = 25;
+
+    /** Largest page a caller may ask for. */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Position after which the next page starts.
+     */
+    public static class Cursor {
+        private final Timestamp createdDate;
+        private final int id;
+        private final String contentType;
+
+        /**
+         * Constructs a Cursor.
+         *
+         * @param createdDate the creation time of the last item read
+         * @param id the id of the last item read
+         * @param contentType the content type of the last item read (QUESTION or ANSWER)
+         */
+        public Cursor(Timestamp createdDate, int id, String contentType) {
+            this.createdDate = createdDate;
+            this.id = id;
+            this.contentType = contentType;
+        }
+
+        /**
+         * @return the creation time of the last item read
+         */
+        public Timestamp getCreatedDate() { return createdDate; }
+
+        /**
+         * @return the id of the last item read
+         */
+        public int getId() { return id; }
+
+        /**
+         * @return the content type of the last item read
+         */
+        public String getContentType() { return contentType; }
+    }
+
+    /**
+     * A question or answer in a student's history.
+     */
+    public static class Item {
+        private final String contentType;
+        private final int id;
+        private final int questionId;
+        private final String title;
+        private final String text;
+        private final boolean resolved;
+        private final Timestamp createdDate;
+
+        /**
+         * Constructs an Item.
+         *
+         * @param contentType QUESTION or ANSWER
+         * @param id the question or answer id
+         * @param questionId the question's id, or for an answer the id of the question it answers
+         * @param title the question's title
+         * @param text the question or answer text
+         * @param resolved for a question whether it is resolved, for an answer whether it resolves
+         * @param createdDate when the content was posted
+         */
+        public Item(String contentType, int id, int questionId, String title, String text,
+                    boolean resolved, Timestamp createdDate) {
+            this.contentType = contentType;
+            this.id = id;
+            this.questionId = questionId;
+            this.title = title;
+            this.text = text;
+            this.resolved = resolved;
+            this.createdDate = createdDate;
+        }
+
+        /**
+         * @return QUESTION or ANSWER
+         */
+        public String getContentType() { return contentType; }
+
+        /**
+         * @return the question or answer id
+         */
+        public int getId() { return id; }
+
+        /**
+         * @return the question's id, or for an answer the id of the question it answers
+         */
+        public int getQuestionId() { return questionId; }
+
+        /**
+         * @return the question's title
+         */
+        public String getTitle() { return title; }
+
+        /**
+         * @return the question or answer text
+         */
+        public String getText() { return text; }
+
+        /**
+         * @return for a question whether it is resolved, for an answer whether it resolves
+         */
+        public boolean isResolved() { return resolved; }
+
+        /**
+         * @return when the content was posted
+         */
+        public Timestamp getCreatedDate() { return createdDate; }
+    }
+
+    private final List<Item> items;
+    private final Cursor next;
+
+    /**
+     * Constructs a ContentHistoryPage.
+     *
+     * @param items the page's items, newest first
+     * @param next the cursor for the following page, or null if this is the last page
+     */
+    public ContentHistoryPage(List<Item> items, Cursor next) {
+        this.items = Collections.unmodifiableList(items);
+        this.next = next;
+    }
+
+    /**
+     * @return the page's items, newest first
+     */
+    public List<Item> getItems() { return items; }
+
+    /**
+     * @return the cursor for the following page, or null if this is the last page
+     */
+    public Cursor getNext() { return next; }
+
+    /**
+     * @return true if another page follows
+     */
+    public boolean hasNext() { return next != null; }
+}
@@ -0,0 +1,270 @@
+package databasePart1;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A count-min sketch with a bounded heavy-hitter heap, used for approximate
+ * "top posters" analytics without GROUP BY scans.
+ *
+ * <p>With width {@code w = ceil(e / epsilon)} and depth {@code d = ceil(ln(1 / delta))},
+ * every frequency estimate is at least the true count and, with probability at least
+ * {@code 1 - delta}, exceeds it by no more than {@code epsilon * N}, where {@code N}
+ * is the total of all counts added. The defaults (epsilon 0.005, delta 0.01) use
+ * 5 rows of 544 counters.</p>
+ *
+ * <p>Alongside the counters the sketch keeps a min-heap of the {@code k} keys with the
+ * highest estimates seen so far, so the heaviest hitters can be read without
+ * enumerating keys. Instances are not thread-safe; callers synchronize externally.</p>
+ */
+public class CountMinSketch {
+
+    /** Default additive error as a fraction of the total count. */
+    public static final double DEFAULT_EPSILON = 0.005;
+
+    /** Default probability that an estimate exceeds the error bound. */
+    public static final double DEFAULT_DELTA = 0.01;
+
+    /** Default number of heavy hitters tracked. */
+    public static final int DEFAULT_TOP_K = 10;
+
+    /**
+     * A key and its estimated count.
+     */
+    public static class HeavyHitter {
+        private final String key;
+        private final long count;
+
+        /**
+         * Constructs a HeavyHitter.
+         *
+         * @param key the tracked key
+         * @param count the key's estimated count
+         */
+        public HeavyHitter(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        /**
+         * @return the tracked key
+         */
+        public String getKey() { return key; }
+
+        /**
+         * @return the key's estimated count
+         */
+        public long getCount() { return count; }
+    }
+
+    private final int width;
+    private final int depth;
+    private final int topK;
+    private final int[] counts;
+    private long total;
+
+    /** Heavy-hitter candidates by key, mirrored by a min-heap on their estimates. */
+    private final Map<String, HeavyHitter> hitters = new HashMap<>();
+    private final PriorityQueue<HeavyHitter> hitterHeap =
+        new PriorityQueue<>((a, b) -> Long.compare(a.count, b.count));
+
+    /**
+     * Creates an empty sketch with the default error bounds and top-k size.
+     */
+    public CountMinSketch() {
+        this(DEFAULT_EPSILON, DEFAULT_DELTA, DEFAULT_TOP_K);
+    }
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param epsilon additive error as a fraction of the total count
+     * @param delta probability that an estimate exceeds the error bound
+     * @param topK number of heavy hitters to track
+     */
+    public CountMinSketch(double epsilon, double delta, int topK) {
+        this((int) Math.ceil(Math.E / epsilon), (int) Math.ceil(Math.log(1.0 / delta)), topK);
+    }
+
+    private CountMinSketch(int width, int depth, int topK) {
+        this.width = width;
+        this.depth = depth;
+        this.topK = topK;
+        this.counts = new int[width * depth];
+    }
+
+    /**
+     * Adds one occurrence of a key.
+     *
+     * @param key the key to count
+     */
+    public void add(String key) {
+        add(key, 1);
+    }
+
+    /**
+     * Adds occurrences of a key and updates the heavy-hitter heap.
+     *
+     * @param key the key to count
+     * @param count the number of occurrences to add
+     */
+    public void add(String key, int count) {
+        long hash = HyperLogLog.hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = row * width + Math.floorMod(h1 + row * h2, width);
+            counts[cell] += count;
+            estimate = Math.min(estimate, counts[cell]);
+        }
+        total += count;
+        offerHitter(key, estimate);
+    }
+
+    /**
+     * Adds another sketch's counts to this one, so this sketch counts both streams.
+     * The heavy hitters of both are re-estimated against the combined counters.
+     *
+     * @param other a sketch with the same width and depth
+     */
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("cannot merge sketches of different dimensions");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        // Refresh this sketch's hitters before the other's compete with them
+        Set<String> keys = new LinkedHashSet<>(hitters.keySet());
+        keys.addAll(other.hitters.keySet());
+        for (String key : keys) {
+            offerHitter(key, estimate(key));
+        }
+    }
+
+    /**
+     * @return an empty sketch with this sketch's dimensions, which can be merged into it
+     */
+    public CountMinSketch emptyCopy() {
+        return new CountMinSketch(width, depth, topK);
+    }
+
+    /**
+     * Estimates how many times a key has been added. Never underestimates.
+     *
+     * @param key the key to look up
+     * @return the estimated count
+     */
+    public long estimate(String key) {
+        long hash = HyperLogLog.hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row * width + Math.floorMod(h1 + row * h2, width)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the tracked heavy hitters, highest estimate first.
+     *
+     * @return up to k heavy hitters
+     */
+    public List<HeavyHitter> topHitters() {
+        List<HeavyHitter> result = new ArrayList<>(hitters.values());
+        result.sort((a, b) -> Long.compare(b.count, a.count));
+        return result;
+    }
+
+    /**
+     * @return the total of all counts added
+     */
+    public long getTotal() { return total; }
+
+    /**
+     * Returns the additive error bound {@code epsilon * N} for the current total,
+     * which holds for any single estimate with probability at least {@code 1 - delta}.
+     *
+     * @return the current error bound in counts
+     */
+    public double errorBound() {
+        return Math.E / width * total;
+    }
+
+    /**
+     * Serializes the sketch: dimensions, total, counters and heavy-hitter keys.
+     * Heavy-hitter counts are not stored; they are re-estimated on load.
+     *
+     * @return the serialized sketch
+     */
+    public byte[] toBytes() {
+        List<byte[]> keys = new ArrayList<>();
+        int keyBytes = 0;
+        for (String key : hitters.keySet()) {
+            byte[] k = key.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            keys.add(k);
+            keyBytes += 4 + k.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4 * 4 + 8 + 4 * counts.length + keyBytes);
+        buffer.putInt(width).putInt(depth).putInt(topK).putLong(total);
+        for (int c : counts) {
+            buffer.putInt(c);
+        }
+        buffer.putInt(keys.size());
+        for (byte[] k : keys) {
+            buffer.putInt(k.length).put(k);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Restores a sketch produced by {@link #toBytes()}.
+     *
+     * @param data the serialized sketch
+     * @return the restored sketch
+     */
+    public static CountMinSketch fromBytes(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        CountMinSketch sketch = new CountMinSketch(buffer.getInt(), buffer.getInt(), buffer.getInt());
+        sketch.total = buffer.getLong();
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = buffer.getInt();
+        }
+        int keyCount = buffer.getInt();
+        for (int i = 0; i < keyCount; i++) {
+            byte[] k = new byte[buffer.getInt()];
+            buffer.get(k);
+            String key = new String(k, java.nio.charset.StandardCharsets.UTF_8);
+            sketch.offerHitter(key, sketch.estimate(key));
+        }
+        return sketch;
+    }
+
+    /**
+     * Records a key's new estimate in the heavy-hitter heap, evicting the smallest
+     * tracked key if the heap is full and the new estimate beats it.
+     */
+    private void offerHitter(String key, long estimate) {
+        HeavyHitter existing = hitters.get(key);
+        if (existing != null) {
+            hitterHeap.remove(existing);
+        } else if (hitters.size() >= topK) {
+            if (hitterHeap.peek().count >= estimate) {
+                return;
+            }
+            hitters.remove(hitterHeap.poll().key);
+        }
+        HeavyHitter updated = new HeavyHitter(key, estimate);
+        hitters.put(key, updated);
+        hitterHeap.add(updated);
+    }
+}
@@ -0,0 +1,169 @@
+package databasePart1;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Connection settings for {@link DatabaseHelper}.
+ *
+ * <p>Settings are read from system properties ({@code -Dfoundation.db.mode=client}),
+ * then from {@code database.properties} in the working directory (same keys without
+ * the {@code foundation.} prefix), then fall back to the original embedded defaults.</p>
+ *
+ * <p>Modes:</p>
+ * <ul>
+ *   <li><b>embedded</b> (default): the database file is opened in-process, so only
+ *       one JVM can use it.</li>
+ *   <li><b>server</b>: this process starts an H2 TCP server on {@code db.port}
+ *       (see {@link DatabaseServer}) and connects through it, so other instances can
+ *       connect as clients.</li>
+ *   <li><b>client</b>: connects to a server at {@code db.host}:{@code db.port}.</li>
+ *   <li><b>memory</b>: a private in-memory database named by {@code db.path}. It lives
+ *       only while a connection to it is open, so closing the {@link DatabaseHelper}
+ *       discards it; used by the tests (see {@link #inMemory(String)}).</li>
+ * </ul>
+ */
+public class DatabaseConfig {
+
+    /** Name of the optional settings file in the working directory. */
+    public static final String PROPERTIES_FILE = "database.properties";
+
+    /** Prefix for settings given as system properties. */
+    private static final String SYSTEM_PREFIX = "foundation.";
+
+    /** Connection modes. */
+    public enum Mode { EMBEDDED, SERVER, CLIENT, MEMORY }
+
+    private final Mode mode;
+    private final String path;
+    private final String host;
+    private final int port;
+    private final String user;
+    private final String password;
+
+    /**
+     * Constructs a configuration.
+     *
+     * @param mode how the database is reached
+     * @param path the database path, e.g. {@code ~/FoundationDatabase}
+     * @param host the server host for client mode
+     * @param port the server TCP port for server and client modes
+     * @param user the database user
+     * @param password the database password
+     */
+    public DatabaseConfig(Mode mode, String path, String host, int port, String user, String password) {
+        this.mode = mode;
+        this.path = path;
+        this.host = host;
+        this.port = port;
+        this.user = user;
+        this.password = password;
+    }
+
+    /**
+     * @return the settings the application has always used: the embedded file {@code ~/FoundationDatabase}
+     */
+    public static DatabaseConfig defaults() {
+        return new DatabaseConfig(Mode.EMBEDDED, "~/FoundationDatabase", "localhost", 9092, "sa", "");
+    }
+
+    /**
+     * @param name the database name, unique within this JVM
+     * @return settings for a private in-memory database
+     */
+    public static DatabaseConfig inMemory(String name) {
+        return new DatabaseConfig(Mode.MEMORY, name, "localhost", 9092, "sa", "");
+    }
+
+    /**
+     * Loads settings from system properties and {@link #PROPERTIES_FILE}.
+     *
+     * @return the configuration
+     */
+    public static DatabaseConfig load() {
+        Properties file = new Properties();
+        Path settings = Paths.get(PROPERTIES_FILE);
+        if (Files.isReadable(settings)) {
+            try (InputStream in = new FileInputStream(settings.toFile())) {
+                file.load(in);
+            } catch (IOException e) {
+                System.err.println("Could not read " + PROPERTIES_FILE + ": " + e.getMessage());
+            }
+        }
+        DatabaseConfig d = defaults();
+        String mode = setting(file, "db.mode", d.mode.name());
+        String port = setting(file, "db.port", String.valueOf(d.port));
+        try {
+            return new DatabaseConfig(Mode.valueOf(mode.trim().toUpperCase()),
+                                      setting(file, "db.path", d.path),
+                                      setting(file, "db.host", d.host),
+                                      Integer.parseInt(port.trim()),
+                                      setting(file, "db.user", d.user),
+                                      setting(file, "db.password", d.password));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid database settings (mode=" + mode + ", port=" + port
+                               + "), using embedded defaults");
+            return d;
+        }
+    }
+
+    private static String setting(Properties file, String key, String fallback) {
+        return System.getProperty(SYSTEM_PREFIX + key, file.getProperty(key, fallback));
+    }
+
+    /**
+     * @return the JDBC URL for this configuration
+     */
+    public String getUrl() {
+        switch (mode) {
+            case SERVER:
+                return "jdbc:h2:tcp://localhost:" + port + "/" + path;
+            case CLIENT:
+                return "jdbc:h2:tcp://" + host + ":" + port + "/" + path;
+            case MEMORY:
+                return "jdbc:h2:mem:" + path;
+            default:
+                return "jdbc:h2:" + path;
+        }
+    }
+
+    /**
+     * @return how the database is reached
+     */
+    public Mode getMode() { return mode; }
+
+    /**
+     * @return the database path
+     */
+    public String getPath() { return path; }
+
+    /**
+     * @return the server host for client mode
+     */
+    public String getHost() { return host; }
+
+    /**
+     * @return the server TCP port
+     */
+    public int getPort() { return port; }
+
+    /**
+     * @return the database user
+     */
+    public String getUser() { return user; }
+
+    /**
+     * @return the database password
+     */
+    public String getPassword() { return password; }
+
+    @Override
+    public String toString() {
+        return mode.name().toLowerCase() + " " + getUrl();
+    }
+}
@@ -1,8 +1,13 @@
 package databasePart1;
 
 import java.sql.*;
-import java.util.UUID;
-import java.time.LocalDateTime;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
+import java.time.LocalDate;
 
 import application.User;
 import application.Question;
@@ -41,223 +46,242 @@ import application.TrustedReviewer;
  */
 public class DatabaseHelper {
 
-    // JDBC driver name and database URL 
-    static final String JDBC_DRIVER = "org.h2.Driver";   
-    static final String DB_URL = "jdbc:h2:~/FoundationDatabase";  
-
-    // Database credentials 
-    static final String USER = "sa"; 
-    static final String PASS = ""; 
+    // Database location and credentials, see DatabaseConfig 
+    private final DatabaseConfig config;
 
     private Connection connection = null;
-    private Statement statement = null; 
+
+    /** Read-only connection for staff reporting queries, opened on first use. */
+    private Connection reportingConnection = null;
+
+    /** SQL condition on a Questions row that puts it in the unanswered queue. */
+    static final String NEEDS_HELP = "(parent_question_id IS NULL AND NOT resolved AND NOT EXISTS "
+        + "(SELECT 1 FROM Answers a WHERE a.question_id = Questions.id AND a.resolves))";
+
+    /** Seconds a reporting query may run before it is cancelled. */
+    private static final int REPORTING_QUERY_TIMEOUT_SECONDS = 30;
+
+    /** Sketches for the current weekly window, loaded on first use. */
+    private ActivitySketches weeklySketches = null;
+
+    /** True when another process saved the weekly sketches since they were last read. */
+    private volatile boolean weeklySketchesStale = false;
+
+    /** Number of sketch updates between writes of the sketches to the database. */
+    private static final int SKETCH_FLUSH_INTERVAL = 50;
+
+    /** Orders this process's sketch saves, so each installs a newer stored copy. */
+    private final Object sketchSaveLock = new Object();
+
+    /** Fork-join engine for partitioned analytics recomputes, created on first use. */
+    private ParallelAnalyticsEngine analyticsEngine = null;
+
+    /** Derives reviewer scorecard inputs from reviews as they are written. */
+    private final ReviewerScorecardEngine scorecardEngine = new ReviewerScorecardEngine(this);
+
+    /** Reviewers ordered by trust score, loaded from ReviewerScorecards on first use. */
+    private final ReviewerLeaderboard reviewerLeaderboard = new ReviewerLeaderboard();
+
+    /** Assembled question graphs served by {@link #getQuestion(int)}. */
+    private final QuestionGraphCache questionCache = new QuestionGraphCache();
+
+    /** MinHash/LSH index of main questions, loaded from QuestionSignatures on first use. */
+    private final QuestionDuplicateIndex duplicateIndex = new QuestionDuplicateIndex();
+
+    /** BM25 index used to suggest similar resolved questions, built in the background at startup. */
+    private final SimilarQuestionIndex similarQuestions = new SimilarQuestionIndex(this);
+
+    /** Aho-Corasick prefilter that flags content containing a moderation term. */
+    private final ModerationFilter moderationFilter = new ModerationFilter();
+
+    /** Main questions still waiting for help, mirroring Questions.needs_help; loaded on first use. */
+    private final UnansweredQueue unansweredQueue = new UnansweredQueue();
+
+    /** Sessions of users who logged in through this helper, by username. */
+    private final Map<String, UserSession> sessions = new ConcurrentHashMap<>();
+
+    /** Issues invitation codes and sweeps used and expired ones. */
+    private final InvitationCodeService invitationCodes = new InvitationCodeService(this);
+
+    /** Moves closed staff records past their retention age into archive tables. */
+    private final RetentionService retention = new RetentionService(this);
+
+    /** Scores students by risk into StudentRiskScores, hourly and as their content changes. */
+    private final StudentRiskService riskService = new StudentRiskService(this);
+
+    /** Streams staff reports as CSV or JSON Lines. */
+    private final ReportExporter reportExporter = new ReportExporter(this);
+
+    /** Term set by staff with {@link #setActiveTerm(String)}; null follows the calendar. */
+    private volatile String activeTerm = null;
+
+    /** True once {@link #activeTerm} has been read from the Terms table. */
+    private volatile boolean activeTermLoaded = false;
+
+    /** True once the moderation prefilter has been compiled from ModerationTerms. */
+    private volatile boolean moderationTermsLoaded = false;
+
+    /** Incremented when another process changed ModerationTerms, so a compile already reading is not kept. */
+    private volatile long moderationTermsGeneration = 0;
+
+    /** Tells the caches above about writes made by other processes sharing the database. */
+    private final CacheVersions cacheVersions;
+
+    /** Width of ContentModeration.reason. */
+    private static final int MODERATION_REASON_LENGTH = 500;
+
+    /**
+     * Constructs a DatabaseHelper using the settings from {@link DatabaseConfig#load()}.
+     */
+    public DatabaseHelper() {
+        this(DatabaseConfig.load());
+    }
 
     /**
-     * Establishes connection to the H2 database and initializes required tables.
-     * This method must be called before any other database operations.
+     * Constructs a DatabaseHelper for the given database settings.
      *
-     * @throws SQLException if database connection fails or table creation encounters errors
+     * @param config where and how to reach the database
      */
-    public void connectToDatabase() throws SQLException {
-        try {
-            Class.forName(JDBC_DRIVER);
-            connection = DriverManager.getConnection(DB_URL, USER, PASS);
-            statement = connection.createStatement(); 
-            // statement.execute("DROP ALL OBJECTS"); // (optional) clear DB
+    public DatabaseHelper(DatabaseConfig config) {
+        this.config = config;
+        this.cacheVersions = new CacheVersions(isShared(), this::invalidateCache);
+    }
+
+    /**
+     * True when other processes may write the same database (server and client modes).
+     * Then every write here increments the change counters of the caches it touches,
+     * and every cache read first lets {@link CacheVersions#check} drop the caches
+     * other processes wrote, at most {@link CacheVersions#CHECK_INTERVAL_NANOS} late.
+     */
+    private boolean isShared() {
+        return config.getMode() == DatabaseConfig.Mode.SERVER || config.getMode() == DatabaseConfig.Mode.CLIENT;
+    }
 
-            createTables();  // Create the necessary tables if they don't exist
-        } catch (ClassNotFoundException e) {
-            System.err.println("JDBC Driver not found: " + e.getMessage());
+    /**
+     * Drops one domain's in-memory copy after another process wrote it, so it is
+     * reloaded on its next use. Loads that may already be reading take the same lock
+     * or check a generation, so none installs data read before the write.
+     */
+    private void invalidateCache(CacheVersions.Domain domain) {
+        switch (domain) {
+            case QUESTIONS:
+                questionCache.clear();
+                break;
+            case HELP_QUEUE:
+                unansweredQueue.invalidate();
+                break;
+            case DUPLICATES:
+                synchronized (this) {
+                    duplicateIndex.invalidate();
+                }
+                break;
+            case SIMILAR_QUESTIONS:
+                similarQuestions.startBuild();
+                break;
+            case TERMS:
+                synchronized (this) {
+                    activeTermLoaded = false;
+                }
+                break;
+            case USERS:
+                sessions.clear();
+                break;
+            case SCORECARDS:
+                synchronized (this) {
+                    reviewerLeaderboard.invalidate();
+                }
+                break;
+            case MODERATION_TERMS:
+                moderationTermsGeneration++;
+                moderationTermsLoaded = false;
+                break;
+            case ACTIVITY_SKETCHES:
+                weeklySketchesStale = true;
+                break;
         }
     }
-    
-    
+
     /**
-     * Creates staff-specific tables if they don't exist
-     */
-    private void createStaffTables() throws SQLException {
-        // Staff Discussion Board Table
-        String staffDiscussionTable = "CREATE TABLE IF NOT EXISTS StaffDiscussions ("
-            + "id INT AUTO_INCREMENT PRIMARY KEY, "
-            + "staff_id VARCHAR(255), "
-            + "title VARCHAR(500), "
-            + "content VARCHAR(2000), "
-            + "created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
-            + "is_private BOOLEAN DEFAULT TRUE, "
-            + "FOREIGN KEY (staff_id) REFERENCES cse360users(userName)"
-            + ")";
-        statement.execute(staffDiscussionTable);
-
-        // Staff Escalation Requests Table
-        String escalationTable = "CREATE TABLE IF NOT EXISTS StaffEscalations ("
-            + "id INT AUTO_INCREMENT PRIMARY KEY, "
-            + "staff_id VARCHAR(255), "
-            + "student_id VARCHAR(255), "
-            + "issue_type VARCHAR(100), "
-            + "description VARCHAR(2000), "
-            + "priority VARCHAR(50) DEFAULT 'MEDIUM', "
-            + "status VARCHAR(50) DEFAULT 'OPEN', "
-            + "created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
-            + "resolved_date TIMESTAMP, "
-            + "resolved_by VARCHAR(255), "
-            + "FOREIGN KEY (staff_id) REFERENCES cse360users(userName), "
-            + "FOREIGN KEY (student_id) REFERENCES cse360users(userName), "
-            + "FOREIGN KEY (resolved_by) REFERENCES cse360users(userName)"
-            + ")";
-        statement.execute(escalationTable);
-
-        // Content Moderation Log Table
-        String moderationLogTable = "CREATE TABLE IF NOT EXISTS StaffModerationLog ("
-            + "id INT AUTO_INCREMENT PRIMARY KEY, "
-            + "staff_id VARCHAR(255), "
-            + "content_type VARCHAR(50), "
-            + "content_id INT, "
-            + "action VARCHAR(100), "
-            + "original_content VARCHAR(2000), "
-            + "modified_content VARCHAR(2000), "
-            + "moderation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
-            + "FOREIGN KEY (staff_id) REFERENCES cse360users(userName)"
-            + ")";
-        statement.execute(moderationLogTable);
+     * Tells other processes sharing the database that a committed write changed these domains.
+     */
+    private void changed(CacheVersions.Domain... domains) {
+        cacheVersions.changed(connection, domains);
     }
-    
-    
 
     /**
-     * Creates all required database tables if they don't exist.
-     * Includes tables for users, questions, answers, reviews, and administrative features.
+     * Establishes connection to the H2 database and brings its schema up to date
+     * (see {@link SchemaMigrations}). This method must be called before any other
+     * database operations. In server mode the TCP server is started first if this
+     * process is not hosting it yet; it keeps running after this helper is closed.
+     * Everything else (the active term, moderation terms, in-memory indexes) loads on
+     * first use or in the background, so an up-to-date database is ready after a
+     * single query.
      *
-     * @throws SQLException if table creation fails
+     * @throws SQLException if database connection fails or a schema migration fails
      */
-    private void createTables() throws SQLException {
-        // User table
-        String userTable = "CREATE TABLE IF NOT EXISTS cse360users ("
-                + "id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "userName VARCHAR(255) UNIQUE, "
-                + "password VARCHAR(255), "
-                + "userRole VARCHAR(255), "
-                + "name VARCHAR(255), "
-                + "email VARCHAR(255))";
-        statement.execute(userTable);
-        
-        // Invitation codes table
-        String invitationCodesTable = "CREATE TABLE IF NOT EXISTS InvitationCodes ("
-                + "code VARCHAR(4) PRIMARY KEY, "
-                + "userRole VARCHAR(200), "
-                + "isUsed BOOLEAN DEFAULT FALSE, "
-                + "userTime TIMESTAMP )";
-        statement.execute(invitationCodesTable);
-        
-        // Questions table - ADD created_date column
-        String questionTable = "CREATE TABLE IF NOT EXISTS Questions ("
-                + "id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "parent_question_id INT, "
-                + "userName VARCHAR(255), "
-                + "title VARCHAR(255), "
-                + "text VARCHAR(500), "
-                + "resolved BOOLEAN DEFAULT FALSE, "
-                + "created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " 
-                + "FOREIGN KEY (parent_question_id) REFERENCES Questions(id) ON DELETE CASCADE"
-                + ")";
-        statement.execute(questionTable);
-        
-        // Answers table - ADD created_date column  
-        String answerTable = "CREATE TABLE IF NOT EXISTS Answers ("
-                + "id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "text VARCHAR(500) NOT NULL, "
-                + "userName VARCHAR(255), "
-                + "resolves BOOLEAN DEFAULT FALSE, "
-                + "question_id INT NOT NULL, "
-                + "created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " 
-                + "FOREIGN KEY (question_id) REFERENCES Questions(id) ON DELETE CASCADE"
-                + ")";
-        statement.execute(answerTable);
-        
-        // === INTEGRATED: Reviews table with question_id  ===
-        String reviewTable = "CREATE TABLE IF NOT EXISTS Reviews ("
-            + "id INT AUTO_INCREMENT PRIMARY KEY, "
-            + "text VARCHAR(500) NOT NULL, "
-            + "reviewer VARCHAR(255), "
-            + "question_id INT, "  
-            + "answer_id INT, "    
-            + "FOREIGN KEY (question_id) REFERENCES Questions(id) ON DELETE CASCADE, "
-            + "FOREIGN KEY (answer_id) REFERENCES Answers(id) ON DELETE CASCADE"
-            + ")";
-        statement.execute(reviewTable);
-        
-        // === FROM TEAM VERSION: Trusted Reviewers table ===
-        String trustedReviewersTable = "CREATE TABLE IF NOT EXISTS TrustedReviewers ("
-                + "id INT AUTO_INCREMENT PRIMARY KEY, "
-                + "userName VARCHAR(255), "            
-                + "trustedUserName VARCHAR(255), "     
-                + "FOREIGN KEY (userName) REFERENCES cse360users(userName) ON DELETE CASCADE, "
-                + "FOREIGN KEY (trustedUserName) REFERENCES cse360users(userName) ON DELETE CASCADE"
-                + ")";
-        statement.execute(trustedReviewersTable);
-        
-        // === FROM JOSH'S WORK: Instructor Feature Tables ===
-        
-        // Role Request Table
-        String roleRequestTable = "CREATE TABLE IF NOT EXISTS RoleRequests ("
-            + "id INT AUTO_INCREMENT PRIMARY KEY, "
-            + "student_id VARCHAR(255), "
-            + "request_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
-            + "status VARCHAR(50) DEFAULT 'PENDING', "
-            + "reviewed_by VARCHAR(255), "
-            + "review_date TIMESTAMP, "
-            + "FOREIGN KEY (student_id) REFERENCES cse360users(userName), "
-            + "FOREIGN KEY (reviewed_by) REFERENCES cse360users(userName)"
-            + ")";
-        statement.execute(roleRequestTable);
-        
-        // Content Moderation Table
-        String moderationTable = "CREATE TABLE IF NOT EXISTS ContentModeration ("
-            + "id INT AUTO_INCREMENT PRIMARY KEY, "
-            + "moderator_id VARCHAR(255), "
-            + "content_type VARCHAR(50), "
-            + "content_id INT, "
-            + "action VARCHAR(50), "
-            + "reason VARCHAR(500), "
-            + "moderated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
-            + "FOREIGN KEY (moderator_id) REFERENCES cse360users(userName)"
-            + ")";
-        statement.execute(moderationTable);
-        
-        // Reviewer Scorecard Table
-        String scorecardTable = "CREATE TABLE IF NOT EXISTS ReviewerScorecards ("
-            + "reviewer_id VARCHAR(255) PRIMARY KEY, "
-            + "review_count INT DEFAULT 0, "
-            + "average_rating DECIMAL(3,2) DEFAULT 0.0, "
-            + "helpfulness_score DECIMAL(3,2) DEFAULT 0.0, "
-            + "response_time_hours DECIMAL(5,2) DEFAULT 0.0, "
-            + "trust_score DECIMAL(3,2) DEFAULT 0.0, "
-            + "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
-            + "FOREIGN KEY (reviewer_id) REFERENCES cse360users(userName)"
-            + ")";
-        statement.execute(scorecardTable);
-        
-        // Admin Request Table
-        String adminRequestTable = "CREATE TABLE IF NOT EXISTS AdminRequests ("
-            + "id INT AUTO_INCREMENT PRIMARY KEY, "
-            + "instructor_id VARCHAR(255), "
-            + "description VARCHAR(1000), "
-            + "status VARCHAR(50) DEFAULT 'OPEN', "
-            + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
-            + "closed_at TIMESTAMP, "
-            + "closed_by VARCHAR(255), "
-            + "original_request_id INT, "
-            + "FOREIGN KEY (instructor_id) REFERENCES cse360users(userName), "
-            + "FOREIGN KEY (closed_by) REFERENCES cse360users(userName), "
-            + "FOREIGN KEY (original_request_id) REFERENCES AdminRequests(id)"
-            + ")";
-        statement.execute(adminRequestTable);
-        
-       
-        
-        // === FROM TEAM'S UPDATE: Add weight column to TrustedReviewers ===
-        statement.execute("ALTER TABLE TrustedReviewers ADD COLUMN IF NOT EXISTS weight INT DEFAULT 3");
-        
-        createStaffTables();
+    public void connectToDatabase() throws SQLException {
+        if (config.getMode() == DatabaseConfig.Mode.SERVER) {
+            DatabaseServer.start(config);
+        }
+        connection = openConnection();
+
+        SchemaMigrations.migrate(connection);  // One version check unless the schema is out of date
+        cacheVersions.start(connection);
+        similarQuestions.startBuild();
+        invitationCodes.startSweeper();
+        retention.start();
+        riskService.start();
+    }
+
+    /**
+     * Opens an additional connection to the same database. Used by background and
+     * parallel work that must not share this helper's connection; the caller closes it.
+     *
+     * @return a new connection
+     * @throws SQLException if the connection cannot be opened
+     */
+    Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
+    }
+
+    /**
+     * Prepares a reporting query on the read-only reporting connection.
+     *
+     * <p>Long staff scans run here instead of on the main connection, so they never
+     * hold up writes: H2 serializes statements per connection, and under MVCC a reader
+     * on another connection takes no locks and sees a consistent snapshot of committed
+     * data. The statement is cancelled after {@link #REPORTING_QUERY_TIMEOUT_SECONDS}
+     * and closes with its result set.</p>
+     *
+     * @param sql the query
+     * @return the prepared statement
+     * @throws SQLException if the reporting connection cannot be opened
+     */
+    private PreparedStatement prepareReportingQuery(String sql) throws SQLException {
+        PreparedStatement pstmt = getReportingConnection().prepareStatement(sql);
+        pstmt.setQueryTimeout(REPORTING_QUERY_TIMEOUT_SECONDS);
+        pstmt.closeOnCompletion();
+        return pstmt;
+    }
+
+    /**
+     * Runs a query on a statement of its own that closes with the returned ResultSet.
+     * The main connection is shared by the pages, the staff API and background work,
+     * so a statement is never reused: re-executing it would close another caller's results.
+     */
+    private ResultSet query(String sql) throws SQLException {
+        Statement s = connection.createStatement();
+        s.closeOnCompletion();
+        return s.executeQuery(sql);
+    }
+
+    private synchronized Connection getReportingConnection() throws SQLException {
+        if (reportingConnection == null || reportingConnection.isClosed()) {
+            reportingConnection = openConnection();
+            reportingConnection.setReadOnly(true);
+            reportingConnection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        }
+        return reportingConnection;
     }
 
     // ==================== CORE METHODS ====================
@@ -271,9 +295,11 @@ public class DatabaseHelper {
      */
     public boolean isDatabaseEmpty() throws SQLException {
         String query = "SELECT COUNT(*) AS count FROM cse360users";
-        ResultSet resultSet = statement.executeQuery(query);
-        if (resultSet.next()) {
-            return resultSet.getInt("count") == 0;
+        try (Statement s = connection.createStatement();
+             ResultSet resultSet = s.executeQuery(query)) {
+            if (resultSet.next()) {
+                return resultSet.getInt("count") == 0;
+            }
         }
         return true;
     }
@@ -317,6 +343,8 @@ public class DatabaseHelper {
                     System.out.println("Login attempt - Username: " + user.getUserName());
                     System.out.println("Database role: " + dbRole);
                     System.out.println("User object role: " + userRole);
+                    sessions.put(rs.getString("userName"), new UserSession(rs.getString("userName"),
+                        rs.getString("name"), rs.getString("email"), dbRole));
                     return true; // username/password match -> allow login
                 }
             }
@@ -347,14 +375,26 @@ public class DatabaseHelper {
     /**
      * Deletes a user from the system by username.
      * Note: This will cascade delete related records due to foreign key constraints.
+     * The user's reviewer totals, which have no foreign key, and leaderboard entry go too.
      *
      * @param userName the username to delete
      */
     public void deleteUser(String userName) {
         String query = "DELETE FROM cse360users WHERE userName = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)){
+        try (PreparedStatement pstmt = connection.prepareStatement(query);
+             PreparedStatement stats = connection.prepareStatement(
+                 "DELETE FROM ReviewerScorecardStats WHERE reviewer_id = ?")) {
             pstmt.setString(1, userName);
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0) {
+                stats.setString(1, userName);
+                stats.executeUpdate();
+                // Under the leaderboard loader's lock, so a load that read the user first cannot bring them back
+                synchronized (this) {
+                    reviewerLeaderboard.remove(userName);
+                }
+                changed(CacheVersions.Domain.USERS, CacheVersions.Domain.SCORECARDS);
+            }
+            sessions.remove(userName);
         } catch(SQLException e) {
             e.printStackTrace();
         }
@@ -425,21 +465,38 @@ public class DatabaseHelper {
      * Codes expire 15 minutes after generation and are role-specific.
      *
      * @param userRole the role that this invitation code grants
-     * @return the generated 4-character invitation code
+     * @return the generated invitation code, or null if it could not be stored
      */
     public String generateInvitationCode(String userRole) {
-        String code = UUID.randomUUID().toString().substring(0, 4);
-        String insertCode = "INSERT INTO InvitationCodes (code, userRole, isUsed, userTime) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(insertCode)) {
-            pstmt.setString(1, code);
-            pstmt.setString(2, userRole);
-            pstmt.setBoolean(3, false);
-            pstmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now().plusMinutes(15)));
-            pstmt.executeUpdate();
+        try {
+            return invitationCodes.generateCodes(connection, userRole, 1, Duration.ofMinutes(15)).get(0);
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
-        return code;
+    }
+
+    /**
+     * Generates a batch of distinct invitation codes, e.g. for onboarding a course.
+     *
+     * @param userRole the role that the codes grant
+     * @param count the number of codes, up to {@link InvitationCodeService#MAX_BATCH}
+     * @param validity how long the codes can be redeemed
+     * @return the generated codes
+     * @throws SQLException if the codes cannot be stored
+     */
+    public List<String> generateInvitationCodes(String userRole, int count, Duration validity) throws SQLException {
+        return invitationCodes.generateCodes(connection, userRole, count, validity);
+    }
+
+    /**
+     * Deletes used and expired invitation codes now instead of waiting for the sweeper.
+     *
+     * @return the number of codes deleted
+     * @throws SQLException if database operation fails
+     */
+    public int purgeInvitationCodes() throws SQLException {
+        return invitationCodes.sweep(connection);
     }
     
     /**
@@ -491,17 +548,42 @@ public class DatabaseHelper {
      * @param parentId the parent question ID for clarifications, null for main questions
      */
     public void setQuestion(String userName, String title, String text, Integer parentId) {
-        String query = "INSERT INTO Questions (userName, title, text, parent_question_id) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        // Clarifications stay in their parent's term
+        String query = "INSERT INTO Questions (userName, title, text, parent_question_id, term, needs_help) "
+                     + "VALUES (?, ?, ?, ?, COALESCE((SELECT term FROM Questions WHERE id = ?), ?), ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, userName);
             pstmt.setString(2, title);
             pstmt.setString(3, text);
             if (parentId != null) {
                 pstmt.setInt(4, parentId);
+                pstmt.setInt(5, parentId);
             } else {
                 pstmt.setNull(4, java.sql.Types.INTEGER);
+                pstmt.setNull(5, java.sql.Types.INTEGER);
             }
+            pstmt.setString(6, getActiveTerm());
+            pstmt.setBoolean(7, parentId == null);
             pstmt.executeUpdate();
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    int questionId = generatedKeys.getInt(1);
+                    prefilter("QUESTION", questionId, title, text);
+                    if (parentId == null) {
+                        storeQuestionSignature(questionId, title, text);
+                        similarQuestions.refresh(connection, questionId);
+                        syncUnansweredQueue(questionId);
+                    }
+                }
+            }
+            if (parentId != null) {
+                questionCache.invalidateQuestion(parentId);
+                changed(CacheVersions.Domain.QUESTIONS);
+            } else {
+                changed(CacheVersions.Domain.DUPLICATES, CacheVersions.Domain.SIMILAR_QUESTIONS,
+                        CacheVersions.Domain.HELP_QUEUE);
+            }
+            recordActivity(userName, parentId == null ? "QUESTION" : "CLARIFICATION");
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -515,12 +597,26 @@ public class DatabaseHelper {
      * @param questionId the ID of the question being answered
      */
     public void setAnswer(String userName, String text, int questionId) {
-        String query = "INSERT INTO Answers (userName, text, question_id) VALUES (?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        // Answers stay in their question's term
+        String query = "INSERT INTO Answers (userName, text, question_id, term) "
+                     + "VALUES (?, ?, ?, COALESCE((SELECT term FROM Questions WHERE id = ?), ?))";
+        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, userName);
             pstmt.setString(2, text);
             pstmt.setInt(3, questionId);
+            pstmt.setInt(4, questionId);
+            pstmt.setString(5, getActiveTerm());
             pstmt.executeUpdate();
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    prefilter("ANSWER", generatedKeys.getInt(1), text);
+                }
+            }
+            // A new answer never resolves yet, so the question stays queued
+            unansweredQueue.answerAdded(questionId);
+            questionCache.invalidateQuestion(questionId);
+            changed(CacheVersions.Domain.HELP_QUEUE, CacheVersions.Domain.QUESTIONS);
+            recordActivity(userName, "ANSWER");
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -537,7 +633,12 @@ public class DatabaseHelper {
         try (PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, newText);
             ps.setInt(2, answerId);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) {
+                prefilter("ANSWER", answerId, newText);
+            }
+            questionCache.invalidateAnswer(answerId);
+            similarQuestions.refreshForAnswer(connection, answerId);
+            changed(CacheVersions.Domain.QUESTIONS, CacheVersions.Domain.SIMILAR_QUESTIONS);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -545,11 +646,31 @@ public class DatabaseHelper {
     
     /**
      * Retrieves a specific question by ID including its answers and reviews.
+     * Assembled questions are cached until one of their parts is written, here or,
+     * on a shared database, by another process.
      *
      * @param id the question ID
      * @return the Question object with complete details, or null if not found
      */
     public Question getQuestion(int id) {
+        cacheVersions.check(connection);
+        Question cached = questionCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = questionCache.loadStamp();
+        QuestionGraphCache.Footprint footprint = new QuestionGraphCache.Footprint();
+        Question question = loadQuestion(id, footprint);
+        if (question != null) {
+            questionCache.put(id, question, footprint, stamp);
+        }
+        return question;
+    }
+
+    /**
+     * Assembles a question graph from the database, recording its parts in the footprint.
+     */
+    private Question loadQuestion(int id, QuestionGraphCache.Footprint footprint) {
         String query = "SELECT id, userName, title, text, resolved FROM Questions WHERE id = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setInt(1, id);
@@ -562,8 +683,9 @@ public class DatabaseHelper {
                         rs.getInt("id")
                 );
                 question.setResolved(rs.getBoolean("resolved"));
-                question.setAnswers(getAnswers(question.getId()));
-                question.setReviews(getQuestionReviews(question.getId())); 
+                footprint.addQuestion(id, rs.getString("title"), rs.getString("text"));
+                question.setAnswers(loadAnswers(question.getId(), footprint));
+                question.setReviews(loadQuestionReviews(question.getId(), footprint)); 
 
                 // Fetch first clarification 
                 String subQuery = "SELECT id FROM Questions WHERE parent_question_id = ?";
@@ -571,7 +693,7 @@ public class DatabaseHelper {
                     subPstmt.setInt(1, question.getId());
                     ResultSet subRs = subPstmt.executeQuery();
                     if (subRs.next()) {
-                        question.setClarification(getQuestion(subRs.getInt("id")));
+                        question.setClarification(loadQuestion(subRs.getInt("id"), footprint));
                     }
                 }
                 return question;
@@ -583,14 +705,22 @@ public class DatabaseHelper {
     }
     
     /**
-     * Retrieves all main questions (excluding clarifications) from the database.
+     * Retrieves all main questions (excluding clarifications) of the active term.
      *
      * @return Questions object containing all main questions
      */
     public Questions getAllQuestions() {
+        return getLiveQuestions(getActiveTerm());
+    }
+
+    /**
+     * Retrieves the main questions of a term that is still in the live tables.
+     */
+    private Questions getLiveQuestions(String term) {
         Questions questions = new Questions();
-        String query = "SELECT * FROM Questions WHERE parent_question_id IS NULL";
+        String query = "SELECT * FROM Questions WHERE parent_question_id IS NULL AND term = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, term);
             ResultSet rs = pstmt.executeQuery();
             while(rs.next()) {
                 Question question = new Question(
@@ -617,6 +747,21 @@ public class DatabaseHelper {
         }
         return questions;
     }
+
+    /**
+     * Retrieves all main questions of a term. Archived terms are read from their
+     * own tables; other terms from the live tables.
+     *
+     * @param term the term code, e.g. 2026FA
+     * @return Questions object containing the term's main questions
+     * @throws SQLException if an archived term cannot be read
+     */
+    public Questions getAllQuestions(String term) throws SQLException {
+        if (isTermArchived(term)) {
+            return loadCompactQAStore(term).toAllQuestions();
+        }
+        return getLiveQuestions(TermRouter.validate(term));
+    }
     
     /**
      * Retrieves all answers for a specific question.
@@ -625,6 +770,13 @@ public class DatabaseHelper {
      * @return Answers object containing all answers for the question
      */
     public Answers getAnswers(int questionId) {
+        return loadAnswers(questionId, null);
+    }
+
+    /**
+     * Loads a question's answers and their reviews, recording them in the footprint if given.
+     */
+    private Answers loadAnswers(int questionId, QuestionGraphCache.Footprint footprint) {
         Answers answers = new Answers();
         String query = "SELECT id, text, userName, question_id, resolves FROM Answers WHERE question_id = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
@@ -640,7 +792,10 @@ public class DatabaseHelper {
                 if (rs.getBoolean("resolves")) {
                     a.setResolves();
                 }
-                a.setReviews(getAnswerReviews(a.getId()));
+                if (footprint != null) {
+                    footprint.addAnswer(a.getId(), rs.getString("text"));
+                }
+                a.setReviews(loadAnswerReviews(a.getId(), footprint));
                 answers.setAnswer(a);
             }
         } catch (SQLException e) {
@@ -649,6 +804,63 @@ public class DatabaseHelper {
         return answers;
     }
 
+    /**
+     * Loads every question, clarification, answer and review into a compact
+     * in-memory store with one sequential scan per table.
+     *
+     * @return a snapshot of all Q&amp;A content
+     * @throws SQLException if database query fails
+     */
+    public CompactQAStore loadCompactQAStore() throws SQLException {
+        return loadCompactQAStore("Questions", "Answers", "Reviews");
+    }
+
+    /**
+     * Loads an archived term's questions, answers and reviews into a compact store.
+     *
+     * @param term an archived term code
+     * @return a snapshot of the term's Q&amp;A content
+     * @throws SQLException if the term is not archived or the query fails
+     */
+    public CompactQAStore loadCompactQAStore(String term) throws SQLException {
+        if (!isTermArchived(term)) {
+            throw new SQLException("Term " + term + " is not archived");
+        }
+        return loadCompactQAStore(TermRouter.questionsTable(term), TermRouter.answersTable(term),
+                                  TermRouter.reviewsTable(term));
+    }
+
+    private CompactQAStore loadCompactQAStore(String questionsTable, String answersTable, String reviewsTable)
+            throws SQLException {
+        CompactQAStore.Builder builder = new CompactQAStore.Builder();
+        String questionsSql = "SELECT id, userName, title, text, parent_question_id, resolved FROM "
+                            + questionsTable + " ORDER BY id";
+        try (PreparedStatement pstmt = connection.prepareStatement(questionsSql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                builder.addQuestion(rs.getInt("id"), rs.getString("userName"), rs.getString("title"),
+                                    rs.getString("text"), rs.getInt("parent_question_id"), rs.getBoolean("resolved"));
+            }
+        }
+        String answersSql = "SELECT id, question_id, userName, text, resolves FROM " + answersTable + " ORDER BY id";
+        try (PreparedStatement pstmt = connection.prepareStatement(answersSql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                builder.addAnswer(rs.getInt("id"), rs.getInt("question_id"), rs.getString("userName"),
+                                  rs.getString("text"), rs.getBoolean("resolves"));
+            }
+        }
+        String reviewsSql = "SELECT id, reviewer, text, question_id, answer_id FROM " + reviewsTable + " ORDER BY id";
+        try (PreparedStatement pstmt = connection.prepareStatement(reviewsSql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                builder.addReview(rs.getInt("id"), rs.getString("reviewer"), rs.getString("text"),
+                                  rs.getInt("question_id"), rs.getInt("answer_id"));
+            }
+        }
+        return builder.build();
+    }
+
     /**
      * Inserts a new question and returns its generated ID.
      *
@@ -659,17 +871,27 @@ public class DatabaseHelper {
      */
     public int insertQuestion(String studentName, String title, String questionText) {
         try {
-            String sql = "INSERT INTO Questions (userName, title, text, parent_question_id) VALUES (?, ?, ?, ?)";
+            String sql = "INSERT INTO Questions (userName, title, text, parent_question_id, term, needs_help) "
+                       + "VALUES (?, ?, ?, ?, ?, TRUE)";
             try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
                 pstmt.setString(1, studentName);
                 pstmt.setString(2, title);
                 pstmt.setString(3, questionText);
                 pstmt.setNull(4, java.sql.Types.INTEGER);
+                pstmt.setString(5, getActiveTerm());
                 pstmt.executeUpdate();
+                recordActivity(studentName, "QUESTION");
                 
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
-                        return generatedKeys.getInt(1);
+                        int questionId = generatedKeys.getInt(1);
+                        prefilter("QUESTION", questionId, title, questionText);
+                        storeQuestionSignature(questionId, title, questionText);
+                        similarQuestions.refresh(connection, questionId);
+                        syncUnansweredQueue(questionId);
+                        changed(CacheVersions.Domain.DUPLICATES, CacheVersions.Domain.SIMILAR_QUESTIONS,
+                                CacheVersions.Domain.HELP_QUEUE);
+                        return questionId;
                     }
                 }
             }
@@ -689,10 +911,11 @@ public class DatabaseHelper {
      */
     public List<Question> getQuestionsByStudent(String studentName) {
         List<Question> questions = new ArrayList<>();
-        String query = "SELECT id, userName, title, text, resolved FROM Questions WHERE userName = ? AND parent_question_id IS NULL ORDER BY id DESC";
+        String query = "SELECT id, userName, title, text, resolved FROM Questions WHERE userName = ? AND parent_question_id IS NULL AND term = ? ORDER BY id DESC";
         
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, studentName);
+            pstmt.setString(2, getActiveTerm());
             ResultSet rs = pstmt.executeQuery();
             
             while (rs.next()) {
@@ -727,6 +950,19 @@ public class DatabaseHelper {
             pstmt.setString(2, newText);
             pstmt.setInt(3, questionId);
             int rowsUpdated = pstmt.executeUpdate();
+            questionCache.invalidateQuestion(questionId);
+            if (rowsUpdated > 0) {
+                prefilter("QUESTION", questionId, newTitle, newText);
+            }
+            if (rowsUpdated > 0 && isMainQuestion(questionId)) {
+                storeQuestionSignature(questionId, newTitle, newText);
+                similarQuestions.refresh(connection, questionId);
+                unansweredQueue.titleChanged(questionId, newTitle);
+                changed(CacheVersions.Domain.QUESTIONS, CacheVersions.Domain.DUPLICATES,
+                        CacheVersions.Domain.SIMILAR_QUESTIONS, CacheVersions.Domain.HELP_QUEUE);
+            } else if (rowsUpdated > 0) {
+                changed(CacheVersions.Domain.QUESTIONS);
+            }
             return rowsUpdated > 0;
         } catch (SQLException e) {
             System.err.println("Error updating question: " + e.getMessage());
@@ -742,11 +978,21 @@ public class DatabaseHelper {
      * @param resolves true if the answer resolves the question, false otherwise
      */
     public void answerResolves(int answerId, boolean resolves) {
-        String sql = "UPDATE Answers SET resolves = ? WHERE id = ?";
+        String sql = "UPDATE Answers SET resolves = ? WHERE id = ? AND resolves <> ?";
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setBoolean(1, resolves);
             pstmt.setInt(2, answerId);
-            pstmt.executeUpdate();
+            pstmt.setBoolean(3, resolves);
+            if (pstmt.executeUpdate() > 0) {
+                questionCache.invalidateAnswer(answerId);
+                similarQuestions.refreshForAnswer(connection, answerId);
+                refreshNeedsHelp(getQuestionIdOfAnswer(answerId));
+                changed(CacheVersions.Domain.QUESTIONS, CacheVersions.Domain.SIMILAR_QUESTIONS);
+                // Only a real change moves the answer's reviewers' helpfulness
+                for (String reviewer : scorecardEngine.applyResolvesChange(connection, answerId, resolves)) {
+                    refreshReviewerScorecard(reviewer);
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -764,6 +1010,10 @@ public class DatabaseHelper {
             pstmt.setBoolean(1, resolved);
             pstmt.setInt(2, questionId);
             pstmt.executeUpdate();
+            questionCache.invalidateQuestion(questionId);
+            similarQuestions.refresh(connection, questionId);
+            refreshNeedsHelp(questionId);
+            changed(CacheVersions.Domain.QUESTIONS, CacheVersions.Domain.SIMILAR_QUESTIONS);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -780,11 +1030,15 @@ public class DatabaseHelper {
      */
     public void addQuestionReview(int questionId, String reviewer, String text) {
         String query = "INSERT INTO Reviews (text, reviewer, question_id, answer_id) VALUES (?, ?, ?, NULL)";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, text);
             pstmt.setString(2, reviewer);
             pstmt.setInt(3, questionId);
             pstmt.executeUpdate();
+            questionCache.invalidateQuestion(questionId);
+            changed(CacheVersions.Domain.QUESTIONS);
+            recordActivity(reviewer, "REVIEW");
+            onReviewAdded(pstmt);
         } catch(SQLException e) {
             e.printStackTrace();
         }
@@ -799,11 +1053,15 @@ public class DatabaseHelper {
      */
     public void addAnswerReview(int answerId, String reviewer, String text) {
         String query = "INSERT INTO Reviews (text, reviewer, question_id, answer_id) VALUES (?, ?, NULL, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, text);
             pstmt.setString(2, reviewer);
             pstmt.setInt(3, answerId);
             pstmt.executeUpdate();
+            questionCache.invalidateAnswer(answerId);
+            changed(CacheVersions.Domain.QUESTIONS);
+            recordActivity(reviewer, "REVIEW");
+            onReviewAdded(pstmt);
         } catch(SQLException e) {
             e.printStackTrace();
         }
@@ -846,6 +1104,13 @@ public class DatabaseHelper {
      * @return Reviews object containing all reviews for the answer
      */
     public Reviews getAnswerReviews(int answerId) {
+        return loadAnswerReviews(answerId, null);
+    }
+
+    /**
+     * Loads an answer's reviews, recording them in the footprint if given.
+     */
+    private Reviews loadAnswerReviews(int answerId, QuestionGraphCache.Footprint footprint) {
         Reviews reviews = new Reviews();
         String query = "SELECT id, text, reviewer, answer_id FROM Reviews WHERE answer_id = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
@@ -855,6 +1120,9 @@ public class DatabaseHelper {
                 Review review = new Review(rs.getString("text"), rs.getString("reviewer"), rs.getInt("id"));
                 review.setAnswerId(answerId);
                 reviews.addReview(review);
+                if (footprint != null) {
+                    footprint.addReview(rs.getInt("id"), rs.getString("text"));
+                }
             }
         } catch(SQLException e) {
             e.printStackTrace();
@@ -869,6 +1137,13 @@ public class DatabaseHelper {
      * @return Reviews object containing all reviews for the question
      */
     public Reviews getQuestionReviews(int questionId) {
+        return loadQuestionReviews(questionId, null);
+    }
+
+    /**
+     * Loads a question's own reviews, recording them in the footprint if given.
+     */
+    private Reviews loadQuestionReviews(int questionId, QuestionGraphCache.Footprint footprint) {
         Reviews reviews = new Reviews();
         String query = "SELECT id, text, reviewer, question_id FROM Reviews WHERE question_id = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
@@ -877,6 +1152,9 @@ public class DatabaseHelper {
             while(rs.next()) {
                 Review review = new Review(rs.getString("text"), rs.getString("reviewer"), rs.getInt("question_id"));
                 reviews.addReview(review);
+                if (footprint != null) {
+                    footprint.addReview(rs.getInt("id"), rs.getString("text"));
+                }
             }
         } catch(SQLException e) {
             e.printStackTrace();
@@ -896,6 +1174,8 @@ public class DatabaseHelper {
             pstmt.setString(1, newText);
             pstmt.setInt(2, reviewId);
             pstmt.executeUpdate();
+            questionCache.invalidateReview(reviewId);
+            changed(CacheVersions.Domain.QUESTIONS);
         } catch(SQLException e) {
             e.printStackTrace();
         }
@@ -909,13 +1189,36 @@ public class DatabaseHelper {
     public void deleteReview(int reviewId) {
         String query = "DELETE FROM Reviews WHERE id = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            // Take the review out of its reviewer's totals while it can still be read
+            String reviewer = scorecardEngine.applyReview(connection, reviewId, -1);
             pstmt.setInt(1, reviewId);
             pstmt.executeUpdate();
+            questionCache.invalidateReview(reviewId);
+            changed(CacheVersions.Domain.QUESTIONS);
+            if (reviewer != null) {
+                refreshReviewerScorecard(reviewer);
+            }
         } catch(SQLException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Adds a just-inserted review to its reviewer's scorecard totals and refreshes the scorecard.
+     *
+     * @param insert the executed insert statement, created with generated keys
+     */
+    private void onReviewAdded(PreparedStatement insert) throws SQLException {
+        try (ResultSet generatedKeys = insert.getGeneratedKeys()) {
+            if (generatedKeys.next()) {
+                String reviewer = scorecardEngine.applyReview(connection, generatedKeys.getInt(1), 1);
+                if (reviewer != null) {
+                    refreshReviewerScorecard(reviewer);
+                }
+            }
+        }
+    }
+
     // ==================== TRUSTED REVIEWER METHODS ====================
 
     /**
@@ -972,6 +1275,7 @@ public class DatabaseHelper {
             pstmt.setString(1, userName);
             pstmt.setString(2, trustedUser.getUserName());
             pstmt.executeUpdate();
+            onTrustChanged(trustedUser.getUserName());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1038,7 +1342,10 @@ public class DatabaseHelper {
             pstmt.setString(1, newTrustedUser.getUserName());
             pstmt.setString(2, userName);
             pstmt.setString(3, oldTrustedUser.getUserName());
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0) {
+                onTrustChanged(oldTrustedUser.getUserName());
+                onTrustChanged(newTrustedUser.getUserName());
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1055,7 +1362,9 @@ public class DatabaseHelper {
         try(PreparedStatement pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, userName);
             pstmt.setString(2, trustedUser.getUserName());
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0) {
+                onTrustChanged(trustedUser.getUserName());
+            }
         } catch(SQLException e) {
             e.printStackTrace();
         }
@@ -1086,6 +1395,7 @@ public class DatabaseHelper {
                     ins.executeUpdate();
                 }
             }
+            onTrustChanged(trustedUserName);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1123,7 +1433,9 @@ public class DatabaseHelper {
         try (PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, userName);
             ps.setString(2, trustedUserName);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) {
+                onTrustChanged(trustedUserName);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1152,68 +1464,641 @@ public class DatabaseHelper {
         return res;
     }
 
-    // ==================== USER MANAGEMENT METHODS ====================
+    // ==================== TERM METHODS ====================
 
     /**
-     * Updates the roles assigned to a user.
+     * Returns the term new questions are filed under and live queries read.
+     * Unless staff have set one, this is the term of today's date.
      *
-     * @param userName the username to update
-     * @param roleString the new role string (can contain multiple comma-separated roles)
-     * @return true if update was successful, false otherwise
+     * @return the active term code
      */
-    public boolean updateUserRoles(String userName, String roleString) {
-        String sql = "UPDATE cse360users SET userRole = ? WHERE userName = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, roleString);
-            pstmt.setString(2, userName);
-            int updated = pstmt.executeUpdate();
-            return updated > 0;
-        } catch (SQLException e) {
-            System.err.println("Error updating user roles: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+    public String getActiveTerm() {
+        cacheVersions.check(connection);
+        if (!activeTermLoaded) {
+            loadActiveTerm();
         }
+        String term = activeTerm;
+        return term != null ? term : TermRouter.termFor(LocalDate.now());
     }
 
     /**
-     * Counts the number of admin users in the system.
+     * Makes a term the active term, e.g. at the start of a semester.
      *
-     * @return the number of users with admin role
+     * @param term the term code, e.g. 2026FA
+     * @throws SQLException if the term is archived or database update fails
      */
-    public int countAdmins() {
-        String sql = "SELECT COUNT(*) AS adminCount FROM cse360users WHERE userRole LIKE '%admin%'";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+    public synchronized void setActiveTerm(String term) throws SQLException {
+        TermRouter.validate(term);
+        if (isTermArchived(term)) {
+            throw new SQLException("Term " + term + " is archived");
+        }
+        try (Statement s = connection.createStatement()) {
+            s.executeUpdate("UPDATE Terms SET is_active = FALSE WHERE is_active");
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "MERGE INTO Terms (term, is_active) KEY (term) VALUES (?, TRUE)")) {
+            pstmt.setString(1, term);
+            pstmt.executeUpdate();
+        }
+        activeTerm = term;
+        activeTermLoaded = true;
+        changed(CacheVersions.Domain.TERMS);
+    }
+
+    private synchronized void loadActiveTerm() {
+        if (activeTermLoaded) {
+            return;
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT term FROM Terms WHERE is_active");
              ResultSet rs = pstmt.executeQuery()) {
-            if (rs.next()) {
-                return rs.getInt("adminCount");
-            }
+            activeTerm = rs.next() ? rs.getString("term") : null;
+            activeTermLoaded = true;
         } catch (SQLException e) {
-            System.err.println("Error counting admins: " + e.getMessage());
+            // Follow the calendar until the table can be read
             e.printStackTrace();
         }
-        return 0;
     }
 
     /**
-     * Safely retrieves user role, returning empty string instead of null.
+     * Checks whether a term's content has been moved to its archive tables.
      *
-     * @param userName the username to query
-     * @return the user's role or empty string if not found
+     * @param term the term code
+     * @return true if the term is archived
+     * @throws SQLException if database query fails
      */
-    public String getUserRoleSafe(String userName) {
-        String role = getUserRole(userName);
-        return role == null ? "" : role;
+    public boolean isTermArchived(String term) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT archived FROM Terms WHERE term = ?")) {
+            pstmt.setString(1, TermRouter.validate(term));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getBoolean("archived");
+            }
+        }
     }
 
     /**
-     * Retrieves all users from the system.
+     * Moves a past term's questions, answers and reviews out of the live tables
+     * into the term's own tables, in one transaction.
      *
-     * @return List of all User objects in the system
+     * @param term the term code; must not be the active term
+     * @return the number of questions moved, clarifications included
+     * @throws SQLException if the term is active or the move fails; nothing is moved then
+     */
+    public int archiveTerm(String term) throws SQLException {
+        TermRouter.validate(term);
+        if (term.equals(getActiveTerm())) {
+            throw new SQLException("Cannot archive the active term " + term);
+        }
+        String questions = TermRouter.questionsTable(term);
+        String answers = TermRouter.answersTable(term);
+        String reviews = TermRouter.reviewsTable(term);
+
+        int moved;
+        try (Connection c = openConnection()) {
+            // H2 commits DDL on its own, so the tables are created before the move starts;
+            // a failed move leaves them empty for the next attempt
+            try (Statement s = c.createStatement()) {
+                s.execute("CREATE TABLE IF NOT EXISTS " + questions + " AS SELECT * FROM Questions WITH NO DATA");
+                s.execute("CREATE TABLE IF NOT EXISTS " + answers + " AS SELECT * FROM Answers WITH NO DATA");
+                s.execute("CREATE TABLE IF NOT EXISTS " + reviews + " AS SELECT * FROM Reviews WITH NO DATA");
+                // The live tables' lookup and term indexes, so archived content reads the same way
+                s.execute("CREATE INDEX IF NOT EXISTS idx_" + questions + "_id ON " + questions + "(id)");
+                s.execute("CREATE INDEX IF NOT EXISTS idx_" + questions + "_term ON " + questions
+                    + "(term, parent_question_id)");
+                s.execute("CREATE INDEX IF NOT EXISTS idx_" + answers + "_term ON " + answers + "(term, userName)");
+            }
+            c.setAutoCommit(false);
+            try {
+                // Copy by name: columns added to the live tables after a term's tables exist stay behind
+                String reviewColumns = String.join(", ", RetentionService.sharedColumns(c, "Reviews", reviews));
+                String answerColumns = String.join(", ", RetentionService.sharedColumns(c, "Answers", answers));
+                String questionColumns = String.join(", ", RetentionService.sharedColumns(c, "Questions", questions));
+                try (PreparedStatement pstmt = c.prepareStatement("INSERT INTO " + reviews + " (" + reviewColumns
+                        + ") SELECT " + reviewColumns + " FROM Reviews "
+                        + "WHERE question_id IN (SELECT id FROM Questions WHERE term = ?) "
+                        + "OR answer_id IN (SELECT id FROM Answers WHERE term = ?)")) {
+                    pstmt.setString(1, term);
+                    pstmt.setString(2, term);
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = c.prepareStatement("INSERT INTO " + answers + " (" + answerColumns
+                        + ") SELECT " + answerColumns + " FROM Answers WHERE term = ?")) {
+                    pstmt.setString(1, term);
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = c.prepareStatement("INSERT INTO " + questions + " (" + questionColumns
+                        + ") SELECT " + questionColumns + " FROM Questions WHERE term = ?")) {
+                    pstmt.setString(1, term);
+                    moved = pstmt.executeUpdate();
+                }
+                // Answers and reviews follow their questions through ON DELETE CASCADE
+                try (PreparedStatement pstmt = c.prepareStatement("DELETE FROM Questions WHERE term = ?")) {
+                    pstmt.setString(1, term);
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = c.prepareStatement(
+                        "MERGE INTO Terms (term, archived, archived_at) KEY (term) VALUES (?, TRUE, CURRENT_TIMESTAMP)")) {
+                    pstmt.setString(1, term);
+                    pstmt.executeUpdate();
+                }
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            }
+        }
+        questionCache.clear();
+        duplicateIndex.invalidate();
+        similarQuestions.startBuild();
+        unansweredQueue.invalidate();
+        changed(CacheVersions.Domain.QUESTIONS, CacheVersions.Domain.DUPLICATES,
+                CacheVersions.Domain.SIMILAR_QUESTIONS, CacheVersions.Domain.HELP_QUEUE);
+        return moved;
+    }
+
+    // ==================== DUPLICATE AND SIMILAR QUESTION METHODS ====================
+
+    /**
+     * Returns the probable duplicates of a main question among the live questions.
+     * The lookup reads the question's LSH buckets, so its cost does not grow with
+     * the number of questions.
+     *
+     * @param questionId the question id
+     * @return matches, most similar first; empty if the question has none or is a clarification
+     * @throws SQLException if the index has to be loaded and the query fails
      */
-    public List<User> getAllUsers() {
-        List<User> users = new ArrayList<>();
-        String sql = "SELECT userName, password, userRole, name, email FROM cse360users ORDER BY userName";
-        
+    public List<QuestionDuplicateIndex.Match> getProbableDuplicates(int questionId) throws SQLException {
+        cacheVersions.check(connection);
+        ensureDuplicateIndexLoaded();
+        return duplicateIndex.duplicatesOf(questionId);
+    }
+
+    /**
+     * Groups the live main questions into clusters of probable duplicates.
+     *
+     * @return each clustered question's id mapped to its cluster's ids in ascending
+     *         order; questions without duplicates are left out
+     * @throws SQLException if the index has to be loaded and the query fails
+     */
+    public Map<Integer, List<Integer>> getDuplicateClusters() throws SQLException {
+        cacheVersions.check(connection);
+        ensureDuplicateIndexLoaded();
+        return duplicateIndex.clusters();
+    }
+
+    /**
+     * Returns the resolved questions most similar to a question, by BM25 over question
+     * titles and text and the text of resolving answers.
+     *
+     * @param questionId the question id
+     * @param limit the maximum number of results, e.g. {@link SimilarQuestionIndex#DEFAULT_LIMIT}
+     * @return up to limit resolved questions, most similar first
+     * @throws InterruptedException if interrupted while the startup build finishes
+     */
+    public List<SimilarQuestionIndex.Match> getSimilarResolvedQuestions(int questionId, int limit)
+            throws InterruptedException {
+        cacheVersions.check(connection);
+        return similarQuestions.similarResolved(questionId, limit);
+    }
+
+    /**
+     * Returns the resolved questions most similar to a question a student is writing,
+     * so they can check for an existing answer before posting.
+     *
+     * @param title the draft title
+     * @param text the draft text
+     * @param limit the maximum number of results
+     * @return up to limit resolved questions, most similar first
+     * @throws InterruptedException if interrupted while the startup build finishes
+     */
+    public List<SimilarQuestionIndex.Match> getSimilarResolvedQuestions(String title, String text, int limit)
+            throws InterruptedException {
+        cacheVersions.check(connection);
+        return similarQuestions.similarResolved(title, text, limit);
+    }
+
+    /**
+     * Computes a main question's signature, stores it and updates the index if loaded.
+     */
+    private synchronized void storeQuestionSignature(int questionId, String title, String text) throws SQLException {
+        int[] signature = QuestionDuplicateIndex.signature(title, text);
+        saveQuestionSignature(questionId, signature);
+        if (duplicateIndex.isLoaded()) {
+            duplicateIndex.put(questionId, signature);
+        }
+    }
+
+    private void saveQuestionSignature(int questionId, int[] signature) throws SQLException {
+        String sql = "MERGE INTO QuestionSignatures (question_id, signature) KEY (question_id) VALUES (?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, questionId);
+            pstmt.setBytes(2, QuestionDuplicateIndex.toBytes(signature));
+            pstmt.executeUpdate();
+        }
+    }
+
+    private boolean isMainQuestion(int questionId) throws SQLException {
+        String sql = "SELECT 1 FROM Questions WHERE id = ? AND parent_question_id IS NULL";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, questionId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Loads the duplicate index from QuestionSignatures if it has not been loaded since
+     * startup, since a term was archived or since another process wrote signatures.
+     * Questions written before signatures existed get theirs computed and stored here.
+     */
+    private synchronized void ensureDuplicateIndexLoaded() throws SQLException {
+        if (duplicateIndex.isLoaded()) {
+            return;
+        }
+        Map<Integer, int[]> all = new HashMap<>();
+        String sql = "SELECT q.id, q.title, q.text, s.signature FROM Questions q "
+                   + "LEFT JOIN QuestionSignatures s ON s.question_id = q.id WHERE q.parent_question_id IS NULL";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                int[] signature = QuestionDuplicateIndex.fromBytes(rs.getBytes("signature"));
+                if (signature == null) {
+                    signature = QuestionDuplicateIndex.signature(rs.getString("title"), rs.getString("text"));
+                    saveQuestionSignature(rs.getInt("id"), signature);
+                }
+                all.put(rs.getInt("id"), signature);
+            }
+        }
+        duplicateIndex.reload(all);
+    }
+
+    // ==================== MODERATION PREFILTER METHODS ====================
+
+    /**
+     * Scans written content for moderation terms and records a FLAG in
+     * ContentModeration when any are found. Flags carry no moderator; the reason
+     * lists the matched terms, cut to the width of ContentModeration.reason.
+     *
+     * <p>The content is already written when this runs, so a failure here is logged
+     * rather than thrown: it must not abort the caller's remaining steps or report a
+     * saved post as failed.</p>
+     *
+     * @param contentType the content type (QUESTION, ANSWER, DISCUSSION)
+     * @param contentId the id of the written row
+     * @param parts the text fields to scan
+     */
+    private void prefilter(String contentType, int contentId, String... parts) {
+        try {
+            cacheVersions.check(connection);
+            if (!moderationTermsLoaded) {
+                reloadModerationTerms();
+            }
+            List<String> hits = new ArrayList<>();
+            for (String part : parts) {
+                for (String term : moderationFilter.scan(part)) {
+                    if (!hits.contains(term)) {
+                        hits.add(term);
+                    }
+                }
+            }
+            if (!hits.isEmpty()) {
+                String reason = "Auto-flagged, matched: " + String.join(", ", hits);
+                if (reason.length() > MODERATION_REASON_LENGTH) {
+                    reason = reason.substring(0, MODERATION_REASON_LENGTH - 3) + "...";
+                }
+                moderateContent(null, contentType, contentId, "FLAG", reason);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Adds a term to the moderation prefilter and recompiles it.
+     *
+     * @param term the word or phrase to flag; case and extra spaces are ignored
+     * @param addedBy the username of the staff member adding it
+     * @return true if the term was added, false if it was blank or already listed
+     * @throws SQLException if the term cannot be stored
+     */
+    public boolean addModerationTerm(String term, String addedBy) throws SQLException {
+        String normalized = ModerationFilter.normalize(term);
+        if (normalized.isEmpty()) {
+            return false;
+        }
+        String sql = "INSERT INTO ModerationTerms (term, added_by) SELECT ?, ? FROM DUAL "
+                   + "WHERE NOT EXISTS (SELECT 1 FROM ModerationTerms WHERE term = ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, normalized);
+            pstmt.setString(2, addedBy);
+            pstmt.setString(3, normalized);
+            boolean added = pstmt.executeUpdate() > 0;
+            reloadModerationTerms();
+            if (added) {
+                changed(CacheVersions.Domain.MODERATION_TERMS);
+            }
+            return added;
+        }
+    }
+
+    /**
+     * Removes a term from the moderation prefilter and recompiles it.
+     *
+     * @param term the term to remove
+     * @return true if the term was listed
+     * @throws SQLException if the term cannot be removed
+     */
+    public boolean removeModerationTerm(String term) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM ModerationTerms WHERE term = ?")) {
+            pstmt.setString(1, ModerationFilter.normalize(term));
+            boolean removed = pstmt.executeUpdate() > 0;
+            reloadModerationTerms();
+            if (removed) {
+                changed(CacheVersions.Domain.MODERATION_TERMS);
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Retrieves the moderation terms in alphabetical order.
+     *
+     * @return the terms
+     * @throws SQLException if database query fails
+     */
+    public List<String> getModerationTerms() throws SQLException {
+        List<String> terms = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT term FROM ModerationTerms ORDER BY term");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                terms.add(rs.getString("term"));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Recompiles the moderation prefilter from ModerationTerms. Changes made by other
+     * instances sharing the database are picked up on their own at the next scan
+     * after {@link CacheVersions#CHECK_INTERVAL_NANOS}. Content written meanwhile is
+     * scanned with the previous list.
+     *
+     * @return the number of terms now in use
+     * @throws SQLException if the terms cannot be read
+     */
+    public int reloadModerationTerms() throws SQLException {
+        long generation = moderationTermsGeneration;
+        int terms = moderationFilter.reload(connection);
+        // Compile again at the next scan if another process changed the list during this read
+        moderationTermsLoaded = generation == moderationTermsGeneration;
+        return terms;
+    }
+
+    // ==================== UNANSWERED QUEUE METHODS ====================
+
+    /**
+     * Returns a page of the main questions still waiting for help (not resolved and
+     * without a resolving answer), oldest first. Pages are read from memory; the
+     * queue is loaded through the needs_help index on first use.
+     *
+     * @param after the last entry of the previous page, or null for the first page
+     * @param limit the maximum number of questions
+     * @return up to limit waiting questions
+     * @throws SQLException if the queue has to be loaded and the query fails
+     */
+    public List<UnansweredQueue.Entry> getUnansweredQuestions(UnansweredQueue.Entry after, int limit)
+            throws SQLException {
+        cacheVersions.check(connection);
+        ensureUnansweredQueueLoaded();
+        return unansweredQueue.page(after, limit);
+    }
+
+    /**
+     * @return the number of main questions waiting for help
+     * @throws SQLException if the queue has to be loaded and the query fails
+     */
+    public int getUnansweredQuestionCount() throws SQLException {
+        cacheVersions.check(connection);
+        ensureUnansweredQueueLoaded();
+        return unansweredQueue.size();
+    }
+
+    /**
+     * Recomputes the needs_help flag of one question after a change to its resolution
+     * and brings the queue in line with it.
+     */
+    private void refreshNeedsHelp(int questionId) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "UPDATE Questions SET needs_help = " + NEEDS_HELP + " WHERE id = ?")) {
+            pstmt.setInt(1, questionId);
+            pstmt.executeUpdate();
+        }
+        syncUnansweredQueue(questionId);
+        changed(CacheVersions.Domain.HELP_QUEUE);
+        riskService.refreshQuestionAuthorLater(questionId);
+    }
+
+    /**
+     * @return the id of the question an answer belongs to, or -1 if the answer does not exist
+     */
+    private int getQuestionIdOfAnswer(int answerId) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT question_id FROM Answers WHERE id = ?")) {
+            pstmt.setInt(1, answerId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt("question_id") : -1;
+            }
+        }
+    }
+
+    /**
+     * Reloads the help queue from the needs_help index, e.g. when staff press Refresh.
+     * On a shared database this picks up changes made by other desktops at once
+     * instead of at the next change counter check.
+     *
+     * @throws SQLException if the query fails
+     */
+    public void refreshUnansweredQueue() throws SQLException {
+        unansweredQueue.invalidate();
+        ensureUnansweredQueueLoaded();
+    }
+
+    /**
+     * Copies one question's needs_help flag into the queue, if the queue is loaded or loading.
+     */
+    private void syncUnansweredQueue(int questionId) throws SQLException {
+        if (!unansweredQueue.isTracking()) {
+            return;
+        }
+        String sql = "SELECT id, userName, title, term, created_date, needs_help, "
+                   + "(SELECT COUNT(*) FROM Answers a WHERE a.question_id = q.id) AS answer_count "
+                   + "FROM Questions q WHERE id = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, questionId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && rs.getBoolean("needs_help")) {
+                    unansweredQueue.put(readUnansweredEntry(rs));
+                } else {
+                    unansweredQueue.remove(questionId);
+                }
+            }
+        }
+    }
+
+    private static UnansweredQueue.Entry readUnansweredEntry(ResultSet rs) throws SQLException {
+        return new UnansweredQueue.Entry(rs.getInt("id"), rs.getString("userName"), rs.getString("title"),
+            rs.getString("term"), rs.getTimestamp("created_date"), rs.getInt("answer_count"));
+    }
+
+    /**
+     * Loads the queue from the needs_help index if it has not been loaded since startup,
+     * since a term was archived or since another process changed it. Questions written
+     * while the query runs are re-read once the load is in place.
+     */
+    private synchronized void ensureUnansweredQueueLoaded() throws SQLException {
+        if (unansweredQueue.isLoaded()) {
+            return;
+        }
+        long generation = unansweredQueue.beginLoad();
+        List<UnansweredQueue.Entry> entries = new ArrayList<>();
+        String sql = "SELECT q.id, q.userName, q.title, q.term, q.created_date, "
+                   + "(SELECT COUNT(*) FROM Answers a WHERE a.question_id = q.id) AS answer_count "
+                   + "FROM Questions q WHERE q.needs_help = TRUE";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                entries.add(readUnansweredEntry(rs));
+            }
+        } catch (SQLException e) {
+            // Stop recording writes; the next use tries again
+            unansweredQueue.invalidate();
+            throw e;
+        }
+        for (int questionId : unansweredQueue.finishLoad(generation, entries)) {
+            syncUnansweredQueue(questionId);
+        }
+    }
+
+    // ==================== SESSION METHODS ====================
+
+    /**
+     * Returns the session of a user, created at login. Pages opened without a login
+     * (e.g. from tests) get a session loaded on first use. On a shared database the
+     * sessions are dropped and read again once another process changed a user.
+     *
+     * @param userName the username
+     * @return the user's session, or null if the user does not exist
+     */
+    public UserSession getSession(String userName) {
+        cacheVersions.check(connection);
+        // Loaded under the map's lock, so a clear by the check waits for the load instead of missing it
+        return sessions.computeIfAbsent(userName, this::loadSession);
+    }
+
+    /**
+     * Discards a user's session, e.g. on logout.
+     *
+     * @param userName the username
+     */
+    public void endSession(String userName) {
+        sessions.remove(userName);
+    }
+
+    /**
+     * Reloads a user's session after their roles change. Users without a session are skipped.
+     */
+    private void refreshSession(String userName) {
+        if (sessions.containsKey(userName)) {
+            UserSession session = loadSession(userName);
+            if (session != null) {
+                sessions.put(userName, session);
+            } else {
+                sessions.remove(userName);
+            }
+        }
+    }
+
+    private UserSession loadSession(String userName) {
+        String query = "SELECT userName, name, email, userRole FROM cse360users WHERE userName = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, userName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new UserSession(rs.getString("userName"), rs.getString("name"),
+                                           rs.getString("email"), rs.getString("userRole"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // ==================== USER MANAGEMENT METHODS ====================
+
+    /**
+     * Updates the roles assigned to a user.
+     *
+     * @param userName the username to update
+     * @param roleString the new role string (can contain multiple comma-separated roles)
+     * @return true if update was successful, false otherwise
+     */
+    public boolean updateUserRoles(String userName, String roleString) {
+        String sql = "UPDATE cse360users SET userRole = ? WHERE userName = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, roleString);
+            pstmt.setString(2, userName);
+            int updated = pstmt.executeUpdate();
+            refreshSession(userName);
+            if (updated > 0) {
+                changed(CacheVersions.Domain.USERS);
+            }
+            return updated > 0;
+        } catch (SQLException e) {
+            System.err.println("Error updating user roles: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Counts the number of admin users in the system.
+     *
+     * @return the number of users with admin role
+     */
+    public int countAdmins() {
+        String sql = "SELECT COUNT(*) AS adminCount FROM cse360users WHERE userRole LIKE '%admin%'";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getInt("adminCount");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting admins: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Safely retrieves user role, returning empty string instead of null.
+     *
+     * @param userName the username to query
+     * @return the user's role or empty string if not found
+     */
+    public String getUserRoleSafe(String userName) {
+        String role = getUserRole(userName);
+        return role == null ? "" : role;
+    }
+
+    /**
+     * Retrieves all users from the system.
+     *
+     * @return List of all User objects in the system
+     */
+    public List<User> getAllUsers() {
+        List<User> users = new ArrayList<>();
+        String sql = "SELECT userName, password, userRole, name, email FROM cse360users ORDER BY userName";
+        
         try (PreparedStatement pstmt = connection.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -1320,7 +2205,7 @@ public class DatabaseHelper {
         String sql = "SELECT r.*, u.name as student_name FROM RoleRequests r "
                    + "JOIN cse360users u ON r.student_id = u.userName "
                    + "WHERE r.status = 'PENDING' ORDER BY r.request_date";
-        return statement.executeQuery(sql);
+        return query(sql);
     }
 
     /**
@@ -1355,30 +2240,110 @@ public class DatabaseHelper {
             pstmt.setString(2, userName);
             pstmt.executeUpdate();
         }
+        refreshSession(userName);
+        changed(CacheVersions.Domain.USERS);
     }
 
     /**
      * Retrieves the content history of a student for instructor review.
-     * Includes both questions and answers posted by the student.
+     * Includes both questions and answers posted by the student, newest first.
+     * For students with long histories use {@link #getStudentContentHistoryPage}.
      *
      * @param studentId the username of the student to review
      * @return ResultSet containing the student's content history
      * @throws SQLException if database query fails
      */
     public ResultSet getStudentContentHistory(String studentId) throws SQLException {
-        String sql = "SELECT 'QUESTION' as content_type, id, title, text, resolved, null as resolves "
-                   + "FROM Questions WHERE userName = ? AND parent_question_id IS NULL "
+        String sql = "SELECT 'QUESTION' as content_type, id, title, text, resolved, null as resolves, created_date "
+                   + "FROM Questions WHERE userName = ? AND parent_question_id IS NULL AND term = ? "
                    + "UNION ALL "
-                   + "SELECT 'ANSWER' as content_type, a.id, q.title, a.text, q.resolved, a.resolves "
+                   + "SELECT 'ANSWER' as content_type, a.id, q.title, a.text, q.resolved, a.resolves, a.created_date "
                    + "FROM Answers a JOIN Questions q ON a.question_id = q.id "
-                   + "WHERE a.userName = ? "
-                   + "ORDER BY content_type";
-        PreparedStatement pstmt = connection.prepareStatement(sql);
+                   + "WHERE a.userName = ? AND a.term = ? "
+                   + "ORDER BY created_date DESC, id DESC, content_type DESC";
+        PreparedStatement pstmt = prepareReportingQuery(sql);
+        String term = getActiveTerm();
         pstmt.setString(1, studentId);
-        pstmt.setString(2, studentId);
+        pstmt.setString(2, term);
+        pstmt.setString(3, studentId);
+        pstmt.setString(4, term);
         return pstmt.executeQuery();
     }
 
+    /**
+     * Retrieves one page of a student's questions and answers in the active term,
+     * newest first.
+     *
+     * <p>Each source is read in index order from its (userName, term, created_date DESC,
+     * id DESC) index, starting just past the cursor and stopping after one page; the
+     * two are merged and only the page's rows are joined to their questions. Any
+     * page costs about the same as the first however long the history is.</p>
+     *
+     * @param studentId the username of the student to review
+     * @param after the previous page's {@link ContentHistoryPage#getNext()}, or null for the first page
+     * @param pageSize the number of items per page, at most {@link ContentHistoryPage#MAX_PAGE_SIZE}
+     * @return the page
+     * @throws SQLException if database query fails
+     */
+    public ContentHistoryPage getStudentContentHistoryPage(String studentId, ContentHistoryPage.Cursor after,
+                                                           int pageSize) throws SQLException {
+        if (pageSize < 1 || pageSize > ContentHistoryPage.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and "
+                                               + ContentHistoryPage.MAX_PAGE_SIZE + ": " + pageSize);
+        }
+        // Strictly after the cursor in (created_date, id, content_type) descending order;
+        // the last parameter says whether this source's type sorts after the cursor's on a full tie
+        String keyset = after == null ? "" : " AND %1$s.created_date <= ? AND ((%1$s.created_date, %1$s.id) < (?, ?) "
+                                             + "OR (%1$s.created_date = ? AND %1$s.id = ? AND ?))";
+        int fetch = pageSize + 1;
+        // The history indexes are named because H2 otherwise prefers the plain userName
+        // indexes; the leading userName and term in each ORDER BY let it walk the index
+        // in order instead of sorting
+        String sql = "SELECT h.content_type, h.id, h.question_id, q.title, h.text, h.resolved, h.created_date FROM ("
+                   + "(SELECT 'QUESTION' AS content_type, s.id, s.id AS question_id, s.text, "
+                   + "s.resolved, s.created_date FROM Questions s USE INDEX (idx_questions_history) "
+                   + "WHERE s.userName = ? AND s.term = ? AND s.parent_question_id IS NULL" + String.format(keyset, "s")
+                   + " ORDER BY s.userName, s.term, s.created_date DESC, s.id DESC FETCH FIRST " + fetch + " ROWS ONLY) "
+                   + "UNION ALL "
+                   + "(SELECT 'ANSWER' AS content_type, s.id, s.question_id, s.text, "
+                   + "s.resolves AS resolved, s.created_date FROM Answers s USE INDEX (idx_answers_history) "
+                   + "WHERE s.userName = ? AND s.term = ?" + String.format(keyset, "s")
+                   + " ORDER BY s.userName, s.term, s.created_date DESC, s.id DESC FETCH FIRST " + fetch + " ROWS ONLY)"
+                   + ") h JOIN Questions q ON q.id = h.question_id "
+                   + "ORDER BY h.created_date DESC, h.id DESC, h.content_type DESC FETCH FIRST " + fetch + " ROWS ONLY";
+        String term = getActiveTerm();
+        List<ContentHistoryPage.Item> items = new ArrayList<>();
+        try (PreparedStatement pstmt = prepareReportingQuery(sql)) {
+            int i = 1;
+            for (String type : new String[] { "QUESTION", "ANSWER" }) {
+                pstmt.setString(i++, studentId);
+                pstmt.setString(i++, term);
+                if (after != null) {
+                    pstmt.setTimestamp(i++, after.getCreatedDate());
+                    pstmt.setTimestamp(i++, after.getCreatedDate());
+                    pstmt.setInt(i++, after.getId());
+                    pstmt.setTimestamp(i++, after.getCreatedDate());
+                    pstmt.setInt(i++, after.getId());
+                    pstmt.setBoolean(i++, type.compareTo(after.getContentType()) < 0);
+                }
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(new ContentHistoryPage.Item(rs.getString("content_type"), rs.getInt("id"),
+                        rs.getInt("question_id"), rs.getString("title"), rs.getString("text"),
+                        rs.getBoolean("resolved"), rs.getTimestamp("created_date")));
+                }
+            }
+        }
+        ContentHistoryPage.Cursor next = null;
+        if (items.size() > pageSize) {
+            items.remove(pageSize);
+            ContentHistoryPage.Item last = items.get(pageSize - 1);
+            next = new ContentHistoryPage.Cursor(last.getCreatedDate(), last.getId(), last.getContentType());
+        }
+        return new ContentHistoryPage(items, next);
+    }
+
     /**
      * Records a content moderation action in the system.
      *
@@ -1415,6 +2380,34 @@ public class DatabaseHelper {
         PreparedStatement pstmt = connection.prepareStatement(sql);
         pstmt.setString(1, contentType);
         pstmt.setInt(2, contentId);
+        pstmt.closeOnCompletion();
+        return pstmt.executeQuery();
+    }
+
+    /**
+     * Retrieves moderation history for a content item, optionally including
+     * entries moved to the archive by the retention job.
+     *
+     * @param contentType the type of content
+     * @param contentId the ID of the content
+     * @param includeArchived true to read the archive as well
+     * @return ResultSet containing moderation history for the content, newest first
+     * @throws SQLException if database query fails
+     */
+    public ResultSet getModerationHistory(String contentType, int contentId, boolean includeArchived)
+            throws SQLException {
+        if (!includeArchived) {
+            return getModerationHistory(contentType, contentId);
+        }
+        String columns = "id, moderator_id, content_type, content_id, action, reason, moderated_at";
+        String sql = "SELECT " + columns + " FROM ContentModeration WHERE content_type = ? AND content_id = ? "
+                   + "UNION ALL SELECT " + columns + " FROM ContentModerationArchive "
+                   + "WHERE content_type = ? AND content_id = ? ORDER BY moderated_at DESC";
+        PreparedStatement pstmt = prepareReportingQuery(sql);
+        pstmt.setString(1, contentType);
+        pstmt.setInt(2, contentId);
+        pstmt.setString(3, contentType);
+        pstmt.setInt(4, contentId);
         return pstmt.executeQuery();
     }
 
@@ -1429,21 +2422,87 @@ public class DatabaseHelper {
      * @param responseTime the average response time in hours
      * @throws SQLException if database operation fails
      */
-    public void updateReviewerScorecard(String reviewerId, int reviewCount, double averageRating,
-                                      double helpfulnessScore, double responseTime) throws SQLException {
-        // Calculate trust score
-        double trustScore = (averageRating * 0.4) + (helpfulnessScore * 0.3) + 
-                           ((responseTime < 24 ? 1.0 : 48.0/responseTime) * 0.3);
-        
-        String sql = "MERGE INTO ReviewerScorecards KEY (reviewer_id) VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, reviewerId);
-            pstmt.setInt(2, reviewCount);
-            pstmt.setDouble(3, averageRating);
-            pstmt.setDouble(4, helpfulnessScore);
-            pstmt.setDouble(5, responseTime);
-            pstmt.setDouble(6, trustScore);
-            pstmt.executeUpdate();
+    public synchronized void updateReviewerScorecard(String reviewerId, int reviewCount, double averageRating,
+                                      double helpfulnessScore, double responseTime) throws SQLException {
+        double trustScore = mergeReviewerScorecard(connection, reviewerId, reviewCount, averageRating,
+                                                   helpfulnessScore, responseTime);
+        if (reviewerLeaderboard.isLoaded()) {
+            reviewerLeaderboard.update(reviewerId, trustScore, reviewCount);
+        }
+        changed(CacheVersions.Domain.SCORECARDS);
+    }
+
+    /**
+     * Writes a reviewer's scorecard on the given connection. Shared by
+     * {@link #updateReviewerScorecard} and the parallel scorecard recompute.
+     *
+     * @return the trust score as stored in the table
+     */
+    static double mergeReviewerScorecard(Connection connection, String reviewerId, int reviewCount,
+                                       double averageRating, double helpfulnessScore,
+                                       double responseTime) throws SQLException {
+        // Calculate trust score
+        double trustScore = (averageRating * 0.4) + (helpfulnessScore * 0.3) + 
+                           ((responseTime < 24 ? 1.0 : 48.0/responseTime) * 0.3);
+        
+        String sql = "MERGE INTO ReviewerScorecards KEY (reviewer_id) VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, reviewerId);
+            pstmt.setInt(2, reviewCount);
+            pstmt.setDouble(3, averageRating);
+            pstmt.setDouble(4, helpfulnessScore);
+            pstmt.setDouble(5, responseTime);
+            pstmt.setDouble(6, trustScore);
+            pstmt.executeUpdate();
+        }
+        // trust_score is DECIMAL(3,2); rank on the stored value so the board matches the table
+        return BigDecimal.valueOf(trustScore).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    /**
+     * Recomputes a reviewer's scorecard from their running totals. Reviewers who are
+     * not registered users have totals but no scorecard row.
+     *
+     * @param reviewerId the username of the reviewer
+     * @throws SQLException if database operation fails
+     */
+    private void refreshReviewerScorecard(String reviewerId) throws SQLException {
+        if (!doesUserExist(reviewerId)) {
+            return;
+        }
+        ReviewerScorecardEngine.ScorecardInputs inputs = scorecardEngine.loadInputs(connection, reviewerId);
+        updateReviewerScorecard(reviewerId, inputs.getReviewCount(), inputs.getAverageRating(),
+                                inputs.getHelpfulnessScore(), inputs.getResponseTimeHours());
+    }
+
+    /**
+     * Refreshes a reviewer's scorecard after a student's trust in them changed, since the
+     * average rating is the mean trust weight. Reviewers without reviews have no scorecard
+     * yet; their first review picks the weights up.
+     *
+     * @param trustedUserName the username of the trusted reviewer
+     * @throws SQLException if database operation fails
+     */
+    private void onTrustChanged(String trustedUserName) throws SQLException {
+        if (scorecardEngine.hasTotals(connection, trustedUserName)) {
+            refreshReviewerScorecard(trustedUserName);
+        }
+    }
+
+    /**
+     * Rebuilds every reviewer's scorecard from the Reviews table, in parallel over
+     * partitions of the reviewer list. Use after bulk imports or to repair drift.
+     *
+     * @return the number of reviewers recomputed
+     * @throws SQLException if database operation fails
+     */
+    public int recomputeAllReviewerScorecards() throws SQLException {
+        try {
+            return scorecardEngine.recomputeAll();
+        } finally {
+            // The recompute writes on worker connections, so reload rather than patch the board
+            reviewerLeaderboard.invalidate();
+            changed(CacheVersions.Domain.SCORECARDS);
         }
     }
 
@@ -1458,6 +2517,7 @@ public class DatabaseHelper {
         String sql = "SELECT * FROM ReviewerScorecards WHERE reviewer_id = ?";
         PreparedStatement pstmt = connection.prepareStatement(sql);
         pstmt.setString(1, reviewerId);
+        pstmt.closeOnCompletion();
         return pstmt.executeQuery();
     }
 
@@ -1469,7 +2529,57 @@ public class DatabaseHelper {
      */
     public ResultSet getAllReviewerScorecards() throws SQLException {
         String sql = "SELECT * FROM ReviewerScorecards ORDER BY trust_score DESC";
-        return statement.executeQuery(sql);
+        return query(sql);
+    }
+
+    /**
+     * Retrieves the reviewers with the highest trust scores from the in-memory
+     * leaderboard, without querying or sorting the scorecard table.
+     *
+     * @param k the maximum number of reviewers to return
+     * @return up to k reviewers, highest trust score first (ties by username)
+     * @throws SQLException if the leaderboard has to be loaded and the query fails
+     */
+    public List<ReviewerLeaderboard.ReviewerScore> getTopReviewers(int k) throws SQLException {
+        cacheVersions.check(connection);
+        ensureReviewerLeaderboardLoaded();
+        return reviewerLeaderboard.top(k);
+    }
+
+    /**
+     * Retrieves a reviewer's position on the trust score leaderboard.
+     *
+     * @param reviewerId the username of the reviewer
+     * @return the 1-based rank, or -1 if the reviewer has no scorecard
+     * @throws SQLException if the leaderboard has to be loaded and the query fails
+     */
+    public int getReviewerRank(String reviewerId) throws SQLException {
+        cacheVersions.check(connection);
+        ensureReviewerLeaderboardLoaded();
+        return reviewerLeaderboard.rank(reviewerId);
+    }
+
+    /**
+     * Loads the leaderboard from ReviewerScorecards if it has not been loaded since
+     * startup, since the last bulk recompute or since another process wrote a
+     * scorecard. Synchronized with
+     * {@link #updateReviewerScorecard}, so a scorecard written after the load's query
+     * is applied to the loaded board instead of being skipped as not loaded.
+     */
+    private synchronized void ensureReviewerLeaderboardLoaded() throws SQLException {
+        if (reviewerLeaderboard.isLoaded()) {
+            return;
+        }
+        List<ReviewerLeaderboard.ReviewerScore> scores = new ArrayList<>();
+        String sql = "SELECT reviewer_id, trust_score, review_count FROM ReviewerScorecards";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                scores.add(new ReviewerLeaderboard.ReviewerScore(rs.getString("reviewer_id"),
+                    rs.getDouble("trust_score"), rs.getInt("review_count")));
+            }
+        }
+        reviewerLeaderboard.reload(scores);
     }
 
     /**
@@ -1547,7 +2657,37 @@ public class DatabaseHelper {
      */
     public ResultSet getAllAdminRequests() throws SQLException {
         String sql = "SELECT * FROM AdminRequests ORDER BY created_at DESC";
-        return statement.executeQuery(sql);
+        return query(sql);
+    }
+
+    /**
+     * Retrieves administrative requests, optionally including closed requests
+     * moved to the archive by the retention job.
+     *
+     * @param includeArchived true to read the archive as well
+     * @return ResultSet containing admin requests sorted by creation date
+     * @throws SQLException if database query fails
+     */
+    public ResultSet getAllAdminRequests(boolean includeArchived) throws SQLException {
+        if (!includeArchived) {
+            return getAllAdminRequests();
+        }
+        String columns = "id, instructor_id, description, status, created_at, closed_at, closed_by, original_request_id";
+        String sql = "SELECT " + columns + " FROM AdminRequests UNION ALL SELECT " + columns
+                   + " FROM AdminRequestsArchive ORDER BY created_at DESC";
+        return prepareReportingQuery(sql).executeQuery();
+    }
+
+    /**
+     * Archives closed escalations, closed admin requests and moderation records
+     * older than the given age, without waiting for the daily retention job.
+     *
+     * @param olderThanDays the retention age in days
+     * @return rows archived per table
+     * @throws SQLException if archiving fails
+     */
+    public Map<String, Integer> archiveClosedRecords(int olderThanDays) throws SQLException {
+        return retention.archive(Duration.ofDays(olderThanDays));
     }
     
  // ==================== STAFF ROLE METHODS ====================
@@ -1560,17 +2700,61 @@ public class DatabaseHelper {
      * @throws SQLException if database query fails
      */
     public ResultSet getAllContentForStaff() throws SQLException {
-        String sql = "SELECT 'QUESTION' as content_type, q.id, q.title, q.text, "
-                   + "q.userName, q.resolved, u.name as user_name "
-                   + "FROM Questions q JOIN cse360users u ON q.userName = u.userName "
-                   + "WHERE q.parent_question_id IS NULL "
-                   + "UNION ALL "
-                   + "SELECT 'ANSWER' as content_type, a.id, q.title, a.text, "
-                   + "a.userName, q.resolved, u.name as user_name "
-                   + "FROM Answers a JOIN Questions q ON a.question_id = q.id "
-                   + "JOIN cse360users u ON a.userName = u.userName "
-                   + "ORDER BY content_type DESC";
-        return statement.executeQuery(sql);
+        return getAllContentForStaff(getActiveTerm());
+    }
+
+    /**
+     * Retrieves all questions and answers of a term for staff monitoring, from the
+     * term's archive tables if it has been archived
+     * @param term the term code, e.g. 2026FA
+     * @return ResultSet containing the term's content with user information
+     * @throws SQLException if database query fails
+     */
+    public ResultSet getAllContentForStaff(String term) throws SQLException {
+        PreparedStatement pstmt = prepareReportingQuery(staffContentQuery(term));
+        pstmt.setString(1, TermRouter.validate(term));
+        pstmt.setString(2, term);
+        return pstmt.executeQuery();
+    }
+
+    /**
+     * Builds the staff content listing for a term, reading the term's archive tables
+     * if it has been archived. The two parameters are the term, twice.
+     */
+    String staffContentQuery(String term) throws SQLException {
+        String[] parts = staffContentSelects(term);
+        return parts[0] + " UNION ALL " + parts[1] + " ORDER BY content_type DESC";
+    }
+
+    /**
+     * Builds the staff content listing for a term as two queries, questions then
+     * answers, each taking the term as its one parameter. Each is ordered by its
+     * table's term index, so with lazy execution its rows stream from the index
+     * without being sorted first.
+     */
+    String[] staffContentQueries(String term) throws SQLException {
+        String[] parts = staffContentSelects(term);
+        return new String[] {
+            parts[0] + " ORDER BY q.term, q.parent_question_id",
+            parts[1] + " ORDER BY a.term, a.userName"
+        };
+    }
+
+    private String[] staffContentSelects(String term) throws SQLException {
+        boolean archived = isTermArchived(term);
+        String questions = archived ? TermRouter.questionsTable(term) : "Questions";
+        String answers = archived ? TermRouter.answersTable(term) : "Answers";
+        return new String[] {
+            "SELECT 'QUESTION' as content_type, q.id, q.title, q.text, "
+                + "q.userName, q.resolved, u.name as user_name "
+                + "FROM " + questions + " q JOIN cse360users u ON q.userName = u.userName "
+                + "WHERE q.parent_question_id IS NULL AND q.term = ?",
+            "SELECT 'ANSWER' as content_type, a.id, q.title, a.text, "
+                + "a.userName, q.resolved, u.name as user_name "
+                + "FROM " + answers + " a JOIN " + questions + " q ON a.question_id = q.id "
+                + "JOIN cse360users u ON a.userName = u.userName "
+                + "WHERE a.term = ?"
+        };
     }
     /**
      * Adds a new discussion post to the staff discussion board
@@ -1582,11 +2766,71 @@ public class DatabaseHelper {
      */
     public boolean addStaffDiscussion(String staffId, String title, String content) throws SQLException {
         String sql = "INSERT INTO StaffDiscussions (staff_id, title, content) VALUES (?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, staffId);
             pstmt.setString(2, title);
             pstmt.setString(3, content);
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    prefilter("DISCUSSION", generatedKeys.getInt(1), title, content);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Adds a reply to a staff discussion thread and bumps the thread's reply count
+     * in the same transaction. Replying to a reply attaches to that reply's thread.
+     * @param staffId the username of the staff member replying
+     * @param parentId the id of the post being replied to
+     * @param content the content of the reply
+     * @return true if successful, false if the parent post does not exist
+     * @throws SQLException if database insertion fails
+     */
+    public boolean addStaffDiscussionReply(String staffId, int parentId, String content) throws SQLException {
+        // Its own connection, so the transaction never takes in other callers' writes
+        try (Connection c = openConnection()) {
+            c.setAutoCommit(false);
+            try {
+                Integer threadId = null;
+                String rootSql = "SELECT COALESCE(parent_id, id) AS thread_id FROM StaffDiscussions WHERE id = ?";
+                try (PreparedStatement pstmt = c.prepareStatement(rootSql)) {
+                    pstmt.setInt(1, parentId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next()) {
+                            threadId = rs.getInt("thread_id");
+                        }
+                    }
+                }
+                if (threadId == null) {
+                    c.rollback();
+                    return false;
+                }
+
+                String insertSql = "INSERT INTO StaffDiscussions (staff_id, content, parent_id) VALUES (?, ?, ?)";
+                try (PreparedStatement pstmt = c.prepareStatement(insertSql)) {
+                    pstmt.setString(1, staffId);
+                    pstmt.setString(2, content);
+                    pstmt.setInt(3, threadId);
+                    pstmt.executeUpdate();
+                }
+
+                String countSql = "UPDATE StaffDiscussions SET reply_count = reply_count + 1, "
+                                + "last_reply_date = CURRENT_TIMESTAMP WHERE id = ?";
+                try (PreparedStatement pstmt = c.prepareStatement(countSql)) {
+                    pstmt.setInt(1, threadId);
+                    pstmt.executeUpdate();
+                }
+                c.commit();
+                return true;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            }
         }
     }
 
@@ -1599,7 +2843,65 @@ public class DatabaseHelper {
         String sql = "SELECT sd.*, u.name as staff_name FROM StaffDiscussions sd "
                    + "JOIN cse360users u ON sd.staff_id = u.userName "
                    + "ORDER BY sd.created_date DESC";
-        return statement.executeQuery(sql);
+        return query(sql);
+    }
+
+    /**
+     * Retrieves one page of discussion threads (root posts only), newest first.
+     * Uses keyset pagination on (created_date, id) so later pages cost the same as the first.
+     * @param beforeDate created_date of the last thread on the previous page, or null for the first page
+     * @param beforeId id of the last thread on the previous page (ignored for the first page)
+     * @param limit maximum number of threads to return
+     * @return ResultSet of threads with staff_name and reply_count; closes its statement when closed
+     * @throws SQLException if database query fails
+     */
+    public ResultSet getStaffDiscussionThreads(Timestamp beforeDate, int beforeId, int limit) throws SQLException {
+        String sql = "SELECT sd.*, u.name as staff_name FROM StaffDiscussions sd "
+                   + "JOIN cse360users u ON sd.staff_id = u.userName "
+                   + "WHERE sd.parent_id IS NULL "
+                   + (beforeDate == null ? ""
+                      : "AND (sd.created_date < ? OR (sd.created_date = ? AND sd.id < ?)) ")
+                   + "ORDER BY sd.created_date DESC, sd.id DESC LIMIT ?";
+        PreparedStatement pstmt = connection.prepareStatement(sql);
+        int i = 1;
+        if (beforeDate != null) {
+            pstmt.setTimestamp(i++, beforeDate);
+            pstmt.setTimestamp(i++, beforeDate);
+            pstmt.setInt(i++, beforeId);
+        }
+        pstmt.setInt(i, limit);
+        pstmt.closeOnCompletion();
+        return pstmt.executeQuery();
+    }
+
+    /**
+     * Retrieves one page of replies in a discussion thread, oldest first.
+     * Uses keyset pagination on (created_date, id) within the thread.
+     * @param threadId the id of the thread's root post
+     * @param afterDate created_date of the last reply on the previous page, or null for the first page
+     * @param afterId id of the last reply on the previous page (ignored for the first page)
+     * @param limit maximum number of replies to return
+     * @return ResultSet of replies with staff_name; closes its statement when closed
+     * @throws SQLException if database query fails
+     */
+    public ResultSet getStaffDiscussionReplies(int threadId, Timestamp afterDate, int afterId, int limit) throws SQLException {
+        String sql = "SELECT sd.*, u.name as staff_name FROM StaffDiscussions sd "
+                   + "JOIN cse360users u ON sd.staff_id = u.userName "
+                   + "WHERE sd.parent_id = ? "
+                   + (afterDate == null ? ""
+                      : "AND (sd.created_date > ? OR (sd.created_date = ? AND sd.id > ?)) ")
+                   + "ORDER BY sd.created_date ASC, sd.id ASC LIMIT ?";
+        PreparedStatement pstmt = connection.prepareStatement(sql);
+        int i = 1;
+        pstmt.setInt(i++, threadId);
+        if (afterDate != null) {
+            pstmt.setTimestamp(i++, afterDate);
+            pstmt.setTimestamp(i++, afterDate);
+            pstmt.setInt(i++, afterId);
+        }
+        pstmt.setInt(i, limit);
+        pstmt.closeOnCompletion();
+        return pstmt.executeQuery();
     }
 
     /**
@@ -1623,6 +2925,7 @@ public class DatabaseHelper {
             pstmt.setString(4, description);
             pstmt.setString(5, priority);
             pstmt.executeUpdate();
+            riskService.refreshStudentLater(studentId);
             
             ResultSet generatedKeys = pstmt.getGeneratedKeys();
             if (generatedKeys.next()) {
@@ -1632,22 +2935,429 @@ public class DatabaseHelper {
         }
     }
 
+    /** Per-student question and answer counts for a term; the two parameters are the term, twice. */
+    static final String STUDENT_ACTIVITY_SQL = "SELECT u.userName, u.name, "
+        + "COUNT(DISTINCT q.id) as question_count, "
+        + "COUNT(DISTINCT a.id) as answer_count "
+        + "FROM cse360users u "
+        + "LEFT JOIN Questions q ON u.userName = q.userName AND q.parent_question_id IS NULL AND q.term = ? "
+        + "LEFT JOIN Answers a ON u.userName = a.userName AND a.term = ? "
+        + "WHERE u.userRole LIKE '%student%' "
+        + "GROUP BY u.userName, u.name "
+        + "ORDER BY question_count DESC, answer_count DESC";
+
     /**
      * Retrieves student activity metrics for staff analytics
      * @return ResultSet containing student activity data
      * @throws SQLException if database query fails
      */
     public ResultSet getStudentActivityMetrics() throws SQLException {
-        String sql = "SELECT u.userName, u.name, "
-                   + "COUNT(DISTINCT q.id) as question_count, "
-                   + "COUNT(DISTINCT a.id) as answer_count "
-                   + "FROM cse360users u "
-                   + "LEFT JOIN Questions q ON u.userName = q.userName AND q.parent_question_id IS NULL "
-                   + "LEFT JOIN Answers a ON u.userName = a.userName "
-                   + "WHERE u.userRole LIKE '%student%' "
-                   + "GROUP BY u.userName, u.name "
-                   + "ORDER BY question_count DESC, answer_count DESC";
-        return statement.executeQuery(sql);
+        PreparedStatement pstmt = prepareReportingQuery(STUDENT_ACTIVITY_SQL);
+        pstmt.setString(1, getActiveTerm());
+        pstmt.setString(2, getActiveTerm());
+        return pstmt.executeQuery();
+    }
+
+    // ==================== ACTIVITY ROLLUP METHODS ====================
+
+    /** Rollup granularity for hourly buckets. */
+    public static final String ROLLUP_HOUR = "HOUR";
+
+    /** Rollup granularity for daily buckets. */
+    public static final String ROLLUP_DAY = "DAY";
+
+    /**
+     * Increments the hourly and daily rollup buckets for a piece of content that was
+     * just written. Called from the insert paths; failures are logged and never
+     * fail the insert itself, since {@link #backfillActivityRollups()} can rebuild the counts.
+     *
+     * @param userName the author of the content
+     * @param contentType the content type (QUESTION, CLARIFICATION, ANSWER, REVIEW)
+     */
+    private void recordActivity(String userName, String contentType) {
+        if (userName == null) {
+            return;
+        }
+        try {
+            incrementRollup(ROLLUP_HOUR, userName, contentType);
+            incrementRollup(ROLLUP_DAY, userName, contentType);
+        } catch (SQLException e) {
+            System.err.println("Error recording activity rollup: " + e.getMessage());
+        }
+        try {
+            ActivitySketches sketches = getWeeklyActivitySketches();
+            sketches.record(userName);
+            if (sketches.getPendingUpdates() >= SKETCH_FLUSH_INTERVAL) {
+                saveActivitySketches(sketches);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error updating activity sketches: " + e.getMessage());
+        }
+        riskService.refreshStudentLater(userName);
+    }
+
+    /**
+     * Adds one to the current rollup bucket, creating the bucket if it does not exist yet.
+     * One statement, so two writers creating the same bucket cannot both insert it. The
+     * bucket is taken from the database clock, as the content's created_date is, so
+     * desktops with a skewed clock agree with each other and with the backfill.
+     */
+    private void incrementRollup(String granularity, String userName, String contentType) throws SQLException {
+        String merge = "MERGE INTO ActivityRollups r USING (VALUES (CAST(? AS VARCHAR(10)), "
+                     + "CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(50)), "
+                     + "DATE_TRUNC('" + granularity + "', CAST(CURRENT_TIMESTAMP AS TIMESTAMP)))) "
+                     + "v(granularity, user_name, content_type, bucket_start) "
+                     + "ON r.granularity = v.granularity AND r.user_name = v.user_name "
+                     + "AND r.content_type = v.content_type AND r.bucket_start = v.bucket_start "
+                     + "WHEN MATCHED THEN UPDATE SET activity_count = r.activity_count + 1 "
+                     + "WHEN NOT MATCHED THEN INSERT (granularity, user_name, content_type, bucket_start, "
+                     + "activity_count) VALUES (v.granularity, v.user_name, v.content_type, v.bucket_start, 1)";
+        try (PreparedStatement pstmt = connection.prepareStatement(merge)) {
+            pstmt.setString(1, granularity);
+            pstmt.setString(2, userName);
+            pstmt.setString(3, contentType);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Rebuilds all activity rollups from the Questions, Answers and Reviews tables.
+     * Intended as a batch job for first-time setup or repair; hourly buckets are
+     * aggregated from the source tables and daily buckets from the hourly ones,
+     * all in one transaction so readers never see a half-built table.
+     *
+     * @return the number of rollup rows written
+     * @throws SQLException if the rebuild fails
+     */
+    public int backfillActivityRollups() throws SQLException {
+        String[] hourly = {
+            "SELECT userName, 'QUESTION', created_date FROM Questions WHERE parent_question_id IS NULL",
+            "SELECT userName, 'CLARIFICATION', created_date FROM Questions WHERE parent_question_id IS NOT NULL",
+            "SELECT userName, 'ANSWER', created_date FROM Answers",
+            "SELECT reviewer, 'REVIEW', created_date FROM Reviews"
+        };
+        // Its own connection, so the transaction never takes in other callers' writes
+        try (Connection c = openConnection();
+             Statement stmt = c.createStatement()) {
+            c.setAutoCommit(false);
+            try {
+                stmt.executeUpdate("DELETE FROM ActivityRollups");
+                int rows = 0;
+                for (String source : hourly) {
+                    rows += stmt.executeUpdate("INSERT INTO ActivityRollups "
+                        + "(granularity, user_name, content_type, bucket_start, activity_count) "
+                        + "SELECT 'HOUR', src.user_name, src.content_type, DATE_TRUNC('HOUR', src.created_date), COUNT(*) "
+                        + "FROM (" + source + ") src(user_name, content_type, created_date) "
+                        + "WHERE src.user_name IS NOT NULL AND src.created_date IS NOT NULL "
+                        + "GROUP BY src.user_name, src.content_type, DATE_TRUNC('HOUR', src.created_date)");
+                }
+                rows += stmt.executeUpdate("INSERT INTO ActivityRollups "
+                    + "(granularity, user_name, content_type, bucket_start, activity_count) "
+                    + "SELECT 'DAY', user_name, content_type, DATE_TRUNC('DAY', bucket_start), SUM(activity_count) "
+                    + "FROM ActivityRollups WHERE granularity = 'HOUR' "
+                    + "GROUP BY user_name, content_type, DATE_TRUNC('DAY', bucket_start)");
+                c.commit();
+                return rows;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Retrieves an activity trend over a time window, one row per bucket in the window.
+     * Reads only rollup rows, so the cost depends on the number of buckets rather than
+     * the amount of content. Buckets with no activity are omitted.
+     *
+     * @param userName the student to report on, or null for all students
+     * @param contentType the content type to report on, or null for all types
+     * @param granularity {@link #ROLLUP_HOUR} or {@link #ROLLUP_DAY}
+     * @param from inclusive start of the window
+     * @param to exclusive end of the window
+     * @return ResultSet of (bucket_start, activity_count) ordered by bucket; closes its statement when closed
+     * @throws SQLException if database query fails
+     */
+    public ResultSet getActivityTrend(String userName, String contentType, String granularity,
+                                      Timestamp from, Timestamp to) throws SQLException {
+        String sql = "SELECT bucket_start, SUM(activity_count) AS activity_count FROM ActivityRollups "
+                   + "WHERE granularity = ? "
+                   + (userName == null ? "" : "AND user_name = ? ")
+                   + (contentType == null ? "" : "AND content_type = ? ")
+                   + "AND bucket_start >= ? AND bucket_start < ? "
+                   + "GROUP BY bucket_start ORDER BY bucket_start";
+        PreparedStatement pstmt = prepareReportingQuery(sql);
+        int i = 1;
+        pstmt.setString(i++, granularity);
+        if (userName != null) {
+            pstmt.setString(i++, userName);
+        }
+        if (contentType != null) {
+            pstmt.setString(i++, contentType);
+        }
+        pstmt.setTimestamp(i++, from);
+        pstmt.setTimestamp(i, to);
+        return pstmt.executeQuery();
+    }
+
+    // ==================== APPROXIMATE ANALYTICS METHODS ====================
+
+    /**
+     * Returns the activity sketches for the current week, loading them from the
+     * database on first use. When the week rolls over, the previous week's sketches
+     * are saved and a fresh window is started. When another process saved the window
+     * since, its stored copy is taken in, keeping the records not saved here yet.
+     *
+     * @return the current week's sketches
+     * @throws SQLException if loading or saving sketches fails
+     */
+    public synchronized ActivitySketches getWeeklyActivitySketches() throws SQLException {
+        cacheVersions.check(connection);
+        LocalDate currentWindow = ActivitySketches.windowStart(LocalDate.now());
+        if (weeklySketches == null || !weeklySketches.getWindowStart().equals(currentWindow)) {
+            if (weeklySketches != null) {
+                saveActivitySketches(weeklySketches);
+            }
+            weeklySketchesStale = false;
+            weeklySketches = loadActivitySketches(currentWindow);
+        } else if (weeklySketchesStale) {
+            weeklySketchesStale = false;
+            // Under the save lock, so a save in progress installs its merge first
+            synchronized (sketchSaveLock) {
+                ActivitySketches stored = readActivitySketches(connection, currentWindow, false);
+                if (stored != null) {
+                    weeklySketches.adoptSaved(stored);
+                }
+            }
+        }
+        return weeklySketches;
+    }
+
+    /**
+     * Loads the persisted sketches for a weekly window.
+     *
+     * @param windowStart the Monday the window starts on
+     * @return the window's sketches, or empty sketches if none were saved
+     * @throws SQLException if database query fails
+     */
+    public ActivitySketches loadActivitySketches(LocalDate windowStart) throws SQLException {
+        ActivitySketches stored = readActivitySketches(connection, windowStart, false);
+        return stored != null ? stored : new ActivitySketches(windowStart);
+    }
+
+    /**
+     * Reads a window's stored sketches, optionally locking their rows.
+     *
+     * @return the stored sketches, or null if the window has none
+     */
+    private static ActivitySketches readActivitySketches(Connection c, LocalDate windowStart, boolean forUpdate)
+            throws SQLException {
+        String sql = "SELECT sketch_type, sketch_data FROM ActivitySketches WHERE window_start = ?"
+                   + (forUpdate ? " FOR UPDATE" : "");
+        byte[] distinctUsers = null;
+        byte[] posts = null;
+        try (PreparedStatement pstmt = c.prepareStatement(sql)) {
+            pstmt.setDate(1, java.sql.Date.valueOf(windowStart));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if ("DISTINCT_USERS".equals(rs.getString("sketch_type"))) {
+                        distinctUsers = rs.getBytes("sketch_data");
+                    } else if ("POSTS".equals(rs.getString("sketch_type"))) {
+                        posts = rs.getBytes("sketch_data");
+                    }
+                }
+            }
+        }
+        if (distinctUsers == null || posts == null) {
+            return null;
+        }
+        return ActivitySketches.fromBytes(windowStart, distinctUsers, posts);
+    }
+
+    /**
+     * Adds a window's unsaved records to the persisted sketches. Other processes
+     * sharing the database save the same window, so the stored rows are locked and
+     * merged rather than replaced: distinct-user registers take the maximum and post
+     * counters add the posts recorded since the last save. The in-memory sketches then
+     * take in what the other processes saved.
+     *
+     * @param sketches the sketches to save
+     * @throws SQLException if database update fails; the records stay unsaved then
+     */
+    public void saveActivitySketches(ActivitySketches sketches) throws SQLException {
+        synchronized (sketchSaveLock) {
+            ActivitySketches.Unsaved unsaved = sketches.takeUnsaved();
+            try {
+                ActivitySketches merged;
+                try {
+                    merged = mergeStoredSketches(sketches.getWindowStart(), unsaved);
+                } catch (SQLException e) {
+                    if (!"23505".equals(e.getSQLState())) {
+                        throw e;
+                    }
+                    // Another process stored the window's first copy at the same time
+                    merged = mergeStoredSketches(sketches.getWindowStart(), unsaved);
+                }
+                sketches.adoptSaved(merged);
+            } catch (SQLException e) {
+                sketches.restoreUnsaved(unsaved);
+                throw e;
+            }
+            changed(CacheVersions.Domain.ACTIVITY_SKETCHES);
+        }
+    }
+
+    /**
+     * Merges unsaved records into a window's stored sketches in one transaction and
+     * returns the merged copy. A window without stored sketches is inserted, so two
+     * processes saving it first cannot both succeed; the loser gets a duplicate key
+     * error and retries against the winner's rows.
+     */
+    private ActivitySketches mergeStoredSketches(LocalDate windowStart, ActivitySketches.Unsaved unsaved)
+            throws SQLException {
+        try (Connection c = openConnection()) {
+            c.setAutoCommit(false);
+            try {
+                ActivitySketches stored = readActivitySketches(c, windowStart, true);
+                boolean exists = stored != null;
+                if (!exists) {
+                    stored = new ActivitySketches(windowStart);
+                }
+                stored.absorb(unsaved);
+                String sql = exists
+                    ? "UPDATE ActivitySketches SET sketch_data = ?, updated_at = CURRENT_TIMESTAMP "
+                      + "WHERE window_start = ? AND sketch_type = ?"
+                    : "INSERT INTO ActivitySketches (sketch_data, window_start, sketch_type) VALUES (?, ?, ?)";
+                try (PreparedStatement pstmt = c.prepareStatement(sql)) {
+                    java.sql.Date window = java.sql.Date.valueOf(windowStart);
+                    pstmt.setBytes(1, stored.distinctUsersBytes());
+                    pstmt.setDate(2, window);
+                    pstmt.setString(3, "DISTINCT_USERS");
+                    pstmt.addBatch();
+                    pstmt.setBytes(1, stored.postsBytes());
+                    pstmt.setDate(2, window);
+                    pstmt.setString(3, "POSTS");
+                    pstmt.addBatch();
+                    pstmt.executeBatch();
+                }
+                c.commit();
+                return stored;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Estimates how many distinct users were active across a range of weekly windows
+     * by merging the persisted distinct-user sketches. The current week is included
+     * with its in-memory state, unsaved records too; nothing is written.
+     *
+     * @param fromWindow the first window's Monday (inclusive)
+     * @param toWindow the last window's Monday (inclusive)
+     * @return the estimated number of distinct active users
+     * @throws SQLException if database query fails
+     */
+    public long estimateDistinctActiveUsers(LocalDate fromWindow, LocalDate toWindow) throws SQLException {
+        HyperLogLog union = new HyperLogLog();
+        ActivitySketches current = getWeeklyActivitySketches();
+        if (!current.getWindowStart().isBefore(fromWindow) && !current.getWindowStart().isAfter(toWindow)) {
+            current.mergeDistinctUsersInto(union);
+        }
+        String sql = "SELECT sketch_data FROM ActivitySketches "
+                   + "WHERE sketch_type = 'DISTINCT_USERS' AND window_start BETWEEN ? AND ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setDate(1, java.sql.Date.valueOf(fromWindow));
+            pstmt.setDate(2, java.sql.Date.valueOf(toWindow));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    union.merge(ActivitySketches.distinctUsersFromBytes(rs.getBytes("sketch_data")));
+                }
+            }
+        }
+        return union.estimate();
+    }
+
+    /**
+     * Computes per-student metrics (question, answer and review counts, resolution rate
+     * and last activity) in parallel over partitions of the student list, each partition
+     * on its own connection. Intended for the full-semester recompute on the analytics page.
+     *
+     * @return metrics for every student, most questions first
+     * @throws SQLException if any partition query fails
+     */
+    public List<StudentMetrics> computeStudentMetrics() throws SQLException {
+        return getAnalyticsEngine().computeStudentMetrics();
+    }
+
+    /**
+     * Returns the shared fork-join analytics engine, creating it on first use.
+     *
+     * @return the analytics engine
+     */
+    synchronized ParallelAnalyticsEngine getAnalyticsEngine() {
+        if (analyticsEngine == null) {
+            analyticsEngine = new ParallelAnalyticsEngine(this);
+        }
+        return analyticsEngine;
+    }
+
+    /** Highest risk scores first; the parameter is the number of students. */
+    static final String TOP_RISK_SQL = "SELECT r.student_id, u.name, r.risk_score, r.open_questions, "
+        + "r.oldest_open_question, r.open_escalations, r.contributions, r.last_activity, r.computed_at "
+        + "FROM StudentRiskScores r JOIN cse360users u ON u.userName = r.student_id "
+        + "ORDER BY r.risk_score DESC, r.student_id FETCH FIRST ? ROWS ONLY";
+
+    /**
+     * Re-scores every student now instead of waiting for the hourly run.
+     *
+     * @return the number of students scored
+     * @throws SQLException if any partition fails
+     */
+    public int recomputeStudentRisk() throws SQLException {
+        return riskService.recomputeAll();
+    }
+
+    /**
+     * Re-scores every student in the background on the risk scoring thread, after any
+     * run already under way. Used by the pages, which must not block the UI thread.
+     *
+     * @return completes with the number of students scored, or exceptionally if the run fails
+     */
+    public java.util.concurrent.CompletableFuture<Integer> recomputeStudentRiskLater() {
+        return riskService.recomputeAllLater();
+    }
+
+    /**
+     * Retrieves the students with the highest risk scores, for the staff help tools.
+     * Reads the precomputed StudentRiskScores table, so the cost does not grow with
+     * the amount of content.
+     *
+     * @param limit the number of students to return
+     * @return ResultSet with student_id, name, risk_score and the signals behind it, highest score first
+     * @throws SQLException if database query fails
+     */
+    public ResultSet getTopRiskStudents(int limit) throws SQLException {
+        PreparedStatement pstmt = prepareReportingQuery(TOP_RISK_SQL);
+        pstmt.setInt(1, limit);
+        return pstmt.executeQuery();
+    }
+
+    /**
+     * Writes a staff report to a stream as CSV or JSON Lines, straight from a database
+     * cursor on its own connection; memory use does not grow with the report size.
+     *
+     * @param report the report to export
+     * @param format the output format
+     * @param out where the report goes; flushed but not closed
+     * @return the number of rows written
+     * @throws SQLException if the report query fails
+     * @throws java.io.IOException if writing fails
+     */
+    public long exportReport(ReportExporter.Report report, ReportExporter.Format format, java.io.OutputStream out)
+            throws SQLException, java.io.IOException {
+        return reportExporter.export(report, format, out);
     }
 
     /**
@@ -1688,7 +3398,23 @@ public class DatabaseHelper {
                    + "JOIN cse360users st ON se.student_id = st.userName "
                    + "WHERE se.status = 'OPEN' "
                    + "ORDER BY se.created_date DESC";
-        return statement.executeQuery(sql);
+        return query(sql);
+    }
+
+    /**
+     * Retrieves escalation requests of any status, optionally including resolved
+     * escalations moved to the archive by the retention job.
+     * @param includeArchived true to read the archive as well
+     * @return ResultSet containing escalations, newest first
+     * @throws SQLException if database query fails
+     */
+    public ResultSet getEscalationHistory(boolean includeArchived) throws SQLException {
+        String columns = "id, staff_id, student_id, issue_type, description, priority, status, "
+                       + "created_date, resolved_date, resolved_by";
+        String sql = "SELECT " + columns + " FROM StaffEscalations"
+                   + (includeArchived ? " UNION ALL SELECT " + columns + " FROM StaffEscalationsArchive" : "")
+                   + " ORDER BY created_date DESC";
+        return prepareReportingQuery(sql).executeQuery();
     }
 
     /**
@@ -1706,8 +3432,20 @@ public class DatabaseHelper {
             pstmt.setString(1, status);
             pstmt.setString(2, resolvedBy);
             pstmt.setInt(3, escalationId);
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
         }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT student_id FROM StaffEscalations WHERE id = ?")) {
+            pstmt.setInt(1, escalationId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    riskService.refreshStudentLater(rs.getString("student_id"));
+                }
+            }
+        }
+        return true;
     }
 
     /**
@@ -1716,26 +3454,41 @@ public class DatabaseHelper {
      * @return true if user has staff role, false otherwise
      */
     public boolean isStaffMember(String userName) {
-        String role = getUserRole(userName);
-        return role != null && role.contains("staff");
+        UserSession session = getSession(userName);
+        return session != null && session.isStaff();
     }
 
     // ==================== UTILITY METHODS ====================
 
     /**
-     * Closes database connection and statement objects.
+     * Closes the database connections and stops background work.
      * Should be called when database operations are complete to free resources.
      */
     public void closeConnection() {
-        try{ 
-            if(statement!=null) statement.close(); 
-        } catch(SQLException se2) { 
-            se2.printStackTrace();
+        try {
+            if (weeklySketches != null && weeklySketches.getPendingUpdates() > 0) {
+                saveActivitySketches(weeklySketches);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        if (analyticsEngine != null) {
+            analyticsEngine.shutdown();
+        }
+        similarQuestions.shutdown();
+        invitationCodes.shutdown();
+        retention.shutdown();
+        riskService.shutdown();
+        try { 
+            if(reportingConnection!=null) reportingConnection.close(); 
+        } catch(SQLException se){ 
+            se.printStackTrace(); 
         } 
         try { 
             if(connection!=null) connection.close(); 
         } catch(SQLException se){ 
             se.printStackTrace(); 
         } 
+        // In server mode the TCP server stays up for the other desktops until this process exits
     }
 }
@@ -0,0 +1,93 @@
+package databasePart1;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import org.h2.tools.Server;
+
+/**
+ * Hosts the database over H2's TCP server so several application instances can
+ * share one data set.
+ *
+ * <p>{@link DatabaseHelper} starts it automatically in server mode; it can also run
+ * as its own process with {@code java databasePart1.DatabaseServer}, using the same
+ * settings as {@link DatabaseConfig}. The database file is created locally before the
+ * server starts, and the server never creates databases for remote callers. It only
+ * accepts connections from this machine unless {@code -Dfoundation.db.allowOthers=true}
+ * is set, which requires a non-empty {@code db.password}.</p>
+ *
+ * <p>Once started, the server runs until this process exits, not until the helper that
+ * started it is closed, so a staff member logging out on the hosting desktop does not
+ * disconnect the other desktops. Closing the hosting application still takes the
+ * shared data set offline; a standalone server avoids that.</p>
+ */
+public class DatabaseServer {
+
+    private static Server server = null;
+
+    /** True once the shutdown hook that stops the server has been registered. */
+    private static boolean hookRegistered = false;
+
+    private DatabaseServer() {
+    }
+
+    /**
+     * Starts the TCP server for the configured database unless one is already running
+     * in this process. The database is created first if it does not exist yet.
+     *
+     * @param config the database settings; the port and path are served
+     * @throws SQLException if the server cannot be started, e.g. the port is in use,
+     *         or other hosts are allowed while the password is empty
+     */
+    public static synchronized void start(DatabaseConfig config) throws SQLException {
+        if (server != null && server.isRunning(false)) {
+            return;
+        }
+        boolean allowOthers = Boolean.getBoolean("foundation.db.allowOthers");
+        if (allowOthers && (config.getPassword() == null || config.getPassword().isEmpty())) {
+            throw new SQLException("Refusing to accept connections from other hosts while the database "
+                                   + "password is empty; set foundation.db.password");
+        }
+        // Create the database as a local embedded file, so remote callers never can
+        DriverManager.getConnection("jdbc:h2:" + config.getPath(), config.getUser(), config.getPassword()).close();
+        String port = String.valueOf(config.getPort());
+        String[] args = allowOthers
+            ? new String[] { "-tcpPort", port, "-tcpAllowOthers" }
+            : new String[] { "-tcpPort", port };
+        server = Server.createTcpServer(args).start();
+        if (!hookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(DatabaseServer::stop));
+            hookRegistered = true;
+        }
+        System.out.println("Database server started: " + server.getURL());
+    }
+
+    /**
+     * Stops the server if this process started one. Connected clients are disconnected.
+     * Runs on its own when the process exits.
+     */
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+    }
+
+    /**
+     * @return true if this process is hosting the database
+     */
+    public static synchronized boolean isRunning() {
+        return server != null && server.isRunning(false);
+    }
+
+    /**
+     * Runs a standalone server until the process is stopped.
+     *
+     * @param args unused
+     * @throws SQLException if the server cannot be started
+     */
+    public static void main(String[] args) throws SQLException {
+        DatabaseConfig config = DatabaseConfig.load();
+        start(config);
+        System.out.println("Serving " + config.getPath() + "; clients use -Dfoundation.db.mode=client");
+    }
+}
@@ -0,0 +1,183 @@
+package databasePart1;
+
+import java.security.SecureRandom;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues invitation codes and keeps the InvitationCodes table small.
+ *
+ * <p>Codes are {@link #CODE_LENGTH} characters drawn with {@link SecureRandom} from an
+ * alphabet without look-alike characters (no 0/O, 1/I/L), giving about 8.5 * 10^11
+ * possible codes. Codes are inserted in one batch per round. Any code that hits
+ * the primary key, whether it repeats a live code or another instance issued it
+ * at the same moment, is replaced and retried, so every returned code is
+ * unique and stored.</p>
+ *
+ * <p>A background sweeper deletes used and expired codes every
+ * {@link #SWEEP_INTERVAL_MINUTES} minutes, {@link #SWEEP_BATCH_SIZE} rows per
+ * statement, on its own connection. Only codes that can still be redeemed stay in
+ * the table.</p>
+ */
+public class InvitationCodeService {
+
+    /** Length of generated codes. */
+    public static final int CODE_LENGTH = 8;
+
+    /** Characters codes are drawn from. */
+    private static final String ALPHABET = "23456789ABCDEFGHJKMNPQRSTUVWXYZ";
+
+    /** Largest number of codes issued in one call. */
+    public static final int MAX_BATCH = 5_000;
+
+    /** Rows deleted per sweeper statement. */
+    public static final int SWEEP_BATCH_SIZE = 500;
+
+    /** Minutes between sweeps. */
+    public static final long SWEEP_INTERVAL_MINUTES = 5;
+
+    /** Attempts per batch before giving up; only reached if the code space is nearly full. */
+    private static final int MAX_ROUNDS = 10;
+
+    private final DatabaseHelper databaseHelper;
+    private final SecureRandom random = new SecureRandom();
+    private ScheduledExecutorService sweeper = null;
+
+    /**
+     * Constructs an InvitationCodeService.
+     *
+     * @param databaseHelper the helper whose database holds the codes
+     */
+    public InvitationCodeService(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+
+    /**
+     * Issues distinct, unused codes for a role.
+     *
+     * @param connection the connection to insert on
+     * @param userRole the role granted by the codes
+     * @param count the number of codes, between 1 and {@link #MAX_BATCH}
+     * @param validity how long the codes can be redeemed
+     * @return the stored codes
+     * @throws SQLException if the codes cannot be stored
+     */
+    public List<String> generateCodes(Connection connection, String userRole, int count, Duration validity)
+            throws SQLException {
+        if (count < 1 || count > MAX_BATCH) {
+            throw new IllegalArgumentException("Code count must be between 1 and " + MAX_BATCH + ": " + count);
+        }
+        Timestamp expires = Timestamp.valueOf(LocalDateTime.now().plus(validity));
+        List<String> issued = new ArrayList<>(count);
+        Set<String> attempted = new HashSet<>();
+        String sql = "INSERT INTO InvitationCodes (code, userRole, isUsed, userTime) VALUES (?, ?, FALSE, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int round = 0; round < MAX_ROUNDS && issued.size() < count; round++) {
+                List<String> batch = new ArrayList<>();
+                while (batch.size() < count - issued.size()) {
+                    String code = nextCode();
+                    // Duplicates within this call are skipped before they reach the database
+                    if (attempted.add(code)) {
+                        batch.add(code);
+                        pstmt.setString(1, code);
+                        pstmt.setString(2, userRole);
+                        pstmt.setTimestamp(3, expires);
+                        pstmt.addBatch();
+                    }
+                }
+                int[] results;
+                try {
+                    results = pstmt.executeBatch();
+                } catch (BatchUpdateException e) {
+                    // Codes already in the table fail individually; the rest of the batch is stored
+                    results = e.getUpdateCounts();
+                    if (results.length < batch.size() || !"23505".equals(e.getSQLState())) {
+                        throw e;
+                    }
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    if (results[i] != Statement.EXECUTE_FAILED) {
+                        issued.add(batch.get(i));
+                    }
+                }
+            }
+        }
+        if (issued.size() < count) {
+            throw new SQLException("Could only issue " + issued.size() + " of " + count + " invitation codes");
+        }
+        return issued;
+    }
+
+    /**
+     * Deletes used and expired codes in batches.
+     *
+     * @param connection the connection to delete on
+     * @return the number of codes deleted
+     * @throws SQLException if a delete fails
+     */
+    public int sweep(Connection connection) throws SQLException {
+        String sql = "DELETE FROM InvitationCodes WHERE isUsed = TRUE OR userTime <= CURRENT_TIMESTAMP "
+                   + "FETCH FIRST " + SWEEP_BATCH_SIZE + " ROWS ONLY";
+        int total = 0;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int deleted;
+            do {
+                deleted = pstmt.executeUpdate();
+                total += deleted;
+            } while (deleted == SWEEP_BATCH_SIZE);
+        }
+        return total;
+    }
+
+    /**
+     * Starts the background sweeper unless it is already running.
+     */
+    public synchronized void startSweeper() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "invitation-code-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(() -> {
+            try (Connection c = databaseHelper.openConnection()) {
+                sweep(c);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }, SWEEP_INTERVAL_MINUTES, SWEEP_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops the background sweeper.
+     */
+    public synchronized void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    private String nextCode() {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            code[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(code);
+    }
+}
@@ -0,0 +1,247 @@
+package databasePart1;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+/**
+ * Minimal streaming JSON writer. Values go straight to the underlying writer, so a
+ * result set of any size can be written as a JSON array without collecting it first.
+ *
+ * <p>The writer tracks only whether a comma is due at each nesting level; it does not
+ * check that names and values alternate. Timestamps are written as ISO-8601 strings.</p>
+ */
+public class JsonWriter {
+
+    private final Writer out;
+    /** One entry per open array or object: true once it holds a member. */
+    private final ArrayDeque<Boolean> hasMember = new ArrayDeque<>();
+    private boolean afterName = false;
+
+    /**
+     * Constructs a JsonWriter.
+     *
+     * @param out where the JSON text goes; the caller flushes and closes it
+     */
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Starts an array.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter beginArray() throws IOException {
+        separate();
+        out.write('[');
+        hasMember.push(false);
+        return this;
+    }
+
+    /**
+     * Ends the current array.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter endArray() throws IOException {
+        hasMember.pop();
+        out.write(']');
+        return this;
+    }
+
+    /**
+     * Starts an object.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter beginObject() throws IOException {
+        separate();
+        out.write('{');
+        hasMember.push(false);
+        return this;
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter endObject() throws IOException {
+        hasMember.pop();
+        out.write('}');
+        return this;
+    }
+
+    /**
+     * Writes a member name inside an object; the next call writes its value.
+     *
+     * @param name the member name
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value, or null.
+     *
+     * @param value the value
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a number value, or null.
+     *
+     * @param value the value
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter value(Number value) throws IOException {
+        separate();
+        out.write(value == null ? "null" : value.toString());
+        return this;
+    }
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param value the value
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes the current row of a result set as an object keyed by lower-case
+     * column labels.
+     *
+     * @param rs the result set, positioned on a row
+     * @param meta the result set's metadata, read once by the caller
+     * @return this writer
+     * @throws IOException if writing fails
+     * @throws SQLException if a column cannot be read
+     */
+    public JsonWriter row(ResultSet rs, ResultSetMetaData meta) throws IOException, SQLException {
+        beginObject();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            name(meta.getColumnLabel(i).toLowerCase(Locale.ROOT));
+            switch (meta.getColumnType(i)) {
+                case Types.BOOLEAN:
+                    boolean b = rs.getBoolean(i);
+                    if (rs.wasNull()) {
+                        value((String) null);
+                    } else {
+                        value(b);
+                    }
+                    break;
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                case Types.DECIMAL:
+                case Types.NUMERIC:
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    value((Number) rs.getObject(i));
+                    break;
+                case Types.TIMESTAMP:
+                    Timestamp t = rs.getTimestamp(i);
+                    value(t == null ? null : t.toLocalDateTime().toString());
+                    break;
+                default:
+                    value(rs.getString(i));
+            }
+        }
+        return endObject();
+    }
+
+    /**
+     * Writes every remaining row of a result set as a JSON array.
+     *
+     * @param rs the result set
+     * @return the number of rows written
+     * @throws IOException if writing fails
+     * @throws SQLException if a row cannot be read
+     */
+    public int rows(ResultSet rs) throws IOException, SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int count = 0;
+        beginArray();
+        while (rs.next()) {
+            row(rs, meta);
+            count++;
+        }
+        endArray();
+        return count;
+    }
+
+    /**
+     * Writes a comma if the enclosing array or object already has a member.
+     */
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!hasMember.isEmpty()) {
+            if (hasMember.peek()) {
+                out.write(',');
+            } else {
+                hasMember.pop();
+                hasMember.push(true);
+            }
+        }
+    }
+
+    private void writeString(String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (ch < 0x20) {
+                        out.write(String.format("\\u%04x", (int) ch));
+                    } else {
+                        out.write(ch);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,247 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Screens new and edited content for moderation terms before it reaches staff.
+ *
+ * <p>The terms in ModerationTerms are compiled into an Aho-Corasick automaton, which
+ * finds every term in a text in one left-to-right pass regardless of how many terms
+ * there are. Matching ignores case and only counts whole words or phrases, so a term
+ * never fires inside a longer word. The compiled automaton is immutable and swapped
+ * in one step by {@link #reload(Connection)}, so the term list can change while
+ * content is being written.</p>
+ *
+ * <p>{@link DatabaseHelper} runs the filter on every question, answer and staff
+ * discussion post it writes and records hits as FLAG rows in ContentModeration.</p>
+ */
+public class ModerationFilter {
+
+    /**
+     * Compiled automaton. States are numbered from 0 (the root); each state's
+     * transitions are a sorted character array searched by binary search.
+     */
+    private static class Automaton {
+        final char[][] keys;
+        final int[][] targets;
+        final int[] fail;
+        /** Term ending at the state, or -1. */
+        final int[] term;
+        /** Nearest state on the fail chain that ends a term, or -1. */
+        final int[] nextMatch;
+        final String[] terms;
+
+        Automaton(Collection<String> termList) {
+            List<Map<Character, Integer>> trie = new ArrayList<>();
+            List<Integer> ends = new ArrayList<>();
+            trie.add(new TreeMap<>());
+            ends.add(-1);
+            terms = termList.toArray(new String[0]);
+            for (int t = 0; t < terms.length; t++) {
+                int state = 0;
+                for (char ch : terms[t].toCharArray()) {
+                    Integer next = trie.get(state).get(ch);
+                    if (next == null) {
+                        next = trie.size();
+                        trie.add(new TreeMap<>());
+                        ends.add(-1);
+                        trie.get(state).put(ch, next);
+                    }
+                    state = next;
+                }
+                ends.set(state, t);
+            }
+
+            int n = trie.size();
+            keys = new char[n][];
+            targets = new int[n][];
+            term = new int[n];
+            for (int s = 0; s < n; s++) {
+                Map<Character, Integer> edges = trie.get(s);
+                keys[s] = new char[edges.size()];
+                targets[s] = new int[edges.size()];
+                int i = 0;
+                for (Map.Entry<Character, Integer> e : edges.entrySet()) {
+                    keys[s][i] = e.getKey();
+                    targets[s][i] = e.getValue();
+                    i++;
+                }
+                term[s] = ends.get(s);
+            }
+
+            // Breadth-first, so a state's fail target is final before its children need it
+            fail = new int[n];
+            nextMatch = new int[n];
+            nextMatch[0] = -1;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[0]) {
+                fail[child] = 0;
+                nextMatch[child] = -1;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int s = queue.poll();
+                for (int i = 0; i < keys[s].length; i++) {
+                    int child = targets[s][i];
+                    int f = fail[s];
+                    int via;
+                    while ((via = step(f, keys[s][i])) < 0 && f != 0) {
+                        f = fail[f];
+                    }
+                    fail[child] = via < 0 ? 0 : via;
+                    nextMatch[child] = term[fail[child]] >= 0 ? fail[child] : nextMatch[fail[child]];
+                    queue.add(child);
+                }
+            }
+        }
+
+        /** Goto function without failure; -1 if the state has no edge for the character. */
+        int step(int state, char ch) {
+            char[] k = keys[state];
+            int lo = 0;
+            int hi = k.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (k[mid] < ch) {
+                    lo = mid + 1;
+                } else if (k[mid] > ch) {
+                    hi = mid - 1;
+                } else {
+                    return targets[state][mid];
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final Automaton EMPTY = new Automaton(List.of());
+
+    private volatile Automaton automaton = EMPTY;
+
+    /**
+     * Normalizes a term as it is stored and matched: trimmed, lower case, inner
+     * whitespace collapsed to single spaces.
+     *
+     * @param term the term
+     * @return the normalized term
+     */
+    public static String normalize(String term) {
+        return term == null ? "" : term.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Replaces the term list.
+     *
+     * @param terms the terms to match; blank ones are ignored
+     */
+    public void setTerms(Collection<String> terms) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String t : terms) {
+            String n = normalize(t);
+            if (!n.isEmpty()) {
+                normalized.add(n);
+            }
+        }
+        automaton = normalized.isEmpty() ? EMPTY : new Automaton(normalized);
+    }
+
+    /**
+     * Recompiles the automaton from the ModerationTerms table. Scans already running
+     * finish on the previous automaton.
+     *
+     * @param c the connection to read on
+     * @return the number of terms now in use
+     * @throws SQLException if the terms cannot be read
+     */
+    public int reload(Connection c) throws SQLException {
+        List<String> terms = new ArrayList<>();
+        try (PreparedStatement pstmt = c.prepareStatement("SELECT term FROM ModerationTerms");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                terms.add(rs.getString("term"));
+            }
+        }
+        setTerms(terms);
+        return automaton.terms.length;
+    }
+
+    /**
+     * Finds the moderation terms in a text.
+     *
+     * @param text the text to scan; may be null
+     * @return the distinct terms found, in order of first appearance; empty if none
+     */
+    public List<String> scan(String text) {
+        Automaton a = automaton;
+        List<String> found = new ArrayList<>(0);
+        if (text == null || a.terms.length == 0) {
+            return found;
+        }
+        int state = 0;
+        char previous = ' ';
+        for (int i = 0; i < text.length(); i++) {
+            char ch = Character.toLowerCase(text.charAt(i));
+            // Runs of whitespace read as the single space the terms are stored with
+            if (Character.isWhitespace(ch)) {
+                if (previous == ' ') {
+                    continue;
+                }
+                ch = ' ';
+            }
+            previous = ch;
+            int next;
+            while ((next = a.step(state, ch)) < 0 && state != 0) {
+                state = a.fail[state];
+            }
+            state = next < 0 ? 0 : next;
+            for (int s = a.term[state] >= 0 ? state : a.nextMatch[state]; s >= 0; s = a.nextMatch[s]) {
+                String term = a.terms[a.term[s]];
+                if (endsWord(text, i + 1) && startsWord(text, i, term.length()) && !found.contains(term)) {
+                    found.add(term);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * True if the term ending at {@code last} starts at a word boundary. The term's
+     * length is measured in normalized characters, so whitespace runs are walked back
+     * over as one character.
+     */
+    private static boolean startsWord(String text, int last, int length) {
+        int i = last;
+        for (int remaining = length - 1; remaining > 0; remaining--) {
+            i--;
+            if (Character.isWhitespace(text.charAt(i))) {
+                while (i > 0 && Character.isWhitespace(text.charAt(i - 1))) {
+                    i--;
+                }
+            }
+        }
+        return i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1));
+    }
+
+    private static boolean endsWord(String text, int end) {
+        return end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+    }
+
+    /**
+     * @return the number of terms in use
+     */
+    public int size() {
+        return automaton.terms.length;
+    }
+}
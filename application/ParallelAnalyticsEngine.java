@@ -0,0 +1,314 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Computes analytics in parallel over partitions of a sorted key space (usernames).
+ *
+ * <p>The keys are cut into contiguous ranges of at most {@link #PARTITION_SIZE} keys.
+ * A fork-join task splits the list of ranges in half until a single range remains,
+ * and each leaf runs its range queries ({@code userName BETWEEN first AND last}) on
+ * its own JDBC connection. Leaf results cover disjoint keys, so merging is a plain
+ * map union. Connections are borrowed from a small pool that is filled on demand,
+ * so at most one connection per worker thread is open, and closed when the run ends.</p>
+ *
+ * <p>The full-semester student metrics recompute used by the analytics page is built
+ * on {@link #computeByPartition(List, PartitionQuery)}; other per-user recomputes can
+ * reuse it with their own {@link PartitionQuery}.</p>
+ */
+public class ParallelAnalyticsEngine {
+
+    /** Maximum number of keys handled by one leaf task. */
+    public static final int PARTITION_SIZE = 500;
+
+    /**
+     * Computes results for every key in the inclusive range {@code [firstKey, lastKey]}.
+     *
+     * @param <T> the per-key result type
+     */
+    @FunctionalInterface
+    public interface PartitionQuery<T> {
+        /**
+         * Runs the partition's queries.
+         *
+         * @param connection a connection owned by the calling worker for the duration of the call
+         * @param firstKey the first key in the partition
+         * @param lastKey the last key in the partition
+         * @return results keyed by key; keys outside the partition must not appear
+         * @throws SQLException if a query fails
+         */
+        Map<String, T> compute(Connection connection, String firstKey, String lastKey) throws SQLException;
+    }
+
+    private final DatabaseHelper databaseHelper;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs an engine with one worker per available processor.
+     *
+     * @param databaseHelper the helper used to open the per-worker connections
+     */
+    public ParallelAnalyticsEngine(DatabaseHelper databaseHelper) {
+        this(databaseHelper, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs an engine with a fixed number of workers.
+     *
+     * @param databaseHelper the helper used to open the per-worker connections
+     * @param parallelism the number of worker threads
+     */
+    public ParallelAnalyticsEngine(DatabaseHelper databaseHelper, int parallelism) {
+        this.databaseHelper = databaseHelper;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Computes metrics for every student in the active term: question,
+     * resolved-question, answer and review counts plus last activity time.
+     *
+     * @return metrics ordered by question count, then answer count, both descending
+     * @throws SQLException if any partition query fails
+     */
+    public List<StudentMetrics> computeStudentMetrics() throws SQLException {
+        String term = databaseHelper.getActiveTerm();
+        Map<String, StudentMetrics> byStudent = computeByPartition(loadStudentKeys(),
+            (c, first, last) -> studentMetricsForRange(c, first, last, term));
+        List<StudentMetrics> result = new ArrayList<>(byStudent.values());
+        result.sort((a, b) -> a.getQuestionCount() != b.getQuestionCount()
+            ? Integer.compare(b.getQuestionCount(), a.getQuestionCount())
+            : Integer.compare(b.getAnswerCount(), a.getAnswerCount()));
+        return result;
+    }
+
+    /**
+     * Runs a partition query over all keys in parallel and merges the results.
+     *
+     * @param <T> the per-key result type
+     * @param sortedKeys the keys to cover, sorted ascending in database collation order
+     * @param query the query run for each partition
+     * @return the union of all partition results
+     * @throws SQLException if any partition query fails; the run's connections are
+     *         closed only after every partition has finished or been cancelled
+     */
+    public <T> Map<String, T> computeByPartition(List<String> sortedKeys, PartitionQuery<T> query) throws SQLException {
+        List<String[]> ranges = new ArrayList<>();
+        for (int start = 0; start < sortedKeys.size(); start += PARTITION_SIZE) {
+            int end = Math.min(start + PARTITION_SIZE, sortedKeys.size()) - 1;
+            ranges.add(new String[] { sortedKeys.get(start), sortedKeys.get(end) });
+        }
+        if (ranges.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        ConcurrentLinkedQueue<Connection> connections = new ConcurrentLinkedQueue<>();
+        try {
+            return pool.invoke(new PartitionTask<>(ranges, 0, ranges.size(), query, connections, new AtomicBoolean()));
+        } catch (PartitionFailure e) {
+            throw e.getCause();
+        } finally {
+            for (Connection c : connections) {
+                try {
+                    c.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads. The engine cannot be used afterwards.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Loads the usernames of all students in database sort order.
+     */
+    List<String> loadStudentKeys() throws SQLException {
+        List<String> keys = new ArrayList<>();
+        String sql = "SELECT userName FROM cse360users WHERE userRole LIKE '%student%' ORDER BY userName";
+        try (Connection c = databaseHelper.openConnection();
+             PreparedStatement pstmt = c.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                keys.add(rs.getString("userName"));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Partition query for {@link #computeStudentMetrics()}: one indexed range scan
+     * per source table.
+     */
+    private Map<String, StudentMetrics> studentMetricsForRange(Connection c, String first, String last, String term)
+            throws SQLException {
+        Map<String, StudentMetrics> metrics = new HashMap<>();
+        String usersSql = "SELECT userName, name FROM cse360users "
+                        + "WHERE userName BETWEEN ? AND ? AND userRole LIKE '%student%'";
+        try (ResultSet rs = rangeQuery(c, usersSql, first, last)) {
+            while (rs.next()) {
+                metrics.put(rs.getString("userName"),
+                            new StudentMetrics(rs.getString("userName"), rs.getString("name")));
+            }
+        }
+
+        String questionsSql = "SELECT userName, COUNT(*) AS question_count, "
+                            + "SUM(CASE WHEN resolved THEN 1 ELSE 0 END) AS resolved_count, "
+                            + "MAX(created_date) AS last_activity FROM Questions "
+                            + "WHERE userName BETWEEN ? AND ? AND parent_question_id IS NULL AND term = ? "
+                            + "GROUP BY userName";
+        try (ResultSet rs = rangeQuery(c, questionsSql, first, last, term)) {
+            while (rs.next()) {
+                StudentMetrics m = metrics.get(rs.getString("userName"));
+                if (m != null) {
+                    m.setQuestionCounts(rs.getInt("question_count"), rs.getInt("resolved_count"));
+                    m.noteActivity(rs.getTimestamp("last_activity"));
+                }
+            }
+        }
+
+        String answersSql = "SELECT userName, COUNT(*) AS answer_count, MAX(created_date) AS last_activity "
+                          + "FROM Answers WHERE userName BETWEEN ? AND ? AND term = ? GROUP BY userName";
+        try (ResultSet rs = rangeQuery(c, answersSql, first, last, term)) {
+            while (rs.next()) {
+                StudentMetrics m = metrics.get(rs.getString("userName"));
+                if (m != null) {
+                    m.setAnswerCount(rs.getInt("answer_count"));
+                    m.noteActivity(rs.getTimestamp("last_activity"));
+                }
+            }
+        }
+
+        String reviewsSql = "SELECT reviewer, COUNT(*) AS review_count FROM Reviews "
+                          + "WHERE reviewer BETWEEN ? AND ? GROUP BY reviewer";
+        try (ResultSet rs = rangeQuery(c, reviewsSql, first, last)) {
+            while (rs.next()) {
+                StudentMetrics m = metrics.get(rs.getString("reviewer"));
+                if (m != null) {
+                    m.setReviewCount(rs.getInt("review_count"));
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Runs a query with two range parameters and any further parameters; the
+     * statement closes with the result set.
+     */
+    static ResultSet rangeQuery(Connection c, String sql, String first, String last, String... more)
+            throws SQLException {
+        PreparedStatement pstmt = c.prepareStatement(sql);
+        pstmt.setString(1, first);
+        pstmt.setString(2, last);
+        for (int i = 0; i < more.length; i++) {
+            pstmt.setString(3 + i, more[i]);
+        }
+        pstmt.closeOnCompletion();
+        return pstmt.executeQuery();
+    }
+
+    /**
+     * Carries a partition's SQLException out of the fork-join framework.
+     */
+    private static class PartitionFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        PartitionFailure(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+
+    /**
+     * Splits a run of partitions in half until one remains, then runs its query.
+     */
+    private class PartitionTask<T> extends RecursiveTask<Map<String, T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String[]> ranges;
+        private final int from;
+        private final int to;
+        private final PartitionQuery<T> query;
+        private final ConcurrentLinkedQueue<Connection> connections;
+        private final AtomicBoolean failed;
+
+        PartitionTask(List<String[]> ranges, int from, int to, PartitionQuery<T> query,
+                      ConcurrentLinkedQueue<Connection> connections, AtomicBoolean failed) {
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+            this.query = query;
+            this.connections = connections;
+            this.failed = failed;
+        }
+
+        @Override
+        protected Map<String, T> compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                PartitionTask<T> left = new PartitionTask<>(ranges, from, mid, query, connections, failed);
+                left.fork();
+                Map<String, T> result;
+                try {
+                    result = new PartitionTask<>(ranges, mid, to, query, connections, failed).compute();
+                } catch (RuntimeException e) {
+                    // Wait for the forked half, so no subtask still holds a connection
+                    // when computeByPartition closes them; its leaves skip their queries now
+                    failed.set(true);
+                    left.quietlyJoin();
+                    throw e;
+                }
+                result.putAll(left.join());
+                return result;
+            }
+
+            if (failed.get()) {
+                return new HashMap<>();
+            }
+            Connection c = borrow();
+            try {
+                return new HashMap<>(query.compute(c, ranges.get(from)[0], ranges.get(from)[1]));
+            } catch (SQLException e) {
+                failed.set(true);
+                throw new PartitionFailure(e);
+            } finally {
+                connections.add(c);
+            }
+        }
+
+        /**
+         * Takes an idle connection, opening a new one when every existing one is busy.
+         */
+        private Connection borrow() {
+            Connection c = connections.poll();
+            if (c != null) {
+                return c;
+            }
+            try {
+                return databaseHelper.openConnection();
+            } catch (SQLException e) {
+                throw new PartitionFailure(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package databasePart1;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds probable duplicate questions with MinHash signatures and locality-sensitive
+ * hashing.
+ *
+ * <p>A question's title and text are reduced to word shingles (pairs of adjacent
+ * words), and its signature keeps the minimum of {@link #NUM_HASHES} hash functions
+ * over those shingles. Two signatures agree at a position with probability equal to
+ * the Jaccard similarity of the shingle sets, so the share of agreeing positions
+ * estimates how much two questions overlap.</p>
+ *
+ * <p>Signatures are cut into {@link #BANDS} bands of {@link #ROWS_PER_BAND} values and
+ * each band is hashed into a bucket. Questions sharing any bucket are candidates; with
+ * 32 bands of 4 rows, pairs above about 0.5 similarity almost always collide and pairs
+ * below 0.2 rarely do. Finding a question's duplicates reads its 32 buckets instead of
+ * comparing it with every other question. {@link DatabaseHelper} stores each signature
+ * in QuestionSignatures when the question is written and loads the index from there
+ * on first use.</p>
+ */
+public class QuestionDuplicateIndex {
+
+    /** Hash functions per signature. */
+    public static final int NUM_HASHES = 128;
+
+    /** LSH bands per signature. */
+    public static final int BANDS = 32;
+
+    /** Signature values per band. */
+    public static final int ROWS_PER_BAND = NUM_HASHES / BANDS;
+
+    /** Estimated similarity at or above which two questions count as duplicates. */
+    public static final double DUPLICATE_THRESHOLD = 0.5;
+
+    /** Per-function seeds; fixed so stored signatures stay comparable across restarts. */
+    private static final long[] SEEDS = new long[NUM_HASHES];
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            seed += 0x9e3779b97f4a7c15L;
+            SEEDS[i] = mix(seed);
+        }
+    }
+
+    /**
+     * A question that probably duplicates another, with the estimated similarity.
+     */
+    public static class Match {
+        private final int questionId;
+        private final double similarity;
+
+        /**
+         * Constructs a Match.
+         *
+         * @param questionId the matching question's id
+         * @param similarity the estimated Jaccard similarity, between 0 and 1
+         */
+        public Match(int questionId, double similarity) {
+            this.questionId = questionId;
+            this.similarity = similarity;
+        }
+
+        /**
+         * @return the matching question's id
+         */
+        public int getQuestionId() { return questionId; }
+
+        /**
+         * @return the estimated Jaccard similarity, between 0 and 1
+         */
+        public double getSimilarity() { return similarity; }
+    }
+
+    private final Map<Integer, int[]> signatures = new HashMap<>();
+    private final Map<Long, Set<Integer>> buckets = new HashMap<>();
+    private volatile boolean loaded = false;
+
+    /**
+     * Computes the MinHash signature of a question.
+     *
+     * @param title the question title
+     * @param text the question text
+     * @return the signature, {@link #NUM_HASHES} values; every value is
+     *         {@link Integer#MAX_VALUE} if the question has no words
+     */
+    public static int[] signature(String title, String text) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String shingle : shingles(title + " " + text)) {
+            long base = HyperLogLog.hash64(shingle);
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int h = (int) (mix(base ^ SEEDS[i]) >>> 33);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Word pairs of the normalized text; a single word is its own shingle.
+     */
+    private static Set<String> shingles(String content) {
+        String[] words = content.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        List<String> tokens = new ArrayList<>(words.length);
+        for (String w : words) {
+            if (!w.isEmpty()) {
+                tokens.add(w);
+            }
+        }
+        Set<String> shingles = new LinkedHashSet<>();
+        if (tokens.size() == 1) {
+            shingles.add(tokens.get(0));
+        }
+        for (int i = 0; i + 1 < tokens.size(); i++) {
+            shingles.add(tokens.get(i) + " " + tokens.get(i + 1));
+        }
+        return shingles;
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two questions from their signatures.
+     *
+     * @param a one signature
+     * @param b another signature
+     * @return the share of positions where the signatures agree
+     */
+    public static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / NUM_HASHES;
+    }
+
+    /**
+     * Tells whether a signature was computed from no shingles at all.
+     *
+     * @param signature the signature
+     * @return true if every value is {@link Integer#MAX_VALUE}
+     */
+    public static boolean isEmpty(int[] signature) {
+        for (int value : signature) {
+            if (value != Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds or replaces a question's signature. A question without words is only
+     * removed: its empty signature would match every other such question exactly.
+     *
+     * @param questionId the question id
+     * @param signature the question's signature
+     */
+    public synchronized void put(int questionId, int[] signature) {
+        remove(questionId);
+        if (isEmpty(signature)) {
+            return;
+        }
+        signatures.put(questionId, signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bandKey(signature, band), k -> new HashSet<>()).add(questionId);
+        }
+    }
+
+    /**
+     * Removes a question from the index.
+     *
+     * @param questionId the question id
+     */
+    public synchronized void remove(int questionId) {
+        int[] previous = signatures.remove(questionId);
+        if (previous == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(previous, band);
+            Set<Integer> bucket = buckets.get(key);
+            if (bucket != null && bucket.remove(questionId) && bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the probable duplicates of a question.
+     *
+     * @param questionId the question id
+     * @return matches at or above {@link #DUPLICATE_THRESHOLD}, most similar first;
+     *         empty if the question is not indexed
+     */
+    public synchronized List<Match> duplicatesOf(int questionId) {
+        int[] signature = signatures.get(questionId);
+        List<Match> matches = new ArrayList<>();
+        if (signature == null) {
+            return matches;
+        }
+        for (int candidate : candidates(questionId, signature)) {
+            double s = similarity(signature, signatures.get(candidate));
+            if (s >= DUPLICATE_THRESHOLD) {
+                matches.add(new Match(candidate, s));
+            }
+        }
+        matches.sort((x, y) -> x.similarity != y.similarity
+            ? Double.compare(y.similarity, x.similarity) : Integer.compare(x.questionId, y.questionId));
+        return matches;
+    }
+
+    /**
+     * Groups questions into clusters of probable duplicates. Duplication is treated as
+     * transitive, so a cluster may hold questions that are each close to a third one.
+     *
+     * @return each clustered question's id mapped to its cluster's ids in ascending
+     *         order; questions without duplicates are left out
+     */
+    public synchronized Map<Integer, List<Integer>> clusters() {
+        Map<Integer, Integer> parent = new HashMap<>();
+        for (Map.Entry<Integer, int[]> e : signatures.entrySet()) {
+            int id = e.getKey();
+            for (int candidate : candidates(id, e.getValue())) {
+                if (candidate > id && similarity(e.getValue(), signatures.get(candidate)) >= DUPLICATE_THRESHOLD) {
+                    union(parent, id, candidate);
+                }
+            }
+        }
+        Map<Integer, List<Integer>> byRoot = new HashMap<>();
+        for (int id : parent.keySet()) {
+            byRoot.computeIfAbsent(find(parent, id), k -> new ArrayList<>()).add(id);
+        }
+        Map<Integer, List<Integer>> clusters = new HashMap<>();
+        for (List<Integer> members : byRoot.values()) {
+            members.sort(null);
+            List<Integer> cluster = Collections.unmodifiableList(members);
+            for (int id : members) {
+                clusters.put(id, cluster);
+            }
+        }
+        return clusters;
+    }
+
+    /**
+     * Questions sharing at least one band bucket with the given signature.
+     */
+    private Set<Integer> candidates(int questionId, int[] signature) {
+        Set<Integer> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            Set<Integer> bucket = buckets.get(bandKey(signature, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        candidates.remove(questionId);
+        return candidates;
+    }
+
+    private static void union(Map<Integer, Integer> parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent.put(Math.max(rootA, rootB), Math.min(rootA, rootB));
+        }
+    }
+
+    private static int find(Map<Integer, Integer> parent, int id) {
+        int root = id;
+        while (parent.computeIfAbsent(root, k -> k) != root) {
+            root = parent.get(root);
+        }
+        // Path compression
+        while (id != root) {
+            int next = parent.get(id);
+            parent.put(id, root);
+            id = next;
+        }
+        return root;
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long h = band;
+        for (int i = band * ROWS_PER_BAND; i < (band + 1) * ROWS_PER_BAND; i++) {
+            h = mix(h * 31 + signature[i]);
+        }
+        return h;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return the number of indexed questions
+     */
+    public synchronized int size() {
+        return signatures.size();
+    }
+
+    /**
+     * @return true once the index has been loaded from the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Replaces the index contents with the given signatures.
+     *
+     * @param all every indexed question's signature, by question id
+     */
+    public synchronized void reload(Map<Integer, int[]> all) {
+        signatures.clear();
+        buckets.clear();
+        for (Map.Entry<Integer, int[]> e : all.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+        loaded = true;
+    }
+
+    /**
+     * Marks the index stale so it is reloaded before its next use.
+     */
+    public void invalidate() {
+        loaded = false;
+    }
+
+    /**
+     * Serializes a signature for storage.
+     *
+     * @param signature the signature
+     * @return the signature as big-endian ints
+     */
+    public static byte[] toBytes(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    /**
+     * Restores a signature produced by {@link #toBytes(int[])}.
+     *
+     * @param data the stored signature
+     * @return the signature, or null if the data does not hold {@link #NUM_HASHES} values
+     */
+    public static int[] fromBytes(byte[] data) {
+        if (data == null || data.length != NUM_HASHES * Integer.BYTES) {
+            return null;
+        }
+        int[] signature = new int[NUM_HASHES];
+        ByteBuffer.wrap(data).asIntBuffer().get(signature);
+        return signature;
+    }
+}
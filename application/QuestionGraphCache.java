@@ -0,0 +1,275 @@
+package databasePart1;
+
+import application.Question;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Weight-bounded LRU cache of assembled {@link Question} graphs, keyed by question ID.
+ *
+ * <p>Each entry records which questions (the question and its clarification chain),
+ * answers and reviews it was assembled from, and the cache keeps reverse indexes from
+ * those ids to entries. A write to any of them drops exactly the entries that contain
+ * it. Entries are weighed by the text they hold, and the least recently used entries
+ * are evicted once the total passes the bound.</p>
+ *
+ * <p>A load that started before an invalidation is not cached, so a graph read
+ * concurrently with a write cannot outlive it. Cached graphs are shared; callers
+ * must treat them as read-only.</p>
+ */
+public class QuestionGraphCache {
+
+    /** Default bound, roughly the bytes of text held: 8 MB. */
+    public static final long DEFAULT_MAX_WEIGHT = 8L * 1024 * 1024;
+
+    /** Weight charged per question, answer or review on top of its text. */
+    private static final int OBJECT_WEIGHT = 64;
+
+    /**
+     * The ids and size of one assembled graph, filled in while it is loaded.
+     */
+    public static class Footprint {
+        private final Set<Integer> questionIds = new HashSet<>();
+        private final Set<Integer> answerIds = new HashSet<>();
+        private final Set<Integer> reviewIds = new HashSet<>();
+        private long weight = 0;
+
+        /**
+         * Records a question in the graph.
+         *
+         * @param id the question ID
+         * @param texts the question's title and content
+         */
+        public void addQuestion(int id, String... texts) {
+            questionIds.add(id);
+            weigh(texts);
+        }
+
+        /**
+         * Records an answer in the graph.
+         *
+         * @param id the answer ID
+         * @param text the answer content
+         */
+        public void addAnswer(int id, String text) {
+            answerIds.add(id);
+            weigh(text);
+        }
+
+        /**
+         * Records a review in the graph.
+         *
+         * @param id the review ID
+         * @param text the review content
+         */
+        public void addReview(int id, String text) {
+            reviewIds.add(id);
+            weigh(text);
+        }
+
+        /**
+         * @return the entry's weight
+         */
+        public long getWeight() { return weight; }
+
+        private void weigh(String... texts) {
+            weight += OBJECT_WEIGHT;
+            for (String t : texts) {
+                weight += t == null ? 0 : 2L * t.length();
+            }
+        }
+    }
+
+    private static class Entry {
+        final Question question;
+        final Footprint footprint;
+
+        Entry(Question question, Footprint footprint) {
+            this.question = question;
+            this.footprint = footprint;
+        }
+    }
+
+    private final long maxWeight;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Integer, Set<Integer>> byQuestion = new HashMap<>();
+    private final Map<Integer, Set<Integer>> byAnswer = new HashMap<>();
+    private final Map<Integer, Set<Integer>> byReview = new HashMap<>();
+    private long weight = 0;
+    private long invalidations = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Constructs a cache with the default weight bound.
+     */
+    public QuestionGraphCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * Constructs a cache with the given weight bound.
+     *
+     * @param maxWeight the largest total weight kept
+     */
+    public QuestionGraphCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns a cached graph and marks it recently used.
+     *
+     * @param questionId the question ID
+     * @return the cached Question, or null on a miss
+     */
+    public synchronized Question get(int questionId) {
+        Entry entry = entries.get(questionId);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.question;
+    }
+
+    /**
+     * Returns a stamp to pass to {@link #put} for a load that is about to start.
+     *
+     * @return the current invalidation count
+     */
+    public synchronized long loadStamp() {
+        return invalidations;
+    }
+
+    /**
+     * Caches a loaded graph unless something was invalidated since the load began
+     * or the graph alone exceeds the bound.
+     *
+     * @param questionId the question ID
+     * @param question the assembled Question
+     * @param footprint what the graph was assembled from
+     * @param stamp the value of {@link #loadStamp()} taken before loading
+     */
+    public synchronized void put(int questionId, Question question, Footprint footprint, long stamp) {
+        if (stamp != invalidations || footprint.weight > maxWeight) {
+            return;
+        }
+        remove(questionId);
+        entries.put(questionId, new Entry(question, footprint));
+        index(byQuestion, footprint.questionIds, questionId);
+        index(byAnswer, footprint.answerIds, questionId);
+        index(byReview, footprint.reviewIds, questionId);
+        weight += footprint.weight;
+
+        Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            Map.Entry<Integer, Entry> e = eldest.next();
+            eldest.remove();
+            unindex(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Drops every graph containing the question, including graphs of questions it clarifies.
+     *
+     * @param questionId the changed question's ID
+     */
+    public synchronized void invalidateQuestion(int questionId) {
+        invalidate(byQuestion.get(questionId));
+    }
+
+    /**
+     * Drops every graph containing the answer.
+     *
+     * @param answerId the changed answer's ID
+     */
+    public synchronized void invalidateAnswer(int answerId) {
+        invalidate(byAnswer.get(answerId));
+    }
+
+    /**
+     * Drops every graph containing the review.
+     *
+     * @param reviewId the changed review's ID
+     */
+    public synchronized void invalidateReview(int reviewId) {
+        invalidate(byReview.get(reviewId));
+    }
+
+    /**
+     * Empties the cache.
+     */
+    public synchronized void clear() {
+        invalidations++;
+        entries.clear();
+        byQuestion.clear();
+        byAnswer.clear();
+        byReview.clear();
+        weight = 0;
+    }
+
+    /**
+     * @return the number of cached graphs
+     */
+    public synchronized int size() { return entries.size(); }
+
+    /**
+     * @return the total weight of cached graphs
+     */
+    public synchronized long getWeight() { return weight; }
+
+    /**
+     * @return the fraction of lookups served from the cache
+     */
+    public synchronized double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    private void invalidate(Set<Integer> keys) {
+        // Bump even when nothing is cached: a load in flight may be about to cache the old state
+        invalidations++;
+        if (keys == null) {
+            return;
+        }
+        for (Integer key : new HashSet<>(keys)) {
+            remove(key);
+        }
+    }
+
+    private void remove(int questionId) {
+        Entry entry = entries.remove(questionId);
+        if (entry != null) {
+            unindex(questionId, entry);
+        }
+    }
+
+    private void unindex(int questionId, Entry entry) {
+        unindex(byQuestion, entry.footprint.questionIds, questionId);
+        unindex(byAnswer, entry.footprint.answerIds, questionId);
+        unindex(byReview, entry.footprint.reviewIds, questionId);
+        weight -= entry.footprint.weight;
+    }
+
+    private static void index(Map<Integer, Set<Integer>> index, Set<Integer> ids, int key) {
+        for (Integer id : ids) {
+            index.computeIfAbsent(id, k -> new HashSet<>()).add(key);
+        }
+    }
+
+    private static void unindex(Map<Integer, Set<Integer>> index, Set<Integer> ids, int key) {
+        for (Integer id : ids) {
+            Set<Integer> keys = index.get(id);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    index.remove(id);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package application;
+
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import databasePart1.DatabaseHelper;
+import databasePart1.ReportExporter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+
+/**
+ * The file dialog and background export shared by the staff pages' export buttons.
+ */
+public final class ReportExportDialog {
+
+    private ReportExportDialog() {
+    }
+
+    /**
+     * Asks for a file and exports a report to it in the background, so a large
+     * export does not freeze the page. The format follows the chosen file extension,
+     * and an alert reports the row count or the failure when the export ends.
+     *
+     * @param stage the owner of the file dialog
+     * @param databaseHelper the helper whose database holds the report
+     * @param report the report to export
+     * @param fileName the suggested file name, without extension
+     */
+    public static void export(Stage stage, DatabaseHelper databaseHelper, ReportExporter.Report report,
+                              String fileName) {
+        FileChooser chooser = new FileChooser();
+        chooser.setInitialFileName(fileName + ".csv");
+        chooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV", "*.csv"),
+            new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"));
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
+        ReportExporter.Format format = file.getName().endsWith(".jsonl")
+            ? ReportExporter.Format.JSONL : ReportExporter.Format.CSV;
+        Thread exporter = new Thread(() -> {
+            try (OutputStream out = new FileOutputStream(file)) {
+                long rows = databaseHelper.exportReport(report, format, out);
+                Platform.runLater(() -> showAlert(Alert.AlertType.INFORMATION, "Export Complete",
+                    rows + " rows written to " + file.getName()));
+            } catch (SQLException | IOException e) {
+                Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Export Failed",
+                    "Failed to export " + file.getName() + ": " + e.getMessage()));
+            }
+        }, "report-export");
+        exporter.setDaemon(true);
+        exporter.start();
+    }
+
+    private static void showAlert(Alert.AlertType type, String title, String message) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
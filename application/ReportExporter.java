@@ -0,0 +1,255 @@
+package databasePart1;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Locale;
+
+/**
+ * Exports staff reports as CSV or JSON Lines straight from a database cursor.
+ *
+ * <p>Each export runs on its own read-only connection with H2's lazy query execution
+ * turned on, so rows are produced as the cursor advances instead of being collected
+ * into a result first. The moderation log and escalations are ordered by primary key
+ * and risk scores by {@code idx_studentrisk_score}, so those stream without a sort.
+ * The content report runs two such cursors one after the other, questions then
+ * answers, each in its table's term index order. Only the student activity report,
+ * a GROUP BY, is built by H2 before its first row, so its memory grows with the
+ * number of students. Rows are written through a {@link #BUFFER_SIZE} character
+ * buffer to the caller's stream.</p>
+ *
+ * <p>CSV follows RFC 4180 with a header row. Text cells starting with {@code =},
+ * {@code +}, {@code -} or {@code @} are prefixed with an apostrophe so spreadsheet
+ * programs do not run student-written content as a formula.</p>
+ */
+public class ReportExporter {
+
+    /** Characters buffered before the output stream is written. */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Rows fetched from the cursor per round trip. */
+    private static final int FETCH_SIZE = 1000;
+
+    /** Output formats. */
+    public enum Format {
+        /** Comma-separated values with a header row. */
+        CSV,
+        /** One JSON object per line. */
+        JSONL
+    }
+
+    /** Reports that can be exported. */
+    public enum Report {
+        /** Question and answer counts per student in the active term. */
+        STUDENT_ACTIVITY,
+        /** Every question and answer of the active term. */
+        CONTENT,
+        /** The content moderation log: staff actions and automatic flags. */
+        MODERATION_LOG,
+        /** Every escalation still in the live table. */
+        ESCALATIONS,
+        /** The latest risk score of every student. */
+        RISK_SCORES
+    }
+
+    /**
+     * Where a report is written, opened only once the report query has started, so a
+     * caller such as the staff API can still send an error if the query fails.
+     */
+    public interface Destination {
+        /**
+         * @return the stream to write to; it is flushed but not closed
+         * @throws IOException if the stream cannot be opened
+         */
+        OutputStream open() throws IOException;
+    }
+
+    private final DatabaseHelper databaseHelper;
+
+    /**
+     * Constructs a ReportExporter.
+     *
+     * @param databaseHelper the helper whose database is exported
+     */
+    public ReportExporter(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+
+    /**
+     * Writes a report to a stream. The stream is flushed but not closed.
+     *
+     * @param report the report
+     * @param format the output format
+     * @param out where the report goes
+     * @return the number of rows written
+     * @throws SQLException if the report query fails
+     * @throws IOException if writing fails
+     */
+    public long export(Report report, Format format, OutputStream out) throws SQLException, IOException {
+        try (Connection c = databaseHelper.openConnection()) {
+            return export(c, report, format, () -> out);
+        }
+    }
+
+    /**
+     * Writes a report from a connection the caller owns, e.g. one borrowed from a
+     * {@link ConnectionPool}. The connection is read-only with lazy execution while the
+     * report runs and is put back as it was found.
+     *
+     * @param c the connection; not closed
+     * @param report the report
+     * @param format the output format
+     * @param destination opened after the report query has started
+     * @return the number of rows written
+     * @throws SQLException if the report query fails
+     * @throws IOException if writing fails
+     */
+    public long export(Connection c, Report report, Format format, Destination destination)
+            throws SQLException, IOException {
+        String term = databaseHelper.getActiveTerm();
+        boolean readOnly = c.isReadOnly();
+        c.setReadOnly(true);
+        try (Statement s = c.createStatement()) {
+            s.execute("SET LAZY_QUERY_EXECUTION TRUE");
+            try {
+                Writer writer = null;
+                long rows = 0;
+                for (int part = 0; part < parts(report); part++) {
+                    try (PreparedStatement pstmt = prepare(c, report, term, part)) {
+                        pstmt.setFetchSize(FETCH_SIZE);
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            if (writer == null) {
+                                writer = new BufferedWriter(
+                                    new OutputStreamWriter(destination.open(), StandardCharsets.UTF_8), BUFFER_SIZE);
+                            }
+                            rows += format == Format.CSV ? writeCsv(rs, writer, part == 0) : writeJsonLines(rs, writer);
+                        }
+                    }
+                }
+                writer.flush();
+                return rows;
+            } finally {
+                s.execute("SET LAZY_QUERY_EXECUTION FALSE");
+                c.setReadOnly(readOnly);
+            }
+        }
+    }
+
+    /**
+     * The number of queries a report runs, one after the other.
+     */
+    private static int parts(Report report) {
+        return report == Report.CONTENT ? 2 : 1;
+    }
+
+    private PreparedStatement prepare(Connection c, Report report, String term, int part) throws SQLException {
+        PreparedStatement pstmt;
+        switch (report) {
+            case STUDENT_ACTIVITY:
+                pstmt = c.prepareStatement(DatabaseHelper.STUDENT_ACTIVITY_SQL);
+                pstmt.setString(1, term);
+                pstmt.setString(2, term);
+                return pstmt;
+            case CONTENT:
+                pstmt = c.prepareStatement(databaseHelper.staffContentQueries(term)[part]);
+                pstmt.setString(1, term);
+                return pstmt;
+            case MODERATION_LOG:
+                return c.prepareStatement("SELECT id, moderator_id, content_type, content_id, action, reason, "
+                    + "moderated_at FROM ContentModeration ORDER BY id");
+            case ESCALATIONS:
+                return c.prepareStatement("SELECT id, staff_id, student_id, issue_type, description, priority, "
+                    + "status, created_date, resolved_date, resolved_by FROM StaffEscalations ORDER BY id");
+            case RISK_SCORES:
+                return c.prepareStatement("SELECT student_id, risk_score, open_questions, oldest_open_question, "
+                    + "open_escalations, contributions, last_activity, computed_at FROM StudentRiskScores "
+                    + "ORDER BY risk_score DESC");
+            default:
+                throw new IllegalArgumentException("Unknown report: " + report);
+        }
+    }
+
+    private static long writeCsv(ResultSet rs, Writer out, boolean header) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        boolean[] text = new boolean[columns + 1];
+        for (int i = 1; i <= columns; i++) {
+            if (header) {
+                if (i > 1) {
+                    out.write(',');
+                }
+                writeCsvCell(out, meta.getColumnLabel(i).toLowerCase(Locale.ROOT), false);
+            }
+            int type = meta.getColumnType(i);
+            text[i] = type == Types.VARCHAR || type == Types.CHAR || type == Types.LONGVARCHAR || type == Types.CLOB;
+        }
+        if (header) {
+            out.write("\r\n");
+        }
+        long rows = 0;
+        while (rs.next()) {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) {
+                    out.write(',');
+                }
+                Object value = rs.getObject(i);
+                if (value instanceof Timestamp) {
+                    value = ((Timestamp) value).toLocalDateTime();
+                }
+                if (value != null) {
+                    writeCsvCell(out, value.toString(), text[i]);
+                }
+            }
+            out.write("\r\n");
+            rows++;
+        }
+        return rows;
+    }
+
+    private static void writeCsvCell(Writer out, String value, boolean guardFormula) throws IOException {
+        if (guardFormula && !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char ch = value.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"') {
+                out.write('"');
+            }
+            out.write(ch);
+        }
+        out.write('"');
+    }
+
+    private static long writeJsonLines(ResultSet rs, Writer out) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        JsonWriter json = new JsonWriter(out);
+        long rows = 0;
+        while (rs.next()) {
+            json.row(rs, meta);
+            out.write('\n');
+            rows++;
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,221 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves closed staff records past a retention age from their hot tables into
+ * archive tables, so open-item queries only scan live rows.
+ *
+ * <p>Each {@link Policy} names a hot table, the condition that makes a row closed and
+ * the timestamp column its age is measured from. Archive tables ({@code <table>Archive})
+ * copy the hot table's columns without constraints and add {@code archived_at}. Rows
+ * move in batches of {@link #BATCH_SIZE}: each batch is copied and deleted in one
+ * transaction on a dedicated connection, with a {@link #BATCH_PAUSE_MILLIS} pause
+ * between batches so interactive writers are never starved.</p>
+ *
+ * <p>The job runs daily in the background; {@link DatabaseHelper#archiveClosedRecords(int)}
+ * runs it on demand. The default age is 180 days and can be changed with
+ * {@code -Dfoundation.retention.days}.</p>
+ */
+public class RetentionService {
+
+    /** Rows moved per transaction. */
+    public static final int BATCH_SIZE = 500;
+
+    /** Pause between batches. */
+    public static final long BATCH_PAUSE_MILLIS = 50;
+
+    /** Hours between background runs. */
+    public static final long RUN_INTERVAL_HOURS = 24;
+
+    /** Retention age used by the background job unless overridden. */
+    public static final int DEFAULT_RETENTION_DAYS = Integer.getInteger("foundation.retention.days", 180);
+
+    /**
+     * A hot table and the rule for which of its rows may be archived.
+     */
+    public static class Policy {
+        private final String table;
+        private final String closedCondition;
+        private final String ageColumn;
+
+        /**
+         * Constructs a Policy.
+         *
+         * @param table the hot table
+         * @param closedCondition SQL condition true for closed rows
+         * @param ageColumn the timestamp column compared with the cutoff
+         */
+        public Policy(String table, String closedCondition, String ageColumn) {
+            this.table = table;
+            this.closedCondition = closedCondition;
+            this.ageColumn = ageColumn;
+        }
+
+        /**
+         * @return the hot table
+         */
+        public String getTable() { return table; }
+
+        /**
+         * @return the archive table
+         */
+        public String getArchiveTable() { return table + "Archive"; }
+    }
+
+    /** The tables under retention. */
+    public static final List<Policy> POLICIES = List.of(
+        new Policy("StaffEscalations", "status <> 'OPEN'", "resolved_date"),
+        // A closed request that a reopened one points at stays until the reopened one is archived
+        new Policy("AdminRequests", "status = 'CLOSED' AND id NOT IN "
+                   + "(SELECT original_request_id FROM AdminRequests WHERE original_request_id IS NOT NULL)",
+                   "closed_at"),
+        new Policy("ContentModeration", "TRUE", "moderated_at"),
+        new Policy("StaffModerationLog", "TRUE", "moderation_date"));
+
+    private final DatabaseHelper databaseHelper;
+    private ScheduledExecutorService scheduler = null;
+
+    /**
+     * Constructs a RetentionService.
+     *
+     * @param databaseHelper the helper used to open the job's connection
+     */
+    public RetentionService(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+
+    /**
+     * Archives every closed row older than the given age.
+     *
+     * @param maxAge rows closed longer ago than this are archived
+     * @return rows archived per hot table
+     * @throws SQLException if a batch fails; earlier batches stay archived
+     */
+    public Map<String, Integer> archive(Duration maxAge) throws SQLException {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(maxAge));
+        Map<String, Integer> moved = new LinkedHashMap<>();
+        try (Connection c = databaseHelper.openConnection()) {
+            c.setAutoCommit(false);
+            try {
+                for (Policy p : POLICIES) {
+                    moved.put(p.table, archive(c, p, cutoff));
+                }
+            } finally {
+                c.rollback();
+            }
+        }
+        return moved;
+    }
+
+    private int archive(Connection c, Policy p, Timestamp cutoff) throws SQLException {
+        String columns = String.join(", ", sharedColumns(c, p.table, p.getArchiveTable()));
+        String selectIds = "SELECT id FROM " + p.table + " WHERE (" + p.closedCondition + ") AND "
+                         + p.ageColumn + " < ? ORDER BY id FETCH FIRST " + BATCH_SIZE + " ROWS ONLY";
+        String copy = "INSERT INTO " + p.getArchiveTable() + " (" + columns + ") SELECT " + columns
+                    + " FROM " + p.table + " WHERE id = ANY(?)";
+        String delete = "DELETE FROM " + p.table + " WHERE id = ANY(?)";
+        int total = 0;
+        try (PreparedStatement selectStmt = c.prepareStatement(selectIds);
+             PreparedStatement copyStmt = c.prepareStatement(copy);
+             PreparedStatement deleteStmt = c.prepareStatement(delete)) {
+            while (true) {
+                List<Integer> ids = new ArrayList<>();
+                selectStmt.setTimestamp(1, cutoff);
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt("id"));
+                    }
+                }
+                if (ids.isEmpty()) {
+                    return total;
+                }
+                Integer[] batch = ids.toArray(new Integer[0]);
+                copyStmt.setObject(1, batch);
+                deleteStmt.setObject(1, batch);
+                copyStmt.executeUpdate();
+                deleteStmt.executeUpdate();
+                c.commit();
+                total += ids.size();
+                if (ids.size() < BATCH_SIZE) {
+                    return total;
+                }
+                try {
+                    Thread.sleep(BATCH_PAUSE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return total;
+                }
+            }
+        }
+    }
+
+    /**
+     * Columns present in both the hot and the archive table, so a column added to the
+     * hot table later does not break archiving. {@link DatabaseHelper#archiveTerm(String)}
+     * copies into term tables the same way.
+     */
+    static List<String> sharedColumns(Connection c, String table, String archiveTable) throws SQLException {
+        Set<String> archived = new LinkedHashSet<>();
+        try (ResultSet rs = c.getMetaData().getColumns(null, null, archiveTable.toUpperCase(), null)) {
+            while (rs.next()) {
+                archived.add(rs.getString("COLUMN_NAME"));
+            }
+        }
+        List<String> shared = new ArrayList<>();
+        try (ResultSet rs = c.getMetaData().getColumns(null, null, table.toUpperCase(), null)) {
+            while (rs.next()) {
+                if (archived.contains(rs.getString("COLUMN_NAME"))) {
+                    shared.add(rs.getString("COLUMN_NAME"));
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Starts the daily background job unless it is already running.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "retention-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archive(Duration.ofDays(DEFAULT_RETENTION_DAYS));
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }, 1, RUN_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Stops the background job.
+     */
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
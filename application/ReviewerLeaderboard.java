@@ -0,0 +1,165 @@
+package databasePart1;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory leaderboard of reviewers ordered by trust score, mirroring the
+ * ReviewerScorecards table.
+ *
+ * <p>Entries are kept in a skip list ordered by trust score (highest first, ties by
+ * reviewer id) and indexed by reviewer id, so an update is O(log n), the top K are
+ * read in O(K) and a reviewer's rank costs O(rank) without sorting anything.
+ * {@link DatabaseHelper} loads the board from the table once and then applies every
+ * scorecard write to it.</p>
+ */
+public class ReviewerLeaderboard {
+
+    /**
+     * One reviewer's position on the leaderboard.
+     */
+    public static class ReviewerScore {
+        private final String reviewerId;
+        private final double trustScore;
+        private final int reviewCount;
+
+        /**
+         * Constructs a ReviewerScore.
+         *
+         * @param reviewerId the reviewer's username
+         * @param trustScore the reviewer's trust score
+         * @param reviewCount the number of reviews the reviewer has written
+         */
+        public ReviewerScore(String reviewerId, double trustScore, int reviewCount) {
+            this.reviewerId = reviewerId;
+            this.trustScore = trustScore;
+            this.reviewCount = reviewCount;
+        }
+
+        /**
+         * @return the reviewer's username
+         */
+        public String getReviewerId() { return reviewerId; }
+
+        /**
+         * @return the reviewer's trust score
+         */
+        public double getTrustScore() { return trustScore; }
+
+        /**
+         * @return the number of reviews the reviewer has written
+         */
+        public int getReviewCount() { return reviewCount; }
+    }
+
+    private final ConcurrentSkipListSet<ReviewerScore> ranking = new ConcurrentSkipListSet<>((a, b) -> {
+        int byScore = Double.compare(b.trustScore, a.trustScore);
+        return byScore != 0 ? byScore : a.reviewerId.compareTo(b.reviewerId);
+    });
+    private final Map<String, ReviewerScore> byReviewer = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    /**
+     * Inserts or moves a reviewer to reflect a new trust score.
+     *
+     * @param reviewerId the reviewer's username
+     * @param trustScore the reviewer's new trust score
+     * @param reviewCount the reviewer's review count
+     */
+    public synchronized void update(String reviewerId, double trustScore, int reviewCount) {
+        ReviewerScore updated = new ReviewerScore(reviewerId, trustScore, reviewCount);
+        ReviewerScore previous = byReviewer.put(reviewerId, updated);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        ranking.add(updated);
+    }
+
+    /**
+     * Removes a reviewer from the leaderboard.
+     *
+     * @param reviewerId the reviewer's username
+     */
+    public synchronized void remove(String reviewerId) {
+        ReviewerScore previous = byReviewer.remove(reviewerId);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+    }
+
+    /**
+     * Returns the highest-ranked reviewers.
+     *
+     * @param k the maximum number of reviewers to return
+     * @return up to k reviewers, highest trust score first
+     */
+    public List<ReviewerScore> top(int k) {
+        List<ReviewerScore> result = new ArrayList<>(Math.min(k, byReviewer.size()));
+        Iterator<ReviewerScore> it = ranking.iterator();
+        while (result.size() < k && it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a reviewer's 1-based rank. Costs O(rank).
+     *
+     * @param reviewerId the reviewer's username
+     * @return the reviewer's rank, or -1 if the reviewer has no scorecard
+     */
+    public synchronized int rank(String reviewerId) {
+        ReviewerScore entry = byReviewer.get(reviewerId);
+        if (entry == null) {
+            return -1;
+        }
+        int rank = 1;
+        for (ReviewerScore s : ranking) {
+            if (s == entry) {
+                return rank;
+            }
+            rank++;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of reviewers on the leaderboard
+     */
+    public int size() {
+        return byReviewer.size();
+    }
+
+    /**
+     * @return true once the leaderboard has been loaded from the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Replaces the leaderboard contents, e.g. after loading from the database or a bulk recompute.
+     *
+     * @param scores every reviewer's current score
+     */
+    public synchronized void reload(List<ReviewerScore> scores) {
+        ranking.clear();
+        byReviewer.clear();
+        for (ReviewerScore s : scores) {
+            byReviewer.put(s.reviewerId, s);
+            ranking.add(s);
+        }
+        loaded = true;
+    }
+
+    /**
+     * Marks the leaderboard stale so it is reloaded before its next use.
+     */
+    public void invalidate() {
+        loaded = false;
+    }
+}
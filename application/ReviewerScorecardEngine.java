@@ -0,0 +1,354 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Derives the inputs of a reviewer's scorecard from the Reviews table and keeps them
+ * current as reviews are written.
+ *
+ * <p>Scorecard inputs are defined as follows:</p>
+ * <ul>
+ *   <li><b>review count</b> - number of reviews the reviewer has written</li>
+ *   <li><b>average rating</b> - mean TrustedReviewers weight students have given the
+ *       reviewer, halved to a 0-5 scale (0 if nobody trusts them yet)</li>
+ *   <li><b>helpfulness</b> - fraction of the reviewer's answer reviews whose answer
+ *       resolves its question ({@code Answers.resolves})</li>
+ *   <li><b>response time</b> - mean hours between the reviewed question or answer being
+ *       posted and the review being written</li>
+ * </ul>
+ *
+ * <p>Running totals live in ReviewerScorecardStats so that a new review, a deleted review
+ * or a change to an answer's resolves flag only adjusts one row per affected reviewer.
+ * {@link #recomputeAll()} rebuilds every reviewer's totals and scorecard in parallel
+ * on the {@link ParallelAnalyticsEngine}.</p>
+ */
+public class ReviewerScorecardEngine {
+
+    /** Largest response time that fits the ReviewerScorecards column. */
+    private static final double MAX_RESPONSE_HOURS = 999.99;
+
+    /**
+     * The values passed to {@link DatabaseHelper#updateReviewerScorecard}.
+     */
+    public static class ScorecardInputs {
+        private final int reviewCount;
+        private final double averageRating;
+        private final double helpfulnessScore;
+        private final double responseTimeHours;
+
+        /**
+         * Constructs ScorecardInputs.
+         *
+         * @param reviewCount the number of reviews written
+         * @param averageRating the average rating on a 0-5 scale
+         * @param helpfulnessScore the helpfulness score (0.0-1.0)
+         * @param responseTimeHours the average response time in hours
+         */
+        public ScorecardInputs(int reviewCount, double averageRating,
+                               double helpfulnessScore, double responseTimeHours) {
+            this.reviewCount = reviewCount;
+            this.averageRating = averageRating;
+            this.helpfulnessScore = helpfulnessScore;
+            this.responseTimeHours = responseTimeHours;
+        }
+
+        /**
+         * @return the number of reviews written
+         */
+        public int getReviewCount() { return reviewCount; }
+
+        /**
+         * @return the average rating on a 0-5 scale
+         */
+        public double getAverageRating() { return averageRating; }
+
+        /**
+         * @return the helpfulness score (0.0-1.0)
+         */
+        public double getHelpfulnessScore() { return helpfulnessScore; }
+
+        /**
+         * @return the average response time in hours
+         */
+        public double getResponseTimeHours() { return responseTimeHours; }
+    }
+
+    /** Joins a review to the question or answer it is about. */
+    private static final String REVIEW_CONTEXT_SQL =
+        "SELECT r.reviewer, r.answer_id, r.created_date AS review_date, a.resolves, "
+      + "COALESCE(a.created_date, q.created_date) AS content_date "
+      + "FROM Reviews r LEFT JOIN Answers a ON r.answer_id = a.id "
+      + "LEFT JOIN Questions q ON r.question_id = q.id WHERE r.id = ?";
+
+    private final DatabaseHelper databaseHelper;
+
+    /**
+     * Constructs a ReviewerScorecardEngine.
+     *
+     * @param databaseHelper the helper whose analytics engine runs full recomputes
+     */
+    public ReviewerScorecardEngine(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+
+    /**
+     * Adds or removes one review's contribution to its reviewer's running totals.
+     * Call with +1 after a review is inserted and with -1 before it is deleted.
+     *
+     * @param c the connection to use
+     * @param reviewId the review's id
+     * @param sign +1 to add the review, -1 to remove it
+     * @return the affected reviewer, or null if the review does not exist
+     * @throws SQLException if database access fails
+     */
+    public String applyReview(Connection c, int reviewId, int sign) throws SQLException {
+        try (PreparedStatement pstmt = c.prepareStatement(REVIEW_CONTEXT_SQL)) {
+            pstmt.setInt(1, reviewId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getString("reviewer") == null) {
+                    return null;
+                }
+                String reviewer = rs.getString("reviewer");
+                boolean onAnswer = rs.getObject("answer_id") != null;
+                Timestamp contentDate = rs.getTimestamp("content_date");
+                Timestamp reviewDate = rs.getTimestamp("review_date");
+                boolean timed = contentDate != null && reviewDate != null;
+                addToStats(c, reviewer, sign, onAnswer ? sign : 0, onAnswer && rs.getBoolean("resolves") ? sign : 0,
+                           timed ? sign : 0, timed ? sign * hoursBetween(contentDate, reviewDate) : 0.0);
+                return reviewer;
+            }
+        }
+    }
+
+    /**
+     * Adjusts the helpfulness totals of every reviewer of an answer after its resolves
+     * flag changed. Call only when the flag actually changed.
+     *
+     * @param c the connection to use
+     * @param answerId the answer whose flag changed
+     * @param resolves the new value of the flag
+     * @return the reviewers whose totals changed
+     * @throws SQLException if database access fails
+     */
+    public List<String> applyResolvesChange(Connection c, int answerId, boolean resolves) throws SQLException {
+        List<String> reviewers = new ArrayList<>();
+        String sql = "SELECT reviewer, COUNT(*) AS review_count FROM Reviews "
+                   + "WHERE answer_id = ? AND reviewer IS NOT NULL GROUP BY reviewer";
+        try (PreparedStatement pstmt = c.prepareStatement(sql)) {
+            pstmt.setInt(1, answerId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String reviewer = rs.getString("reviewer");
+                    int count = rs.getInt("review_count");
+                    addToStats(c, reviewer, 0, 0, resolves ? count : -count, 0, 0.0);
+                    reviewers.add(reviewer);
+                }
+            }
+        }
+        return reviewers;
+    }
+
+    /**
+     * Tells whether a reviewer has running totals, and therefore a scorecard to refresh.
+     *
+     * @param c the connection to use
+     * @param reviewer the reviewer's username
+     * @return true if the reviewer has running totals
+     * @throws SQLException if database access fails
+     */
+    public boolean hasTotals(Connection c, String reviewer) throws SQLException {
+        try (PreparedStatement pstmt = c.prepareStatement(
+                "SELECT 1 FROM ReviewerScorecardStats WHERE reviewer_id = ?")) {
+            pstmt.setString(1, reviewer);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Reads a reviewer's scorecard inputs from the running totals and trust weights.
+     *
+     * @param c the connection to use
+     * @param reviewer the reviewer's username
+     * @return the reviewer's current scorecard inputs
+     * @throws SQLException if database access fails
+     */
+    public ScorecardInputs loadInputs(Connection c, String reviewer) throws SQLException {
+        String sql = "SELECT s.review_count, s.answer_review_count, s.resolving_review_count, "
+                   + "s.timed_review_count, s.total_response_hours, "
+                   + "(SELECT AVG(CAST(weight AS DOUBLE)) FROM TrustedReviewers t "
+                   + " WHERE t.trustedUserName = s.reviewer_id) AS avg_weight "
+                   + "FROM ReviewerScorecardStats s WHERE s.reviewer_id = ?";
+        try (PreparedStatement pstmt = c.prepareStatement(sql)) {
+            pstmt.setString(1, reviewer);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return new ScorecardInputs(0, 0.0, 0.0, 0.0);
+                }
+                return toInputs(rs.getInt("review_count"), rs.getInt("answer_review_count"),
+                                rs.getInt("resolving_review_count"), rs.getInt("timed_review_count"),
+                                rs.getDouble("total_response_hours"), rs.getDouble("avg_weight"));
+            }
+        }
+    }
+
+    /**
+     * Rebuilds every reviewer's running totals and scorecard from the Reviews table,
+     * in parallel over partitions of the reviewer list.
+     *
+     * @return the number of reviewers recomputed
+     * @throws SQLException if any partition fails
+     */
+    public int recomputeAll() throws SQLException {
+        List<String> reviewers = new ArrayList<>();
+        String sql = "SELECT DISTINCT r.reviewer FROM Reviews r "
+                   + "JOIN cse360users u ON r.reviewer = u.userName ORDER BY r.reviewer";
+        try (Connection c = databaseHelper.openConnection()) {
+            // Totals of reviewers with no remaining reviews are dropped rather than recomputed
+            try (PreparedStatement cleanup = c.prepareStatement("DELETE FROM ReviewerScorecardStats "
+                    + "WHERE reviewer_id NOT IN (SELECT reviewer FROM Reviews WHERE reviewer IS NOT NULL)")) {
+                cleanup.executeUpdate();
+            }
+            try (PreparedStatement pstmt = c.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    reviewers.add(rs.getString("reviewer"));
+                }
+            }
+        }
+        return databaseHelper.getAnalyticsEngine().computeByPartition(reviewers, this::recomputeRange).size();
+    }
+
+    /**
+     * Partition query for {@link #recomputeAll()}: aggregates the range's reviews,
+     * then rewrites its running totals and scorecards on the partition connection.
+     */
+    private Map<String, ScorecardInputs> recomputeRange(Connection c, String first, String last) throws SQLException {
+        Map<String, Double> weights = new HashMap<>();
+        String weightSql = "SELECT trustedUserName, AVG(CAST(weight AS DOUBLE)) AS avg_weight "
+                         + "FROM TrustedReviewers WHERE trustedUserName BETWEEN ? AND ? GROUP BY trustedUserName";
+        try (PreparedStatement pstmt = c.prepareStatement(weightSql)) {
+            pstmt.setString(1, first);
+            pstmt.setString(2, last);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    weights.put(rs.getString("trustedUserName"), rs.getDouble("avg_weight"));
+                }
+            }
+        }
+
+        Map<String, ScorecardInputs> results = new HashMap<>();
+        String statsSql = "SELECT r.reviewer, COUNT(*) AS review_count, "
+                        + "SUM(CASE WHEN r.answer_id IS NOT NULL THEN 1 ELSE 0 END) AS answer_review_count, "
+                        + "SUM(CASE WHEN a.resolves THEN 1 ELSE 0 END) AS resolving_review_count, "
+                        + "SUM(CASE WHEN r.created_date IS NOT NULL "
+                        + "AND COALESCE(a.created_date, q.created_date) IS NOT NULL THEN 1 ELSE 0 END) AS timed_review_count, "
+                        + "SUM(COALESCE(DATEDIFF('SECOND', COALESCE(a.created_date, q.created_date), "
+                        + "r.created_date), 0)) / 3600.0 AS total_response_hours "
+                        + "FROM Reviews r LEFT JOIN Answers a ON r.answer_id = a.id "
+                        + "LEFT JOIN Questions q ON r.question_id = q.id "
+                        + "WHERE r.reviewer BETWEEN ? AND ? "
+                        + "AND r.reviewer IN (SELECT userName FROM cse360users) GROUP BY r.reviewer";
+        String mergeStats = "MERGE INTO ReviewerScorecardStats (reviewer_id, review_count, answer_review_count, "
+                          + "resolving_review_count, timed_review_count, total_response_hours) KEY (reviewer_id) "
+                          + "VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = c.prepareStatement(statsSql);
+             PreparedStatement merge = c.prepareStatement(mergeStats)) {
+            pstmt.setString(1, first);
+            pstmt.setString(2, last);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String reviewer = rs.getString("reviewer");
+                    int reviewCount = rs.getInt("review_count");
+                    int answerReviews = rs.getInt("answer_review_count");
+                    int resolving = rs.getInt("resolving_review_count");
+                    int timed = rs.getInt("timed_review_count");
+                    double totalHours = rs.getDouble("total_response_hours");
+
+                    merge.setString(1, reviewer);
+                    merge.setInt(2, reviewCount);
+                    merge.setInt(3, answerReviews);
+                    merge.setInt(4, resolving);
+                    merge.setInt(5, timed);
+                    merge.setDouble(6, totalHours);
+                    merge.addBatch();
+
+                    ScorecardInputs inputs = toInputs(reviewCount, answerReviews, resolving, timed, totalHours,
+                                                      weights.getOrDefault(reviewer, 0.0));
+                    DatabaseHelper.mergeReviewerScorecard(c, reviewer, inputs.getReviewCount(),
+                        inputs.getAverageRating(), inputs.getHelpfulnessScore(), inputs.getResponseTimeHours());
+                    results.put(reviewer, inputs);
+                }
+            }
+            merge.executeBatch();
+        }
+        return results;
+    }
+
+    /**
+     * Adds deltas to a reviewer's running totals, creating the row if needed.
+     */
+    private static void addToStats(Connection c, String reviewer, int reviews, int answerReviews,
+                                   int resolvingReviews, int timedReviews, double responseHours) throws SQLException {
+        String update = "UPDATE ReviewerScorecardStats SET review_count = review_count + ?, "
+                      + "answer_review_count = answer_review_count + ?, "
+                      + "resolving_review_count = resolving_review_count + ?, "
+                      + "timed_review_count = timed_review_count + ?, "
+                      + "total_response_hours = total_response_hours + ? WHERE reviewer_id = ?";
+        try (PreparedStatement up = c.prepareStatement(update)) {
+            up.setInt(1, reviews);
+            up.setInt(2, answerReviews);
+            up.setInt(3, resolvingReviews);
+            up.setInt(4, timedReviews);
+            up.setDouble(5, responseHours);
+            up.setString(6, reviewer);
+            if (up.executeUpdate() == 0) {
+                String insert = "INSERT INTO ReviewerScorecardStats (reviewer_id, review_count, "
+                              + "answer_review_count, resolving_review_count, timed_review_count, total_response_hours) "
+                              + "VALUES (?, ?, ?, ?, ?, ?)";
+                try (PreparedStatement ins = c.prepareStatement(insert)) {
+                    ins.setString(1, reviewer);
+                    ins.setInt(2, Math.max(0, reviews));
+                    ins.setInt(3, Math.max(0, answerReviews));
+                    ins.setInt(4, Math.max(0, resolvingReviews));
+                    ins.setInt(5, Math.max(0, timedReviews));
+                    ins.setDouble(6, Math.max(0.0, responseHours));
+                    ins.executeUpdate();
+                }
+            }
+        }
+    }
+
+    /**
+     * Turns running totals into scorecard inputs. The response time averages only
+     * reviews with both timestamps, so reviews from before Reviews.created_date do not
+     * count as instant responses.
+     */
+    private static ScorecardInputs toInputs(int reviewCount, int answerReviews, int resolvingReviews,
+                                            int timedReviews, double totalResponseHours, double averageWeight) {
+        double helpfulness = answerReviews == 0 ? 0.0
+            : Math.min(1.0, Math.max(0.0, (double) resolvingReviews / answerReviews));
+        double responseTime = timedReviews == 0 ? 0.0
+            : Math.min(MAX_RESPONSE_HOURS, Math.max(0.0, totalResponseHours / timedReviews));
+        return new ScorecardInputs(reviewCount, averageWeight / 2.0, helpfulness, responseTime);
+    }
+
+    /**
+     * Hours from one timestamp to another, or 0 if either is missing.
+     */
+    private static double hoursBetween(Timestamp from, Timestamp to) {
+        if (from == null || to == null) {
+            return 0.0;
+        }
+        return (to.getTime() - from.getTime()) / 3_600_000.0;
+    }
+}
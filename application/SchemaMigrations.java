@@ -0,0 +1,506 @@
+package databasePart1;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.h2.api.ErrorCode;
+
+/**
+ * Versioned schema of the application database.
+ *
+ * <p>The schema is an ordered list of {@link Migration}s. The SchemaVersion table
+ * records each migration applied, with a SHA-256 checksum of its statements.
+ * {@link #migrate(Connection)} normally costs one query: if the newest recorded
+ * version and checksum match the newest migration, the schema is current and nothing
+ * else runs. Otherwise every recorded checksum is verified, so a migration edited
+ * after release is reported instead of silently diverging, and the pending
+ * migrations run in order.</p>
+ *
+ * <p>Migrations are never edited once released; schema changes are added as a new
+ * migration at the end of {@link #MIGRATIONS}. Their SQL is written out in full
+ * rather than built from constants elsewhere in the code, so changing a constant
+ * (a code length, a hash count) cannot change a released migration's checksum; the
+ * change goes into a new migration instead. Statements are written to be
+ * idempotent (IF NOT EXISTS, backfills limited to unset rows): H2 commits DDL
+ * immediately, so a migration interrupted halfway is simply run again. This also
+ * lets databases created before versioning adopt it by running every migration
+ * once. A statement starting with {@link #REPEAT} is run until it updates no rows.</p>
+ */
+public class SchemaMigrations {
+
+    /** Prefix marking a statement to run until it updates no rows. */
+    public static final String REPEAT = "REPEAT ";
+
+    /**
+     * One schema version: the statements that bring the schema from the previous
+     * version to this one.
+     */
+    public static class Migration {
+        private final int version;
+        private final String description;
+        private final List<String> statements;
+        private final String checksum;
+
+        /**
+         * Constructs a Migration.
+         *
+         * @param version the version this migration brings the schema to
+         * @param description a short description
+         * @param statements the statements, run in order
+         */
+        public Migration(int version, String description, List<String> statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = Collections.unmodifiableList(new ArrayList<>(statements));
+            this.checksum = sha256(String.join("\n;\n", statements));
+        }
+
+        /**
+         * @return the version this migration brings the schema to
+         */
+        public int getVersion() { return version; }
+
+        /**
+         * @return a short description
+         */
+        public String getDescription() { return description; }
+
+        /**
+         * @return the statements, in order
+         */
+        public List<String> getStatements() { return statements; }
+
+        /**
+         * @return the SHA-256 checksum of the statements, in hex
+         */
+        public String getChecksum() { return checksum; }
+
+        /**
+         * Runs the statements.
+         *
+         * @param statement a statement on the connection to migrate
+         * @throws SQLException if a statement fails
+         */
+        public void apply(Statement statement) throws SQLException {
+            for (String sql : statements) {
+                if (sql.startsWith(REPEAT)) {
+                    while (statement.executeUpdate(sql.substring(REPEAT.length())) > 0) {
+                        // each pass reaches rows the previous pass made reachable
+                    }
+                } else {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+
+    /** Every migration, oldest first. */
+    public static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Core tables", List.of(
+            "CREATE TABLE IF NOT EXISTS cse360users ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "userName VARCHAR(255) UNIQUE, "
+                + "password VARCHAR(255), "
+                + "userRole VARCHAR(255), "
+                + "name VARCHAR(255), "
+                + "email VARCHAR(255))",
+            "CREATE TABLE IF NOT EXISTS InvitationCodes ("
+                + "code VARCHAR(4) PRIMARY KEY, "
+                + "userRole VARCHAR(200), "
+                + "isUsed BOOLEAN DEFAULT FALSE, "
+                + "userTime TIMESTAMP )",
+            "CREATE TABLE IF NOT EXISTS Questions ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "parent_question_id INT, "
+                + "userName VARCHAR(255), "
+                + "title VARCHAR(255), "
+                + "text VARCHAR(500), "
+                + "resolved BOOLEAN DEFAULT FALSE, "
+                + "created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "FOREIGN KEY (parent_question_id) REFERENCES Questions(id) ON DELETE CASCADE"
+                + ")",
+            "CREATE TABLE IF NOT EXISTS Answers ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "text VARCHAR(500) NOT NULL, "
+                + "userName VARCHAR(255), "
+                + "resolves BOOLEAN DEFAULT FALSE, "
+                + "question_id INT NOT NULL, "
+                + "created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "FOREIGN KEY (question_id) REFERENCES Questions(id) ON DELETE CASCADE"
+                + ")",
+            "CREATE TABLE IF NOT EXISTS Reviews ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "text VARCHAR(500) NOT NULL, "
+                + "reviewer VARCHAR(255), "
+                + "question_id INT, "
+                + "answer_id INT, "
+                + "FOREIGN KEY (question_id) REFERENCES Questions(id) ON DELETE CASCADE, "
+                + "FOREIGN KEY (answer_id) REFERENCES Answers(id) ON DELETE CASCADE"
+                + ")",
+            "CREATE TABLE IF NOT EXISTS TrustedReviewers ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "userName VARCHAR(255), "
+                + "trustedUserName VARCHAR(255), "
+                + "FOREIGN KEY (userName) REFERENCES cse360users(userName) ON DELETE CASCADE, "
+                + "FOREIGN KEY (trustedUserName) REFERENCES cse360users(userName) ON DELETE CASCADE"
+                + ")",
+            "ALTER TABLE TrustedReviewers ADD COLUMN IF NOT EXISTS weight INT DEFAULT 3",
+            "CREATE TABLE IF NOT EXISTS RoleRequests ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "student_id VARCHAR(255), "
+                + "request_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "status VARCHAR(50) DEFAULT 'PENDING', "
+                + "reviewed_by VARCHAR(255), "
+                + "review_date TIMESTAMP, "
+                + "FOREIGN KEY (student_id) REFERENCES cse360users(userName), "
+                + "FOREIGN KEY (reviewed_by) REFERENCES cse360users(userName)"
+                + ")",
+            "CREATE TABLE IF NOT EXISTS ContentModeration ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "moderator_id VARCHAR(255), "
+                + "content_type VARCHAR(50), "
+                + "content_id INT, "
+                + "action VARCHAR(50), "
+                + "reason VARCHAR(500), "
+                + "moderated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "FOREIGN KEY (moderator_id) REFERENCES cse360users(userName)"
+                + ")",
+            "CREATE TABLE IF NOT EXISTS ReviewerScorecards ("
+                + "reviewer_id VARCHAR(255) PRIMARY KEY, "
+                + "review_count INT DEFAULT 0, "
+                + "average_rating DECIMAL(3,2) DEFAULT 0.0, "
+                + "helpfulness_score DECIMAL(3,2) DEFAULT 0.0, "
+                + "response_time_hours DECIMAL(5,2) DEFAULT 0.0, "
+                + "trust_score DECIMAL(3,2) DEFAULT 0.0, "
+                + "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "FOREIGN KEY (reviewer_id) REFERENCES cse360users(userName)"
+                + ")",
+            "CREATE TABLE IF NOT EXISTS AdminRequests ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "instructor_id VARCHAR(255), "
+                + "description VARCHAR(1000), "
+                + "status VARCHAR(50) DEFAULT 'OPEN', "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "closed_at TIMESTAMP, "
+                + "closed_by VARCHAR(255), "
+                + "original_request_id INT, "
+                + "FOREIGN KEY (instructor_id) REFERENCES cse360users(userName), "
+                + "FOREIGN KEY (closed_by) REFERENCES cse360users(userName), "
+                + "FOREIGN KEY (original_request_id) REFERENCES AdminRequests(id)"
+                + ")",
+            "CREATE TABLE IF NOT EXISTS StaffDiscussions ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "staff_id VARCHAR(255), "
+                + "title VARCHAR(500), "
+                + "content VARCHAR(2000), "
+                + "created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "is_private BOOLEAN DEFAULT TRUE, "
+                + "FOREIGN KEY (staff_id) REFERENCES cse360users(userName)"
+                + ")",
+            "CREATE TABLE IF NOT EXISTS StaffEscalations ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "staff_id VARCHAR(255), "
+                + "student_id VARCHAR(255), "
+                + "issue_type VARCHAR(100), "
+                + "description VARCHAR(2000), "
+                + "priority VARCHAR(50) DEFAULT 'MEDIUM', "
+                + "status VARCHAR(50) DEFAULT 'OPEN', "
+                + "created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "resolved_date TIMESTAMP, "
+                + "resolved_by VARCHAR(255), "
+                + "FOREIGN KEY (staff_id) REFERENCES cse360users(userName), "
+                + "FOREIGN KEY (student_id) REFERENCES cse360users(userName), "
+                + "FOREIGN KEY (resolved_by) REFERENCES cse360users(userName)"
+                + ")",
+            "CREATE TABLE IF NOT EXISTS StaffModerationLog ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "staff_id VARCHAR(255), "
+                + "content_type VARCHAR(50), "
+                + "content_id INT, "
+                + "action VARCHAR(100), "
+                + "original_content VARCHAR(2000), "
+                + "modified_content VARCHAR(2000), "
+                + "moderation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "FOREIGN KEY (staff_id) REFERENCES cse360users(userName)"
+                + ")")),
+
+        // Replies point at their thread's root post, and the root keeps a reply count
+        new Migration(2, "Discussion reply threading", List.of(
+            "ALTER TABLE StaffDiscussions ADD COLUMN IF NOT EXISTS parent_id INT",
+            "ALTER TABLE StaffDiscussions ADD COLUMN IF NOT EXISTS reply_count INT DEFAULT 0",
+            "ALTER TABLE StaffDiscussions ADD COLUMN IF NOT EXISTS last_reply_date TIMESTAMP",
+            "ALTER TABLE StaffDiscussions ADD CONSTRAINT IF NOT EXISTS fk_staffdiscussions_parent "
+                + "FOREIGN KEY (parent_id) REFERENCES StaffDiscussions(id) ON DELETE CASCADE",
+            "CREATE INDEX IF NOT EXISTS idx_staffdiscussions_thread "
+                + "ON StaffDiscussions(parent_id, created_date, id)")),
+
+        // Per-student activity counts bucketed by hour and by day. Reviews written before
+        // this have no time: the column gets its default only after it exists, so they
+        // stay NULL instead of all showing up in the hour the migration ran
+        new Migration(3, "Activity rollups", List.of(
+            "CREATE TABLE IF NOT EXISTS ActivityRollups ("
+                + "granularity VARCHAR(10), "
+                + "user_name VARCHAR(255), "
+                + "content_type VARCHAR(50), "
+                + "bucket_start TIMESTAMP, "
+                + "activity_count INT DEFAULT 0, "
+                + "PRIMARY KEY (granularity, user_name, content_type, bucket_start)"
+                + ")",
+            "CREATE INDEX IF NOT EXISTS idx_activityrollups_window "
+                + "ON ActivityRollups(granularity, bucket_start)",
+            "ALTER TABLE Reviews ADD COLUMN IF NOT EXISTS created_date TIMESTAMP",
+            "ALTER TABLE Reviews ALTER COLUMN created_date SET DEFAULT CURRENT_TIMESTAMP")),
+
+        // Compressed HyperLogLog / count-min sketches per weekly window
+        new Migration(4, "Activity sketches", List.of(
+            "CREATE TABLE IF NOT EXISTS ActivitySketches ("
+                + "window_start DATE, "
+                + "sketch_type VARCHAR(20), "
+                + "sketch_data VARBINARY, "
+                + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "PRIMARY KEY (window_start, sketch_type)"
+                + ")")),
+
+        // Analytics scan contiguous username ranges
+        new Migration(5, "Per-user indexes", List.of(
+            "CREATE INDEX IF NOT EXISTS idx_questions_user ON Questions(userName)",
+            "CREATE INDEX IF NOT EXISTS idx_answers_user ON Answers(userName)",
+            "CREATE INDEX IF NOT EXISTS idx_reviews_reviewer ON Reviews(reviewer)")),
+
+        // Running totals behind each scorecard, adjusted as reviews are written
+        new Migration(6, "Reviewer scorecard totals", List.of(
+            "CREATE TABLE IF NOT EXISTS ReviewerScorecardStats ("
+                + "reviewer_id VARCHAR(255) PRIMARY KEY, "
+                + "review_count INT DEFAULT 0, "
+                + "answer_review_count INT DEFAULT 0, "
+                + "resolving_review_count INT DEFAULT 0, "
+                + "timed_review_count INT DEFAULT 0, "
+                + "total_response_hours DOUBLE DEFAULT 0.0"
+                + ")",
+            "CREATE INDEX IF NOT EXISTS idx_reviews_answer ON Reviews(answer_id, reviewer)")),
+
+        // Codes issued by InvitationCodeService; the sweeper scans by expiry
+        new Migration(7, "Invitation code length and expiry index", List.of(
+            "ALTER TABLE InvitationCodes ALTER COLUMN code SET DATA TYPE VARCHAR(8)",
+            "CREATE INDEX IF NOT EXISTS idx_invitation_expiry ON InvitationCodes(userTime)")),
+
+        // Archive tables of RetentionService, and the indexes its open-item queries and job use
+        new Migration(8, "Retention archive tables", List.of(
+            "CREATE TABLE IF NOT EXISTS StaffEscalationsArchive AS SELECT * FROM StaffEscalations WITH NO DATA",
+            "ALTER TABLE StaffEscalationsArchive ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP",
+            "CREATE INDEX IF NOT EXISTS idx_staffescalations_age ON StaffEscalations(resolved_date)",
+            "CREATE TABLE IF NOT EXISTS AdminRequestsArchive AS SELECT * FROM AdminRequests WITH NO DATA",
+            "ALTER TABLE AdminRequestsArchive ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP",
+            "CREATE INDEX IF NOT EXISTS idx_adminrequests_age ON AdminRequests(closed_at)",
+            "CREATE TABLE IF NOT EXISTS ContentModerationArchive AS SELECT * FROM ContentModeration WITH NO DATA",
+            "ALTER TABLE ContentModerationArchive ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP",
+            "CREATE INDEX IF NOT EXISTS idx_contentmoderation_age ON ContentModeration(moderated_at)",
+            "CREATE TABLE IF NOT EXISTS StaffModerationLogArchive AS SELECT * FROM StaffModerationLog WITH NO DATA",
+            "ALTER TABLE StaffModerationLogArchive ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP",
+            "CREATE INDEX IF NOT EXISTS idx_staffmoderationlog_age ON StaffModerationLog(moderation_date)",
+            "CREATE INDEX IF NOT EXISTS idx_staffescalations_status ON StaffEscalations(status, created_date)",
+            "CREATE INDEX IF NOT EXISTS idx_adminrequests_status ON AdminRequests(status)")),
+
+        // Every thread carries its term, see TermRouter
+        new Migration(9, "Semester terms", List.of(
+            "CREATE TABLE IF NOT EXISTS Terms ("
+                + "term VARCHAR(6) PRIMARY KEY, "
+                + "is_active BOOLEAN DEFAULT FALSE, "
+                + "archived BOOLEAN DEFAULT FALSE, "
+                + "archived_at TIMESTAMP)",
+            "ALTER TABLE Questions ADD COLUMN IF NOT EXISTS term VARCHAR(6)",
+            "ALTER TABLE Answers ADD COLUMN IF NOT EXISTS term VARCHAR(6)",
+            // Same rule as TermRouter.termFor
+            "UPDATE Questions SET term = CONCAT(YEAR(COALESCE(created_date, CURRENT_TIMESTAMP)), "
+                + "CASE WHEN MONTH(COALESCE(created_date, CURRENT_TIMESTAMP)) <= 5 THEN 'SP' "
+                + "WHEN MONTH(COALESCE(created_date, CURRENT_TIMESTAMP)) <= 7 THEN 'SU' ELSE 'FA' END) "
+                + "WHERE term IS NULL AND parent_question_id IS NULL",
+            // Each pass reaches one more level of clarifications of clarifications
+            REPEAT + "UPDATE Questions c SET term = "
+                + "(SELECT p.term FROM Questions p WHERE p.id = c.parent_question_id) "
+                + "WHERE c.term IS NULL AND EXISTS "
+                + "(SELECT 1 FROM Questions p WHERE p.id = c.parent_question_id AND p.term IS NOT NULL)",
+            "UPDATE Questions SET term = CONCAT(YEAR(COALESCE(created_date, CURRENT_TIMESTAMP)), "
+                + "CASE WHEN MONTH(COALESCE(created_date, CURRENT_TIMESTAMP)) <= 5 THEN 'SP' "
+                + "WHEN MONTH(COALESCE(created_date, CURRENT_TIMESTAMP)) <= 7 THEN 'SU' ELSE 'FA' END) "
+                + "WHERE term IS NULL",
+            "UPDATE Answers a SET term = "
+                + "(SELECT q.term FROM Questions q WHERE q.id = a.question_id) WHERE a.term IS NULL",
+            "CREATE INDEX IF NOT EXISTS idx_questions_term ON Questions(term, parent_question_id)",
+            "CREATE INDEX IF NOT EXISTS idx_answers_term ON Answers(term, userName)")),
+
+        // MinHash signatures of main questions, see QuestionDuplicateIndex
+        new Migration(10, "Question signatures", List.of(
+            "CREATE TABLE IF NOT EXISTS QuestionSignatures ("
+                + "question_id INT PRIMARY KEY, "
+                + "signature VARBINARY(512), "
+                + "FOREIGN KEY (question_id) REFERENCES Questions(id) ON DELETE CASCADE)")),
+
+        // Terms the moderation prefilter flags, see ModerationFilter
+        new Migration(11, "Moderation terms", List.of(
+            "CREATE TABLE IF NOT EXISTS ModerationTerms ("
+                + "term VARCHAR(255) PRIMARY KEY, "
+                + "added_by VARCHAR(255), "
+                + "added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)")),
+
+        // Keyset paging of a student's history, newest first
+        new Migration(12, "Content history indexes", List.of(
+            "CREATE INDEX IF NOT EXISTS idx_questions_history "
+                + "ON Questions(userName, term, created_date DESC, id DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_answers_history "
+                + "ON Answers(userName, term, created_date DESC, id DESC)")),
+
+        // A main question that is neither resolved nor has a resolving answer
+        new Migration(13, "Help queue flag", List.of(
+            "ALTER TABLE Questions ADD COLUMN IF NOT EXISTS needs_help BOOLEAN",
+            "UPDATE Questions SET needs_help = (parent_question_id IS NULL AND NOT resolved AND NOT EXISTS "
+                + "(SELECT 1 FROM Answers a WHERE a.question_id = Questions.id AND a.resolves)) WHERE needs_help IS NULL",
+            "CREATE INDEX IF NOT EXISTS idx_questions_needs_help ON Questions(needs_help, created_date, id)")),
+
+        // Scores written by StudentRiskService, and the indexes its range scans use
+        new Migration(14, "Student risk scores", List.of(
+            "CREATE TABLE IF NOT EXISTS StudentRiskScores ("
+                + "student_id VARCHAR(255) PRIMARY KEY, "
+                + "risk_score DECIMAL(5,2), "
+                + "open_questions INT, "
+                + "oldest_open_question TIMESTAMP, "
+                + "open_escalations INT, "
+                + "contributions INT, "
+                + "last_activity TIMESTAMP, "
+                + "computed_at TIMESTAMP, "
+                + "FOREIGN KEY (student_id) REFERENCES cse360users(userName) ON DELETE CASCADE)",
+            "CREATE INDEX IF NOT EXISTS idx_studentrisk_score ON StudentRiskScores(risk_score DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_staffescalations_student ON StaffEscalations(student_id)")),
+
+        // Scorecards are now written for every reviewer, so they go with their user. The
+        // core tables created the foreign key unnamed; it is dropped by its generated name
+        new Migration(15, "Scorecards cascade with their reviewer", List.of(
+            "ALTER TABLE ReviewerScorecards ADD CONSTRAINT IF NOT EXISTS fk_reviewerscorecards_user "
+                + "FOREIGN KEY (reviewer_id) REFERENCES cse360users(userName) ON DELETE CASCADE",
+            "EXECUTE IMMEDIATE 'ALTER TABLE ReviewerScorecards DROP CONSTRAINT IF EXISTS ' || QUOTE_IDENT(COALESCE("
+                + "(SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE TABLE_SCHEMA = SCHEMA() "
+                + "AND TABLE_NAME = 'REVIEWERSCORECARDS' AND CONSTRAINT_TYPE = 'FOREIGN KEY' "
+                + "AND CONSTRAINT_NAME <> 'FK_REVIEWERSCORECARDS_USER' FETCH FIRST 1 ROW ONLY), "
+                + "'FK_REVIEWERSCORECARDS_LEGACY'))")),
+
+        // Change counters that tell processes sharing the database to drop cached data, see CacheVersions
+        new Migration(16, "Cache versions", List.of(
+            "CREATE TABLE IF NOT EXISTS CacheVersions ("
+                + "cache_name VARCHAR(64) PRIMARY KEY, "
+                + "version BIGINT NOT NULL DEFAULT 0)",
+            "INSERT INTO CacheVersions (cache_name, version) SELECT n, 0 FROM (VALUES ('QUESTIONS'), "
+                + "('HELP_QUEUE'), ('DUPLICATES'), ('SIMILAR_QUESTIONS'), ('TERMS'), ('USERS'), ('SCORECARDS'), "
+                + "('MODERATION_TERMS'), ('ACTIVITY_SKETCHES')) AS v(n) "
+                + "WHERE n NOT IN (SELECT cache_name FROM CacheVersions)")));
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * @return the version of the newest migration
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).getVersion();
+    }
+
+    /**
+     * Brings the database schema to the latest version.
+     *
+     * @param c a connection in auto-commit mode
+     * @return the number of migrations applied; 0 if the schema was current
+     * @throws SQLException if a migration fails, a recorded checksum does not match
+     *         its migration, or the database is newer than this application
+     */
+    public static int migrate(Connection c) throws SQLException {
+        Migration latest = MIGRATIONS.get(MIGRATIONS.size() - 1);
+        String sql = "SELECT version, checksum FROM SchemaVersion ORDER BY version DESC FETCH FIRST 1 ROW ONLY";
+        try (Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery(sql)) {
+            if (rs.next() && rs.getInt("version") == latest.getVersion()
+                && latest.getChecksum().equals(rs.getString("checksum"))) {
+                return 0;
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ErrorCode.TABLE_OR_VIEW_NOT_FOUND_1
+                && e.getErrorCode() != ErrorCode.TABLE_OR_VIEW_NOT_FOUND_DATABASE_EMPTY_1) {
+                throw e;
+            }
+        }
+        return migrateFully(c);
+    }
+
+    /**
+     * Verifies every recorded migration and applies the pending ones.
+     */
+    private static synchronized int migrateFully(Connection c) throws SQLException {
+        try (Statement s = c.createStatement()) {
+            s.execute("CREATE TABLE IF NOT EXISTS SchemaVersion ("
+                + "version INT PRIMARY KEY, "
+                + "description VARCHAR(255), "
+                + "checksum VARCHAR(64), "
+                + "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "execution_ms BIGINT)");
+            Map<Integer, String> applied = new HashMap<>();
+            try (ResultSet rs = s.executeQuery("SELECT version, checksum FROM SchemaVersion")) {
+                while (rs.next()) {
+                    applied.put(rs.getInt("version"), rs.getString("checksum"));
+                }
+            }
+            for (int version : applied.keySet()) {
+                if (version > latestVersion()) {
+                    throw new SQLException("Database schema version " + version
+                        + " is newer than this application supports (" + latestVersion() + ")");
+                }
+            }
+
+            int count = 0;
+            String record = "MERGE INTO SchemaVersion (version, description, checksum, execution_ms) "
+                          + "KEY (version) VALUES (?, ?, ?, ?)";
+            try (PreparedStatement pstmt = c.prepareStatement(record)) {
+                for (Migration m : MIGRATIONS) {
+                    String checksum = applied.get(m.getVersion());
+                    if (checksum != null) {
+                        if (!checksum.equals(m.getChecksum())) {
+                            throw new SQLException("Schema migration " + m.getVersion() + " (" + m.getDescription()
+                                + ") was changed after it was applied; add a new migration instead");
+                        }
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    m.apply(s);
+                    pstmt.setInt(1, m.getVersion());
+                    pstmt.setString(2, m.getDescription());
+                    pstmt.setString(3, m.getChecksum());
+                    pstmt.setLong(4, (System.nanoTime() - start) / 1_000_000);
+                    pstmt.executeUpdate();
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory BM25 index over main questions, used to point students at resolved
+ * questions that already cover what they are asking.
+ *
+ * <p>A question's document is its title, its text and the text of its resolving
+ * answers. A document is resolved when the question is marked resolved or has a
+ * resolving answer; only resolved documents are returned, but every document
+ * counts towards term statistics. Postings map each term to the documents holding
+ * it, so a query only touches documents that share a term with it.</p>
+ *
+ * <p>{@link #startBuild()} loads every question on its own connection and tokenizes
+ * the documents in parallel, off the caller's thread. Writes made while a build runs
+ * are remembered and re-read once it finishes, so the index never misses one.
+ * {@link DatabaseHelper} refreshes a question's document whenever the question, its
+ * resolution or a resolving answer changes.</p>
+ */
+public class SimilarQuestionIndex {
+
+    /** BM25 term-frequency saturation. */
+    public static final double K1 = 1.2;
+
+    /** BM25 length normalization. */
+    public static final double B = 0.75;
+
+    /** Number of results returned when callers do not ask for a specific number. */
+    public static final int DEFAULT_LIMIT = 10;
+
+    /** Common words that carry no meaning for matching. */
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "but", "by", "can", "do", "does", "for", "from",
+        "how", "i", "if", "in", "is", "it", "me", "my", "of", "on", "or", "so", "that", "the", "this",
+        "to", "was", "what", "when", "where", "which", "who", "why", "with", "you");
+
+    /**
+     * A resolved question similar to the query, with its BM25 score.
+     */
+    public static class Match {
+        private final int questionId;
+        private final String title;
+        private final double score;
+
+        /**
+         * Constructs a Match.
+         *
+         * @param questionId the resolved question's id
+         * @param title the resolved question's title
+         * @param score the BM25 score; higher is more similar
+         */
+        public Match(int questionId, String title, double score) {
+            this.questionId = questionId;
+            this.title = title;
+            this.score = score;
+        }
+
+        /**
+         * @return the resolved question's id
+         */
+        public int getQuestionId() { return questionId; }
+
+        /**
+         * @return the resolved question's title
+         */
+        public String getTitle() { return title; }
+
+        /**
+         * @return the BM25 score; higher is more similar
+         */
+        public double getScore() { return score; }
+    }
+
+    /** A tokenized document. */
+    private static class Entry {
+        final int questionId;
+        final String title;
+        final boolean resolved;
+        final Map<String, Integer> termFreqs;
+        final int length;
+
+        Entry(int questionId, String title, String content, boolean resolved) {
+            this.questionId = questionId;
+            this.title = title;
+            this.resolved = resolved;
+            this.termFreqs = termFrequencies(content);
+            int total = 0;
+            for (int tf : termFreqs.values()) {
+                total += tf;
+            }
+            this.length = total;
+        }
+    }
+
+    /** A document as read from the database, before tokenizing. */
+    private static class Source {
+        final int questionId;
+        final String title;
+        final StringBuilder content;
+        boolean resolved;
+
+        Source(int questionId, String title, String text, boolean resolved) {
+            this.questionId = questionId;
+            this.title = title;
+            this.content = new StringBuilder(title).append(' ').append(text);
+            this.resolved = resolved;
+        }
+    }
+
+    private final DatabaseHelper databaseHelper;
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+    private long totalLength = 0;
+    private boolean ready = false;
+    private Set<Integer> pending = new HashSet<>();
+    private final Map<Integer, Long> refreshing = new HashMap<>();
+    private long refreshTicket = 0;
+    private Thread builder;
+    private long generation = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructs a SimilarQuestionIndex.
+     *
+     * @param databaseHelper the helper used to open the build's connection
+     */
+    public SimilarQuestionIndex(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+
+    /**
+     * Rebuilds the index from the live tables on a background thread. Queries wait
+     * for the build to finish. A build started while another runs supersedes it: the
+     * new builder waits for the old one, whose result is dropped, so two builds never
+     * read at once and an older snapshot never replaces a newer one. Does nothing
+     * after {@link #shutdown()}.
+     */
+    public synchronized void startBuild() {
+        if (closed) {
+            return;
+        }
+        ready = false;
+        long buildGeneration = ++generation;
+        Thread previous = builder;
+        builder = new Thread(() -> {
+            if (previous != null) {
+                try {
+                    previous.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            synchronized (this) {
+                if (buildGeneration != generation) {
+                    return;
+                }
+            }
+            try (Connection c = databaseHelper.openConnection()) {
+                build(c, buildGeneration);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                synchronized (this) {
+                    if (buildGeneration == generation) {
+                        // Serve what the index had rather than blocking queries forever
+                        ready = true;
+                        pending.clear();
+                        notifyAll();
+                    }
+                }
+            }
+        }, "similar-question-indexer");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Stops further builds and waits for one in progress, so no build reads from a
+     * database the helper is about to close. Each builder waits for the one it
+     * superseded, so waiting for the latest covers them all.
+     */
+    public void shutdown() {
+        Thread running;
+        synchronized (this) {
+            closed = true;
+            running = builder;
+        }
+        if (running != null) {
+            try {
+                running.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void build(Connection c, long buildGeneration) throws SQLException {
+        List<Entry> built = loadSources(c, null).values().parallelStream()
+            .map(s -> new Entry(s.questionId, s.title, s.content.toString(), s.resolved))
+            .collect(Collectors.toList());
+        Set<Integer> missed;
+        synchronized (this) {
+            if (buildGeneration != generation) {
+                // A newer build is waiting on this one and will install its own snapshot
+                return;
+            }
+            entries.clear();
+            postings.clear();
+            totalLength = 0;
+            for (Entry e : built) {
+                add(e);
+            }
+            missed = pending;
+            pending = new HashSet<>();
+            // Refreshes that read before this build's load are older than the snapshot
+            refreshing.clear();
+            ready = true;
+            notifyAll();
+        }
+        for (int questionId : missed) {
+            refresh(c, questionId);
+        }
+    }
+
+    /**
+     * Re-reads one question's document, removing it if the question is gone or is a
+     * clarification. When two refreshes of the same question overlap, only the one
+     * that started reading last installs its document, so an older read never
+     * replaces a newer one.
+     *
+     * @param c the connection to read on
+     * @param questionId the question id
+     * @throws SQLException if the question cannot be read
+     */
+    public void refresh(Connection c, int questionId) throws SQLException {
+        long ticket;
+        synchronized (this) {
+            if (!ready) {
+                pending.add(questionId);
+                return;
+            }
+            ticket = ++refreshTicket;
+            refreshing.put(questionId, ticket);
+        }
+        Source source;
+        try {
+            source = loadSources(c, questionId).get(questionId);
+        } catch (SQLException e) {
+            synchronized (this) {
+                refreshing.remove(questionId, ticket);
+            }
+            throw e;
+        }
+        Entry entry = source == null ? null
+            : new Entry(source.questionId, source.title, source.content.toString(), source.resolved);
+        synchronized (this) {
+            Long latest = refreshing.get(questionId);
+            if (latest == null || latest != ticket) {
+                return;
+            }
+            refreshing.remove(questionId);
+            remove(questionId);
+            if (entry != null) {
+                add(entry);
+            }
+        }
+    }
+
+    /**
+     * Re-reads the document of the question an answer belongs to.
+     *
+     * @param c the connection to read on
+     * @param answerId the answer id
+     * @throws SQLException if the answer cannot be read
+     */
+    public void refreshForAnswer(Connection c, int answerId) throws SQLException {
+        try (PreparedStatement pstmt = c.prepareStatement("SELECT question_id FROM Answers WHERE id = ?")) {
+            pstmt.setInt(1, answerId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    refresh(c, rs.getInt("question_id"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads main questions with their resolving answers, all of them or just one.
+     */
+    private static Map<Integer, Source> loadSources(Connection c, Integer questionId) throws SQLException {
+        Map<Integer, Source> sources = new HashMap<>();
+        String filter = questionId == null ? "" : " AND id = ?";
+        try (PreparedStatement pstmt = c.prepareStatement(
+                "SELECT id, title, text, resolved FROM Questions WHERE parent_question_id IS NULL" + filter)) {
+            if (questionId != null) {
+                pstmt.setInt(1, questionId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sources.put(rs.getInt("id"), new Source(rs.getInt("id"), nullToEmpty(rs.getString("title")),
+                        nullToEmpty(rs.getString("text")), rs.getBoolean("resolved")));
+                }
+            }
+        }
+        if (sources.isEmpty()) {
+            return sources;
+        }
+        filter = questionId == null ? "" : " AND question_id = ?";
+        try (PreparedStatement pstmt = c.prepareStatement(
+                "SELECT question_id, text FROM Answers WHERE resolves = TRUE" + filter)) {
+            if (questionId != null) {
+                pstmt.setInt(1, questionId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Source s = sources.get(rs.getInt("question_id"));
+                    if (s != null) {
+                        s.content.append(' ').append(nullToEmpty(rs.getString("text")));
+                        s.resolved = true;
+                    }
+                }
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Returns the resolved questions most similar to a question.
+     *
+     * @param questionId the question id
+     * @param limit the maximum number of results
+     * @return up to limit matches, best first, never including the question itself;
+     *         empty if the question is not indexed
+     * @throws InterruptedException if interrupted while the index is being built
+     */
+    public List<Match> similarResolved(int questionId, int limit) throws InterruptedException {
+        synchronized (this) {
+            awaitReady();
+            Entry entry = entries.get(questionId);
+            return entry == null ? new ArrayList<>() : search(entry.termFreqs.keySet(), questionId, limit);
+        }
+    }
+
+    /**
+     * Returns the resolved questions most similar to a question being written.
+     *
+     * @param title the draft title
+     * @param text the draft text
+     * @param limit the maximum number of results
+     * @return up to limit matches, best first
+     * @throws InterruptedException if interrupted while the index is being built
+     */
+    public List<Match> similarResolved(String title, String text, int limit) throws InterruptedException {
+        Set<String> terms = termFrequencies(nullToEmpty(title) + " " + nullToEmpty(text)).keySet();
+        synchronized (this) {
+            awaitReady();
+            return search(terms, -1, limit);
+        }
+    }
+
+    private void awaitReady() throws InterruptedException {
+        while (!ready) {
+            wait();
+        }
+    }
+
+    /**
+     * Scores resolved documents sharing a term with the query and keeps the best.
+     */
+    private List<Match> search(Set<String> terms, int excludeId, int limit) {
+        int n = entries.size();
+        if (n == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        double avgLength = Math.max(1.0, (double) totalLength / n);
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : terms) {
+            Map<Integer, Integer> docs = postings.get(term);
+            if (docs == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (n - docs.size() + 0.5) / (docs.size() + 0.5));
+            for (Map.Entry<Integer, Integer> d : docs.entrySet()) {
+                Entry entry = entries.get(d.getKey());
+                if (!entry.resolved || entry.questionId == excludeId) {
+                    continue;
+                }
+                int tf = d.getValue();
+                double norm = tf + K1 * (1 - B + B * entry.length / avgLength);
+                scores.merge(entry.questionId, idf * tf * (K1 + 1) / norm, Double::sum);
+            }
+        }
+        PriorityQueue<Match> best = new PriorityQueue<>((a, b) -> Double.compare(a.score, b.score));
+        for (Map.Entry<Integer, Double> s : scores.entrySet()) {
+            best.add(new Match(s.getKey(), entries.get(s.getKey()).title, s.getValue()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Match> result = new ArrayList<>(best);
+        result.sort((a, b) -> Double.compare(b.score, a.score));
+        return result;
+    }
+
+    private void add(Entry e) {
+        entries.put(e.questionId, e);
+        totalLength += e.length;
+        for (Map.Entry<String, Integer> t : e.termFreqs.entrySet()) {
+            postings.computeIfAbsent(t.getKey(), k -> new HashMap<>()).put(e.questionId, t.getValue());
+        }
+    }
+
+    private void remove(int questionId) {
+        Entry e = entries.remove(questionId);
+        if (e == null) {
+            return;
+        }
+        totalLength -= e.length;
+        for (String term : e.termFreqs.keySet()) {
+            Map<Integer, Integer> docs = postings.get(term);
+            if (docs != null && docs.remove(questionId) != null && docs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * @return the number of indexed questions
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static Map<String, Integer> termFrequencies(String content) {
+        Map<String, Integer> freqs = new HashMap<>();
+        for (String token : content.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                freqs.merge(token, 1, Integer::sum);
+            }
+        }
+        return freqs;
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+}
@@ -8,20 +8,37 @@ import javafx.stage.Stage;
 import javafx.geometry.Insets;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import databasePart1.ActivitySketches;
+import databasePart1.CountMinSketch;
 import databasePart1.DatabaseHelper;
+import databasePart1.ReportExporter;
+import databasePart1.ReviewerLeaderboard;
+import databasePart1.StudentMetrics;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * StaffAnalyticsPage displays student activity metrics and participation patterns.
  * The page helps staff identify students who may be struggling and highlights
  * popular topics or trends in questions and answers.
  *
- * <p>This class relies on {@link DatabaseHelper#getStudentActivityMetrics} to
- * obtain aggregated metrics per student and renders the results in a JavaFX
- * {@link TableView}.</p>
+ * <p>This class relies on {@link DatabaseHelper#computeStudentMetrics} to
+ * obtain aggregated metrics per student, computed in parallel over partitions of
+ * the student list, and renders the results in a JavaFX {@link TableView}.</p>
  */
 public class StaffAnalyticsPage {
+    /** Number of days shown in the activity trend view. */
+    private static final int TREND_DAYS = 30;
+
+    /** Number of top posters listed in the weekly summary. */
+    private static final int TOP_POSTERS_SHOWN = 5;
+
+    /** Number of reviewers listed in the leaderboard summary. */
+    private static final int TOP_REVIEWERS_SHOWN = 5;
+
     private final DatabaseHelper databaseHelper;
     private final String staffUsername;
     private TableView<StudentMetric> analyticsTable;
@@ -35,6 +52,8 @@ public class StaffAnalyticsPage {
         private final int questionCount;
         private final int answerCount;
         private final String lastActivity;
+        private final double resolutionRate;
+        private final int reviewCount;
 
         /**
          * Constructs a StudentMetric instance.
@@ -47,11 +66,30 @@ public class StaffAnalyticsPage {
          */
         public StudentMetric(String userName, String name, int questionCount,
                              int answerCount, String lastActivity) {
+            this(userName, name, questionCount, answerCount, lastActivity, 0.0, 0);
+        }
+
+        /**
+         * Constructs a StudentMetric instance including resolution and review metrics.
+         *
+         * @param userName the student's username
+         * @param name the student's display name
+         * @param questionCount the number of questions the student has posted
+         * @param answerCount the number of answers the student has contributed
+         * @param lastActivity ISO-like timestamp string of the student's last activity
+         * @param resolutionRate the fraction of the student's questions that are resolved
+         * @param reviewCount the number of reviews the student has written
+         */
+        public StudentMetric(String userName, String name, int questionCount,
+                             int answerCount, String lastActivity,
+                             double resolutionRate, int reviewCount) {
             this.userName = userName;
             this.name = name;
             this.questionCount = questionCount;
             this.answerCount = answerCount;
             this.lastActivity = lastActivity;
+            this.resolutionRate = resolutionRate;
+            this.reviewCount = reviewCount;
         }
 
         /**
@@ -89,6 +127,20 @@ public class StaffAnalyticsPage {
          */
         public String getLastActivity() { return lastActivity; }
 
+        /**
+         * Returns the fraction of the student's questions that are resolved.
+         *
+         * @return the resolution rate between 0.0 and 1.0
+         */
+        public double getResolutionRate() { return resolutionRate; }
+
+        /**
+         * Returns the student's review count.
+         *
+         * @return the number of reviews written by the student
+         */
+        public int getReviewCount() { return reviewCount; }
+
         /**
          * JavaFX property helper for the student's username (for TableView).
          *
@@ -133,6 +185,25 @@ public class StaffAnalyticsPage {
         public javafx.beans.property.StringProperty lastActivityProperty() {
             return new javafx.beans.property.SimpleStringProperty(lastActivity);
         }
+
+        /**
+         * JavaFX property helper for the resolution rate, as a percentage (for TableView).
+         *
+         * @return a StringProperty wrapping the formatted resolution rate
+         */
+        public javafx.beans.property.StringProperty resolutionRateProperty() {
+            return new javafx.beans.property.SimpleStringProperty(
+                String.format("%.0f%%", resolutionRate * 100));
+        }
+
+        /**
+         * JavaFX property helper for the review count (for TableView).
+         *
+         * @return an IntegerProperty wrapping the review count
+         */
+        public javafx.beans.property.IntegerProperty reviewCountProperty() {
+            return new javafx.beans.property.SimpleIntegerProperty(reviewCount);
+        }
     }
 
     /**
@@ -159,13 +230,33 @@ public class StaffAnalyticsPage {
         Label titleLabel = new Label("Student Activity Analytics");
         titleLabel.setStyle("-fx-font-size: 24px; -fx-font-weight: bold;");
 
+        Label weeklySummaryLabel = new Label(buildWeeklySummary());
+        weeklySummaryLabel.setStyle("-fx-font-size: 13px; -fx-text-fill: #2c3e50;");
+
+        Label topReviewersLabel = new Label(buildTopReviewersSummary());
+        topReviewersLabel.setStyle("-fx-font-size: 13px; -fx-text-fill: #2c3e50;");
+
         createAnalyticsTable();
         refreshAnalytics();
 
+        Button trendBtn = new Button("View Activity Trend");
+        trendBtn.setOnAction(e -> viewActivityTrend());
+
+        Button rankBtn = new Button("View Reviewer Rank");
+        rankBtn.setOnAction(e -> viewReviewerRank());
+
         Button backBtn = new Button("Back to Dashboard");
         backBtn.setOnAction(e -> new StaffHomePage(databaseHelper, staffUsername).show(primaryStage));
 
-        layout.getChildren().addAll(titleLabel, analyticsTable, backBtn);
+        Button exportBtn = new Button("Export Activity");
+        exportBtn.setOnAction(e -> ReportExportDialog.export(primaryStage, databaseHelper, ReportExporter.Report.STUDENT_ACTIVITY, "student-activity"));
+
+        Button exportRiskBtn = new Button("Export Risk Scores");
+        exportRiskBtn.setOnAction(e -> ReportExportDialog.export(primaryStage, databaseHelper, ReportExporter.Report.RISK_SCORES, "risk-scores"));
+
+        HBox controlsBox = new HBox(10, trendBtn, rankBtn, exportBtn, exportRiskBtn, backBtn);
+
+        layout.getChildren().addAll(titleLabel, weeklySummaryLabel, topReviewersLabel, analyticsTable, controlsBox);
 
         Scene scene = new Scene(layout, 800, 600);
         primaryStage.setScene(scene);
@@ -196,11 +287,19 @@ public class StaffAnalyticsPage {
         aCountCol.setCellValueFactory(cell -> cell.getValue().answerCountProperty());
         aCountCol.setPrefWidth(100);
 
+        TableColumn<StudentMetric, String> rateCol = new TableColumn<>("Resolved");
+        rateCol.setCellValueFactory(cell -> cell.getValue().resolutionRateProperty());
+        rateCol.setPrefWidth(80);
+
+        TableColumn<StudentMetric, Number> rCountCol = new TableColumn<>("Reviews");
+        rCountCol.setCellValueFactory(cell -> cell.getValue().reviewCountProperty());
+        rCountCol.setPrefWidth(80);
+
         TableColumn<StudentMetric, String> lastCol = new TableColumn<>("Last Activity");
         lastCol.setCellValueFactory(cell -> cell.getValue().lastActivityProperty());
         lastCol.setPrefWidth(200);
 
-        analyticsTable.getColumns().addAll(userCol, nameCol, qCountCol, aCountCol, lastCol);
+        analyticsTable.getColumns().addAll(userCol, nameCol, qCountCol, aCountCol, rateCol, rCountCol, lastCol);
     }
 
     /**
@@ -210,15 +309,15 @@ public class StaffAnalyticsPage {
     private void refreshAnalytics() {
         try {
             ObservableList<StudentMetric> rows = FXCollections.observableArrayList();
-            ResultSet rs = databaseHelper.getStudentActivityMetrics();
-
-            while (rs != null && rs.next()) {
+            for (StudentMetrics metrics : databaseHelper.computeStudentMetrics()) {
                 StudentMetric m = new StudentMetric(
-                    rs.getString("user_name"),
-                    rs.getString("display_name"),
-                    rs.getInt("question_count"),
-                    rs.getInt("answer_count"),
-                    rs.getTimestamp("last_activity").toString()
+                    metrics.getUserName(),
+                    metrics.getName(),
+                    metrics.getQuestionCount(),
+                    metrics.getAnswerCount(),
+                    metrics.getLastActivity() == null ? "-" : metrics.getLastActivity().toString(),
+                    metrics.getResolutionRate(),
+                    metrics.getReviewCount()
                 );
                 rows.add(m);
             }
@@ -228,6 +327,134 @@ public class StaffAnalyticsPage {
         }
     }
 
+    /**
+     * Builds the approximate "this week" summary from the weekly activity sketches:
+     * distinct active users (HyperLogLog) and top posters (count-min heavy hitters).
+     * Reads only in-memory sketches, so it is instant regardless of cohort size.
+     *
+     * @return the summary text, or an error note if the sketches could not be loaded
+     */
+    private String buildWeeklySummary() {
+        try {
+            ActivitySketches sketches = databaseHelper.getWeeklyActivitySketches();
+            StringBuilder summary = new StringBuilder(String.format(
+                "Distinct active users this week: ~%d (\u00b1%.1f%%)",
+                sketches.estimateDistinctUsers(), sketches.distinctUsersStandardError() * 100));
+            summary.append("\nTop posters this week:");
+            List<CountMinSketch.HeavyHitter> top = sketches.topPosters();
+            for (int i = 0; i < Math.min(TOP_POSTERS_SHOWN, top.size()); i++) {
+                summary.append(i == 0 ? " " : ", ")
+                       .append(top.get(i).getKey()).append(" (~").append(top.get(i).getCount()).append(")");
+            }
+            if (top.isEmpty()) {
+                summary.append(" none yet");
+            }
+            return summary.toString();
+        } catch (SQLException e) {
+            return "Weekly summary unavailable: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Builds the reviewer leaderboard summary: the reviewers with the highest trust
+     * scores, read from the in-memory leaderboard rather than the scorecard table.
+     *
+     * @return the summary text, or an error note if the leaderboard could not be loaded
+     */
+    private String buildTopReviewersSummary() {
+        try {
+            List<ReviewerLeaderboard.ReviewerScore> top = databaseHelper.getTopReviewers(TOP_REVIEWERS_SHOWN);
+            StringBuilder summary = new StringBuilder("Top reviewers:");
+            for (int i = 0; i < top.size(); i++) {
+                ReviewerLeaderboard.ReviewerScore r = top.get(i);
+                summary.append(i == 0 ? " " : ", ")
+                       .append(i + 1).append(". ").append(r.getReviewerId())
+                       .append(String.format(" (trust %.2f, %d reviews)", r.getTrustScore(), r.getReviewCount()));
+            }
+            if (top.isEmpty()) {
+                summary.append(" none yet");
+            }
+            return summary.toString();
+        } catch (SQLException e) {
+            return "Reviewer leaderboard unavailable: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Shows the selected student's position on the reviewer leaderboard.
+     * If no student is selected, a warning is shown.
+     */
+    private void viewReviewerRank() {
+        StudentMetric selected = analyticsTable.getSelectionModel().getSelectedItem();
+        if (selected == null) {
+            showAlert(Alert.AlertType.WARNING, "No Selection",
+                      "Please select a student to view their reviewer rank.");
+            return;
+        }
+        try {
+            int rank = databaseHelper.getReviewerRank(selected.getUserName());
+            showAlert(Alert.AlertType.INFORMATION, "Reviewer Rank", rank < 0
+                ? selected.getUserName() + " has no reviewer scorecard yet."
+                : selected.getUserName() + " is ranked #" + rank + " by trust score.");
+        } catch (SQLException e) {
+            showAlert(Alert.AlertType.ERROR, "Error", "Failed to load reviewer rank: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Shows the selected student's daily activity over the last {@link #TREND_DAYS} days,
+     * read from the activity rollups via {@link DatabaseHelper#getActivityTrend}.
+     * If no student is selected, a warning is shown.
+     */
+    private void viewActivityTrend() {
+        StudentMetric selected = analyticsTable.getSelectionModel().getSelectedItem();
+        if (selected == null) {
+            showAlert(Alert.AlertType.WARNING, "No Selection",
+                      "Please select a student to view their activity trend.");
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        Timestamp from = Timestamp.valueOf(today.minusDays(TREND_DAYS - 1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(today.plusDays(1).atStartOfDay());
+
+        StringBuilder trend = new StringBuilder();
+        for (String type : new String[] { "QUESTION", "ANSWER", "REVIEW" }) {
+            trend.append(type).append("S\n");
+            try (ResultSet rs = databaseHelper.getActivityTrend(
+                    selected.getUserName(), type, DatabaseHelper.ROLLUP_DAY, from, to)) {
+                boolean any = false;
+                while (rs.next()) {
+                    trend.append(String.format("  %s  %d%n",
+                        rs.getTimestamp("bucket_start").toLocalDateTime().toLocalDate(),
+                        rs.getInt("activity_count")));
+                    any = true;
+                }
+                if (!any) {
+                    trend.append("  (no activity)\n");
+                }
+            } catch (SQLException e) {
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to load activity trend: " + e.getMessage());
+                return;
+            }
+            trend.append("\n");
+        }
+
+        TextArea trendArea = new TextArea(trend.toString());
+        trendArea.setEditable(false);
+        trendArea.setPrefSize(400, 400);
+
+        VBox content = new VBox(10,
+            new Label("Daily activity for " + selected.getName() + " (last " + TREND_DAYS + " days)"),
+            trendArea);
+        content.setPadding(new Insets(15));
+
+        Stage trendStage = new Stage();
+        trendStage.setTitle("Activity Trend - " + selected.getUserName());
+        trendStage.setScene(new Scene(content, 450, 480));
+        trendStage.show();
+    }
+
     /**
      * Utility to show an alert dialog to the user.
      *
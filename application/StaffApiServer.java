@@ -0,0 +1,590 @@
+package databasePart1;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local HTTP/JSON service exposing the staff operations of a {@link DatabaseHelper},
+ * so they can be scripted and load-tested without the JavaFX pages.
+ *
+ * <p>The service uses the JDK {@code HttpServer}, bound to the loopback address only.
+ * Each request runs on its own virtual thread when the JVM has them (Java 21+).
+ * Otherwise requests run on {@link #DEFAULT_REQUEST_THREADS} platform threads behind
+ * a queue of at most {@link #DEFAULT_MAX_QUEUED_REQUESTS} requests; a request arriving
+ * when the queue is full is answered with 503 and a Retry-After header at once,
+ * without touching the database. Reads run on a {@link ConnectionPool} of
+ * {@link #DEFAULT_POOL_SIZE} connections; list responses are streamed row by row from
+ * the cursor. Writes go through the DatabaseHelper methods the pages use, which are
+ * safe to call concurrently, so every write hook (moderation prefilter, risk scores,
+ * caches) still runs. An unexpected error is answered with 500.</p>
+ *
+ * <p>Every request authenticates with HTTP Basic authentication using the staff
+ * member's username and password, the same credentials as the login page; unknown
+ * users, wrong passwords and users without the staff role are refused. The service
+ * is only reachable from this machine, but other users of a shared machine are, so
+ * it never trusts a username on its own. POST parameters are form-encoded
+ * ({@code application/x-www-form-urlencoded}); responses are JSON. Endpoints:</p>
+ * <ul>
+ *   <li>{@code GET /api/content?term=} - questions and answers of a term (default: active term)</li>
+ *   <li>{@code GET /api/discussions?before=&beforeId=&limit=} - discussion threads, newest first</li>
+ *   <li>{@code GET /api/discussions/{id}/replies?after=&afterId=&limit=} - replies of a thread,
+ *       oldest first</li>
+ *   <li>{@code POST /api/discussions} (title, content) and {@code POST /api/discussions/{id}/replies} (content)</li>
+ *   <li>{@code GET /api/escalations?status=open|all&archived=true}</li>
+ *   <li>{@code POST /api/escalations} (studentId, issueType, description, priority)</li>
+ *   <li>{@code POST /api/escalations/{id}/status} (status)</li>
+ *   <li>{@code GET /api/analytics/students} and {@code GET /api/analytics/risk?limit=}</li>
+ *   <li>{@code GET /api/moderation?limit=} and {@code POST /api/moderation}
+ *       (contentType, contentId, action, reason)</li>
+ *   <li>{@code GET /api/export/{report}?format=csv|jsonl} - a {@link ReportExporter.Report}
+ *       by lower-case name, e.g. {@code moderation_log}</li>
+ * </ul>
+ *
+ * <p>Run standalone with {@code java databasePart1.StaffApiServer [port]}.</p>
+ */
+public class StaffApiServer {
+
+    /** Port used unless another is given; {@code -Dfoundation.api.port} overrides it. */
+    public static final int DEFAULT_PORT = Integer.getInteger("foundation.api.port", 8085);
+
+    /** Database connections shared by read requests; {@code -Dfoundation.api.pool} overrides it. */
+    public static final int DEFAULT_POOL_SIZE = Integer.getInteger("foundation.api.pool", 16);
+
+    /** Request threads when the JVM has no virtual threads; {@code -Dfoundation.api.threads} overrides it. */
+    public static final int DEFAULT_REQUEST_THREADS = Integer.getInteger("foundation.api.threads", 200);
+
+    /** Requests waiting for a thread before new ones get 503; {@code -Dfoundation.api.queue} overrides it. */
+    public static final int DEFAULT_MAX_QUEUED_REQUESTS = Integer.getInteger("foundation.api.queue", 1000);
+
+    /** Seconds an overloaded client is told to wait before retrying. */
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    /** Pending connections the listening socket accepts. */
+    private static final int BACKLOG = 4096;
+
+    /** Longest a request waits for a pooled connection. */
+    private static final long BORROW_TIMEOUT_MILLIS = 10_000;
+
+    /** Rows fetched from the cursor per round trip while streaming. */
+    private static final int FETCH_SIZE = 500;
+
+    /** Largest accepted form body. */
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private static final int DEFAULT_LIST_LIMIT = 100;
+    private static final int MAX_LIST_LIMIT = 10_000;
+
+    /** An error reported to the client with an HTTP status. */
+    private static class ApiException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /** Prepares a read query on a pooled connection. */
+    private interface ReadQuery {
+        PreparedStatement prepare(Connection c) throws SQLException;
+    }
+
+    /** Set while a request the full queue rejected runs on the dispatcher thread. */
+    private static final ThreadLocal<Boolean> OVERLOADED = new ThreadLocal<>();
+
+    private final DatabaseHelper databaseHelper;
+    private final int port;
+    private final ConnectionPool pool;
+    private final ReportExporter exporter;
+    private final int requestThreads;
+    private final int maxQueuedRequests;
+    private HttpServer server = null;
+    private ExecutorService executor = null;
+
+    /**
+     * Constructs a StaffApiServer. Nothing is bound until {@link #start()}.
+     *
+     * @param databaseHelper a connected helper
+     * @param port the TCP port, or 0 for any free port
+     * @param poolSize the number of pooled read connections
+     */
+    public StaffApiServer(DatabaseHelper databaseHelper, int port, int poolSize) {
+        this(databaseHelper, port, poolSize, DEFAULT_REQUEST_THREADS, DEFAULT_MAX_QUEUED_REQUESTS);
+    }
+
+    /**
+     * Constructs a StaffApiServer with its own request limits. Nothing is bound until
+     * {@link #start()}.
+     *
+     * @param databaseHelper a connected helper
+     * @param port the TCP port, or 0 for any free port
+     * @param poolSize the number of pooled read connections
+     * @param requestThreads request threads when the JVM has no virtual threads
+     * @param maxQueuedRequests requests waiting for a thread before new ones get 503
+     */
+    public StaffApiServer(DatabaseHelper databaseHelper, int port, int poolSize,
+                          int requestThreads, int maxQueuedRequests) {
+        this.databaseHelper = databaseHelper;
+        this.port = port;
+        this.pool = new ConnectionPool(databaseHelper, poolSize, BORROW_TIMEOUT_MILLIS);
+        this.exporter = new ReportExporter(databaseHelper);
+        this.requestThreads = requestThreads;
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+
+    /**
+     * Starts serving on the loopback address.
+     *
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        executor = newRequestExecutor(requestThreads, maxQueuedRequests);
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Stops serving, waiting up to a second for requests in progress, and closes the
+     * pooled connections. The DatabaseHelper stays connected.
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        executor.shutdownNow();
+        pool.close();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * @return the bound port, useful when constructed with port 0
+     */
+    public synchronized int getPort() {
+        return server == null ? port : server.getAddress().getPort();
+    }
+
+    /**
+     * One virtual thread per request when available (Java 21+), looked up reflectively
+     * so the class still runs on older JVMs. Otherwise a fixed platform pool behind a
+     * bounded queue; when the queue is full the request runs on the server's dispatcher
+     * thread marked as overloaded, and {@link #handle} answers it with 503 straight away.
+     */
+    static ExecutorService newRequestExecutor(int threads, int maxQueued) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            ThreadPoolExecutor platform = new ThreadPoolExecutor(threads, threads,
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxQueued), r -> {
+                    Thread t = new Thread(r, "staff-api");
+                    t.setDaemon(true);
+                    return t;
+                }, (r, full) -> {
+                    OVERLOADED.set(Boolean.TRUE);
+                    try {
+                        r.run();
+                    } finally {
+                        OVERLOADED.remove();
+                    }
+                });
+            platform.allowCoreThreadTimeOut(true);
+            return platform;
+        }
+    }
+
+    private void handle(HttpExchange exchange) {
+        try {
+            if (OVERLOADED.get() != null) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+                throw new ApiException(503, "Server busy, retry later");
+            }
+            String staffId = authenticate(exchange);
+            String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+            String method = exchange.getRequestMethod();
+            if ("GET".equals(method)) {
+                routeGet(exchange, path, parseForm(exchange.getRequestURI().getRawQuery()));
+            } else if ("POST".equals(method)) {
+                routePost(exchange, staffId, path, parseForm(readBody(exchange)));
+            } else {
+                throw new ApiException(405, "Method not allowed");
+            }
+        } catch (ApiException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            sendError(exchange, 500, "Database error");
+        } catch (IOException e) {
+            // The client went away mid-response
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void routeGet(HttpExchange exchange, String[] path, Map<String, String> params)
+            throws ApiException, SQLException, IOException {
+        String resource = path[0];
+        if (resource.equals("content") && path.length == 1) {
+            String term = params.getOrDefault("term", databaseHelper.getActiveTerm());
+            String[] sql = databaseHelper.staffContentQueries(term);
+            ReadQuery[] parts = new ReadQuery[sql.length];
+            for (int i = 0; i < sql.length; i++) {
+                String part = sql[i];
+                parts[i] = c -> {
+                    PreparedStatement pstmt = c.prepareStatement(part);
+                    pstmt.setString(1, term);
+                    return pstmt;
+                };
+            }
+            streamQuery(exchange, parts);
+        } else if (resource.equals("discussions") && path.length == 1) {
+            Timestamp before = params.containsKey("before") ? parseTimestamp(params.get("before")) : null;
+            int beforeId = intParam(params, "beforeId", Integer.MAX_VALUE);
+            int limit = limitParam(params);
+            streamQuery(exchange, c -> {
+                PreparedStatement pstmt = c.prepareStatement("SELECT sd.*, u.name as staff_name FROM StaffDiscussions sd "
+                    + "JOIN cse360users u ON sd.staff_id = u.userName WHERE sd.parent_id IS NULL "
+                    + (before == null ? "" : "AND (sd.created_date, sd.id) < (?, ?) ")
+                    + "ORDER BY sd.created_date DESC, sd.id DESC FETCH FIRST ? ROWS ONLY");
+                int i = 1;
+                if (before != null) {
+                    pstmt.setTimestamp(i++, before);
+                    pstmt.setInt(i++, beforeId);
+                }
+                pstmt.setInt(i, limit);
+                return pstmt;
+            });
+        } else if (resource.equals("discussions") && path.length == 3 && path[2].equals("replies")) {
+            int threadId = pathId(path[1]);
+            Timestamp after = params.containsKey("after") ? parseTimestamp(params.get("after")) : null;
+            int afterId = intParam(params, "afterId", 0);
+            try (ResultSet rs = databaseHelper.getStaffDiscussionReplies(threadId, after, afterId, limitParam(params))) {
+                streamRows(exchange, rs);
+            }
+        } else if (resource.equals("escalations") && path.length == 1) {
+            boolean openOnly = !"all".equalsIgnoreCase(params.getOrDefault("status", "open"));
+            boolean archived = Boolean.parseBoolean(params.get("archived"));
+            String columns = "id, staff_id, student_id, issue_type, description, priority, status, "
+                           + "created_date, resolved_date, resolved_by";
+            String sql = openOnly
+                ? "SELECT " + columns + " FROM StaffEscalations WHERE status = 'OPEN' ORDER BY created_date DESC"
+                : "SELECT " + columns + " FROM StaffEscalations"
+                  + (archived ? " UNION ALL SELECT " + columns + " FROM StaffEscalationsArchive" : "")
+                  + " ORDER BY created_date DESC";
+            streamQuery(exchange, c -> c.prepareStatement(sql));
+        } else if (resource.equals("analytics") && path.length == 2 && path[1].equals("students")) {
+            String term = databaseHelper.getActiveTerm();
+            streamQuery(exchange, c -> {
+                PreparedStatement pstmt = c.prepareStatement(DatabaseHelper.STUDENT_ACTIVITY_SQL);
+                pstmt.setString(1, term);
+                pstmt.setString(2, term);
+                return pstmt;
+            });
+        } else if (resource.equals("analytics") && path.length == 2 && path[1].equals("risk")) {
+            int limit = limitParam(params);
+            streamQuery(exchange, c -> {
+                PreparedStatement pstmt = c.prepareStatement(DatabaseHelper.TOP_RISK_SQL);
+                pstmt.setInt(1, limit);
+                return pstmt;
+            });
+        } else if (resource.equals("moderation") && path.length == 1) {
+            int limit = limitParam(params);
+            streamQuery(exchange, c -> {
+                PreparedStatement pstmt = c.prepareStatement("SELECT id, moderator_id, content_type, content_id, "
+                    + "action, reason, moderated_at FROM ContentModeration "
+                    + "ORDER BY moderated_at DESC, id DESC FETCH FIRST ? ROWS ONLY");
+                pstmt.setInt(1, limit);
+                return pstmt;
+            });
+        } else if (resource.equals("export") && path.length == 2) {
+            ReportExporter.Report report;
+            ReportExporter.Format format;
+            try {
+                report = ReportExporter.Report.valueOf(path[1].toUpperCase(Locale.ROOT));
+                format = ReportExporter.Format.valueOf(params.getOrDefault("format", "csv").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(404, "No such report or format");
+            }
+            // Headers go out only once the query has started, as in streamQuery
+            Connection c = pool.borrow();
+            try {
+                exporter.export(c, report, format, () -> {
+                    exchange.getResponseHeaders().set("Content-Type", format == ReportExporter.Format.CSV
+                        ? "text/csv; charset=utf-8" : "application/x-ndjson; charset=utf-8");
+                    exchange.sendResponseHeaders(200, 0);
+                    return exchange.getResponseBody();
+                });
+            } finally {
+                pool.release(c);
+            }
+        } else {
+            throw new ApiException(404, "Not found");
+        }
+    }
+
+    private void routePost(HttpExchange exchange, String staffId, String[] path, Map<String, String> params)
+            throws ApiException, SQLException, IOException {
+        String resource = path[0];
+        if (resource.equals("discussions") && path.length == 1) {
+            boolean ok = databaseHelper.addStaffDiscussion(staffId, required(params, "title"),
+                                                           required(params, "content"));
+            sendResult(exchange, ok ? 201 : 500, ok);
+        } else if (resource.equals("discussions") && path.length == 3 && path[2].equals("replies")) {
+            boolean ok = databaseHelper.addStaffDiscussionReply(staffId, pathId(path[1]), required(params, "content"));
+            if (!ok) {
+                throw new ApiException(404, "No such discussion");
+            }
+            sendResult(exchange, 201, true);
+        } else if (resource.equals("escalations") && path.length == 1) {
+            int id = databaseHelper.createEscalationRequest(staffId, required(params, "studentId"),
+                required(params, "issueType"), required(params, "description"),
+                params.getOrDefault("priority", "MEDIUM"));
+            sendId(exchange, id);
+        } else if (resource.equals("escalations") && path.length == 3 && path[2].equals("status")) {
+            if (!databaseHelper.updateEscalationStatus(pathId(path[1]), required(params, "status"), staffId)) {
+                throw new ApiException(404, "No such escalation");
+            }
+            sendResult(exchange, 200, true);
+        } else if (resource.equals("moderation") && path.length == 1) {
+            databaseHelper.moderateContent(staffId, required(params, "contentType"),
+                pathId(required(params, "contentId")), required(params, "action"), params.get("reason"));
+            sendResult(exchange, 201, true);
+        } else {
+            throw new ApiException(404, "Not found");
+        }
+    }
+
+    /**
+     * Runs read queries one after the other on a pooled connection and streams their
+     * rows as one JSON array. The status line goes out only after the first query has
+     * started, so a failing query still gets a proper error response.
+     */
+    private void streamQuery(HttpExchange exchange, ReadQuery... queries) throws SQLException, IOException {
+        Connection c = pool.borrow();
+        try {
+            Writer out = null;
+            JsonWriter json = null;
+            for (ReadQuery query : queries) {
+                try (PreparedStatement pstmt = query.prepare(c)) {
+                    pstmt.setFetchSize(FETCH_SIZE);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (json == null) {
+                            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                            exchange.sendResponseHeaders(200, 0);
+                            out = new BufferedWriter(
+                                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+                            json = new JsonWriter(out).beginArray();
+                        }
+                        ResultSetMetaData meta = rs.getMetaData();
+                        while (rs.next()) {
+                            json.row(rs, meta);
+                        }
+                    }
+                }
+            }
+            json.endArray();
+            out.close();
+        } finally {
+            pool.release(c);
+        }
+    }
+
+    /**
+     * Streams the rows of an open cursor as a JSON array with status 200.
+     */
+    private static void streamRows(HttpExchange exchange, ResultSet rs) throws SQLException, IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            new JsonWriter(out).rows(rs);
+        }
+    }
+
+    /**
+     * Checks the request's Basic credentials and returns the username if they belong
+     * to a staff member.
+     */
+    private String authenticate(HttpExchange exchange) throws ApiException, SQLException {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"staff\", charset=\"UTF-8\"");
+            throw new ApiException(401, "Staff credentials required");
+        }
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(401, "Malformed credentials");
+        }
+        int colon = credentials.indexOf(':');
+        if (colon <= 0) {
+            throw new ApiException(401, "Malformed credentials");
+        }
+        String staffId = credentials.substring(0, colon);
+        Connection c = pool.borrow();
+        try (PreparedStatement pstmt = c.prepareStatement(
+                "SELECT userRole FROM cse360users WHERE userName = ? AND password = ?")) {
+            pstmt.setString(1, staffId);
+            pstmt.setString(2, credentials.substring(colon + 1));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new ApiException(401, "Invalid username or password");
+                }
+                if (rs.getString("userRole") == null
+                    || !rs.getString("userRole").toLowerCase(Locale.ROOT).contains("staff")) {
+                    throw new ApiException(403, "Not a staff member: " + staffId);
+                }
+            }
+        } finally {
+            pool.release(c);
+        }
+        return staffId;
+    }
+
+    private void sendResult(HttpExchange exchange, int status, boolean ok) throws IOException {
+        sendJson(exchange, status, "{\"ok\":" + ok + "}");
+    }
+
+    private void sendId(HttpExchange exchange, int id) throws IOException {
+        sendJson(exchange, id > 0 ? 201 : 500, "{\"ok\":" + (id > 0) + ",\"id\":" + id + "}");
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            StringWriter body = new StringWriter();
+            new JsonWriter(body).beginObject().name("error").value(message).endObject();
+            sendJson(exchange, status, body.toString());
+        } catch (IOException e) {
+            // The client went away; nothing left to report to
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException, ApiException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body too large");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Decodes {@code a=1&b=2} into a map; later duplicates win.
+     */
+    static Map<String, String> parseForm(String form) {
+        Map<String, String> params = new HashMap<>();
+        if (form == null || form.isEmpty()) {
+            return params;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) throws ApiException {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new ApiException(400, "Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static int pathId(String value) throws ApiException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Not a number: " + value);
+        }
+    }
+
+    private static int intParam(Map<String, String> params, String name, int fallback) throws ApiException {
+        return params.containsKey(name) ? pathId(params.get(name)) : fallback;
+    }
+
+    private static int limitParam(Map<String, String> params) throws ApiException {
+        int limit = intParam(params, "limit", DEFAULT_LIST_LIMIT);
+        if (limit < 1 || limit > MAX_LIST_LIMIT) {
+            throw new ApiException(400, "limit must be between 1 and " + MAX_LIST_LIMIT);
+        }
+        return limit;
+    }
+
+    private static Timestamp parseTimestamp(String value) throws ApiException {
+        try {
+            return Timestamp.valueOf(LocalDateTime.parse(value));
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Not an ISO date-time: " + value);
+        }
+    }
+
+    /**
+     * Runs the service against the configured database until the process is stopped.
+     *
+     * @param args optionally the port
+     * @throws Exception if the database or the port cannot be opened
+     */
+    public static void main(String[] args) throws Exception {
+        DatabaseHelper databaseHelper = new DatabaseHelper();
+        databaseHelper.connectToDatabase();
+        StaffApiServer api = new StaffApiServer(databaseHelper,
+            args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT, DEFAULT_POOL_SIZE);
+        api.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.stop();
+            databaseHelper.closeConnection();
+        }));
+        System.out.println("Staff API listening on http://localhost:" + api.getPort() + "/api/");
+    }
+}
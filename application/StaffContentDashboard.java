@@ -9,8 +9,13 @@ import javafx.geometry.Insets;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import databasePart1.DatabaseHelper;
+import databasePart1.QuestionDuplicateIndex;
+import databasePart1.ReportExporter;
+import databasePart1.SimilarQuestionIndex;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * StaffContentDashboard - Allows staff to monitor all student questions and answers.
@@ -39,6 +44,7 @@ public class StaffContentDashboard {
         private final String authorName;
         private final String status;
         private final String date;
+        private String duplicates = "";
 
         /**
          * Constructs a ContentItem used in the staff content table.
@@ -104,6 +110,18 @@ public class StaffContentDashboard {
          */
         public String getDate() { return date; }
 
+        /**
+         * @return the duplicate cluster label, empty if the item has no probable duplicates
+         */
+        public String getDuplicates() { return duplicates; }
+
+        /**
+         * Sets the duplicate cluster label shown in the Duplicates column.
+         *
+         * @param duplicates the label, e.g. "Cluster #12 (3)"
+         */
+        public void setDuplicates(String duplicates) { this.duplicates = duplicates; }
+
         /**
          * JavaFX property helper for the content type column.
          *
@@ -139,6 +157,15 @@ public class StaffContentDashboard {
         public javafx.beans.property.StringProperty statusProperty() {
             return new javafx.beans.property.SimpleStringProperty(status);
         }
+
+        /**
+         * JavaFX property helper for the duplicates column.
+         *
+         * @return a StringProperty wrapping the duplicate cluster label
+         */
+        public javafx.beans.property.StringProperty duplicatesProperty() {
+            return new javafx.beans.property.SimpleStringProperty(duplicates);
+        }
     }
 
     /**
@@ -180,11 +207,17 @@ public class StaffContentDashboard {
         Button viewDetailsBtn = new Button("View Details");
         viewDetailsBtn.setOnAction(e -> viewContentDetails());
 
+        Button exportBtn = new Button("Export Content");
+        exportBtn.setOnAction(e -> ReportExportDialog.export(primaryStage, databaseHelper, ReportExporter.Report.CONTENT, "content"));
+
+        Button exportLogBtn = new Button("Export Moderation Log");
+        exportLogBtn.setOnAction(e -> ReportExportDialog.export(primaryStage, databaseHelper, ReportExporter.Report.MODERATION_LOG, "moderation-log"));
+
         Button backBtn = new Button("Back to Dashboard");
         backBtn.setOnAction(e -> new StaffHomePage(databaseHelper, staffUsername).show(primaryStage));
 
         controlsBox.getChildren().addAll(
-            new Label("Filter:"), contentTypeFilter, refreshBtn, viewDetailsBtn, backBtn
+            new Label("Filter:"), contentTypeFilter, refreshBtn, viewDetailsBtn, exportBtn, exportLogBtn, backBtn
         );
 
         // Content Table
@@ -224,17 +257,23 @@ public class StaffContentDashboard {
         statusCol.setCellValueFactory(cellData -> cellData.getValue().statusProperty());
         statusCol.setPrefWidth(100);
 
-        contentTable.getColumns().addAll(typeCol, titleCol, authorCol, statusCol);
+        TableColumn<ContentItem, String> duplicatesCol = new TableColumn<>("Duplicates");
+        duplicatesCol.setCellValueFactory(cellData -> cellData.getValue().duplicatesProperty());
+        duplicatesCol.setPrefWidth(120);
+
+        contentTable.getColumns().addAll(typeCol, titleCol, authorCol, statusCol, duplicatesCol);
     }
 
     /**
      * Refreshes the content table with current data from the database.
-     * Applies the selected {@link #contentTypeFilter} to limit visible rows.
+     * Applies the selected {@link #contentTypeFilter} to limit visible rows and
+     * labels questions that belong to a cluster of probable duplicates.
      * Any SQL errors are shown to the user via an alert dialog.
      */
     private void refreshContent() {
         try {
             ObservableList<ContentItem> content = FXCollections.observableArrayList();
+            Map<Integer, List<Integer>> clusters = databaseHelper.getDuplicateClusters();
             ResultSet rs = databaseHelper.getAllContentForStaff();
 
             while (rs != null && rs.next()) {
@@ -256,6 +295,10 @@ public class StaffContentDashboard {
                         rs.getBoolean("resolved") ? "Resolved" : "Active",
                         rs.getTimestamp("request_date").toString()
                     );
+                    List<Integer> cluster = "QUESTION".equals(type) ? clusters.get(item.getId()) : null;
+                    if (cluster != null) {
+                        item.setDuplicates("Cluster #" + cluster.get(0) + " (" + cluster.size() + ")");
+                    }
                     content.add(item);
                 }
             }
@@ -304,11 +347,62 @@ public class StaffContentDashboard {
      * @return a human-readable formatted string representing the item details
      */
     private String buildContentDetails(ContentItem item) {
-        return String.format(
+        String details = String.format(
             "Type: %s\nID: %d\nTitle: %s\nAuthor: %s (%s)\nStatus: %s\nDate: %s\n\nContent:\n%s",
             item.getType(), item.getId(), item.getTitle(), item.getAuthorName(),
             item.getAuthor(), item.getStatus(), item.getDate(), item.getContent()
         );
+        if ("QUESTION".equals(item.getType())) {
+            details += "\n\n" + buildDuplicateDetails(item.getId());
+            details += "\n\n" + buildSimilarResolvedDetails(item.getId());
+        }
+        return details;
+    }
+
+    /**
+     * Lists the probable duplicates of a question with their estimated similarity.
+     *
+     * @param questionId the question id
+     * @return a human-readable list, or a note that none were found
+     */
+    private String buildDuplicateDetails(int questionId) {
+        try {
+            List<QuestionDuplicateIndex.Match> matches = databaseHelper.getProbableDuplicates(questionId);
+            if (matches.isEmpty()) {
+                return "Probable duplicates: none";
+            }
+            StringBuilder sb = new StringBuilder("Probable duplicates:");
+            for (QuestionDuplicateIndex.Match m : matches) {
+                sb.append(String.format("\n  Question #%d (%.0f%% similar)", m.getQuestionId(), m.getSimilarity() * 100));
+            }
+            return sb.toString();
+        } catch (SQLException e) {
+            return "Probable duplicates: unavailable (" + e.getMessage() + ")";
+        }
+    }
+
+    /**
+     * Lists resolved questions similar to a question, so staff can point the student at them.
+     *
+     * @param questionId the question id
+     * @return a human-readable list, or a note that none were found
+     */
+    private String buildSimilarResolvedDetails(int questionId) {
+        try {
+            List<SimilarQuestionIndex.Match> matches = databaseHelper.getSimilarResolvedQuestions(
+                questionId, SimilarQuestionIndex.DEFAULT_LIMIT);
+            if (matches.isEmpty()) {
+                return "Similar resolved questions: none";
+            }
+            StringBuilder sb = new StringBuilder("Similar resolved questions:");
+            for (SimilarQuestionIndex.Match m : matches) {
+                sb.append(String.format("\n  Question #%d: %s (score %.2f)", m.getQuestionId(), m.getTitle(), m.getScore()));
+            }
+            return sb.toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Similar resolved questions: unavailable";
+        }
     }
 
     /**
@@ -11,6 +11,7 @@ import javafx.collections.ObservableList;
 import databasePart1.DatabaseHelper;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 
 /**
  * StaffDiscussionBoard provides a private discussion board UI where staff members
@@ -20,13 +21,27 @@ import java.sql.SQLException;
  * <p>This class offers basic CRUD-style behavior (create + read) exposed via a
  * JavaFX interface. It is intended to support Staff-role user stories in HW4
  * and can be extended to include edit/delete features and richer moderation tools.</p>
+ *
+ * <p>Threads are loaded one page at a time, newest first, so the board opens in
+ * constant time regardless of how many posts have accumulated. Replies are loaded
+ * per thread when a post is opened.</p>
  */
 public class StaffDiscussionBoard {
+    /** Number of threads loaded per page. */
+    private static final int THREAD_PAGE_SIZE = 50;
+
+    /** Number of replies loaded per page in the thread view. */
+    private static final int REPLY_PAGE_SIZE = 25;
+
     private final DatabaseHelper databaseHelper;
     private final String staffUsername;
     private TableView<DiscussionPost> discussionTable;
     private TextField titleField;
     private TextArea contentArea;
+    private Button loadMoreBtn;
+    private ObservableList<DiscussionPost> posts;
+    private Timestamp lastThreadDate;
+    private int lastThreadId;
 
     /**
      * Data model representing a single discussion post in the staff board.
@@ -38,6 +53,7 @@ public class StaffDiscussionBoard {
         private final String title;
         private final String content;
         private final String date;
+        private final int replyCount;
 
         /**
          * Constructs a DiscussionPost model instance.
@@ -51,12 +67,29 @@ public class StaffDiscussionBoard {
          */
         public DiscussionPost(int id, String staffId, String staffName,
                               String title, String content, String date) {
+            this(id, staffId, staffName, title, content, date, 0);
+        }
+
+        /**
+         * Constructs a DiscussionPost model instance with a reply count.
+         *
+         * @param id the unique identifier for the post
+         * @param staffId the staff member's id who authored the post
+         * @param staffName the staff member's display name
+         * @param title the post title
+         * @param content the full post content
+         * @param date the creation date/time as a string
+         * @param replyCount the number of replies in the post's thread
+         */
+        public DiscussionPost(int id, String staffId, String staffName,
+                              String title, String content, String date, int replyCount) {
             this.id = id;
             this.staffId = staffId;
             this.staffName = staffName;
             this.title = title;
             this.content = content;
             this.date = date;
+            this.replyCount = replyCount;
         }
 
         /**
@@ -89,6 +122,11 @@ public class StaffDiscussionBoard {
          */
         public String getDate() { return date; }
 
+        /**
+         * @return the number of replies in the post's thread
+         */
+        public int getReplyCount() { return replyCount; }
+
         /**
          * JavaFX property helper for the title column.
          *
@@ -115,6 +153,15 @@ public class StaffDiscussionBoard {
         public javafx.beans.property.StringProperty dateProperty() {
             return new javafx.beans.property.SimpleStringProperty(date);
         }
+
+        /**
+         * JavaFX property helper for the replies column.
+         *
+         * @return property wrapping the reply count
+         */
+        public javafx.beans.property.IntegerProperty replyCountProperty() {
+            return new javafx.beans.property.SimpleIntegerProperty(replyCount);
+        }
     }
 
     /**
@@ -169,13 +216,16 @@ public class StaffDiscussionBoard {
         Button refreshBtn = new Button("Refresh");
         refreshBtn.setOnAction(e -> refreshDiscussions());
 
-        Button viewPostBtn = new Button("View Full Post");
+        loadMoreBtn = new Button("Load More");
+        loadMoreBtn.setOnAction(e -> loadNextThreadPage());
+
+        Button viewPostBtn = new Button("View Thread");
         viewPostBtn.setOnAction(e -> viewFullPost());
 
         Button backBtn = new Button("Back to Dashboard");
         backBtn.setOnAction(e -> new StaffHomePage(databaseHelper, staffUsername).show(primaryStage));
 
-        controlsBox.getChildren().addAll(refreshBtn, viewPostBtn, backBtn);
+        controlsBox.getChildren().addAll(refreshBtn, loadMoreBtn, viewPostBtn, backBtn);
 
         mainLayout.getChildren().addAll(titleLabel, newPostSection, discussionTable, controlsBox);
 
@@ -206,7 +256,11 @@ public class StaffDiscussionBoard {
         dateCol.setCellValueFactory(cellData -> cellData.getValue().dateProperty());
         dateCol.setPrefWidth(150);
 
-        discussionTable.getColumns().addAll(titleCol, authorCol, dateCol);
+        TableColumn<DiscussionPost, Number> repliesCol = new TableColumn<>("Replies");
+        repliesCol.setCellValueFactory(cellData -> cellData.getValue().replyCountProperty());
+        repliesCol.setPrefWidth(80);
+
+        discussionTable.getColumns().addAll(titleCol, authorCol, dateCol, repliesCol);
     }
 
     /**
@@ -243,27 +297,41 @@ public class StaffDiscussionBoard {
     }
 
     /**
-     * Reloads discussion posts from the database and updates the table.
+     * Reloads the first page of discussion threads and resets pagination.
      * Any SQL errors are caught and reported to the user via an alert.
      */
     private void refreshDiscussions() {
-        try {
-            ObservableList<DiscussionPost> posts = FXCollections.observableArrayList();
-            ResultSet rs = databaseHelper.getStaffDiscussions();
+        posts = FXCollections.observableArrayList();
+        lastThreadDate = null;
+        lastThreadId = 0;
+        discussionTable.setItems(posts);
+        loadNextThreadPage();
+    }
 
-            while (rs != null && rs.next()) {
+    /**
+     * Appends the next page of discussion threads to the table, continuing from the
+     * last thread already shown. Disables the Load More button once no threads remain.
+     */
+    private void loadNextThreadPage() {
+        try (ResultSet rs = databaseHelper.getStaffDiscussionThreads(lastThreadDate, lastThreadId, THREAD_PAGE_SIZE)) {
+            int loaded = 0;
+            while (rs.next()) {
+                Timestamp created = rs.getTimestamp("created_date");
                 DiscussionPost post = new DiscussionPost(
                     rs.getInt("id"),
                     rs.getString("staff_id"),
                     rs.getString("staff_name"),
                     rs.getString("title"),
                     rs.getString("content"),
-                    rs.getTimestamp("created_date").toString()
+                    created.toString(),
+                    rs.getInt("reply_count")
                 );
                 posts.add(post);
+                lastThreadDate = created;
+                lastThreadId = post.getId();
+                loaded++;
             }
-
-            discussionTable.setItems(posts);
+            loadMoreBtn.setDisable(loaded < THREAD_PAGE_SIZE);
 
         } catch (SQLException e) {
             showAlert(Alert.AlertType.ERROR, "Database Error",
@@ -272,7 +340,8 @@ public class StaffDiscussionBoard {
     }
 
     /**
-     * Shows the full content of the currently selected discussion post in a new window.
+     * Shows the selected discussion thread in a new window: the full root post,
+     * its replies one page at a time, and a field for posting a reply.
      * If no post is selected, a warning is shown.
      */
     private void viewFullPost() {
@@ -289,16 +358,83 @@ public class StaffDiscussionBoard {
         fullContent.setWrapText(true);
         fullContent.setPrefSize(500, 300);
 
-        VBox content = new VBox(10, new Label("Discussion Post Details"), fullContent);
+        // Reply cursor is held in a one-element array so the button handlers can advance it
+        Timestamp[] lastReplyDate = { null };
+        int[] lastReplyId = { 0 };
+        Button moreRepliesBtn = new Button("Load More Replies");
+        moreRepliesBtn.setOnAction(e ->
+            loadReplies(selected, fullContent, moreRepliesBtn, lastReplyDate, lastReplyId));
+        loadReplies(selected, fullContent, moreRepliesBtn, lastReplyDate, lastReplyId);
+
+        TextArea replyArea = new TextArea();
+        replyArea.setPromptText("Write a reply...");
+        replyArea.setPrefHeight(60);
+
+        Button replyBtn = new Button("Reply");
+        replyBtn.setOnAction(e -> {
+            String reply = replyArea.getText().trim();
+            if (reply.isEmpty()) {
+                showAlert(Alert.AlertType.WARNING, "Missing Information",
+                         "Please enter a reply before posting.");
+                return;
+            }
+            try {
+                if (databaseHelper.addStaffDiscussionReply(staffUsername, selected.getId(), reply)) {
+                    replyArea.clear();
+                    loadReplies(selected, fullContent, moreRepliesBtn, lastReplyDate, lastReplyId);
+                } else {
+                    showAlert(Alert.AlertType.ERROR, "Error",
+                             "The discussion thread no longer exists.");
+                }
+            } catch (SQLException ex) {
+                showAlert(Alert.AlertType.ERROR, "Database Error",
+                         "Error posting reply: " + ex.getMessage());
+            }
+        });
+
+        VBox content = new VBox(10, new Label("Discussion Thread"), fullContent,
+                                moreRepliesBtn, replyArea, replyBtn);
         content.setPadding(new Insets(15));
 
-        Scene detailsScene = new Scene(content, 550, 400);
+        Scene detailsScene = new Scene(content, 550, 550);
         Stage detailsStage = new Stage();
         detailsStage.setTitle("Discussion: " + selected.getTitle());
         detailsStage.setScene(detailsScene);
         detailsStage.show();
     }
 
+    /**
+     * Appends the next page of replies for a thread to the thread view and advances
+     * the reply cursor. Disables the load button once no replies remain.
+     *
+     * @param thread the root post of the thread
+     * @param threadView the text area showing the thread
+     * @param moreRepliesBtn the button that loads further replies
+     * @param lastReplyDate holder for the created_date of the last reply shown
+     * @param lastReplyId holder for the id of the last reply shown
+     */
+    private void loadReplies(DiscussionPost thread, TextArea threadView, Button moreRepliesBtn,
+                             Timestamp[] lastReplyDate, int[] lastReplyId) {
+        try (ResultSet rs = databaseHelper.getStaffDiscussionReplies(
+                thread.getId(), lastReplyDate[0], lastReplyId[0], REPLY_PAGE_SIZE)) {
+            int loaded = 0;
+            StringBuilder replies = new StringBuilder();
+            while (rs.next()) {
+                Timestamp created = rs.getTimestamp("created_date");
+                replies.append(String.format("\n\n--- %s (%s) ---\n%s",
+                    rs.getString("staff_name"), created, rs.getString("content")));
+                lastReplyDate[0] = created;
+                lastReplyId[0] = rs.getInt("id");
+                loaded++;
+            }
+            threadView.appendText(replies.toString());
+            moreRepliesBtn.setDisable(loaded < REPLY_PAGE_SIZE);
+        } catch (SQLException e) {
+            showAlert(Alert.AlertType.ERROR, "Database Error",
+                     "Failed to load replies: " + e.getMessage());
+        }
+    }
+
     /**
      * Builds the formatted content string for a discussion post shown in the details view.
      *
@@ -307,8 +443,8 @@ public class StaffDiscussionBoard {
      */
     private String buildFullPostContent(DiscussionPost post) {
         return String.format(
-            "Title: %s\nAuthor: %s\nDate: %s\n\n%s",
-            post.getTitle(), post.getStaffName(), post.getDate(), post.getContent()
+            "Title: %s\nAuthor: %s\nDate: %s\nReplies: %d\n\n%s",
+            post.getTitle(), post.getStaffName(), post.getDate(), post.getReplyCount(), post.getContent()
         );
     }
 
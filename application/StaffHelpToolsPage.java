@@ -1,5 +1,6 @@
 package application;
 
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
@@ -9,8 +10,14 @@ import javafx.geometry.Insets;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import databasePart1.DatabaseHelper;
+import databasePart1.SimilarQuestionIndex;
+import databasePart1.UnansweredQueue;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The {@code StaffHelpToolsPage} class provides a JavaFX interface that allows
@@ -18,9 +25,13 @@ import java.sql.SQLException;
  * navigation, or account-related issues. This page is part of the staff workflow
  * introduced in HW4 and is accessible from the {@link StaffHomePage}.
  * <p>
- * The current implementation presents a placeholder interface with a navigation
- * option back to the staff dashboard. 
- * </ul>
+ * The page shows the queue of student questions still waiting for help (no answer
+ * yet, or no resolving answer), oldest first, so staff can work through the
+ * longest waits. The queue is paged forward from the last question shown and
+ * backward through the pages already seen. Below the queue, the students with the
+ * highest risk scores are listed so staff can reach out before they fall behind.
+ * Staff can also paste a question a student is about to ask and find resolved
+ * questions that already answer it.
  * </p>
  *
  * <p><b>Role Context:</b> This tool supports the Staff role user stories by giving 
@@ -35,6 +46,57 @@ public class StaffHelpToolsPage {
     /** Username of the staff member currently logged in. */
     private final String staffUsername;
 
+    /** Number of questions shown per page of the queue. */
+    private static final int PAGE_SIZE = 25;
+
+    /** Table of waiting questions on the current page. */
+    private TableView<UnansweredQueue.Entry> queueTable;
+
+    /** Summary of the queue size and current page. */
+    private Label queueStatus;
+
+    /** Last entry of each page before the current one; null marks the first page. */
+    private final List<UnansweredQueue.Entry> previousPages = new ArrayList<>();
+
+    /** Last entry of the previous page, or null on the first page. */
+    private UnansweredQueue.Entry pageStart = null;
+
+    /** Entries on the current page. */
+    private List<UnansweredQueue.Entry> currentPage = List.of();
+
+    /** Number of students shown in the risk table. */
+    private static final int RISK_LIST_SIZE = 10;
+
+    /** Table of the highest-risk students. */
+    private TableView<RiskRow> riskTable;
+
+    /** Resolved questions similar to the draft being checked. */
+    private ListView<String> similarList;
+
+    /**
+     * A row of the risk table.
+     */
+    private static class RiskRow {
+        final String student;
+        final double score;
+        final int openQuestions;
+        final int openEscalations;
+        final int contributions;
+        final String lastActivity;
+
+        RiskRow(ResultSet rs) throws SQLException {
+            String name = rs.getString("name");
+            String userName = rs.getString("student_id");
+            this.student = name == null || name.isEmpty() ? userName : name + " (" + userName + ")";
+            this.score = rs.getDouble("risk_score");
+            this.openQuestions = rs.getInt("open_questions");
+            this.openEscalations = rs.getInt("open_escalations");
+            this.contributions = rs.getInt("contributions");
+            this.lastActivity = rs.getTimestamp("last_activity") == null ? "never"
+                                : rs.getTimestamp("last_activity").toString();
+        }
+    }
+
     /**
      * Constructs a new {@code StaffHelpToolsPage}.
      *
@@ -60,15 +122,248 @@ public class StaffHelpToolsPage {
         Label titleLabel = new Label("Student Help Tools");
         titleLabel.setStyle("-fx-font-size: 24px; -fx-font-weight: bold;");
 
-        // Placeholder: Additional help tool UI elements will be added here in HW4 expansion.
+        Label queueLabel = new Label("Questions waiting for help (oldest first)");
+        queueLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+
+        createQueueTable();
+        queueStatus = new Label();
+
+        Button firstBtn = new Button("First Page");
+        firstBtn.setOnAction(e -> {
+            previousPages.clear();
+            loadPage(null);
+        });
+
+        Button prevBtn = new Button("Previous");
+        prevBtn.setOnAction(e -> {
+            if (!previousPages.isEmpty()) {
+                loadPage(previousPages.remove(previousPages.size() - 1));
+            }
+        });
+
+        Button nextBtn = new Button("Next");
+        nextBtn.setOnAction(e -> {
+            if (currentPage.size() == PAGE_SIZE) {
+                previousPages.add(pageStart);
+                loadPage(currentPage.get(currentPage.size() - 1));
+            }
+        });
+
+        Button refreshBtn = new Button("Refresh");
+        refreshBtn.setOnAction(e -> {
+            // Picks up questions asked or resolved on other desktops
+            try {
+                databaseHelper.refreshUnansweredQueue();
+            } catch (SQLException ex) {
+                showAlert("Failed to reload the help queue: " + ex.getMessage());
+            }
+            loadPage(pageStart);
+        });
+
+        HBox pagingBox = new HBox(10, firstBtn, prevBtn, nextBtn, refreshBtn, queueStatus);
+
+        Label riskLabel = new Label("Students at risk (highest score first)");
+        riskLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+
+        createRiskTable();
+
+        Button recomputeBtn = new Button("Recompute Scores");
+        recomputeBtn.setOnAction(e -> {
+            // A full recompute takes seconds on a large class, so it runs on the scoring thread
+            recomputeBtn.setDisable(true);
+            databaseHelper.recomputeStudentRiskLater().whenComplete((scored, ex) -> Platform.runLater(() -> {
+                recomputeBtn.setDisable(false);
+                if (ex != null) {
+                    showAlert("Failed to recompute risk scores: " + ex.getMessage());
+                } else {
+                    loadRiskTable();
+                }
+            }));
+        });
+
+        Label draftLabel = new Label("Check a student's question for existing answers");
+        draftLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+
+        TextField draftTitle = new TextField();
+        draftTitle.setPromptText("Question title");
+        TextArea draftText = new TextArea();
+        draftText.setPromptText("Question text");
+        draftText.setPrefRowCount(3);
+        similarList = new ListView<>();
+        similarList.setPrefHeight(120);
+
+        Button findBtn = new Button("Find Resolved Questions");
+        findBtn.setOnAction(e -> findSimilarResolved(findBtn, draftTitle.getText(), draftText.getText()));
 
         Button backBtn = new Button("Back to Dashboard");
         backBtn.setOnAction(e -> new StaffHomePage(databaseHelper, staffUsername).show(primaryStage));
 
-        layout.getChildren().addAll(titleLabel, backBtn);
+        layout.getChildren().addAll(titleLabel, queueLabel, queueTable, pagingBox,
+                                    riskLabel, riskTable, recomputeBtn,
+                                    draftLabel, draftTitle, draftText, findBtn, similarList, backBtn);
+        loadPage(null);
+        loadRiskTable();
 
-        Scene scene = new Scene(layout, 800, 600);
+        Scene scene = new Scene(new ScrollPane(layout), 800, 800);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Student Help Tools");
     }
+
+    /**
+     * Creates the table of waiting questions.
+     */
+    private void createQueueTable() {
+        queueTable = new TableView<>();
+        queueTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        TableColumn<UnansweredQueue.Entry, String> askedCol = new TableColumn<>("Asked");
+        askedCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+            cell.getValue().getCreatedDate().toString()));
+
+        TableColumn<UnansweredQueue.Entry, String> waitingCol = new TableColumn<>("Waiting");
+        waitingCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+            formatWait(cell.getValue())));
+
+        TableColumn<UnansweredQueue.Entry, String> studentCol = new TableColumn<>("Student");
+        studentCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+            cell.getValue().getUserName()));
+
+        TableColumn<UnansweredQueue.Entry, String> titleCol = new TableColumn<>("Title");
+        titleCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+            cell.getValue().getTitle()));
+
+        TableColumn<UnansweredQueue.Entry, Number> answersCol = new TableColumn<>("Answers");
+        answersCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleIntegerProperty(
+            cell.getValue().getAnswerCount()));
+
+        queueTable.getColumns().addAll(askedCol, waitingCol, studentCol, titleCol, answersCol);
+    }
+
+    /**
+     * Loads the page of the queue that follows the given entry.
+     *
+     * @param after the last entry of the previous page, or null for the first page
+     */
+    private void loadPage(UnansweredQueue.Entry after) {
+        try {
+            currentPage = databaseHelper.getUnansweredQuestions(after, PAGE_SIZE);
+            pageStart = after;
+            ObservableList<UnansweredQueue.Entry> rows = FXCollections.observableArrayList(currentPage);
+            queueTable.setItems(rows);
+            queueStatus.setText(String.format("Page %d - %d questions waiting",
+                previousPages.size() + 1, databaseHelper.getUnansweredQuestionCount()));
+        } catch (SQLException e) {
+            showAlert("Failed to load the help queue: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the table of highest-risk students.
+     */
+    private void createRiskTable() {
+        riskTable = new TableView<>();
+        riskTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        riskTable.setPrefHeight(250);
+
+        TableColumn<RiskRow, String> studentCol = new TableColumn<>("Student");
+        studentCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+            cell.getValue().student));
+
+        TableColumn<RiskRow, String> scoreCol = new TableColumn<>("Risk");
+        scoreCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+            String.format("%.1f", cell.getValue().score)));
+
+        TableColumn<RiskRow, Number> openCol = new TableColumn<>("Open Questions");
+        openCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleIntegerProperty(
+            cell.getValue().openQuestions));
+
+        TableColumn<RiskRow, Number> escalationCol = new TableColumn<>("Open Escalations");
+        escalationCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleIntegerProperty(
+            cell.getValue().openEscalations));
+
+        TableColumn<RiskRow, Number> contributionCol = new TableColumn<>("Answers + Reviews");
+        contributionCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleIntegerProperty(
+            cell.getValue().contributions));
+
+        TableColumn<RiskRow, String> activityCol = new TableColumn<>("Last Active");
+        activityCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+            cell.getValue().lastActivity));
+
+        riskTable.getColumns().addAll(studentCol, scoreCol, openCol, escalationCol, contributionCol, activityCol);
+    }
+
+    /**
+     * Loads the highest-risk students from the precomputed scores.
+     */
+    private void loadRiskTable() {
+        ObservableList<RiskRow> rows = FXCollections.observableArrayList();
+        try (ResultSet rs = databaseHelper.getTopRiskStudents(RISK_LIST_SIZE)) {
+            while (rs.next()) {
+                rows.add(new RiskRow(rs));
+            }
+            riskTable.setItems(rows);
+        } catch (SQLException e) {
+            showAlert("Failed to load risk scores: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists resolved questions similar to a draft. The search runs off the FX thread,
+     * since it waits for the similar-question index if it is still being built.
+     *
+     * @param findBtn the button that started the search, disabled until it ends
+     * @param title the draft title
+     * @param text the draft text
+     */
+    private void findSimilarResolved(Button findBtn, String title, String text) {
+        findBtn.setDisable(true);
+        Thread search = new Thread(() -> {
+            try {
+                List<SimilarQuestionIndex.Match> matches = databaseHelper.getSimilarResolvedQuestions(
+                    title, text, SimilarQuestionIndex.DEFAULT_LIMIT);
+                List<String> rows = new ArrayList<>();
+                for (SimilarQuestionIndex.Match m : matches) {
+                    rows.add(String.format("Question #%d: %s (score %.2f)", m.getQuestionId(), m.getTitle(), m.getScore()));
+                }
+                if (rows.isEmpty()) {
+                    rows.add("No resolved question matches this draft.");
+                }
+                Platform.runLater(() -> {
+                    similarList.setItems(FXCollections.observableArrayList(rows));
+                    findBtn.setDisable(false);
+                });
+            } catch (InterruptedException e) {
+                Platform.runLater(() -> findBtn.setDisable(false));
+            }
+        }, "similar-question-search");
+        search.setDaemon(true);
+        search.start();
+    }
+
+    /**
+     * Formats how long a question has been waiting, e.g. "3d 4h".
+     *
+     * @param entry the queued question
+     * @return the waiting time
+     */
+    private String formatWait(UnansweredQueue.Entry entry) {
+        Duration wait = Duration.between(entry.getCreatedDate().toInstant(), Instant.now());
+        if (wait.toDays() > 0) {
+            return wait.toDays() + "d " + wait.toHoursPart() + "h";
+        }
+        return wait.toHours() + "h " + wait.toMinutesPart() + "m";
+    }
+
+    /**
+     * Shows an error dialog.
+     *
+     * @param message the message text to display in the dialog
+     */
+    private void showAlert(String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Database Error");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
 }
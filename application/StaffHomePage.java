@@ -5,6 +5,7 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import databasePart1.DatabaseHelper;
+import databasePart1.UserSession;
 
 /**
  * StaffHomePage - Main dashboard for staff members
@@ -41,7 +42,10 @@ public class StaffHomePage {
         VBox layout = new VBox(15);
         layout.setStyle("-fx-alignment: center; -fx-padding: 30; -fx-background-color: #f8f9fa;");
         
-        Label welcomeLabel = new Label("Staff Dashboard - Welcome, " + username + "!");
+        // Roles and name come from the login session, not a lookup per page
+        UserSession session = databaseHelper.getSession(username);
+        String displayName = session != null ? session.getDisplayName() : username;
+        Label welcomeLabel = new Label("Staff Dashboard - Welcome, " + displayName + "!");
         welcomeLabel.setStyle("-fx-font-size: 24px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
         
         Label instructionLabel = new Label("Select a staff functionality:");
@@ -55,6 +59,14 @@ public class StaffHomePage {
         Button helpToolsBtn = createStaffButton("Student Help Tools");
         Button logoutBtn = createStaffButton("Logout");
 
+        if (session != null) {
+            contentDashboardBtn.setDisable(!session.can(UserSession.Permission.VIEW_ALL_CONTENT));
+            discussionBoardBtn.setDisable(!session.can(UserSession.Permission.STAFF_DISCUSSION));
+            analyticsBtn.setDisable(!session.can(UserSession.Permission.VIEW_ANALYTICS));
+            escalationBtn.setDisable(!session.can(UserSession.Permission.MANAGE_ESCALATIONS));
+            helpToolsBtn.setDisable(!session.can(UserSession.Permission.VIEW_ALL_CONTENT));
+        }
+
         // Button actions
         contentDashboardBtn.setOnAction(e -> {
             StaffContentDashboard contentDashboard = new StaffContentDashboard(databaseHelper, username);
@@ -83,6 +95,7 @@ public class StaffHomePage {
 
         logoutBtn.setOnAction(e -> {
             // Go back to login selection
+            databaseHelper.endSession(username);
             new SetupLoginSelectionPage(databaseHelper).show(primaryStage);
         });
 
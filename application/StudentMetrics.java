@@ -0,0 +1,94 @@
+package databasePart1;
+
+import java.sql.Timestamp;
+
+/**
+ * Per-student activity metrics computed by {@link ParallelAnalyticsEngine}.
+ * Counts start at zero and are filled in by the partition queries.
+ */
+public class StudentMetrics {
+    private final String userName;
+    private final String name;
+    private int questionCount;
+    private int resolvedQuestionCount;
+    private int answerCount;
+    private int reviewCount;
+    private Timestamp lastActivity;
+
+    /**
+     * Constructs an empty StudentMetrics for a student.
+     *
+     * @param userName the student's username
+     * @param name the student's display name
+     */
+    public StudentMetrics(String userName, String name) {
+        this.userName = userName;
+        this.name = name;
+    }
+
+    /**
+     * @return the student's username
+     */
+    public String getUserName() { return userName; }
+
+    /**
+     * @return the student's display name
+     */
+    public String getName() { return name; }
+
+    /**
+     * @return the number of questions the student posted (clarifications excluded)
+     */
+    public int getQuestionCount() { return questionCount; }
+
+    /**
+     * @return the number of the student's questions that are resolved
+     */
+    public int getResolvedQuestionCount() { return resolvedQuestionCount; }
+
+    /**
+     * @return the number of answers the student posted
+     */
+    public int getAnswerCount() { return answerCount; }
+
+    /**
+     * @return the number of reviews the student wrote
+     */
+    public int getReviewCount() { return reviewCount; }
+
+    /**
+     * @return the time of the student's latest question or answer, or null if none
+     */
+    public Timestamp getLastActivity() { return lastActivity; }
+
+    /**
+     * Returns the fraction of the student's questions that are resolved.
+     *
+     * @return the resolution rate between 0.0 and 1.0, or 0.0 if the student has no questions
+     */
+    public double getResolutionRate() {
+        return questionCount == 0 ? 0.0 : (double) resolvedQuestionCount / questionCount;
+    }
+
+    void setQuestionCounts(int questionCount, int resolvedQuestionCount) {
+        this.questionCount = questionCount;
+        this.resolvedQuestionCount = resolvedQuestionCount;
+    }
+
+    void setAnswerCount(int answerCount) {
+        this.answerCount = answerCount;
+    }
+
+    void setReviewCount(int reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    /**
+     * Moves the last activity time forward if the given time is later.
+     */
+    void noteActivity(Timestamp when) {
+        if (when != null && (lastActivity == null || when.after(lastActivity))) {
+            lastActivity = when;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package databasePart1;
+
+import java.sql.Timestamp;
+
+/**
+ * A student's risk score and the signals behind it, computed by
+ * {@link StudentRiskService} and stored in StudentRiskScores.
+ *
+ * <p>The score runs from 0 to 100 and adds five capped components:
+ * <ul>
+ *   <li>open questions (no resolving answer), up to {@link #OPEN_QUESTIONS_WEIGHT}</li>
+ *   <li>the longest current wait for help, up to {@link #WAIT_WEIGHT}</li>
+ *   <li>escalations about the student, open ones counting double, up to {@link #ESCALATION_WEIGHT}</li>
+ *   <li>days since the student last posted, up to {@link #INACTIVITY_WEIGHT}</li>
+ *   <li>little participation (few answers and reviews), up to {@link #ENGAGEMENT_WEIGHT}</li>
+ * </ul>
+ * Each component reaches its cap at the saturation constant below it, so one
+ * extreme signal cannot hide the others.</p>
+ */
+public class StudentRisk {
+
+    /** Points for open questions. */
+    public static final double OPEN_QUESTIONS_WEIGHT = 30;
+    /** Open questions at which that component is full. */
+    public static final int OPEN_QUESTIONS_SATURATION = 5;
+
+    /** Points for the longest current wait. */
+    public static final double WAIT_WEIGHT = 25;
+    /** Hours of waiting at which that component is full. */
+    public static final double WAIT_SATURATION_HOURS = 72;
+
+    /** Points for escalations. */
+    public static final double ESCALATION_WEIGHT = 25;
+    /** Escalation points (open 2, closed 1) at which that component is full. */
+    public static final int ESCALATION_SATURATION = 4;
+
+    /** Points for inactivity. */
+    public static final double INACTIVITY_WEIGHT = 10;
+    /** Days without posting at which that component is full. */
+    public static final double INACTIVITY_SATURATION_DAYS = 14;
+
+    /** Points for low participation; halves with each answer or review written. */
+    public static final double ENGAGEMENT_WEIGHT = 10;
+
+    private final String userName;
+    private int openQuestions;
+    private Timestamp oldestOpenQuestion;
+    private int openEscalations;
+    private int closedEscalations;
+    private int contributions;
+    private Timestamp lastActivity;
+
+    /**
+     * Constructs an empty StudentRisk for a student.
+     *
+     * @param userName the student's username
+     */
+    public StudentRisk(String userName) {
+        this.userName = userName;
+    }
+
+    /**
+     * @return the student's username
+     */
+    public String getUserName() { return userName; }
+
+    /**
+     * @return the number of the student's questions without a resolving answer
+     */
+    public int getOpenQuestions() { return openQuestions; }
+
+    /**
+     * @return when the student's oldest open question was asked, or null if none is open
+     */
+    public Timestamp getOldestOpenQuestion() { return oldestOpenQuestion; }
+
+    /**
+     * @return the number of open escalations about the student
+     */
+    public int getOpenEscalations() { return openEscalations; }
+
+    /**
+     * @return the number of answers and reviews the student wrote
+     */
+    public int getContributions() { return contributions; }
+
+    /**
+     * @return the time of the student's latest question or answer, or null if none
+     */
+    public Timestamp getLastActivity() { return lastActivity; }
+
+    /**
+     * Computes the risk score as of the given time.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @return the score between 0 and 100
+     */
+    public double score(long nowMillis) {
+        double open = Math.min(openQuestions, OPEN_QUESTIONS_SATURATION) / (double) OPEN_QUESTIONS_SATURATION;
+        double waitHours = oldestOpenQuestion == null ? 0 : (nowMillis - oldestOpenQuestion.getTime()) / 3_600_000.0;
+        double wait = Math.min(Math.max(waitHours, 0), WAIT_SATURATION_HOURS) / WAIT_SATURATION_HOURS;
+        double escalation = Math.min(2 * openEscalations + closedEscalations, ESCALATION_SATURATION)
+                            / (double) ESCALATION_SATURATION;
+        double idleDays = lastActivity == null ? INACTIVITY_SATURATION_DAYS
+                          : (nowMillis - lastActivity.getTime()) / 86_400_000.0;
+        double inactivity = Math.min(Math.max(idleDays, 0), INACTIVITY_SATURATION_DAYS) / INACTIVITY_SATURATION_DAYS;
+        double engagement = Math.pow(0.5, contributions);
+        return OPEN_QUESTIONS_WEIGHT * open + WAIT_WEIGHT * wait + ESCALATION_WEIGHT * escalation
+               + INACTIVITY_WEIGHT * inactivity + ENGAGEMENT_WEIGHT * engagement;
+    }
+
+    void setOpenQuestions(int count, Timestamp oldest) {
+        this.openQuestions = count;
+        this.oldestOpenQuestion = oldest;
+    }
+
+    void setEscalations(int open, int closed) {
+        this.openEscalations = open;
+        this.closedEscalations = closed;
+    }
+
+    void addContributions(int count) {
+        this.contributions += count;
+    }
+
+    /**
+     * Moves the last activity time forward if the given time is later.
+     */
+    void noteActivity(Timestamp when) {
+        if (when != null && (lastActivity == null || when.after(lastActivity))) {
+            lastActivity = when;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps StudentRiskScores up to date so staff can see which students are struggling.
+ *
+ * <p>A full recompute runs every {@link #RUN_INTERVAL_MINUTES} minutes on
+ * {@link ParallelAnalyticsEngine}: students are split into username ranges, and each
+ * range reads its signals with one indexed range scan per table and writes its
+ * scores in one batch on its own connection. Between runs, writes that change a
+ * student's signals (a question asked or resolved, an answer, an escalation) queue
+ * that student; a background thread re-scores queued students in bursts, so the
+ * writer never waits for scoring. See {@link StudentRisk} for the score itself.</p>
+ */
+public class StudentRiskService {
+
+    /** Minutes between full recomputes. */
+    public static final long RUN_INTERVAL_MINUTES = 60;
+
+    /** Minutes after start before the first full recompute, so it never competes with startup. */
+    public static final long STARTUP_DELAY_MINUTES = 1;
+
+    /** Seconds {@link #shutdown()} waits for a re-score already running. */
+    private static final long SHUTDOWN_WAIT_SECONDS = 5;
+
+    private static final String MERGE_SQL = "MERGE INTO StudentRiskScores (student_id, risk_score, "
+        + "open_questions, oldest_open_question, open_escalations, contributions, last_activity, computed_at) "
+        + "KEY (student_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DatabaseHelper databaseHelper;
+    private final Set<String> pendingStudents = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> pendingQuestions = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler = null;
+
+    /**
+     * Constructs a StudentRiskService.
+     *
+     * @param databaseHelper the helper whose database holds the scores
+     */
+    public StudentRiskService(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+
+    /**
+     * Re-scores every student in parallel and drops scores of users who are no
+     * longer students.
+     *
+     * @return the number of students scored
+     * @throws SQLException if a partition fails; partitions already written keep their new scores
+     */
+    public int recomputeAll() throws SQLException {
+        ParallelAnalyticsEngine engine = databaseHelper.getAnalyticsEngine();
+        String term = databaseHelper.getActiveTerm();
+        Timestamp runStart = new Timestamp(System.currentTimeMillis());
+        Map<String, StudentRisk> scored = engine.computeByPartition(engine.loadStudentKeys(), (c, first, last) -> {
+            Map<String, StudentRisk> risks = riskForRange(c, first, last, term);
+            save(c, risks.values());
+            return risks;
+        });
+        try (Connection c = databaseHelper.openConnection();
+             PreparedStatement pstmt = c.prepareStatement("DELETE FROM StudentRiskScores WHERE computed_at < ?")) {
+            pstmt.setTimestamp(1, runStart);
+            pstmt.executeUpdate();
+        }
+        return scored.size();
+    }
+
+    /**
+     * Reads every student's risk signals in a username range: one range scan each
+     * over Questions, Answers, Reviews and StaffEscalations.
+     */
+    static Map<String, StudentRisk> riskForRange(Connection c, String first, String last, String term)
+            throws SQLException {
+        Map<String, StudentRisk> risks = new HashMap<>();
+        String usersSql = "SELECT userName FROM cse360users WHERE userName BETWEEN ? AND ? AND userRole LIKE '%student%'";
+        try (ResultSet rs = ParallelAnalyticsEngine.rangeQuery(c, usersSql, first, last)) {
+            while (rs.next()) {
+                risks.put(rs.getString("userName"), new StudentRisk(rs.getString("userName")));
+            }
+        }
+        if (risks.isEmpty()) {
+            return risks;
+        }
+
+        String questionsSql = "SELECT userName, SUM(CASE WHEN needs_help THEN 1 ELSE 0 END) AS open_count, "
+                            + "MIN(CASE WHEN needs_help THEN created_date END) AS oldest_open, "
+                            + "MAX(created_date) AS last_activity FROM Questions "
+                            + "WHERE userName BETWEEN ? AND ? AND term = ? AND parent_question_id IS NULL "
+                            + "GROUP BY userName";
+        try (ResultSet rs = ParallelAnalyticsEngine.rangeQuery(c, questionsSql, first, last, term)) {
+            while (rs.next()) {
+                StudentRisk r = risks.get(rs.getString("userName"));
+                if (r != null) {
+                    r.setOpenQuestions(rs.getInt("open_count"), rs.getTimestamp("oldest_open"));
+                    r.noteActivity(rs.getTimestamp("last_activity"));
+                }
+            }
+        }
+
+        String answersSql = "SELECT userName, COUNT(*) AS answer_count, MAX(created_date) AS last_activity "
+                          + "FROM Answers WHERE userName BETWEEN ? AND ? AND term = ? GROUP BY userName";
+        try (ResultSet rs = ParallelAnalyticsEngine.rangeQuery(c, answersSql, first, last, term)) {
+            while (rs.next()) {
+                StudentRisk r = risks.get(rs.getString("userName"));
+                if (r != null) {
+                    r.addContributions(rs.getInt("answer_count"));
+                    r.noteActivity(rs.getTimestamp("last_activity"));
+                }
+            }
+        }
+
+        String reviewsSql = "SELECT reviewer, COUNT(*) AS review_count FROM Reviews "
+                          + "WHERE reviewer BETWEEN ? AND ? GROUP BY reviewer";
+        try (ResultSet rs = ParallelAnalyticsEngine.rangeQuery(c, reviewsSql, first, last)) {
+            while (rs.next()) {
+                StudentRisk r = risks.get(rs.getString("reviewer"));
+                if (r != null) {
+                    r.addContributions(rs.getInt("review_count"));
+                }
+            }
+        }
+
+        String escalationsSql = "SELECT student_id, SUM(CASE WHEN status = 'OPEN' THEN 1 ELSE 0 END) AS open_count, "
+                              + "SUM(CASE WHEN status <> 'OPEN' THEN 1 ELSE 0 END) AS closed_count "
+                              + "FROM StaffEscalations WHERE student_id BETWEEN ? AND ? GROUP BY student_id";
+        try (ResultSet rs = ParallelAnalyticsEngine.rangeQuery(c, escalationsSql, first, last)) {
+            while (rs.next()) {
+                StudentRisk r = risks.get(rs.getString("student_id"));
+                if (r != null) {
+                    r.setEscalations(rs.getInt("open_count"), rs.getInt("closed_count"));
+                }
+            }
+        }
+        return risks;
+    }
+
+    /**
+     * Writes scores in one batch.
+     */
+    private static void save(Connection c, Iterable<StudentRisk> risks) throws SQLException {
+        long now = System.currentTimeMillis();
+        Timestamp computedAt = new Timestamp(now);
+        try (PreparedStatement pstmt = c.prepareStatement(MERGE_SQL)) {
+            for (StudentRisk r : risks) {
+                pstmt.setString(1, r.getUserName());
+                pstmt.setDouble(2, Math.round(r.score(now) * 100) / 100.0);
+                pstmt.setInt(3, r.getOpenQuestions());
+                pstmt.setTimestamp(4, r.getOldestOpenQuestion());
+                pstmt.setInt(5, r.getOpenEscalations());
+                pstmt.setInt(6, r.getContributions());
+                pstmt.setTimestamp(7, r.getLastActivity());
+                pstmt.setTimestamp(8, computedAt);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Queues a student to be re-scored in the background.
+     *
+     * @param userName the student's username; non-students are ignored when scored
+     */
+    public void refreshStudentLater(String userName) {
+        if (userName != null && pendingStudents.add(userName)) {
+            submitDrain();
+        }
+    }
+
+    /**
+     * Queues the author of a question to be re-scored in the background.
+     *
+     * @param questionId the question id
+     */
+    public void refreshQuestionAuthorLater(int questionId) {
+        if (pendingQuestions.add(questionId)) {
+            submitDrain();
+        }
+    }
+
+    private synchronized void submitDrain() {
+        if (scheduler != null) {
+            scheduler.execute(this::drain);
+        }
+    }
+
+    /**
+     * Queues a full recompute on the scoring thread, behind any run or re-score
+     * already under way, so a recompute requested by staff never overlaps the hourly one
+     * and never runs on the caller's thread.
+     *
+     * @return completes with the number of students scored, or with the SQLException
+     *         of a failed run or if scoring is not running
+     */
+    public synchronized CompletableFuture<Integer> recomputeAllLater() {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        if (scheduler == null) {
+            result.completeExceptionally(new SQLException("Risk scoring is not running"));
+            return result;
+        }
+        scheduler.execute(() -> {
+            try {
+                result.complete(recomputeAll());
+            } catch (SQLException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Re-scores every queued student on one connection.
+     */
+    private void drain() {
+        if (pendingStudents.isEmpty() && pendingQuestions.isEmpty()) {
+            return;
+        }
+        String term = databaseHelper.getActiveTerm();
+        try (Connection c = databaseHelper.openConnection()) {
+            List<Integer> questions = new ArrayList<>(pendingQuestions);
+            pendingQuestions.removeAll(questions);
+            if (!questions.isEmpty()) {
+                try (PreparedStatement pstmt = c.prepareStatement("SELECT DISTINCT userName FROM Questions WHERE id = ANY(?)")) {
+                    pstmt.setObject(1, questions.toArray(new Integer[0]));
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            pendingStudents.add(rs.getString("userName"));
+                        }
+                    }
+                }
+            }
+            List<String> students = new ArrayList<>(pendingStudents);
+            pendingStudents.removeAll(students);
+            for (String student : students) {
+                save(c, riskForRange(c, student, student, term).values());
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Starts the hourly recompute and the incremental re-scoring thread unless they
+     * are already running. The first full recompute runs {@link #STARTUP_DELAY_MINUTES} after start.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "student-risk-scorer");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                recomputeAll();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }, STARTUP_DELAY_MINUTES, RUN_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops the background work and waits briefly for a re-score already running, so it
+     * does not outlive the helper's connection. Queued students are left unscored until
+     * the next start.
+     */
+    public void shutdown() {
+        ScheduledExecutorService stopping;
+        synchronized (this) {
+            stopping = scheduler;
+            scheduler = null;
+        }
+        if (stopping != null) {
+            stopping.shutdownNow();
+            try {
+                stopping.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package databasePart1;
+
+import java.time.LocalDate;
+import java.util.regex.Pattern;
+
+/**
+ * Semester terms and the tables that hold each term's Q&amp;A.
+ *
+ * <p>Terms are named {@code <year><SP|SU|FA>}: spring runs January to May, summer
+ * June and July, fall August to December. Every question and answer carries its
+ * term; an answer or clarification takes the term of the question it belongs to,
+ * so a whole thread always lives in one term. The live tables (Questions, Answers,
+ * Reviews) hold the active term and any terms not yet archived. Archived terms
+ * live in their own tables ({@code Questions_2026SP} and so on), which
+ * {@link DatabaseHelper} reads only when a past term is asked for.</p>
+ */
+public final class TermRouter {
+
+    private static final Pattern TERM = Pattern.compile("\\d{4}(SP|SU|FA)");
+
+    private TermRouter() {
+    }
+
+    /**
+     * Returns the term a date falls in.
+     *
+     * @param date the date
+     * @return the term code, e.g. {@code 2026FA}
+     */
+    public static String termFor(LocalDate date) {
+        int month = date.getMonthValue();
+        return date.getYear() + (month <= 5 ? "SP" : month <= 7 ? "SU" : "FA");
+    }
+
+    /**
+     * Checks a term code. Term codes become part of table names, so only well-formed
+     * codes are accepted.
+     *
+     * @param term the term code
+     * @return the term code
+     * @throws IllegalArgumentException if the code is malformed
+     */
+    public static String validate(String term) {
+        if (term == null || !TERM.matcher(term).matches()) {
+            throw new IllegalArgumentException("Invalid term code: " + term);
+        }
+        return term;
+    }
+
+    /**
+     * @param term an archived term
+     * @return the table holding the term's questions
+     */
+    static String questionsTable(String term) { return "Questions_" + validate(term); }
+
+    /**
+     * @param term an archived term
+     * @return the table holding the term's answers
+     */
+    static String answersTable(String term) { return "Answers_" + validate(term); }
+
+    /**
+     * @param term an archived term
+     * @return the table holding reviews of the term's questions and answers
+     */
+    static String reviewsTable(String term) { return "Reviews_" + validate(term); }
+}
@@ -0,0 +1,265 @@
+package databasePart1;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Live queue of main questions still waiting for help: not marked resolved and
+ * without a resolving answer. The oldest question comes first.
+ *
+ * <p>The queue mirrors the indexed Questions.needs_help flag. {@link DatabaseHelper}
+ * loads it from that flag on first use and then applies every write that can move
+ * a question in or out, so staff never wait for an anti-join of Questions and
+ * Answers. Entries sit in a skip list ordered by (created_date, id); a page starts
+ * right after the previous page's last entry, so reading any page costs
+ * O(log n + page size).</p>
+ *
+ * <p>Writes may commit while the queue is being loaded, after the load's query has
+ * read the table. Between {@link #beginLoad()} and {@link #finishLoad(long, List)} the
+ * queue records every question written, and the loader re-reads those questions once
+ * the load is in place, as {@link SimilarQuestionIndex} does for its build. Only this
+ * process's writes reach the queue, so on a shared database DatabaseHelper also
+ * reloads it when it is older than a short limit and when staff refresh it.</p>
+ */
+public class UnansweredQueue {
+
+    /**
+     * A question in the queue. An entry is also the cursor for the page after it.
+     */
+    public static class Entry {
+        private final int questionId;
+        private final String userName;
+        private final String title;
+        private final String term;
+        private final Timestamp createdDate;
+        private final int answerCount;
+
+        /**
+         * Constructs an Entry.
+         *
+         * @param questionId the question id
+         * @param userName the asking student's username
+         * @param title the question title
+         * @param term the question's term
+         * @param createdDate when the question was asked
+         * @param answerCount the number of answers so far, none of them resolving
+         */
+        public Entry(int questionId, String userName, String title, String term,
+                     Timestamp createdDate, int answerCount) {
+            this.questionId = questionId;
+            this.userName = userName;
+            this.title = title;
+            this.term = term;
+            this.createdDate = createdDate;
+            this.answerCount = answerCount;
+        }
+
+        /**
+         * @return the question id
+         */
+        public int getQuestionId() { return questionId; }
+
+        /**
+         * @return the asking student's username
+         */
+        public String getUserName() { return userName; }
+
+        /**
+         * @return the question title
+         */
+        public String getTitle() { return title; }
+
+        /**
+         * @return the question's term
+         */
+        public String getTerm() { return term; }
+
+        /**
+         * @return when the question was asked
+         */
+        public Timestamp getCreatedDate() { return createdDate; }
+
+        /**
+         * @return the number of answers so far, none of them resolving
+         */
+        public int getAnswerCount() { return answerCount; }
+
+        Entry withAnswerCount(int count) {
+            return new Entry(questionId, userName, title, term, createdDate, count);
+        }
+
+        Entry withTitle(String newTitle) {
+            return new Entry(questionId, userName, newTitle, term, createdDate, answerCount);
+        }
+    }
+
+    private final ConcurrentSkipListMap<Entry, Boolean> queue = new ConcurrentSkipListMap<>((a, b) -> {
+        int byDate = a.createdDate.compareTo(b.createdDate);
+        return byDate != 0 ? byDate : Integer.compare(a.questionId, b.questionId);
+    });
+    private final Map<Integer, Entry> byQuestion = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+    private volatile boolean loading = false;
+    private long generation = 0;
+    private Set<Integer> pending = new HashSet<>();
+
+    /**
+     * Adds a question or replaces its entry.
+     *
+     * @param entry the question's entry
+     */
+    public synchronized void put(Entry entry) {
+        noteWrite(entry.questionId);
+        Entry previous = byQuestion.put(entry.questionId, entry);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+        queue.put(entry, Boolean.TRUE);
+    }
+
+    /**
+     * Removes a question, e.g. once it is resolved.
+     *
+     * @param questionId the question id
+     */
+    public synchronized void remove(int questionId) {
+        noteWrite(questionId);
+        Entry previous = byQuestion.remove(questionId);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+    }
+
+    /**
+     * Records one more non-resolving answer on a queued question.
+     *
+     * @param questionId the question id
+     */
+    public synchronized void answerAdded(int questionId) {
+        noteWrite(questionId);
+        Entry previous = byQuestion.get(questionId);
+        if (previous != null) {
+            put(previous.withAnswerCount(previous.answerCount + 1));
+        }
+    }
+
+    /**
+     * Updates the title shown for a queued question.
+     *
+     * @param questionId the question id
+     * @param title the new title
+     */
+    public synchronized void titleChanged(int questionId, String title) {
+        noteWrite(questionId);
+        Entry previous = byQuestion.get(questionId);
+        if (previous != null) {
+            put(previous.withTitle(title));
+        }
+    }
+
+    /**
+     * Returns a page of the queue, oldest question first.
+     *
+     * @param after the last entry of the previous page, or null for the first page
+     * @param limit the maximum number of entries
+     * @return up to limit entries
+     */
+    public List<Entry> page(Entry after, int limit) {
+        List<Entry> page = new ArrayList<>(Math.min(limit, 64));
+        Iterator<Entry> it = (after == null ? queue : queue.tailMap(after, false)).keySet().iterator();
+        while (page.size() < limit && it.hasNext()) {
+            page.add(it.next());
+        }
+        return page;
+    }
+
+    /**
+     * @param questionId the question id
+     * @return true if the question is waiting for help
+     */
+    public boolean contains(int questionId) {
+        return byQuestion.containsKey(questionId);
+    }
+
+    /**
+     * @return the number of questions waiting
+     */
+    public int size() {
+        return byQuestion.size();
+    }
+
+    /**
+     * @return true once the queue has been loaded from the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return true once a load has started, from when writes must be applied to the queue
+     */
+    public boolean isTracking() {
+        return loaded || loading;
+    }
+
+    /**
+     * Starts recording the questions written until {@link #finishLoad(long, List)}.
+     * Call before running the load's query.
+     *
+     * @return the load's generation, passed to finishLoad
+     */
+    public synchronized long beginLoad() {
+        loading = true;
+        pending = new HashSet<>();
+        return generation;
+    }
+
+    /**
+     * Replaces the queue contents with the questions flagged in the database, unless
+     * the queue was invalidated while they were read.
+     *
+     * @param loadGeneration the value returned by {@link #beginLoad()}
+     * @param entries every waiting question
+     * @return the questions written during the load, which the caller re-reads;
+     *         empty if the load was superseded
+     */
+    public synchronized Set<Integer> finishLoad(long loadGeneration, List<Entry> entries) {
+        if (loadGeneration != generation) {
+            return new HashSet<>();
+        }
+        Set<Integer> written = pending;
+        pending = new HashSet<>();
+        loading = false;
+        queue.clear();
+        byQuestion.clear();
+        for (Entry e : entries) {
+            put(e);
+        }
+        loaded = true;
+        return written;
+    }
+
+    /**
+     * Marks the queue stale so it is reloaded before its next use. A load in progress
+     * is discarded when it finishes.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        loaded = false;
+        loading = false;
+        pending = new HashSet<>();
+    }
+
+    private void noteWrite(int questionId) {
+        if (loading) {
+            pending.add(questionId);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package databasePart1;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * An authenticated user's identity, roles and permissions, created by
+ * {@link DatabaseHelper#login} and shared by every page the user opens.
+ *
+ * <p>Sessions are immutable. When a user's roles change, DatabaseHelper replaces the
+ * session with a fresh one, so pages should look it up through
+ * {@link DatabaseHelper#getSession(String)} rather than holding on to it.</p>
+ */
+public class UserSession {
+
+    /**
+     * Actions gated by role.
+     */
+    public enum Permission {
+        /** See every question and answer in the content dashboard. */
+        VIEW_ALL_CONTENT,
+        /** Read and post on the private staff discussion board. */
+        STAFF_DISCUSSION,
+        /** Open student analytics. */
+        VIEW_ANALYTICS,
+        /** Create and track escalation requests. */
+        MANAGE_ESCALATIONS,
+        /** Moderate questions and answers. */
+        MODERATE_CONTENT,
+        /** Write reviews of questions and answers. */
+        REVIEW_CONTENT,
+        /** Approve or reject reviewer role requests. */
+        REVIEW_ROLE_REQUESTS,
+        /** Manage user accounts and roles. */
+        MANAGE_USERS
+    }
+
+    private final String userName;
+    private final String displayName;
+    private final String email;
+    private final Set<String> roles;
+    private final Set<Permission> permissions;
+
+    /**
+     * Constructs a UserSession from a user's stored details.
+     *
+     * @param userName the username
+     * @param displayName the user's display name, or null to use the username
+     * @param email the user's email address
+     * @param roleString the comma-separated roles as stored in cse360users.userRole
+     */
+    public UserSession(String userName, String displayName, String email, String roleString) {
+        this.userName = userName;
+        this.displayName = displayName == null || displayName.isEmpty() ? userName : displayName;
+        this.email = email;
+        Set<String> parsed = new LinkedHashSet<>();
+        if (roleString != null) {
+            for (String role : roleString.split(",")) {
+                if (!role.trim().isEmpty()) {
+                    parsed.add(role.trim().toLowerCase());
+                }
+            }
+        }
+        this.roles = Collections.unmodifiableSet(parsed);
+        this.permissions = Collections.unmodifiableSet(permissionsFor(parsed));
+    }
+
+    private static EnumSet<Permission> permissionsFor(Set<String> roles) {
+        EnumSet<Permission> granted = EnumSet.noneOf(Permission.class);
+        if (roles.contains("staff") || roles.contains("instructor")) {
+            granted.addAll(EnumSet.of(Permission.VIEW_ALL_CONTENT, Permission.STAFF_DISCUSSION,
+                Permission.VIEW_ANALYTICS, Permission.MANAGE_ESCALATIONS, Permission.MODERATE_CONTENT));
+        }
+        if (roles.contains("reviewer")) {
+            granted.add(Permission.REVIEW_CONTENT);
+        }
+        if (roles.contains("instructor")) {
+            granted.add(Permission.REVIEW_ROLE_REQUESTS);
+        }
+        if (roles.contains("admin")) {
+            granted.add(Permission.MANAGE_USERS);
+        }
+        return granted;
+    }
+
+    /**
+     * @return the username
+     */
+    public String getUserName() { return userName; }
+
+    /**
+     * @return the display name, falling back to the username
+     */
+    public String getDisplayName() { return displayName; }
+
+    /**
+     * @return the user's email address
+     */
+    public String getEmail() { return email; }
+
+    /**
+     * @return the user's roles, lower case
+     */
+    public Set<String> getRoles() { return roles; }
+
+    /**
+     * @param role the role name
+     * @return true if the user holds the role
+     */
+    public boolean hasRole(String role) {
+        return role != null && roles.contains(role.toLowerCase());
+    }
+
+    /**
+     * @param permission the permission
+     * @return true if any of the user's roles grants it
+     */
+    public boolean can(Permission permission) {
+        return permissions.contains(permission);
+    }
+
+    /**
+     * @return true if the user has the staff role
+     */
+    public boolean isStaff() {
+        return roles.contains("staff");
+    }
+}
@@ -0,0 +1,255 @@
+package test;
+
+import databasePart1.ActivitySketches;
+import databasePart1.CountMinSketch;
+import databasePart1.DatabaseConfig;
+import databasePart1.DatabaseHelper;
+import databasePart1.HyperLogLog;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Tests for the approximate analytics sketches used by StaffAnalyticsPage.
+ * Using simple test framework without external dependencies.
+ *
+ * <p>Error bounds verified here:</p>
+ * <ul>
+ *   <li>HyperLogLog (precision 12, 4096 registers): relative standard error is
+ *       1.04 / sqrt(4096) = 1.625%. Estimates are checked to fall within 3 standard
+ *       errors (4.9%), which holds for about 99.7% of inputs. Below 2.5 * 4096 distinct
+ *       items linear counting is used, and estimates are checked within 2%.</li>
+ *   <li>Count-min sketch (epsilon 0.005, delta 0.01): estimates never undercount, and
+ *       each estimate exceeds the true count by more than epsilon * N with probability
+ *       at most 1%. The test checks no estimate undercounts and at most 1% of keys
+ *       exceed the bound.</li>
+ *   <li>Heavy hitters: on a skewed stream the true top 5 posters must all appear
+ *       in the tracked top 10.</li>
+ *   <li>Shared windows: two helpers on one database, standing in for two desktops,
+ *       record and save the same week at once. The stored post total must equal every
+ *       post recorded, and the distinct estimate must cover both helpers' users.</li>
+ * </ul>
+ * All streams use fixed seeds so results are reproducible.
+ */
+public class ActivitySketchTests {
+
+    private int passed = 0;
+    private int failed = 0;
+
+    private void check(boolean condition, String message) {
+        if (condition) {
+            passed++;
+            System.out.println("✓ PASS: " + message);
+        } else {
+            failed++;
+            System.out.println("FAIL: " + message);
+        }
+    }
+
+    // Test 1: HyperLogLog estimates stay within 3 standard errors at several scales
+    public void testHyperLogLogAccuracy() {
+        System.out.println("=== Test 1: HyperLogLog accuracy ===");
+        for (int n : new int[] { 20_000, 100_000, 500_000 }) {
+            HyperLogLog hll = new HyperLogLog();
+            for (int i = 0; i < n; i++) {
+                hll.add("student" + i);
+                hll.add("student" + (i / 2)); // duplicates must not count
+            }
+            double error = Math.abs(hll.estimate() - n) / (double) n;
+            double bound = 3 * hll.standardError();
+            check(error <= bound, String.format("n=%d estimate=%d error=%.2f%% (bound %.2f%%)",
+                n, hll.estimate(), error * 100, bound * 100));
+        }
+        System.out.println();
+    }
+
+    // Test 2: Small cohorts use linear counting and are close to exact
+    public void testHyperLogLogSmallCardinality() {
+        System.out.println("=== Test 2: HyperLogLog small cardinality ===");
+        for (int n : new int[] { 0, 1, 50, 500, 5_000 }) {
+            HyperLogLog hll = new HyperLogLog();
+            for (int i = 0; i < n; i++) {
+                hll.add("user" + i);
+            }
+            long estimate = hll.estimate();
+            check(Math.abs(estimate - n) <= Math.max(1, n * 0.02),
+                "n=" + n + " estimate=" + estimate + " (within 2%)");
+        }
+        System.out.println();
+    }
+
+    // Test 3: Merged sketches estimate the size of the union
+    public void testHyperLogLogMerge() {
+        System.out.println("=== Test 3: HyperLogLog merge ===");
+        HyperLogLog week1 = new HyperLogLog();
+        HyperLogLog week2 = new HyperLogLog();
+        for (int i = 0; i < 60_000; i++) {
+            week1.add("s" + i);
+        }
+        for (int i = 40_000; i < 100_000; i++) {
+            week2.add("s" + i);
+        }
+        week1.merge(week2);
+        double error = Math.abs(week1.estimate() - 100_000) / 100_000.0;
+        check(error <= 3 * week1.standardError(),
+            String.format("union estimate=%d error=%.2f%%", week1.estimate(), error * 100));
+        System.out.println();
+    }
+
+    // Test 4: Count-min estimates never undercount and respect epsilon * N
+    public void testCountMinErrorBound() {
+        System.out.println("=== Test 4: Count-min error bound ===");
+        CountMinSketch cms = new CountMinSketch();
+        Map<String, Integer> exact = new HashMap<>();
+        Random random = new Random(42);
+        int keys = 5_000;
+        for (int i = 0; i < 200_000; i++) {
+            // Skewed stream: low-numbered students post far more often
+            String key = "student" + (int) (keys * Math.pow(random.nextDouble(), 3));
+            cms.add(key);
+            exact.merge(key, 1, Integer::sum);
+        }
+        int under = 0;
+        int overBound = 0;
+        double bound = cms.errorBound();
+        for (Map.Entry<String, Integer> e : exact.entrySet()) {
+            long estimate = cms.estimate(e.getKey());
+            if (estimate < e.getValue()) {
+                under++;
+            }
+            if (estimate - e.getValue() > bound) {
+                overBound++;
+            }
+        }
+        check(under == 0, "no estimate undercounts (" + exact.size() + " keys)");
+        double overFraction = overBound / (double) exact.size();
+        check(overFraction <= CountMinSketch.DEFAULT_DELTA,
+            String.format("%.2f%% of keys exceed epsilon*N=%.0f (allowed %.0f%%)",
+                overFraction * 100, bound, CountMinSketch.DEFAULT_DELTA * 100));
+        System.out.println();
+    }
+
+    // Test 5: Heavy-hitter heap contains the true top posters
+    public void testHeavyHitters() {
+        System.out.println("=== Test 5: Heavy hitters ===");
+        CountMinSketch cms = new CountMinSketch();
+        Map<String, Integer> exact = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            String key = "student" + (int) (10_000 * Math.pow(random.nextDouble(), 4));
+            cms.add(key);
+            exact.merge(key, 1, Integer::sum);
+        }
+        Set<String> tracked = new HashSet<>();
+        for (CountMinSketch.HeavyHitter h : cms.topHitters()) {
+            tracked.add(h.getKey());
+        }
+        List<Map.Entry<String, Integer>> sorted = new java.util.ArrayList<>(exact.entrySet());
+        sorted.sort((a, b) -> b.getValue() - a.getValue());
+        boolean allFound = true;
+        for (int i = 0; i < 5; i++) {
+            allFound &= tracked.contains(sorted.get(i).getKey());
+        }
+        check(allFound, "true top 5 posters are in the tracked top " + CountMinSketch.DEFAULT_TOP_K);
+        System.out.println();
+    }
+
+    // Test 6: Weekly sketches survive compressed persistence unchanged
+    public void testPersistenceRoundTrip() {
+        System.out.println("=== Test 6: Sketch persistence round trip ===");
+        LocalDate week = ActivitySketches.windowStart(LocalDate.of(2026, 10, 15));
+        check(week.equals(LocalDate.of(2026, 10, 12)), "window starts on Monday " + week);
+
+        ActivitySketches sketches = new ActivitySketches(week);
+        for (int i = 0; i < 3_000; i++) {
+            sketches.record("student" + (i % 700));
+        }
+        byte[] distinct = sketches.distinctUsersBytes();
+        byte[] posts = sketches.postsBytes();
+        ActivitySketches restored = ActivitySketches.fromBytes(week, distinct, posts);
+
+        check(restored.estimateDistinctUsers() == sketches.estimateDistinctUsers(),
+            "distinct estimate preserved (" + restored.estimateDistinctUsers() + ")");
+        check(restored.topPosters().size() == sketches.topPosters().size()
+              && restored.topPosters().get(0).getCount() == sketches.topPosters().get(0).getCount(),
+            "top posters preserved");
+        System.out.println("  Persisted size: " + (distinct.length + posts.length) + " bytes");
+        System.out.println();
+    }
+
+    // Test 7: Two processes saving the same window merge instead of overwriting
+    public void testSharedWindowSaves() {
+        System.out.println("=== Test 7: Concurrent saves of a shared window ===");
+        LocalDate week = LocalDate.of(2026, 10, 12);
+        DatabaseHelper first = new DatabaseHelper(DatabaseConfig.inMemory("sketch-merge"));
+        DatabaseHelper second = new DatabaseHelper(DatabaseConfig.inMemory("sketch-merge"));
+        try {
+            first.connectToDatabase();
+            second.connectToDatabase();
+            ActivitySketches[] sketches = { new ActivitySketches(week), new ActivitySketches(week) };
+            DatabaseHelper[] helpers = { first, second };
+            Thread[] threads = new Thread[2];
+            SQLException[] errors = new SQLException[2];
+            for (int t = 0; t < 2; t++) {
+                int side = t;
+                threads[t] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < 1_000; i++) {
+                            sketches[side].record("student" + (side * 500 + i % 1_000));
+                            if (i % 50 == 49) {
+                                helpers[side].saveActivitySketches(sketches[side]);
+                            }
+                        }
+                    } catch (SQLException e) {
+                        errors[side] = e;
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            check(errors[0] == null && errors[1] == null, "both helpers saved without errors");
+            // Saving also takes in what the other helper saved since
+            first.saveActivitySketches(sketches[0]);
+
+            ActivitySketches stored = first.loadActivitySketches(week);
+            // The error bound is e / width times the stored total
+            long storedTotal = Math.round(stored.postCountErrorBound() * 544 / Math.E);
+            check(storedTotal == 2_000, "stored post total counts every post once (" + storedTotal + ")");
+            long distinct = stored.estimateDistinctUsers();
+            check(Math.abs(distinct - 1_500) <= 1_500 * 0.02,
+                "stored distinct users cover both helpers (" + distinct + ", true 1500)");
+            check(sketches[0].estimateDistinctUsers() == distinct,
+                "after a save, a helper's sketches hold what the other saved");
+        } catch (SQLException | InterruptedException e) {
+            check(false, "shared window test failed: " + e);
+        } finally {
+            first.closeConnection();
+            second.closeConnection();
+        }
+        System.out.println();
+    }
+
+    // Main method to run all tests
+    public static void main(String[] args) {
+        System.out.println("=== Approximate Analytics Sketch Tests ===\n");
+
+        ActivitySketchTests test = new ActivitySketchTests();
+        test.testHyperLogLogAccuracy();
+        test.testHyperLogLogSmallCardinality();
+        test.testHyperLogLogMerge();
+        test.testCountMinErrorBound();
+        test.testHeavyHitters();
+        test.testPersistenceRoundTrip();
+        test.testSharedWindowSaves();
+
+        System.out.println("=== TEST EXECUTION SUMMARY ===");
+        System.out.println("Checks passed: " + test.passed + ", failed: " + test.failed);
+    }
+}
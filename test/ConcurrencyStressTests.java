@@ -0,0 +1,360 @@
+package test;
+
+import databasePart1.DatabaseHelper;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Concurrency stress tests for DatabaseHelper.
+ * Using simple test framework without external dependencies.
+ *
+ * <p>Each level restores the same fixture into a fresh in-memory database and runs
+ * {@link #OPS_PER_THREAD} operations on each of N threads sharing one helper, as the
+ * JavaFX pages, the staff API and the background services do. About half the
+ * operations read (staff content, activity metrics, escalations, discussions,
+ * moderation history, history pages, the help queue, risk scores) and half write
+ * (questions, answers, moderation, escalations, discussion replies).</p>
+ *
+ * <p>After each level the test checks:</p>
+ * <ul>
+ *   <li>Errors: no operation threw, and nothing was written to stderr. Most helper
+ *       methods log SQL errors instead of throwing, so stderr is captured.</li>
+ *   <li>Data races: every write landed exactly once. Row counts, discussion reply
+ *       counts, activity rollup totals and the in-memory help queue all agree with
+ *       the number of writes the threads made.</li>
+ *   <li>Leaked cursors: the statement behind every returned ResultSet is closed once
+ *       the ResultSet is, and no extra database sessions stay open.</li>
+ * </ul>
+ * Throughput and latency percentiles are printed per level, so the curve as threads
+ * are added can be compared between changes.
+ */
+public class ConcurrencyStressTests {
+
+    private static final int[] THREAD_COUNTS = { 1, 2, 4, 8, 16 };
+    private static final int OPS_PER_THREAD = 250;
+    private static final long LEVEL_TIMEOUT_SECONDS = 120;
+
+    private static final int STUDENTS = 50;
+    private static final int STAFF = 8;
+    private static final int QUESTIONS = 300;
+    private static final int THREADS = 10;
+
+    private int passed = 0;
+    private int failed = 0;
+
+    private void check(boolean condition, String message) {
+        if (condition) {
+            passed++;
+            System.out.println("✓ PASS: " + message);
+        } else {
+            failed++;
+            System.out.println("FAIL: " + message);
+        }
+    }
+
+    /** Writes made by all threads of one level. */
+    private static class Writes {
+        final AtomicInteger questions = new AtomicInteger();
+        final AtomicInteger answers = new AtomicInteger();
+        final AtomicInteger moderations = new AtomicInteger();
+        final AtomicInteger moderationLogs = new AtomicInteger();
+        final AtomicInteger escalations = new AtomicInteger();
+        final AtomicInteger resolved = new AtomicInteger();
+        final AtomicIntegerArray replies = new AtomicIntegerArray(THREADS + 1);
+        final AtomicInteger openStatements = new AtomicInteger();
+    }
+
+    private static final TestDatabase.Fixture FIXTURE = (db, c) -> {
+        String term = db.getActiveTerm();
+        LocalDateTime now = LocalDateTime.now();
+        Random random = new Random(7);
+        c.setAutoCommit(false);
+        try (PreparedStatement users = c.prepareStatement(
+                "INSERT INTO cse360users (userName, password, userRole, name, email) VALUES (?, 'x', ?, ?, ?)")) {
+            for (int i = 0; i < STUDENTS + STAFF; i++) {
+                String name = i < STUDENTS ? "student" + i : "staff" + (i - STUDENTS);
+                users.setString(1, name);
+                users.setString(2, i < STUDENTS ? "student" : "staff");
+                users.setString(3, name);
+                users.setString(4, name + "@asu.edu");
+                users.addBatch();
+            }
+            users.executeBatch();
+        }
+        try (PreparedStatement questions = c.prepareStatement("INSERT INTO Questions "
+                + "(userName, title, text, created_date, term, needs_help) VALUES (?, ?, ?, ?, ?, TRUE)")) {
+            for (int i = 1; i <= QUESTIONS; i++) {
+                questions.setString(1, "student" + random.nextInt(STUDENTS));
+                questions.setString(2, "Seeded question " + i);
+                questions.setString(3, "Seeded question text " + i);
+                questions.setTimestamp(4, Timestamp.valueOf(now.minusHours(random.nextInt(24 * 60))));
+                questions.setString(5, term);
+                questions.addBatch();
+            }
+            questions.executeBatch();
+        }
+        try (PreparedStatement answers = c.prepareStatement("INSERT INTO Answers "
+                + "(text, userName, question_id, created_date, term) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= QUESTIONS * 2; i++) {
+                answers.setString(1, "Seeded answer " + i);
+                answers.setString(2, "student" + random.nextInt(STUDENTS));
+                answers.setInt(3, (i + 1) / 2);
+                answers.setTimestamp(4, Timestamp.valueOf(now.minusHours(random.nextInt(24 * 60))));
+                answers.setString(5, term);
+                answers.addBatch();
+            }
+            answers.executeBatch();
+        }
+        try (PreparedStatement escalations = c.prepareStatement("INSERT INTO StaffEscalations "
+                + "(staff_id, student_id, issue_type, description) VALUES (?, ?, 'ACADEMIC', 'Seeded')")) {
+            for (int i = 0; i < 40; i++) {
+                escalations.setString(1, "staff" + i % STAFF);
+                escalations.setString(2, "student" + i % STUDENTS);
+                escalations.addBatch();
+            }
+            escalations.executeBatch();
+        }
+        try (PreparedStatement threads = c.prepareStatement(
+                "INSERT INTO StaffDiscussions (staff_id, title, content) VALUES (?, ?, 'Seeded thread')")) {
+            for (int i = 1; i <= THREADS; i++) {
+                threads.setString(1, "staff" + i % STAFF);
+                threads.setString(2, "Thread " + i);
+                threads.addBatch();
+            }
+            threads.executeBatch();
+        }
+        c.commit();
+        c.setAutoCommit(true);
+    };
+
+    /** Reads every row, then records whether the statement behind the ResultSet stayed open. */
+    private static void drain(ResultSet rs, Writes writes) throws SQLException {
+        Statement statement = rs.getStatement();
+        try (ResultSet r = rs) {
+            while (r.next()) {
+                r.getObject(1);
+            }
+        }
+        if (statement != null && !statement.isClosed()) {
+            writes.openStatements.incrementAndGet();
+        }
+    }
+
+    /** One randomly chosen operation; returns normally or throws what the helper threw. */
+    private static void operation(DatabaseHelper db, Random random, Writes writes, List<Integer> ownEscalations)
+            throws Exception {
+        String student = "student" + random.nextInt(STUDENTS);
+        String staff = "staff" + random.nextInt(STAFF);
+        int roll = random.nextInt(100);
+        if (roll < 8) {
+            drain(db.getAllContentForStaff(), writes);
+        } else if (roll < 16) {
+            drain(db.getStudentActivityMetrics(), writes);
+        } else if (roll < 24) {
+            drain(db.getOpenEscalations(), writes);
+        } else if (roll < 30) {
+            drain(db.getStaffDiscussions(), writes);
+        } else if (roll < 36) {
+            drain(db.getModerationHistory("QUESTION", 1 + random.nextInt(QUESTIONS)), writes);
+        } else if (roll < 42) {
+            db.getStudentContentHistoryPage(student, null, 20);
+        } else if (roll < 48) {
+            db.getUnansweredQuestions(null, 20);
+        } else if (roll < 52) {
+            drain(db.getTopRiskStudents(10), writes);
+        } else if (roll < 64) {
+            db.setQuestion(student, "Stress question", "Asked under load by " + student, null);
+            writes.questions.incrementAndGet();
+        } else if (roll < 76) {
+            db.setAnswer(student, "Answered under load", 1 + random.nextInt(QUESTIONS));
+            writes.answers.incrementAndGet();
+        } else if (roll < 81) {
+            db.moderateContent(staff, "QUESTION", 1 + random.nextInt(QUESTIONS), "REVIEWED", "Stress test");
+            writes.moderations.incrementAndGet();
+        } else if (roll < 86) {
+            db.logContentModeration(staff, "ANSWER", 1 + random.nextInt(QUESTIONS), "EDIT", "before", "after");
+            writes.moderationLogs.incrementAndGet();
+        } else if (roll < 91) {
+            int id = db.createEscalationRequest(staff, student, "ACADEMIC", "Raised under load", "MEDIUM");
+            ownEscalations.add(id);
+            writes.escalations.incrementAndGet();
+        } else if (roll < 94) {
+            if (!ownEscalations.isEmpty()
+                && db.updateEscalationStatus(ownEscalations.remove(ownEscalations.size() - 1), "RESOLVED", staff)) {
+                writes.resolved.incrementAndGet();
+            }
+        } else {
+            // Thread 0 does not exist, so some replies take the rollback path
+            int thread = random.nextInt(THREADS + 1);
+            if (db.addStaffDiscussionReply(staff, thread, "Reply under load")) {
+                writes.replies.incrementAndGet(thread);
+            }
+        }
+    }
+
+    private static long count(Connection c, String sql) throws SQLException {
+        try (Statement s = c.createStatement(); ResultSet rs = s.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /** Counts the database's sessions, waiting briefly for background work to finish. */
+    private static long quietSessions(Connection c, long expected) throws SQLException, InterruptedException {
+        long sessions = count(c, "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS");
+        for (int i = 0; i < 50 && sessions > expected; i++) {
+            Thread.sleep(100);
+            sessions = count(c, "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS");
+        }
+        return sessions;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    public void testLevel(TestDatabase.Snapshot snapshot, int threads) throws Exception {
+        System.out.println("=== " + threads + " thread(s) x " + OPS_PER_THREAD + " operations ===");
+        DatabaseHelper db = snapshot.restore();
+        try (Connection c = TestDatabase.connect(db)) {
+            String questionsSql = "SELECT COUNT(*) FROM Questions";
+            String answersSql = "SELECT COUNT(*) FROM Answers";
+            String moderationSql = "SELECT COUNT(*) FROM ContentModeration";
+            String logSql = "SELECT COUNT(*) FROM StaffModerationLog";
+            String escalationsSql = "SELECT COUNT(*) FROM StaffEscalations";
+            String openSql = "SELECT COUNT(*) FROM StaffEscalations WHERE status = 'OPEN'";
+            String rollupSql = "SELECT COALESCE(SUM(activity_count), 0) FROM ActivityRollups "
+                             + "WHERE granularity = 'DAY' AND content_type IN ('QUESTION', 'ANSWER')";
+            long questions = count(c, questionsSql);
+            long answers = count(c, answersSql);
+            long moderations = count(c, moderationSql);
+            long logs = count(c, logSql);
+            long escalations = count(c, escalationsSql);
+            long open = count(c, openSql);
+            long rollups = count(c, rollupSql);
+            // Load the help queue and open the reporting connection before the run
+            db.getUnansweredQuestionCount();
+            drain(db.getStudentActivityMetrics(), new Writes());
+            long sessions = quietSessions(c, 0);
+
+            Writes writes = new Writes();
+            ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            long[][] latencies = new long[threads][OPS_PER_THREAD];
+            ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+            PrintStream originalErr = System.err;
+            System.setErr(new PrintStream(stderr, true, StandardCharsets.UTF_8));
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            long elapsed;
+            boolean finished;
+            try {
+                for (int t = 0; t < threads; t++) {
+                    int worker = t;
+                    pool.execute(() -> {
+                        Random random = new Random(threads * 1_000L + worker);
+                        List<Integer> ownEscalations = new ArrayList<>();
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        for (int i = 0; i < OPS_PER_THREAD; i++) {
+                            long begin = System.nanoTime();
+                            try {
+                                operation(db, random, writes, ownEscalations);
+                            } catch (Throwable e) {
+                                errors.add(e);
+                            }
+                            latencies[worker][i] = System.nanoTime() - begin;
+                        }
+                    });
+                }
+                long begin = System.nanoTime();
+                start.countDown();
+                pool.shutdown();
+                finished = pool.awaitTermination(LEVEL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                elapsed = System.nanoTime() - begin;
+            } finally {
+                pool.shutdownNow();
+                System.setErr(originalErr);
+            }
+
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("  %.0f ops/s, latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                all.length / (elapsed / 1e9), percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6,
+                all[all.length - 1] / 1e6);
+
+            check(finished, threads + " threads finished within " + LEVEL_TIMEOUT_SECONDS + " s (no deadlock)");
+            check(errors.isEmpty(), "no operation threw (" + errors.size() + " errors"
+                + (errors.isEmpty() ? "" : ", first: " + errors.peek()) + ")");
+            String log = stderr.toString(StandardCharsets.UTF_8);
+            check(log.isEmpty(), "nothing logged to stderr"
+                + (log.isEmpty() ? "" : ", first line: " + log.lines().findFirst().orElse("")));
+
+            check(count(c, questionsSql) == questions + writes.questions.get(),
+                "every question stored once (" + writes.questions.get() + " asked)");
+            check(count(c, answersSql) == answers + writes.answers.get(),
+                "every answer stored once (" + writes.answers.get() + " posted)");
+            check(count(c, moderationSql) == moderations + writes.moderations.get()
+                  && count(c, logSql) == logs + writes.moderationLogs.get(),
+                "every moderation action and log entry stored once");
+            check(count(c, escalationsSql) == escalations + writes.escalations.get()
+                  && count(c, openSql) == open + writes.escalations.get() - writes.resolved.get(),
+                "escalations created and resolved exactly as requested");
+            boolean repliesMatch = true;
+            for (int thread = 1; thread <= THREADS; thread++) {
+                long stored = count(c, "SELECT COUNT(*) FROM StaffDiscussions WHERE parent_id = " + thread);
+                long counted = count(c, "SELECT reply_count FROM StaffDiscussions WHERE id = " + thread);
+                repliesMatch &= stored == writes.replies.get(thread) && counted == stored;
+            }
+            check(repliesMatch, "discussion reply counts match the replies stored");
+            check(count(c, rollupSql) == rollups + writes.questions.get() + writes.answers.get(),
+                "activity rollups counted every question and answer once");
+            check(db.getUnansweredQuestionCount()
+                  == count(c, "SELECT COUNT(*) FROM Questions WHERE needs_help"),
+                "help queue matches the needs_help flags");
+
+            check(writes.openStatements.get() == 0,
+                "no statement left open after its ResultSet closed (" + writes.openStatements.get() + " open)");
+            long after = quietSessions(c, sessions);
+            check(after <= sessions, "no database sessions leaked (" + sessions + " before, " + after + " after)");
+        } finally {
+            db.closeConnection();
+        }
+        System.out.println();
+    }
+
+    // Main method to run all tests
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== DatabaseHelper Concurrency Stress Tests ===\n");
+
+        TestDatabase.Snapshot snapshot = TestDatabase.snapshot(FIXTURE);
+        ConcurrencyStressTests test = new ConcurrencyStressTests();
+        for (int threads : THREAD_COUNTS) {
+            test.testLevel(snapshot, threads);
+        }
+
+        System.out.println("=== TEST EXECUTION SUMMARY ===");
+        System.out.println("Checks passed: " + test.passed + ", failed: " + test.failed);
+    }
+}
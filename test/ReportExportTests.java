@@ -0,0 +1,199 @@
+package test;
+
+import databasePart1.DatabaseHelper;
+import databasePart1.ReportExporter;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory and output tests for ReportExporter.
+ * Using simple test framework without external dependencies.
+ *
+ * <p>A report is exported from a cursor, so the heap an export needs must not grow
+ * with the report. The large test seeds {@link #LARGE_QUESTIONS} questions and
+ * {@link #LARGE_ANSWERS} answers, a million content rows, and exports the content
+ * report to a stream that counts and discards the bytes. A sampler thread collects
+ * garbage every {@link #SAMPLE_MILLIS} ms and records the live heap; its peak may
+ * exceed the live heap before the export by at most {@link #HEAP_GROWTH_BUDGET_MB}
+ * MB, a small fraction of the exported bytes. An export that collected its rows, or
+ * sorted them in an in-memory temporary result, would hold most of them at once.
+ * H2 spills large sorts to disk instead, which keeps the heap flat but delays the
+ * first row until every row is sorted, so the first bytes must also arrive within
+ * 1/{@link #FIRST_BYTES_SHARE} of the export time.</p>
+ */
+public class ReportExportTests {
+
+    private static final int STUDENTS = 1_000;
+    private static final int LARGE_QUESTIONS = 250_000;
+    private static final int LARGE_ANSWERS = 750_000;
+    private static final long SAMPLE_MILLIS = 1_000;
+    private static final long HEAP_GROWTH_BUDGET_MB = 48;
+    private static final long FIRST_BYTES_SHARE = 20;
+
+    private int passed = 0;
+    private int failed = 0;
+
+    private void check(boolean condition, String message) {
+        if (condition) {
+            passed++;
+            System.out.println("✓ PASS: " + message);
+        } else {
+            failed++;
+            System.out.println("FAIL: " + message);
+        }
+    }
+
+    /**
+     * Seeds students, then questions and answers of the active term, generated in SQL
+     * rather than sent row by row.
+     */
+    private static TestDatabase.Fixture fixture(int questions, int answers) {
+        return (db, c) -> {
+            String term = db.getActiveTerm();
+            try (PreparedStatement users = c.prepareStatement(
+                    "INSERT INTO cse360users (userName, password, userRole, name, email) "
+                    + "SELECT 'student' || X, 'x', 'student', 'Student ' || X, 'student' || X || '@asu.edu' "
+                    + "FROM SYSTEM_RANGE(0, ?)")) {
+                users.setInt(1, STUDENTS - 1);
+                users.executeUpdate();
+            }
+            try (PreparedStatement pstmt = c.prepareStatement(
+                    "INSERT INTO Questions (userName, title, text, term) "
+                    + "SELECT 'student' || MOD(X, ?), 'Question ' || X, 'How do I handle case ' || X || '?', ? "
+                    + "FROM SYSTEM_RANGE(1, ?)")) {
+                pstmt.setInt(1, STUDENTS);
+                pstmt.setString(2, term);
+                pstmt.setInt(3, questions);
+                pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = c.prepareStatement(
+                    "INSERT INTO Answers (text, userName, question_id, term) "
+                    + "SELECT 'Try approach ' || X, 'student' || MOD(X * 7, ?), "
+                    + "(SELECT MIN(id) FROM Questions) + MOD(X, ?), ? FROM SYSTEM_RANGE(1, ?)")) {
+                pstmt.setInt(1, STUDENTS);
+                pstmt.setInt(2, questions);
+                pstmt.setString(3, term);
+                pstmt.setInt(4, answers);
+                pstmt.executeUpdate();
+            }
+        };
+    }
+
+    /** Counts the bytes written to it and drops them, noting when the first arrived. */
+    private static class CountingStream extends OutputStream {
+        long bytes = 0;
+        long firstWrite = 0;
+
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (bytes == 0) {
+                firstWrite = System.nanoTime();
+            }
+            bytes += len;
+        }
+    }
+
+    private static long liveHeap(MemoryMXBean memory) {
+        memory.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    public void testContentLayout() throws Exception {
+        System.out.println("=== Content report layout ===");
+        DatabaseHelper db = TestDatabase.open(fixture(30, 60));
+        try {
+            ByteArrayOutputStream csv = new ByteArrayOutputStream();
+            long rows = db.exportReport(ReportExporter.Report.CONTENT, ReportExporter.Format.CSV, csv);
+            List<String> lines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+            check(rows == 90 && lines.size() == 91, "CSV holds one header and every question and answer ("
+                + rows + " rows, " + lines.size() + " lines)");
+            check(lines.stream().filter(l -> l.startsWith("content_type,")).count() == 1,
+                "CSV header written once");
+            check(lines.subList(1, 31).stream().allMatch(l -> l.startsWith("QUESTION,"))
+                  && lines.subList(31, 91).stream().allMatch(l -> l.startsWith("ANSWER,")),
+                "questions come before answers");
+
+            ByteArrayOutputStream jsonl = new ByteArrayOutputStream();
+            rows = db.exportReport(ReportExporter.Report.CONTENT, ReportExporter.Format.JSONL, jsonl);
+            check(rows == 90 && jsonl.toString(StandardCharsets.UTF_8).lines().count() == 90,
+                "JSON Lines holds one line per question and answer");
+        } finally {
+            db.closeConnection();
+        }
+        System.out.println();
+    }
+
+    public void testFlatHeap() throws Exception {
+        System.out.println("=== " + (LARGE_QUESTIONS + LARGE_ANSWERS) + " content rows ===");
+        long start = System.nanoTime();
+        DatabaseHelper db = TestDatabase.open(fixture(LARGE_QUESTIONS, LARGE_ANSWERS));
+        System.out.printf("  Seeded in %.0f ms%n", (System.nanoTime() - start) / 1e6);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        try {
+            long before = liveHeap(memory);
+            AtomicLong peak = new AtomicLong(before);
+            AtomicBoolean running = new AtomicBoolean(true);
+            Thread sampler = new Thread(() -> {
+                while (running.get()) {
+                    try {
+                        Thread.sleep(SAMPLE_MILLIS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    peak.accumulateAndGet(liveHeap(memory), Math::max);
+                }
+            }, "heap-sampler");
+            sampler.setDaemon(true);
+
+            CountingStream out = new CountingStream();
+            start = System.nanoTime();
+            sampler.start();
+            long rows;
+            try {
+                rows = db.exportReport(ReportExporter.Report.CONTENT, ReportExporter.Format.CSV, out);
+            } finally {
+                running.set(false);
+                sampler.join();
+            }
+            long elapsed = System.nanoTime() - start;
+            long firstByte = out.firstWrite - start;
+            long growthMb = (peak.get() - before) / (1024 * 1024);
+            System.out.printf("  Exported %d rows, %d MB in %.0f ms, first bytes after %.0f ms; "
+                + "live heap %d MB before, peak +%d MB%n", rows, out.bytes / (1024 * 1024), elapsed / 1e6,
+                firstByte / 1e6, before / (1024 * 1024), growthMb);
+
+            check(rows == LARGE_QUESTIONS + LARGE_ANSWERS, "every question and answer exported (" + rows + ")");
+            check(growthMb <= HEAP_GROWTH_BUDGET_MB, "live heap grew by at most " + HEAP_GROWTH_BUDGET_MB
+                + " MB during the export (" + growthMb + " MB)");
+            check(firstByte * FIRST_BYTES_SHARE <= elapsed, "first bytes written within 1/" + FIRST_BYTES_SHARE
+                + " of the export time, so rows stream instead of being sorted first");
+        } finally {
+            db.closeConnection();
+        }
+        System.out.println();
+    }
+
+    // Main method to run all tests
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== ReportExporter Tests ===\n");
+
+        ReportExportTests test = new ReportExportTests();
+        test.testContentLayout();
+        test.testFlatHeap();
+
+        System.out.println("=== TEST EXECUTION SUMMARY ===");
+        System.out.println("Checks passed: " + test.passed + ", failed: " + test.failed);
+    }
+}
@@ -0,0 +1,179 @@
+package test;
+
+import application.Question;
+import databasePart1.ActivitySketches;
+import databasePart1.CacheVersions;
+import databasePart1.DatabaseConfig;
+import databasePart1.DatabaseHelper;
+import databasePart1.DatabaseServer;
+import databasePart1.QuestionDuplicateIndex;
+import databasePart1.ReviewerLeaderboard;
+import databasePart1.SimilarQuestionIndex;
+import databasePart1.UnansweredQueue;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.util.List;
+import org.h2.store.fs.FileUtils;
+
+/**
+ * Tests that a desktop sharing the database drops its in-memory copies when another
+ * desktop writes, see CacheVersions.
+ * Using simple test framework without external dependencies.
+ *
+ * <p>One helper hosts the database in server mode and another connects as a client,
+ * standing in for two desktops. The client first fills its caches, then the host
+ * writes to every cached data set. Once {@link CacheVersions#CHECK_INTERVAL_NANOS}
+ * has passed, every read on the client must reflect the host's writes.</p>
+ */
+public class SharedCacheTests {
+
+    private int passed = 0;
+    private int failed = 0;
+
+    private void check(boolean condition, String message) {
+        if (condition) {
+            passed++;
+            System.out.println("✓ PASS: " + message);
+        } else {
+            failed++;
+            System.out.println("FAIL: " + message);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static double trustScore(DatabaseHelper db, String reviewerId) throws Exception {
+        for (ReviewerLeaderboard.ReviewerScore s : db.getTopReviewers(10)) {
+            if (s.getReviewerId().equals(reviewerId)) {
+                return s.getTrustScore();
+            }
+        }
+        return -1;
+    }
+
+    private static UnansweredQueue.Entry queued(DatabaseHelper db, int questionId) throws Exception {
+        for (UnansweredQueue.Entry e : db.getUnansweredQuestions(null, 100)) {
+            if (e.getQuestionId() == questionId) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isDuplicate(DatabaseHelper db, int questionId, int of) throws Exception {
+        for (QuestionDuplicateIndex.Match m : db.getProbableDuplicates(of)) {
+            if (m.getQuestionId() == questionId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSuggested(DatabaseHelper db, int questionId) throws Exception {
+        List<SimilarQuestionIndex.Match> matches = db.getSimilarResolvedQuestions(
+            "Merge two sorted linked lists", "How do I merge sorted linked lists in Java", 5);
+        for (SimilarQuestionIndex.Match m : matches) {
+            if (m.getQuestionId() == questionId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFlagged(DatabaseHelper db, int questionId) throws Exception {
+        try (ResultSet rs = db.getModerationHistory("QUESTION", questionId)) {
+            return rs.next();
+        }
+    }
+
+    public void testWritesOnAnotherDesktop() throws Exception {
+        System.out.println("=== Writes on another desktop ===");
+        Path directory = Files.createTempDirectory("shared-cache");
+        String path = directory.resolve("shared").toString();
+        int port = freePort();
+        DatabaseHelper host = new DatabaseHelper(
+            new DatabaseConfig(DatabaseConfig.Mode.SERVER, path, "localhost", port, "sa", ""));
+        DatabaseHelper desk = new DatabaseHelper(
+            new DatabaseConfig(DatabaseConfig.Mode.CLIENT, path, "localhost", port, "sa", ""));
+        try {
+            host.connectToDatabase();
+            TestDatabase.addUser(host, "alice", "student");
+            TestDatabase.addUser(host, "rev", "student,reviewer");
+            int question = host.insertQuestion("alice", "Merge two sorted lists",
+                "How do I merge sorted linked lists in Java");
+            host.updateReviewerScorecard("rev", 3, 3.0, 0.5, 30.0);
+
+            // The client fills every cache
+            desk.connectToDatabase();
+            check(!desk.getSession("alice").hasRole("reviewer"), "desk session starts without the reviewer role");
+            Question first = desk.getQuestion(question);
+            check(first != null && desk.getQuestion(question) == first,
+                "desk serves a repeated question read from its cache");
+            String term = desk.getActiveTerm();
+            double score = trustScore(desk, "rev");
+            check(score > 0, "desk leaderboard holds the reviewer");
+            check(queued(desk, question) != null, "desk help queue holds the question");
+            check(desk.getProbableDuplicates(question).isEmpty(), "desk finds no duplicates yet");
+            check(!isSuggested(desk, question), "desk does not suggest the unresolved question");
+            int unflagged = desk.insertQuestion("alice", "Zebra sorting", "Sorting zebra stripes by width");
+            check(!isFlagged(desk, unflagged), "desk prefilter flags nothing before the term is added");
+            long distinct = desk.getWeeklyActivitySketches().estimateDistinctUsers();
+
+            // The host writes to every cached data set
+            host.updateUserRoles("alice", "student,reviewer");
+            host.updateQuestion(question, "Merge two sorted linked lists", "How do I merge sorted linked lists in Java");
+            int duplicate = host.insertQuestion("alice", "Merge two sorted linked lists",
+                "How do I merge sorted linked lists in Java");
+            host.questionResolved(question, true);
+            host.setActiveTerm("2031SP");
+            host.addModerationTerm("zebra", "rev");
+            host.updateReviewerScorecard("rev", 9, 5.0, 1.0, 1.0);
+            ActivitySketches sketches = host.getWeeklyActivitySketches();
+            for (int i = 0; i < 200; i++) {
+                sketches.record("student" + i);
+            }
+            host.saveActivitySketches(sketches);
+
+            Thread.sleep(CacheVersions.CHECK_INTERVAL_NANOS / 1_000_000 + 500);
+
+            check(desk.getSession("alice").hasRole("reviewer"), "desk session picks up the new role");
+            Question reloaded = desk.getQuestion(question);
+            check(reloaded != null && reloaded != first, "desk reloads the question the host wrote");
+            check(!term.equals("2031SP") && desk.getActiveTerm().equals("2031SP"), "desk picks up the new active term");
+            check(trustScore(desk, "rev") > score, "desk leaderboard picks up the new scorecard");
+            check(queued(desk, question) == null && queued(desk, duplicate) != null,
+                "desk help queue drops the resolved question and holds the new one");
+            check(isDuplicate(desk, duplicate, question), "desk duplicate index holds the new question");
+            check(isSuggested(desk, question), "desk suggests the question once it is resolved");
+            int flagged = desk.insertQuestion("alice", "Zebra sorting again", "More zebra stripes");
+            check(isFlagged(desk, flagged), "desk prefilter flags the term the host added");
+            long after = desk.getWeeklyActivitySketches().estimateDistinctUsers();
+            check(after >= distinct + 196, "desk sketches take in the host's saved users (" + distinct
+                + " before, " + after + " after)");
+        } finally {
+            desk.closeConnection();
+            host.closeConnection();
+            DatabaseServer.stop();
+            FileUtils.deleteRecursive(directory.toString(), false);
+        }
+        System.out.println();
+    }
+
+    // Main method to run all tests
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Shared Cache Tests ===\n");
+
+        SharedCacheTests test = new SharedCacheTests();
+        test.testWritesOnAnotherDesktop();
+
+        System.out.println("=== TEST EXECUTION SUMMARY ===");
+        System.out.println("Checks passed: " + test.passed + ", failed: " + test.failed);
+    }
+}
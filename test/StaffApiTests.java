@@ -0,0 +1,359 @@
+package test;
+
+import databasePart1.DatabaseHelper;
+import databasePart1.StaffApiServer;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Behavior and load tests for StaffApiServer.
+ * Using simple test framework without external dependencies.
+ *
+ * <p>Each test starts a server on a free loopback port over a restored in-memory
+ * database and talks to it with the JDK HTTP client, as a script would.</p>
+ * <ul>
+ *   <li>Behavior: authentication and role checks, status codes for unknown paths,
+ *       bad parameters and unsupported methods, and keyset paging of replies.</li>
+ *   <li>Concurrent writes: replies posted at once by several staff members all land,
+ *       and the thread's reply count agrees with them.</li>
+ *   <li>Load: a burst of {@link #BURST} concurrent reads is answered with 200 or 503
+ *       only, nothing is logged to stderr and the server's database sessions close
+ *       with it. Latency percentiles are printed so runs can be compared between
+ *       changes.</li>
+ *   <li>Overload: a server with one request thread and a queue of one answers a burst
+ *       with some 503s carrying Retry-After, instead of queueing without limit.</li>
+ * </ul>
+ */
+public class StaffApiTests {
+
+    private static final int STAFF = 8;
+    private static final int STUDENTS = 20;
+    private static final int THREADS = 3;
+    private static final int CONCURRENT_REPLIES = 60;
+    private static final int BURST = 1000;
+    private static final long BURST_TIMEOUT_SECONDS = 120;
+    private static final String PASSWORD = "Secret1!";
+
+    private static final Pattern IDS = Pattern.compile("\"id\":(\\d+)");
+    private static final Pattern CREATED = Pattern.compile("\"created_date\":\"([^\"]+)\"");
+
+    private int passed = 0;
+    private int failed = 0;
+
+    private void check(boolean condition, String message) {
+        if (condition) {
+            passed++;
+            System.out.println("✓ PASS: " + message);
+        } else {
+            failed++;
+            System.out.println("FAIL: " + message);
+        }
+    }
+
+    private static final TestDatabase.Fixture FIXTURE = (db, c) -> {
+        c.setAutoCommit(false);
+        try (PreparedStatement users = c.prepareStatement(
+                "INSERT INTO cse360users (userName, password, userRole, name, email) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < STUDENTS + STAFF; i++) {
+                String name = i < STUDENTS ? "student" + i : "staff" + (i - STUDENTS);
+                users.setString(1, name);
+                users.setString(2, PASSWORD);
+                users.setString(3, i < STUDENTS ? "student" : "staff");
+                users.setString(4, name);
+                users.setString(5, name + "@asu.edu");
+                users.addBatch();
+            }
+            users.executeBatch();
+        }
+        try (PreparedStatement threads = c.prepareStatement(
+                "INSERT INTO StaffDiscussions (staff_id, title, content) VALUES (?, ?, 'Seeded thread')")) {
+            for (int i = 1; i <= THREADS; i++) {
+                threads.setString(1, "staff" + i % STAFF);
+                threads.setString(2, "Thread " + i);
+                threads.addBatch();
+            }
+            threads.executeBatch();
+        }
+        c.commit();
+        c.setAutoCommit(true);
+    };
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(30))
+        .build();
+
+    private static String basic(String user, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static HttpRequest.Builder request(StaffApiServer server, String path, String user) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(
+            URI.create("http://127.0.0.1:" + server.getPort() + path)).timeout(Duration.ofSeconds(60));
+        if (user != null) {
+            builder.header("Authorization", basic(user, PASSWORD));
+        }
+        return builder;
+    }
+
+    private static HttpRequest post(StaffApiServer server, String path, String user, String form) {
+        return request(server, path, user)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form))
+            .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private int status(HttpRequest request) throws Exception {
+        return send(request).statusCode();
+    }
+
+    private static List<String> all(Pattern pattern, String body) {
+        List<String> values = new ArrayList<>();
+        Matcher m = pattern.matcher(body);
+        while (m.find()) {
+            values.add(m.group(1));
+        }
+        return values;
+    }
+
+    private static long count(Connection c, String sql) throws SQLException {
+        try (Statement s = c.createStatement(); ResultSet rs = s.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /** Counts the database's sessions, waiting briefly for background work to finish. */
+    private static long quietSessions(Connection c, long expected) throws SQLException, InterruptedException {
+        long sessions = count(c, "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS");
+        for (int i = 0; i < 50 && sessions > expected; i++) {
+            Thread.sleep(100);
+            sessions = count(c, "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS");
+        }
+        return sessions;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    public void testBehavior(TestDatabase.Snapshot snapshot) throws Exception {
+        System.out.println("=== Behavior ===");
+        DatabaseHelper db = snapshot.restore();
+        StaffApiServer server = new StaffApiServer(db, 0, 4);
+        server.start();
+        try {
+            check(status(request(server, "/api/discussions", null).GET().build()) == 401,
+                "request without credentials is refused with 401");
+            check(status(request(server, "/api/discussions", null)
+                      .header("Authorization", basic("staff0", "wrong")).GET().build()) == 401,
+                "wrong password is refused with 401");
+            check(status(request(server, "/api/discussions", "student0").GET().build()) == 403,
+                "student credentials are refused with 403");
+            HttpResponse<String> list = send(request(server, "/api/discussions", "staff0").GET().build());
+            check(list.statusCode() == 200 && all(IDS, list.body()).size() == THREADS,
+                "staff member lists the discussion threads");
+            check(status(request(server, "/api/nothing", "staff0").GET().build()) == 404,
+                "unknown resource answers 404");
+            check(status(request(server, "/api/discussions?limit=many", "staff0").GET().build()) == 400,
+                "malformed limit answers 400");
+            check(status(request(server, "/api/discussions/1/replies?after=yesterday", "staff0").GET().build()) == 400,
+                "malformed after answers 400");
+            check(status(request(server, "/api/discussions", "staff0").DELETE().build()) == 405,
+                "unsupported method answers 405");
+            check(status(post(server, "/api/discussions/999/replies", "staff0", "content=Hello")) == 404,
+                "reply to a missing thread answers 404");
+            check(status(post(server, "/api/discussions/1/replies", "staff0", "")) == 400,
+                "reply without content answers 400");
+
+            for (int i = 0; i < 25; i++) {
+                if (status(post(server, "/api/discussions/1/replies", "staff" + i % STAFF, "content=Reply+" + i)) != 201) {
+                    check(false, "reply " + i + " posted with 201");
+                }
+            }
+            List<String> paged = new ArrayList<>();
+            String cursor = "";
+            int pages = 0;
+            while (pages++ < 10) {
+                String body = send(request(server, "/api/discussions/1/replies?limit=10" + cursor, "staff1")
+                    .GET().build()).body();
+                List<String> ids = all(IDS, body);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                paged.addAll(ids);
+                List<String> created = all(CREATED, body);
+                cursor = "&after=" + created.get(created.size() - 1) + "&afterId=" + ids.get(ids.size() - 1);
+            }
+            check(paged.size() == 25 && new HashSet<>(paged).size() == 25 && pages == 4,
+                "replies page by 10 with after/afterId, each reply once (" + paged.size() + " in " + (pages - 1) + " pages)");
+            HttpResponse<String> unlimited = send(request(server, "/api/discussions/1/replies", "staff1").GET().build());
+            check(unlimited.statusCode() == 200 && all(IDS, unlimited.body()).size() == 25,
+                "replies without paging parameters return the first page");
+        } finally {
+            server.stop();
+            db.closeConnection();
+        }
+        System.out.println();
+    }
+
+    public void testConcurrentWrites(TestDatabase.Snapshot snapshot) throws Exception {
+        System.out.println("=== " + CONCURRENT_REPLIES + " concurrent replies ===");
+        DatabaseHelper db = snapshot.restore();
+        StaffApiServer server = new StaffApiServer(db, 0, 4);
+        server.start();
+        try (Connection c = TestDatabase.connect(db)) {
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REPLIES; i++) {
+                int thread = 1 + i % THREADS;
+                responses.add(client.sendAsync(post(server, "/api/discussions/" + thread + "/replies",
+                    "staff" + i % STAFF, "content=Concurrent+" + i), HttpResponse.BodyHandlers.ofString()));
+            }
+            int created = 0;
+            for (CompletableFuture<HttpResponse<String>> r : responses) {
+                if (r.get(BURST_TIMEOUT_SECONDS, TimeUnit.SECONDS).statusCode() == 201) {
+                    created++;
+                }
+            }
+            check(created == CONCURRENT_REPLIES, "every concurrent reply answered 201 (" + created + ")");
+            boolean repliesMatch = true;
+            for (int thread = 1; thread <= THREADS; thread++) {
+                long stored = count(c, "SELECT COUNT(*) FROM StaffDiscussions WHERE parent_id = " + thread);
+                long counted = count(c, "SELECT reply_count FROM StaffDiscussions WHERE id = " + thread);
+                repliesMatch &= stored == CONCURRENT_REPLIES / THREADS && counted == stored;
+            }
+            check(repliesMatch, "discussion reply counts match the replies stored");
+        } finally {
+            server.stop();
+            db.closeConnection();
+        }
+        System.out.println();
+    }
+
+    /** Sends {@link #BURST} reads at once; returns the statuses and fills in the latencies. */
+    private List<Integer> burst(StaffApiServer server, long[] latencies, Set<String> retryAfter) throws Exception {
+        String[] paths = { "/api/discussions", "/api/escalations", "/api/discussions/1/replies", "/api/moderation" };
+        List<CompletableFuture<Integer>> responses = new ArrayList<>();
+        for (int i = 0; i < BURST; i++) {
+            int n = i;
+            long begin = System.nanoTime();
+            responses.add(client.sendAsync(request(server, paths[i % paths.length], "staff" + i % STAFF).GET().build(),
+                    HttpResponse.BodyHandlers.ofString())
+                .thenApply(r -> {
+                    latencies[n] = System.nanoTime() - begin;
+                    r.headers().firstValue("Retry-After").ifPresent(retryAfter::add);
+                    return r.statusCode();
+                }));
+        }
+        List<Integer> statuses = new ArrayList<>();
+        for (CompletableFuture<Integer> r : responses) {
+            statuses.add(r.get(BURST_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        return statuses;
+    }
+
+    public void testLoad(TestDatabase.Snapshot snapshot) throws Exception {
+        System.out.println("=== Burst of " + BURST + " concurrent requests ===");
+        DatabaseHelper db = snapshot.restore();
+        StaffApiServer server = new StaffApiServer(db, 0, StaffApiServer.DEFAULT_POOL_SIZE);
+        try (Connection c = TestDatabase.connect(db)) {
+            long sessions = quietSessions(c, 0);
+            server.start();
+            ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+            PrintStream originalErr = System.err;
+            System.setErr(new PrintStream(stderr, true, StandardCharsets.UTF_8));
+            long[] latencies = new long[BURST];
+            List<Integer> statuses;
+            long elapsed;
+            try {
+                long begin = System.nanoTime();
+                statuses = burst(server, latencies, new HashSet<>());
+                elapsed = System.nanoTime() - begin;
+            } finally {
+                System.setErr(originalErr);
+            }
+            long ok = statuses.stream().filter(s -> s == 200).count();
+            long busy = statuses.stream().filter(s -> s == 503).count();
+            long[] sorted = Arrays.stream(latencies).sorted().toArray();
+            System.out.printf("  %.0f req/s, %d ok, %d busy, latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                BURST / (elapsed / 1e9), ok, busy, percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+
+            check(ok + busy == BURST, "every request answered 200 or 503 (" + (BURST - ok - busy) + " other)");
+            check(ok > 0, "the burst was served (" + ok + " answered 200)");
+            String log = stderr.toString(StandardCharsets.UTF_8);
+            check(log.isEmpty(), "nothing logged to stderr"
+                + (log.isEmpty() ? "" : ", first line: " + log.lines().findFirst().orElse("")));
+            server.stop();
+            long after = quietSessions(c, sessions);
+            check(after <= sessions, "no database sessions leaked once the server stopped ("
+                + sessions + " before, " + after + " after)");
+        } finally {
+            server.stop();
+            db.closeConnection();
+        }
+        System.out.println();
+    }
+
+    public void testOverload(TestDatabase.Snapshot snapshot) throws Exception {
+        System.out.println("=== Overload: one request thread, queue of one ===");
+        DatabaseHelper db = snapshot.restore();
+        StaffApiServer server = new StaffApiServer(db, 0, 1, 1, 1);
+        server.start();
+        try {
+            Set<String> retryAfter = new HashSet<>();
+            List<Integer> statuses = burst(server, new long[BURST], retryAfter);
+            long ok = statuses.stream().filter(s -> s == 200).count();
+            long busy = statuses.stream().filter(s -> s == 503).count();
+            System.out.println("  " + ok + " ok, " + busy + " busy");
+            check(ok + busy == BURST, "every request answered 200 or 503");
+            check(busy > 0 && !retryAfter.isEmpty(), "requests beyond the queue answered 503 with Retry-After");
+            check(status(request(server, "/api/discussions", "staff0").GET().build()) == 200,
+                "the server recovers once the burst is over");
+        } finally {
+            server.stop();
+            db.closeConnection();
+        }
+        System.out.println();
+    }
+
+    // Main method to run all tests
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== StaffApiServer Tests ===\n");
+
+        TestDatabase.Snapshot snapshot = TestDatabase.snapshot(FIXTURE);
+        StaffApiTests test = new StaffApiTests();
+        test.testBehavior(snapshot);
+        test.testConcurrentWrites(snapshot);
+        test.testLoad(snapshot);
+        test.testOverload(snapshot);
+
+        System.out.println("=== TEST EXECUTION SUMMARY ===");
+        System.out.println("Checks passed: " + test.passed + ", failed: " + test.failed);
+    }
+}
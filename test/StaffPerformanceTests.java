@@ -0,0 +1,265 @@
+package test;
+
+import databasePart1.DatabaseHelper;
+import databasePart1.ReportExporter;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Performance regression tests for the staff data access methods of DatabaseHelper.
+ * Using simple test framework without external dependencies.
+ *
+ * <p>Each scale is seeded once into a {@link TestDatabase.Snapshot} with bulk SQL and
+ * restored into a private in-memory database, so timings do not depend on the state
+ * of {@code ~/FoundationDatabase}. Every operation runs {@link #WARMUP_RUNS} times
+ * untimed, then {@link #TIMED_RUNS} times; the median must stay within the
+ * operation's budget for the scale.</p>
+ *
+ * <p>Budgets are several times the medians measured when they were set, so they catch
+ * an operation that starts scanning or sorting far more than it should (a lost index,
+ * a query that grows with the content instead of the page) rather than machine noise.
+ * A budget is only raised together with the change that makes the operation slower
+ * on purpose.</p>
+ */
+public class StaffPerformanceTests {
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int TIMED_RUNS = 11;
+
+    /** Data scales: students, main questions (two answers each), escalations and discussion threads. */
+    private enum Scale {
+        SMALL(200, 2_000, 200, 100),
+        LARGE(2_000, 20_000, 2_000, 1_000);
+
+        final int students;
+        final int questions;
+        final int escalations;
+        final int threads;
+
+        Scale(int students, int questions, int escalations, int threads) {
+            this.students = students;
+            this.questions = questions;
+            this.escalations = escalations;
+            this.threads = threads;
+        }
+    }
+
+    /** A timed call against a restored database. */
+    private interface Operation {
+        void run(DatabaseHelper db) throws Exception;
+    }
+
+    private int passed = 0;
+    private int failed = 0;
+
+    private void check(boolean condition, String message) {
+        if (condition) {
+            passed++;
+            System.out.println("✓ PASS: " + message);
+        } else {
+            failed++;
+            System.out.println("FAIL: " + message);
+        }
+    }
+
+    /**
+     * Seeds students, staff, questions, answers, escalations and discussion threads,
+     * spread over the last 120 days, all in the active term.
+     */
+    private static TestDatabase.Fixture fixture(Scale scale) {
+        return (db, c) -> {
+            String term = db.getActiveTerm();
+            Random random = new Random(42);
+            LocalDateTime now = LocalDateTime.now();
+            c.setAutoCommit(false);
+            try (PreparedStatement users = c.prepareStatement(
+                    "INSERT INTO cse360users (userName, password, userRole, name, email) VALUES (?, 'x', ?, ?, ?)")) {
+                for (int i = 0; i < scale.students; i++) {
+                    addUser(users, "student" + i, "student");
+                }
+                for (int i = 0; i < 10; i++) {
+                    addUser(users, "staff" + i, "staff");
+                }
+                users.executeBatch();
+            }
+            try (PreparedStatement questions = c.prepareStatement("INSERT INTO Questions "
+                    + "(userName, title, text, resolved, created_date, term, needs_help) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= scale.questions; i++) {
+                    questions.setString(1, "student" + random.nextInt(scale.students));
+                    questions.setString(2, "Question " + i + " about project phase " + (i % 4 + 1));
+                    questions.setString(3, "How should the database helper handle case " + i + "?");
+                    questions.setBoolean(4, false);
+                    questions.setTimestamp(5, Timestamp.valueOf(now.minusMinutes(random.nextInt(120 * 24 * 60))));
+                    questions.setString(6, term);
+                    // Every third question has a resolving answer below
+                    questions.setBoolean(7, i % 3 != 0);
+                    questions.addBatch();
+                    if (i % 1_000 == 0) {
+                        questions.executeBatch();
+                    }
+                }
+                questions.executeBatch();
+            }
+            try (PreparedStatement answers = c.prepareStatement("INSERT INTO Answers "
+                    + "(text, userName, resolves, question_id, created_date, term) VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= scale.questions * 2; i++) {
+                    int question = (i + 1) / 2;
+                    answers.setString(1, "Try approach " + i);
+                    answers.setString(2, "student" + random.nextInt(scale.students));
+                    answers.setBoolean(3, question % 3 == 0 && i % 2 == 0);
+                    answers.setInt(4, question);
+                    answers.setTimestamp(5, Timestamp.valueOf(now.minusMinutes(random.nextInt(120 * 24 * 60))));
+                    answers.setString(6, term);
+                    answers.addBatch();
+                    if (i % 1_000 == 0) {
+                        answers.executeBatch();
+                    }
+                }
+                answers.executeBatch();
+            }
+            try (PreparedStatement escalations = c.prepareStatement("INSERT INTO StaffEscalations "
+                    + "(staff_id, student_id, issue_type, description, priority, status, created_date) "
+                    + "VALUES (?, ?, 'ACADEMIC', ?, 'MEDIUM', ?, ?)")) {
+                for (int i = 0; i < scale.escalations; i++) {
+                    escalations.setString(1, "staff" + i % 10);
+                    escalations.setString(2, "student" + random.nextInt(scale.students));
+                    escalations.setString(3, "Escalation " + i);
+                    escalations.setString(4, i % 4 == 0 ? "OPEN" : "RESOLVED");
+                    escalations.setTimestamp(5, Timestamp.valueOf(now.minusHours(random.nextInt(120 * 24))));
+                    escalations.addBatch();
+                }
+                escalations.executeBatch();
+            }
+            try (PreparedStatement threads = c.prepareStatement("INSERT INTO StaffDiscussions "
+                    + "(staff_id, title, content, created_date) VALUES (?, ?, ?, ?)")) {
+                for (int i = 0; i < scale.threads; i++) {
+                    threads.setString(1, "staff" + i % 10);
+                    threads.setString(2, "Thread " + i);
+                    threads.setString(3, "Discussion of grading policy " + i);
+                    threads.setTimestamp(4, Timestamp.valueOf(now.minusHours(random.nextInt(120 * 24))));
+                    threads.addBatch();
+                }
+                threads.executeBatch();
+            }
+            c.commit();
+            c.setAutoCommit(true);
+            db.recomputeStudentRisk();
+        };
+    }
+
+    private static void addUser(PreparedStatement users, String userName, String role) throws SQLException {
+        users.setString(1, userName);
+        users.setString(2, role);
+        users.setString(3, userName);
+        users.setString(4, userName + "@asu.edu");
+        users.addBatch();
+    }
+
+    private static int drain(ResultSet rs) throws SQLException {
+        int rows = 0;
+        try (ResultSet r = rs) {
+            while (r.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /** Times an operation and checks its median against the budget in milliseconds. */
+    private void measure(DatabaseHelper db, Scale scale, String name, long budgetMillis, Operation op)
+            throws Exception {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            op.run(db);
+        }
+        long[] times = new long[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            op.run(db);
+            times[i] = System.nanoTime() - start;
+        }
+        double medianMillis = median(times) / 1e6;
+        check(medianMillis <= budgetMillis, String.format("%s %s: median %.2f ms (budget %d ms)",
+            scale, name, medianMillis, budgetMillis));
+    }
+
+    private static long budget(Scale scale, long small, long large) {
+        return scale == Scale.SMALL ? small : large;
+    }
+
+    public void testScale(Scale scale) throws Exception {
+        System.out.println("=== " + scale + ": " + scale.students + " students, " + scale.questions
+            + " questions, " + scale.questions * 2 + " answers ===");
+
+        long start = System.nanoTime();
+        TestDatabase.Snapshot snapshot = TestDatabase.snapshot(fixture(scale));
+        System.out.printf("  Seeded and captured %d KB in %.0f ms%n", snapshot.size() / 1024,
+            (System.nanoTime() - start) / 1e6);
+
+        long[] restores = new long[5];
+        for (int i = 0; i < restores.length; i++) {
+            start = System.nanoTime();
+            DatabaseHelper restored = snapshot.restore();
+            restores[i] = System.nanoTime() - start;
+            restored.closeConnection();
+        }
+        double restoreMillis = median(restores) / 1e6;
+        check(restoreMillis <= budget(scale, 250, 250),
+            String.format("%s snapshot restore: median %.2f ms (budget %d ms)",
+                scale, restoreMillis, budget(scale, 250, 250)));
+
+        DatabaseHelper db = snapshot.restore();
+        try {
+            check(drain(db.getAllContentForStaff()) == scale.questions * 3,
+                scale + " staff content view lists every question and answer");
+
+            measure(db, scale, "getAllContentForStaff", budget(scale, 300, 2_500),
+                d -> drain(d.getAllContentForStaff()));
+            measure(db, scale, "getStudentActivityMetrics", budget(scale, 300, 1_600),
+                d -> drain(d.getStudentActivityMetrics()));
+            measure(db, scale, "getOpenEscalations", budget(scale, 20, 20),
+                d -> drain(d.getOpenEscalations()));
+            measure(db, scale, "getStaffDiscussionThreads (first page)", budget(scale, 10, 10),
+                d -> drain(d.getStaffDiscussionThreads(null, 0, 25)));
+            measure(db, scale, "getStudentContentHistoryPage (first page)", budget(scale, 30, 30),
+                d -> d.getStudentContentHistoryPage("student1", null, 25));
+            measure(db, scale, "getUnansweredQuestions (first page)", budget(scale, 5, 5),
+                d -> d.getUnansweredQuestions(null, 25));
+            measure(db, scale, "getTopRiskStudents(25)", budget(scale, 10, 25),
+                d -> drain(d.getTopRiskStudents(25)));
+            measure(db, scale, "recomputeStudentRisk", budget(scale, 250, 1_500),
+                DatabaseHelper::recomputeStudentRisk);
+            measure(db, scale, "exportReport CONTENT as CSV", budget(scale, 400, 2_500),
+                d -> d.exportReport(ReportExporter.Report.CONTENT, ReportExporter.Format.CSV,
+                    OutputStream.nullOutputStream()));
+        } finally {
+            db.closeConnection();
+        }
+        System.out.println();
+    }
+
+    // Main method to run all tests
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Staff DAO Performance Regression Tests ===\n");
+
+        StaffPerformanceTests test = new StaffPerformanceTests();
+        for (Scale scale : Scale.values()) {
+            test.testScale(scale);
+        }
+
+        System.out.println("=== TEST EXECUTION SUMMARY ===");
+        System.out.println("Checks passed: " + test.passed + ", failed: " + test.failed);
+    }
+}
@@ -11,15 +11,25 @@ import java.sql.SQLException;
 public class StaffRoleTests {
     
     private DatabaseHelper dbHelper;
-    private static final String TEST_STAFF_USER = "teststaff";
-    private static final String TEST_STUDENT_USER = "teststudent";
-    private static final String TEST_INSTRUCTOR_USER = "testinstructor";
-    
+    private static final String TEST_STAFF_USER = "staff1";
+    private static final String TEST_STUDENT_USER = "student1";
+    private static final String TEST_INSTRUCTOR_USER = "instructor1";
+
+    /** Users and content every test starts from, seeded once and restored per run. */
+    static final TestDatabase.Fixture STAFF_FIXTURE = (db, c) -> {
+        TestDatabase.addUser(db, TEST_STAFF_USER, "staff");
+        TestDatabase.addUser(db, TEST_STUDENT_USER, "student");
+        TestDatabase.addUser(db, "student2", "student");
+        TestDatabase.addUser(db, TEST_INSTRUCTOR_USER, "instructor");
+        db.setQuestion(TEST_STUDENT_USER, "JUnit Test Question 1", "This is a test question for JUnit testing", null);
+        db.setQuestion(TEST_STUDENT_USER, "JUnit Test Question 2", "Another test question for staff testing", null);
+        db.setAnswer("student2", "A test answer for staff review", 1);
+    };
+
     public void setUp() throws SQLException {
-        dbHelper = new DatabaseHelper();
-        dbHelper.connectToDatabase();
-        createTestUsers();
-        insertTestData();
+        // A private in-memory database, so the tests never depend on ~/FoundationDatabase
+        dbHelper = TestDatabase.snapshot(STAFF_FIXTURE).restore();
+        System.out.println("✓ Restored test fixture into an in-memory database");
     }
     
     public void tearDown() {
@@ -28,39 +38,6 @@ public class StaffRoleTests {
         }
     }
     
-    private void createTestUsers() throws SQLException {
-        // Create test users using the existing registration flow
-        try {
-            // Check if users exist first
-            if (!dbHelper.doesUserExist(TEST_STAFF_USER)) {
-                // We'll use existing users from the database for testing
-                System.out.println("Using existing database users for testing");
-            }
-            
-            if (!dbHelper.doesUserExist(TEST_STUDENT_USER)) {
-                System.out.println("Using existing database users for testing");
-            }
-            
-            if (!dbHelper.doesUserExist(TEST_INSTRUCTOR_USER)) {
-                System.out.println("Using existing database users for testing");
-            }
-        } catch (Exception e) {
-            System.out.println("Note: Using existing database users - " + e.getMessage());
-        }
-    }
-    
-    private void insertTestData() throws SQLException {
-        // Insert test questions using existing student users
-        // Use student1 or any existing student from your database
-        try {
-            dbHelper.setQuestion("student1", "JUnit Test Question 1", "This is a test question for JUnit testing", null);
-            dbHelper.setQuestion("student1", "JUnit Test Question 2", "Another test question for staff testing", null);
-            System.out.println("✓ Inserted test questions using student1");
-        } catch (Exception e) {
-            System.out.println("Note: Could not insert test questions - " + e.getMessage());
-        }
-    }
-    
     // Test 1: Staff can view all questions and answers
     public void testStaffCanViewAllContent() throws SQLException {
         System.out.println("=== Test 1: Staff can view all questions and answers ===");
@@ -99,8 +76,8 @@ public class StaffRoleTests {
         System.out.println("=== Test 2: Staff discussion board functionality ===");
         
         try {
-            // Use an existing staff user from your database
-            boolean addResult = dbHelper.addStaffDiscussion("staff1", "JUnit Test Discussion", "This is a test discussion post from JUnit tests");
+            // Staff user from the fixture
+            boolean addResult = dbHelper.addStaffDiscussion(TEST_STAFF_USER, "JUnit Test Discussion", "This is a test discussion post from JUnit tests");
             
             if (addResult) {
                 System.out.println("✓ PASS: Successfully added staff discussion");
@@ -175,9 +152,9 @@ public class StaffRoleTests {
         System.out.println("=== Test 4: Staff role verification ===");
         
         try {
-            // Test with actual users from your database
-            boolean isStaff = dbHelper.isStaffMember("staff1");
-            boolean studentIsStaff = dbHelper.isStaffMember("student1");
+            // Users from the fixture
+            boolean isStaff = dbHelper.isStaffMember(TEST_STAFF_USER);
+            boolean studentIsStaff = dbHelper.isStaffMember(TEST_STUDENT_USER);
             
             System.out.println("Staff user 'staff1' is staff: " + isStaff);
             System.out.println("Student user 'student1' is staff: " + studentIsStaff);
@@ -228,10 +205,10 @@ public class StaffRoleTests {
         System.out.println("=== Test 6: Escalation requests ===");
         
         try {
-            // Use existing users from your database
+            // Users from the fixture
             int escalationId = dbHelper.createEscalationRequest(
-                "staff1", 
-                "student1", 
+                TEST_STAFF_USER, 
+                TEST_STUDENT_USER, 
                 "JUnit Test Issue", 
                 "This is a test escalation created by JUnit tests for homework verification", 
                 "MEDIUM"
@@ -262,9 +239,9 @@ public class StaffRoleTests {
         
         try {
             boolean logResult = dbHelper.logContentModeration(
-                "staff1",
+                TEST_STAFF_USER,
                 "QUESTION",
-                1, // Use an existing question ID
+                1, // The fixture's first question
                 "JUNIT_TEST",
                 "Original test content",
                 "Modified test content"
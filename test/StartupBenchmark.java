@@ -0,0 +1,125 @@
+package test;
+
+import databasePart1.DatabaseConfig;
+import databasePart1.DatabaseHelper;
+import databasePart1.SchemaMigrations;
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Measures how long the application takes to connect to its database at startup.
+ * Using simple test framework without external dependencies.
+ *
+ * <p>Runs against a throwaway embedded database in a temporary directory:</p>
+ * <ul>
+ *   <li>Cold start: the first connect, which applies every schema migration.</li>
+ *   <li>Warm start: later connects, which find the schema current after one
+ *       version check. Reported as the median of {@link #RUNS} runs.</li>
+ *   <li>Replaying the schema: running every migration statement again on an
+ *       up-to-date database, which is what each launch did before the schema
+ *       was versioned.</li>
+ * </ul>
+ */
+public class StartupBenchmark {
+
+    private static final int RUNS = 15;
+
+    private int passed = 0;
+    private int failed = 0;
+    private final DatabaseConfig config;
+
+    public StartupBenchmark(String path) {
+        this.config = new DatabaseConfig(DatabaseConfig.Mode.EMBEDDED, path, "localhost", 9092, "sa", "");
+    }
+
+    private void check(boolean condition, String message) {
+        if (condition) {
+            passed++;
+            System.out.println("✓ PASS: " + message);
+        } else {
+            failed++;
+            System.out.println("FAIL: " + message);
+        }
+    }
+
+    private long connectMillis() throws SQLException {
+        DatabaseHelper db = new DatabaseHelper(config);
+        long start = System.nanoTime();
+        db.connectToDatabase();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        db.closeConnection();
+        return elapsed;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    // Benchmark 1: cold start against warm starts
+    public void benchmarkConnect() throws SQLException {
+        System.out.println("=== Benchmark 1: connectToDatabase ===");
+        long cold = connectMillis();
+        long[] warm = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            warm[i] = connectMillis();
+        }
+        System.out.println("  Cold start (" + SchemaMigrations.latestVersion() + " migrations): " + cold + " ms");
+        System.out.println("  Warm start (median of " + RUNS + "): " + median(warm) + " ms");
+        check(median(warm) <= cold, "warm start is no slower than cold start");
+        System.out.println();
+    }
+
+    // Benchmark 2: the schema check alone against replaying every migration
+    public void benchmarkSchemaCheck() throws SQLException {
+        System.out.println("=== Benchmark 2: schema check on a current database ===");
+        try (Connection c = DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
+             Statement s = c.createStatement()) {
+            long[] check = new long[RUNS];
+            long[] replay = new long[RUNS];
+            int applied = 0;
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                applied += SchemaMigrations.migrate(c);
+                check[i] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (SchemaMigrations.Migration m : SchemaMigrations.MIGRATIONS) {
+                    m.apply(s);
+                }
+                replay[i] = System.nanoTime() - start;
+            }
+            System.out.printf("  Version check (median): %.3f ms%n", median(check) / 1e6);
+            System.out.printf("  Replaying all migrations (median): %.3f ms%n", median(replay) / 1e6);
+            check(applied == 0, "no migration applied to a current schema");
+            check(median(check) < median(replay), "version check is faster than replaying the schema");
+        }
+        System.out.println();
+    }
+
+    // Main method to run all benchmarks
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Startup Benchmark ===\n");
+
+        File dir = Files.createTempDirectory("startup-benchmark").toFile();
+        try {
+            StartupBenchmark bench = new StartupBenchmark(new File(dir, "db").getAbsolutePath());
+            bench.benchmarkConnect();
+            bench.benchmarkSchemaCheck();
+
+            System.out.println("=== BENCHMARK SUMMARY ===");
+            System.out.println("Checks passed: " + bench.passed + ", failed: " + bench.failed);
+        } finally {
+            for (File f : dir.listFiles()) {
+                f.delete();
+            }
+            dir.delete();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package test;
+
+import application.Role;
+import application.User;
+import databasePart1.DatabaseConfig;
+import databasePart1.DatabaseHelper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.h2.store.fs.FileUtils;
+
+/**
+ * Private in-memory databases for tests.
+ *
+ * <p>Each test gets its own database held in memory, so tests never touch
+ * {@code ~/FoundationDatabase}, never see each other's rows and can run in parallel.
+ * Closing the returned {@link DatabaseHelper} discards the database.</p>
+ *
+ * <p>Seeding fixtures through the DatabaseHelper API is slow at scale, so a fixture is
+ * seeded once and captured as a {@link Snapshot}. The fixture is built as an ordinary
+ * H2 database file in H2's in-memory file system ({@code memFS:}), and the snapshot
+ * keeps that file's bytes, schema version included. {@link Snapshot#restore()} copies
+ * the bytes to a new in-memory file and opens it: no SQL is replayed, H2 reads pages
+ * as queries touch them, and the schema check on connect is a single query.</p>
+ */
+public class TestDatabase {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    /**
+     * Fills a database with test data, through the helper or, for bulk data, with SQL
+     * on the raw connection. Caches the helper keeps are rebuilt on restore either way.
+     */
+    public interface Fixture {
+        /**
+         * @param db a connected helper on the database being seeded
+         * @param c a separate connection to the same database
+         * @throws SQLException if seeding fails
+         */
+        void seed(DatabaseHelper db, Connection c) throws SQLException;
+    }
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Opens an empty database with the current schema.
+     *
+     * @return a connected helper; the caller closes it
+     * @throws SQLException if the database cannot be created
+     */
+    public static DatabaseHelper open() throws SQLException {
+        DatabaseHelper db = new DatabaseHelper(DatabaseConfig.inMemory("test" + DATABASES.incrementAndGet()));
+        db.connectToDatabase();
+        return db;
+    }
+
+    /**
+     * Opens a database with the current schema and seeds it with a fixture, without
+     * capturing it. For fixtures used once that are too large to copy as a snapshot.
+     *
+     * @param fixture the fixture
+     * @return a connected helper; the caller closes it
+     * @throws SQLException if the database cannot be created or seeded
+     */
+    public static DatabaseHelper open(Fixture fixture) throws SQLException {
+        DatabaseConfig config = DatabaseConfig.inMemory("test" + DATABASES.incrementAndGet());
+        DatabaseHelper db = new DatabaseHelper(config);
+        try {
+            db.connectToDatabase();
+            try (Connection c = DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword())) {
+                fixture.seed(db, c);
+            }
+        } catch (SQLException e) {
+            db.closeConnection();
+            throw e;
+        }
+        return db;
+    }
+
+    /**
+     * Seeds a new database with a fixture and captures it.
+     *
+     * @param fixture the fixture
+     * @return the snapshot
+     * @throws SQLException if seeding or capturing fails
+     */
+    public static Snapshot snapshot(Fixture fixture) throws SQLException {
+        String directory = newDirectory();
+        DatabaseConfig config = fileConfig(directory, false);
+        try {
+            DatabaseHelper db = new DatabaseHelper(config);
+            db.connectToDatabase();
+            try (Connection c = DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword())) {
+                fixture.seed(db, c);
+            } finally {
+                db.closeConnection();
+            }
+            // The last connection is closed, so H2 has written the complete file
+            try (InputStream in = FileUtils.newInputStream(directory + "/db.mv.db")) {
+                return new Snapshot(in.readAllBytes());
+            } catch (IOException e) {
+                throw new SQLException("Could not read snapshot of " + directory, e);
+            }
+        } finally {
+            FileUtils.deleteRecursive(directory, false);
+        }
+    }
+
+    /**
+     * Registers a user with the given comma-separated roles.
+     *
+     * @param db the helper
+     * @param userName the username, also used as the display name
+     * @param roles the roles as stored in cse360users.userRole, e.g. {@code "staff"}
+     * @throws SQLException if registration fails
+     */
+    public static void addUser(DatabaseHelper db, String userName, String roles) throws SQLException {
+        db.register(new User(userName, "Password1!", Role.student, userName, userName + "@asu.edu"));
+        db.updateUserRoles(userName, roles);
+    }
+
+    /**
+     * Opens a separate connection to a restored database, e.g. to check its contents
+     * with SQL the helper does not offer.
+     *
+     * @param db a helper returned by {@link Snapshot#restore()}
+     * @return a new connection; the caller closes it
+     * @throws SQLException if the connection cannot be opened
+     */
+    public static Connection connect(DatabaseHelper db) throws SQLException {
+        if (!(db instanceof RestoredDatabaseHelper)) {
+            throw new IllegalArgumentException("Not a restored test database");
+        }
+        DatabaseConfig config = ((RestoredDatabaseHelper) db).config;
+        return DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
+    }
+
+    private static String newDirectory() {
+        return "memFS:/test" + DATABASES.incrementAndGet();
+    }
+
+    /**
+     * Settings for the database file in an in-memory directory. Restored databases are
+     * opened with IFEXISTS, so a background task that outlives the helper gets an error
+     * instead of silently creating an empty database.
+     */
+    private static DatabaseConfig fileConfig(String directory, boolean mustExist) {
+        return new DatabaseConfig(DatabaseConfig.Mode.EMBEDDED, directory + "/db" + (mustExist ? ";IFEXISTS=TRUE" : ""),
+                                  "localhost", 9092, "sa", "");
+    }
+
+    /** A captured database that can be restored any number of times. */
+    public static class Snapshot {
+
+        private final byte[] file;
+
+        private Snapshot(byte[] file) {
+            this.file = file;
+        }
+
+        /**
+         * @return the size of the captured database file in bytes
+         */
+        public int size() {
+            return file.length;
+        }
+
+        /**
+         * Restores the snapshot into a new private database.
+         *
+         * @return a connected helper; closing it deletes the database
+         * @throws SQLException if the database cannot be restored
+         */
+        public DatabaseHelper restore() throws SQLException {
+            String directory = newDirectory();
+            try (OutputStream out = FileUtils.newOutputStream(directory + "/db.mv.db", false)) {
+                out.write(file);
+            } catch (IOException e) {
+                throw new SQLException("Could not restore snapshot to " + directory, e);
+            }
+            DatabaseHelper db = new RestoredDatabaseHelper(fileConfig(directory, true), directory);
+            try {
+                db.connectToDatabase();
+            } catch (SQLException e) {
+                db.closeConnection();
+                throw e;
+            }
+            return db;
+        }
+    }
+
+    /** A helper on a restored database that deletes the database when closed. */
+    private static class RestoredDatabaseHelper extends DatabaseHelper {
+
+        private final DatabaseConfig config;
+        private final String directory;
+
+        RestoredDatabaseHelper(DatabaseConfig config, String directory) {
+            super(config);
+            this.config = config;
+            this.directory = directory;
+        }
+
+        @Override
+        public void closeConnection() {
+            super.closeConnection();
+            FileUtils.deleteRecursive(directory, false);
+        }
+    }
+}